@@ -1,11 +1,18 @@
 package bank.accounts;
 
 import bank.accounts.composite.AccountComponent;
-import bank.accounts.states.ActiveState;
+import bank.accounts.states.AccountStates;
+import bank.common.Clocks;
+import bank.common.IdGenerator;
+import bank.events.EventBus;
+import bank.events.EventTopic;
 import bank.interest.InterestStrategy;
+import bank.notifications.AccountEvent;
+import bank.notifications.AccountEventKind;
 import bank.notifications.NotificationSubject;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Account Abstract Class - Base class for all account types
@@ -24,18 +31,41 @@ import java.util.UUID;
 public abstract class Account extends NotificationSubject implements AccountComponent {
     
     // Account basic information
-    private String accountId;
+    private final long id;
     private String accountHolder;
     private String accountType;
+    private final AccountKind kind;
     private double balance;
-    private LocalDateTime createdAt;
-    private LocalDateTime lastModified;
+    private long createdAt;      // epoch millis
+    private long lastModified;   // epoch millis
     
     // State management
     private AccountState currentState;
+    // currentState.getPermissions(), cached for the operation checks
+    private int statePermissions;
+    // Copy-on-write, guarded by this
+    private AccountStateListener[] stateListeners = NO_STATE_LISTENERS;
+    
+    private static final AccountStateListener[] NO_STATE_LISTENERS = new AccountStateListener[0];
+    
+    // Balance and state changes of all accounts, for caches (see changeCount)
+    private static final LongAdder CHANGES = new LongAdder();
+    
+    // Deliveries held back on this thread (see deferDeliveries)
+    private static final ThreadLocal<DeferredDeliveries> DEFERRED = new ThreadLocal<>();
 
     // Strategy Pattern
     private InterestStrategy interestStrategy;
+    // Id of the last interest run that posted to this account; persisted with the balance
+    private String lastInterestRunId;
+    // Daily accrual: interest accrued since the last capitalization, the last day accrued
+    // and the id of the last capitalization run (kept apart from lastInterestRunId)
+    private double accruedInterest;
+    private long lastAccrualEpochDay = Long.MIN_VALUE;
+    private String lastCapitalizationRunId;
+    
+    // Attached features; created with the first feature
+    private FeaturePipeline features;
     
     /**
      * Constructor - Initializes a new account
@@ -46,30 +76,154 @@ public abstract class Account extends NotificationSubject implements AccountComp
      * @param initialBalance Initial balance for the account
      */
     public Account(String accountHolder, String accountType, double initialBalance) {
-        this.accountId = UUID.randomUUID().toString();
+        this(IdGenerator.getDefault().nextId(), accountHolder, accountType, initialBalance);
+    }
+    
+    /**
+     * Constructor - Initializes an account with an existing identifier
+     * Used by decorators, which share the id of the account they wrap.
+     * 
+     * @param id The 64-bit account identifier
+     * @param accountHolder Name of the account holder
+     * @param accountType Type of the account (e.g., Savings, Checking)
+     * @param initialBalance Initial balance for the account
+     */
+    protected Account(long id, String accountHolder, String accountType, double initialBalance) {
+        this.id = id;
         this.accountHolder = accountHolder;
         this.accountType = accountType;
+        this.kind = AccountKind.fromTypeName(accountType);
         this.balance = initialBalance;
-        this.currentState = new ActiveState();
-        this.createdAt = LocalDateTime.now();
-        this.lastModified = LocalDateTime.now();
+        this.currentState = AccountStates.ACTIVE;
+        this.statePermissions = currentState.getPermissions();
+        this.createdAt = Clocks.get().millis();
+        this.lastModified = createdAt;
+    }
+    
+    /**
+     * Restores persisted metadata on a freshly constructed account
+     * Used by restore factories when accounts are loaded from a snapshot; no
+     * notifications are sent.
+     * 
+     * @param createdAtMillis Original creation time (epoch millis)
+     * @param lastModifiedMillis Last modification time (epoch millis)
+     * @param state The persisted state
+     */
+    protected void restoreMetadata(long createdAtMillis, long lastModifiedMillis, AccountState state) {
+        this.createdAt = createdAtMillis;
+        this.lastModified = lastModifiedMillis;
+        if (state != null) {
+            this.currentState = state;
+            this.statePermissions = state.getPermissions();
+        }
     }
     
     // ============ STATE MANAGEMENT METHODS ============
     
     /**
      * Changes the account state to a new state
+     * The change must be allowed by the transition table (see AccountStatus);
+     * a closed account, for example, can never be reopened.
      * 
      * @param newState The new AccountState to transition to
+     * @return true if the state was changed, false if the transition is not allowed
+     */
+    public boolean setState(AccountState newState) {
+        if (newState == null) {
+            return false;
+        }
+        if (!transitionTo(newState)) {
+            System.out.println("Error: Cannot change account " + id + " from " + currentState.getStateName()
+                             + " to " + newState.getStateName() + ".");
+            return false;
+        }
+        publish(AccountEvent.stateChanged(id, currentState.getStateName(), balance, lastModified));
+        return true;
+    }
+    
+    /**
+     * Changes the account state without console output or a state-change event
+     * Used by bulk changes, which report once per holder instead of once per account.
+     * 
+     * @return true if the state was changed, false if newState is null or the
+     *         transition is not allowed
+     */
+    public boolean changeStateQuietly(AccountState newState) {
+        return newState != null && transitionTo(newState);
+    }
+    
+    private synchronized boolean transitionTo(AccountState newState) {
+        AccountStatus from = currentState.getStatus();
+        AccountStatus to = newState.getStatus();
+        if (!from.canTransitionTo(to)) {
+            return false;
+        }
+        this.currentState = newState;
+        this.statePermissions = newState.getPermissions();
+        this.lastModified = Clocks.get().millis();
+        CHANGES.increment();
+        if (from != to) {
+            for (AccountStateListener listener : stateListeners) {
+                listener.stateChanged(this, from, to);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Gets the number of balance and state changes made to any account so far
+     * The count only grows, so a cache can remember it when computing a report
+     * and treat the report as stale once it differs, without attaching anything
+     * to the accounts. Changes made while the value is read may be missed by
+     * that read but not by the next one.
      */
-    public void setState(AccountState newState) {
-        if (newState != null) {
-            this.currentState = newState;
-            this.lastModified = LocalDateTime.now();
-            String message = "Account " + accountId + " state changed to: " + currentState.getStateName();
-            System.out.println(message);
-            notifyObservers(message);
+    public static long changeCount() {
+        return CHANGES.sum();
+    }
+    
+    /**
+     * Registers a callback for status changes and reports the current status to it
+     * Adding a listener that is already registered has no effect.
+     */
+    public synchronized void addStateListener(AccountStateListener listener) {
+        AccountStateListener[] current = stateListeners;
+        for (AccountStateListener l : current) {
+            if (l == listener) return;
         }
+        AccountStateListener[] copy = Arrays.copyOf(current, current.length + 1);
+        copy[current.length] = listener;
+        stateListeners = copy;
+        listener.stateChanged(this, null, currentState.getStatus());
+    }
+    
+    public boolean hasStateListeners() {
+        return stateListeners.length > 0;
+    }
+    
+    /**
+     * Unregisters a status callback, reporting the current status to it one last time
+     */
+    public synchronized void removeStateListener(AccountStateListener listener) {
+        AccountStateListener[] current = stateListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                AccountStateListener[] copy = new AccountStateListener[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                stateListeners = copy.length == 0 ? NO_STATE_LISTENERS : copy;
+                listener.stateChanged(this, currentState.getStatus(), null);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Changes the account state to the shared state of a status
+     * 
+     * @return true if the state was changed, false if the transition is not allowed
+     */
+    public boolean setState(AccountStatus status) {
+        return setState(AccountStates.of(status));
     }
     
     /**
@@ -96,7 +250,7 @@ public abstract class Account extends NotificationSubject implements AccountComp
      * @return true if deposit was successful, false otherwise
      */
     public boolean deposit(double amount) {
-        if (!currentState.canDeposit()) {
+        if ((statePermissions & AccountState.DEPOSIT) == 0) {
             System.out.println("Error: Cannot deposit in " + currentState.getStateName() + " state. " 
                              + currentState.getDescription());
             return false;
@@ -108,10 +262,9 @@ public abstract class Account extends NotificationSubject implements AccountComp
         }
         
         balance += amount;
-        lastModified = LocalDateTime.now();
-        String message = "Successfully deposited " + amount + " to account " + accountId + ". New Balance: " + balance;
-        System.out.println(message);
-        notifyObservers(message);
+        CHANGES.increment();
+        lastModified = Clocks.get().millis();
+        publish(AccountEvent.deposit(id, amount, balance, lastModified));
         return true;
     }
     
@@ -123,7 +276,18 @@ public abstract class Account extends NotificationSubject implements AccountComp
      * @return true if withdrawal was successful, false otherwise
      */
     public boolean withdraw(double amount) {
-        if (!currentState.canWithdraw()) {
+        FeaturePipeline pipeline = features;
+        if (pipeline != null && pipeline.intercepts(FeatureOperation.WITHDRAW)) {
+            return pipeline.withdraw(0, amount);
+        }
+        return withdrawFunds(amount);
+    }
+    
+    /**
+     * Withdraws with the account's own rules; the end of the feature pipeline
+     */
+    boolean withdrawFunds(double amount) {
+        if ((statePermissions & AccountState.WITHDRAW) == 0) {
             System.out.println("Error: Cannot withdraw in " + currentState.getStateName() + " state. " 
                              + currentState.getDescription());
             return false;
@@ -140,10 +304,9 @@ public abstract class Account extends NotificationSubject implements AccountComp
         }
         
         balance -= amount;
-        lastModified = LocalDateTime.now();
-        String message = "Successfully withdrew " + amount + " from account " + accountId + ". New Balance: " + balance;
-        System.out.println(message);
-        notifyObservers(message);
+        CHANGES.increment();
+        lastModified = Clocks.get().millis();
+        publish(AccountEvent.withdrawal(id, amount, balance, lastModified));
         return true;
     }
     
@@ -156,7 +319,18 @@ public abstract class Account extends NotificationSubject implements AccountComp
      * @return true if transfer was successful, false otherwise
      */
     public boolean transfer(Account targetAccount, double amount) {
-        if (!currentState.canTransfer()) {
+        FeaturePipeline pipeline = features;
+        if (pipeline != null && pipeline.intercepts(FeatureOperation.TRANSFER)) {
+            return pipeline.transfer(0, targetAccount, amount);
+        }
+        return transferFunds(targetAccount, amount);
+    }
+    
+    /**
+     * Transfers with the account's own rules; the end of the feature pipeline
+     */
+    boolean transferFunds(Account targetAccount, double amount) {
+        if ((statePermissions & AccountState.TRANSFER) == 0) {
             System.out.println("Error: Cannot transfer in " + currentState.getStateName() + " state. " 
                              + currentState.getDescription());
             return false;
@@ -176,7 +350,7 @@ public abstract class Account extends NotificationSubject implements AccountComp
         // Use setters/getters to allow Decorators to intercept
         this.setBalance(this.getBalance() - amount);
         targetAccount.setBalance(targetAccount.getBalance() + amount);
-        this.lastModified = LocalDateTime.now();
+        this.lastModified = Clocks.get().millis();
         // targetAccount.lastModified cannot be accessed directly if it's a decorator, 
         // but we don't have a setter for it. 
         // However, updating balance on target usually updates its lastModified if done via deposit.
@@ -184,18 +358,221 @@ public abstract class Account extends NotificationSubject implements AccountComp
         // Let's check setBalance. It just sets field. 
         // Ideally we should use a method that updates timestamp.
         
-        String senderMsg = "Successfully transferred " + amount + " from account " + getAccountId() 
-                         + " to account " + targetAccount.getAccountId() + ". New Balance: " + this.getBalance();
-        System.out.println(senderMsg);
-        this.notifyObservers(senderMsg);
+        publish(AccountEvent.transferSent(getId(), targetAccount.getId(), amount, this.getBalance(), lastModified));
+        if (targetAccount.isDeliveryRequired(AccountEventKind.TRANSFER_RECEIVED, amount)) {
+            targetAccount.deliver(AccountEvent.transferReceived(targetAccount.getId(), getId(), amount,
+                                                                        targetAccount.getBalance(), lastModified));
+        }
         
-        String receiverMsg = "Received transfer of " + amount + " from account " + getAccountId() 
-                           + ". New Balance: " + targetAccount.getBalance();
-        targetAccount.notifyObservers(receiverMsg);
+        return true;
+    }
+    
+    /**
+     * Withdraws without the sufficient-funds check (see FeatureContext.withdrawIntoOverdraft)
+     */
+    boolean withdrawIntoOverdraft(double amount) {
+        if ((statePermissions & AccountState.WITHDRAW) == 0) {
+            System.out.println("Error: Cannot withdraw in " + currentState.getStateName() + " state. " 
+                             + currentState.getDescription());
+            return false;
+        }
         
+        if (amount <= 0) {
+            System.out.println("Error: Withdrawal amount must be positive.");
+            return false;
+        }
+        
+        balance -= amount;
+        CHANGES.increment();
+        lastModified = Clocks.get().millis();
+        publish(AccountEvent.overdraftWithdrawal(id, amount, balance, lastModified));
         return true;
     }
     
+    /**
+     * Takes a fee from the balance without a withdrawal event
+     */
+    void chargeFee(double fee) {
+        balance -= fee;
+        CHANGES.increment();
+        lastModified = Clocks.get().millis();
+    }
+    
+    // ============ FEATURES ============
+    
+    /**
+     * Attaches a feature, replacing any feature in the same slot
+     * Unlike a decorator, no new Account object is created; the account's own
+     * withdraw, transfer and calculateInterest run through its features. Features
+     * keep no per-account state, so one instance can be attached to many accounts.
+     * 
+     * @return The replaced feature, or null
+     */
+    public synchronized AccountFeature addFeature(AccountFeature feature) {
+        FeaturePipeline pipeline = features;
+        if (pipeline == null) {
+            pipeline = new FeaturePipeline(this);
+            features = pipeline;
+        }
+        return pipeline.attach(feature);
+    }
+    
+    /**
+     * Detaches the feature in a slot
+     * 
+     * @return The detached feature, or null if the slot was empty
+     */
+    public synchronized AccountFeature removeFeature(FeatureSlot slot) {
+        FeaturePipeline pipeline = features;
+        return pipeline == null ? null : pipeline.detach(slot);
+    }
+    
+    public AccountFeature getFeature(FeatureSlot slot) {
+        FeaturePipeline pipeline = features;
+        return pipeline == null ? null : pipeline.get(slot);
+    }
+    
+    public boolean hasFeature(FeatureSlot slot) {
+        return getFeature(slot) != null;
+    }
+    
+    public boolean hasFeatures() {
+        FeaturePipeline pipeline = features;
+        return pipeline != null && !pipeline.isEmpty();
+    }
+    
+    /**
+     * Checks whether an attached feature adjusts interest, in which case the
+     * strategy alone does not give this account's interest (see periodInterest)
+     */
+    public boolean hasInterestFeatures() {
+        FeaturePipeline pipeline = features;
+        return pipeline != null && pipeline.intercepts(FeatureOperation.INTEREST);
+    }
+    
+    /**
+     * Gets the labels of the attached features, e.g. " [Insured]", or "" without features
+     */
+    public String getFeatureLabels() {
+        FeaturePipeline pipeline = features;
+        return pipeline == null ? "" : pipeline.describe();
+    }
+    
+    // ============ EVENT PUBLISHING ============
+    
+    /**
+     * Checks whether an event has a receiver other than the console (observers or
+     * an EventBus subscription)
+     * Callers that do not echo the event check this first so unobserved changes
+     * allocate no event.
+     */
+    protected boolean isDeliveryRequired(AccountEventKind eventKind, double amount) {
+        return hasObservers() || EventBus.shared().isRouted(EventTopic.ACCOUNT, getKind(), eventKind.ordinal(), amount);
+    }
+    
+    /**
+     * Echoes an event to the console and delivers it
+     */
+    protected void publish(AccountEvent event) {
+        System.out.println(event.render());
+        deliver(event);
+    }
+    
+    /**
+     * Delivers an event to the observers and to matching EventBus subscribers
+     * Held back until flushDeliveries while the current thread defers deliveries.
+     */
+    protected void deliver(AccountEvent event) {
+        DeferredDeliveries deferred = DEFERRED.get();
+        if (deferred != null && deferred.depth > 0) {
+            deferred.add(this, event);
+            return;
+        }
+        deliverNow(event);
+    }
+    
+    private void deliverNow(AccountEvent event) {
+        if (hasObservers()) {
+            notifyObservers(event);
+        }
+        EventBus.shared().publish(getKind(), event);
+    }
+    
+    /**
+     * Publishes a STATE_CHANGED event for the current state to EventBus subscribers only
+     * Used after bulk changes, whose observers get one message per holder instead.
+     */
+    public void publishStateChanged() {
+        if (EventBus.shared().isRouted(EventTopic.ACCOUNT, getKind(), AccountEventKind.STATE_CHANGED.ordinal(), 0.0)) {
+            EventBus.shared().publish(getKind(),
+                    AccountEvent.stateChanged(id, currentState.getStateName(), balance, lastModified));
+        }
+    }
+    
+    /**
+     * Holds back the observer and EventBus delivery of events raised on this thread
+     * until the matching flushDeliveries
+     * Callers holding account locks use this so observers (which may write to disk
+     * or start transactions of their own) run after the locks are released. Console
+     * echo is not deferred. Scopes nest; the outermost flush delivers.
+     */
+    public static void deferDeliveries() {
+        DeferredDeliveries deferred = DEFERRED.get();
+        if (deferred == null) {
+            deferred = new DeferredDeliveries();
+            DEFERRED.set(deferred);
+        }
+        deferred.depth++;
+    }
+    
+    /**
+     * Ends a deferDeliveries scope, delivering the held-back events in order when it
+     * is the outermost one
+     */
+    public static void flushDeliveries() {
+        DeferredDeliveries deferred = DEFERRED.get();
+        if (deferred == null || deferred.depth == 0) {
+            throw new IllegalStateException("No deferred deliveries on this thread");
+        }
+        if (--deferred.depth > 0) {
+            return;
+        }
+        while (deferred.size > 0) {
+            // Observers may raise events of their own; those start a new batch
+            Account[] accounts = Arrays.copyOf(deferred.accounts, deferred.size);
+            AccountEvent[] events = Arrays.copyOf(deferred.events, deferred.size);
+            deferred.clear();
+            for (int i = 0; i < accounts.length; i++) {
+                accounts[i].deliverNow(events[i]);
+            }
+        }
+    }
+    
+    /**
+     * Events held back on one thread, in the order they were raised
+     */
+    private static final class DeferredDeliveries {
+        int depth;
+        int size;
+        Account[] accounts = new Account[8];
+        AccountEvent[] events = new AccountEvent[8];
+        
+        void add(Account account, AccountEvent event) {
+            if (size == accounts.length) {
+                accounts = Arrays.copyOf(accounts, size * 2);
+                events = Arrays.copyOf(events, size * 2);
+            }
+            accounts[size] = account;
+            events[size++] = event;
+        }
+        
+        void clear() {
+            Arrays.fill(accounts, 0, size, null);
+            Arrays.fill(events, 0, size, null);
+            size = 0;
+        }
+    }
+    
     // ============ ACCOUNT MANAGEMENT METHODS ============
     
     /**
@@ -206,7 +583,7 @@ public abstract class Account extends NotificationSubject implements AccountComp
     public void updateAccountHolder(String newAccountHolder) {
         if (newAccountHolder != null && !newAccountHolder.trim().isEmpty()) {
             this.accountHolder = newAccountHolder;
-            this.lastModified = LocalDateTime.now();
+            this.lastModified = Clocks.get().millis();
             System.out.println("Account holder updated to: " + newAccountHolder);
         }
     }
@@ -216,14 +593,24 @@ public abstract class Account extends NotificationSubject implements AccountComp
      */
     public void closeAccount() {
         // This will be implemented in subclasses or state handler
-        this.lastModified = LocalDateTime.now();
-        System.out.println("Account " + accountId + " is being closed.");
+        this.lastModified = Clocks.get().millis();
+        System.out.println("Account " + id + " is being closed.");
     }
     
     // ============ GETTER METHODS ============
     
+    /**
+     * Gets the 64-bit account identifier
+     */
+    public long getId() {
+        return id;
+    }
+    
+    /**
+     * Gets the account identifier rendered as a string, for display and messages
+     */
     public String getAccountId() {
-        return accountId;
+        return Long.toString(getId());
     }
     
     public String getAccountHolder() {
@@ -234,6 +621,13 @@ public abstract class Account extends NotificationSubject implements AccountComp
         return accountType;
     }
     
+    /**
+     * Gets the product family, resolved once from the account type
+     */
+    public AccountKind getKind() {
+        return kind;
+    }
+    
     public double getBalance() {
         return balance;
     }
@@ -243,13 +637,22 @@ public abstract class Account extends NotificationSubject implements AccountComp
      */
     public void setBalance(double balance) {
         this.balance = balance;
+        CHANGES.increment();
     }
     
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return Clocks.get().toLocalDateTime(getCreatedAtMillis());
     }
     
     public LocalDateTime getLastModified() {
+        return Clocks.get().toLocalDateTime(getLastModifiedMillis());
+    }
+    
+    public long getCreatedAtMillis() {
+        return createdAt;
+    }
+    
+    public long getLastModifiedMillis() {
         return lastModified;
     }
     
@@ -264,18 +667,154 @@ public abstract class Account extends NotificationSubject implements AccountComp
         this.interestStrategy = strategy;
     }
 
+    public InterestStrategy getInterestStrategy() {
+        return interestStrategy;
+    }
+
     /**
      * Calculates interest using the current strategy
      * 
      * @return The calculated interest amount
      */
     public double calculateInterest() {
+        return periodInterest();
+    }
+    
+    /**
+     * Calculates one period's interest through the strategy and the feature pipeline
+     * without applying it, even for account types whose calculateInterest posts it.
+     * Batch interest engines use this for accounts with interest features.
+     */
+    public final double periodInterest() {
+        FeaturePipeline pipeline = features;
+        if (pipeline != null && pipeline.intercepts(FeatureOperation.INTEREST)) {
+            return pipeline.calculateInterest(0);
+        }
+        return strategyInterest();
+    }
+    
+    /**
+     * Calculates interest with the strategy alone; the end of the feature pipeline
+     */
+    double strategyInterest() {
         if (interestStrategy != null) {
             return interestStrategy.calculateInterest(this);
         }
         return 0.0;
     }
     
+    /**
+     * Posts interest computed by a batch interest run
+     * Unlike calculateInterest, no console output or notification is produced; the
+     * run reports per chunk instead. An account is posted at most once per run id,
+     * so a run that is retried after a failure does not post twice.
+     * 
+     * @param runId Identifier of the interest run
+     * @param interest The interest amount for the period
+     * @return true if the interest was applied, false if this run already posted
+     *         or the account does not accept it in its current state
+     */
+    public boolean postInterest(String runId, double interest) {
+        if (runId.equals(lastInterestRunId)) {
+            return false;
+        }
+        if (!applyInterest(interest)) {
+            return false;
+        }
+        lastInterestRunId = runId;
+        lastModified = Clocks.get().millis();
+        return true;
+    }
+    
+    /**
+     * Gets the id of the last interest run that posted to this account, or null
+     * Persisted by AccountRowCodec in the same row as the balance, so an account
+     * restored from a row written after a posting is not posted again by that run.
+     */
+    public String getLastInterestRunId() {
+        return lastInterestRunId;
+    }
+    
+    /**
+     * Gets the id of the last capitalization run that posted to this account, or null
+     */
+    public String getLastCapitalizationRunId() {
+        return lastCapitalizationRunId;
+    }
+    
+    /**
+     * Restores persisted interest state (run markers and accrual) on a freshly restored account
+     */
+    public void restoreInterestState(String lastInterestRunId, String lastCapitalizationRunId,
+                                     double accruedInterest, long lastAccrualEpochDay) {
+        this.lastInterestRunId = lastInterestRunId;
+        this.lastCapitalizationRunId = lastCapitalizationRunId;
+        this.accruedInterest = accruedInterest;
+        this.lastAccrualEpochDay = lastAccrualEpochDay;
+    }
+    
+    /**
+     * Adds one accrual to the accrued-interest counter
+     * The balance is not changed until the interest is capitalized. Each day is
+     * accrued at most once; earlier or repeated days are ignored.
+     * 
+     * @param epochDay The business day accrued (LocalDate.toEpochDay)
+     * @param amount Interest for the days since the previous accrual
+     * @return true if the accrual was recorded
+     */
+    public boolean accrueInterest(long epochDay, double amount) {
+        if (epochDay <= lastAccrualEpochDay) {
+            return false;
+        }
+        accruedInterest += amount;
+        lastAccrualEpochDay = epochDay;
+        return true;
+    }
+    
+    /**
+     * Posts the accrued interest to the balance and resets the counter
+     * Capitalizations have their own run marker, so they and postInterest runs can
+     * interleave without either forgetting that it already posted.
+     * 
+     * @param runId Identifier of the capitalization run; posted at most once
+     * @return The amount posted, or 0 if nothing was posted
+     */
+    public double capitalizeAccruedInterest(String runId) {
+        double amount = accruedInterest;
+        if (amount <= 0 || runId.equals(lastCapitalizationRunId) || !applyInterest(amount)) {
+            return 0.0;
+        }
+        lastCapitalizationRunId = runId;
+        lastModified = Clocks.get().millis();
+        accruedInterest = 0.0;
+        return amount;
+    }
+    
+    public double getAccruedInterest() {
+        return accruedInterest;
+    }
+    
+    /**
+     * Gets the last business day accrued (LocalDate.toEpochDay), or Long.MIN_VALUE if none
+     */
+    public long getLastAccrualEpochDay() {
+        return lastAccrualEpochDay;
+    }
+    
+    /**
+     * Applies interest to the balance the way calculateInterest does for this type
+     * The default credits the balance when the state allows deposits.
+     * 
+     * @return true if the interest was applied
+     */
+    protected boolean applyInterest(double interest) {
+        if ((statePermissions & AccountState.DEPOSIT) == 0) {
+            return false;
+        }
+        setBalance(getBalance() + interest);
+        return true;
+    }
+    
     /**
      * Gets the account type-specific information
      * 
@@ -311,13 +850,13 @@ public abstract class Account extends NotificationSubject implements AccountComp
     @Override
     public String toString() {
         return "Account{" +
-                "accountId='" + accountId + '\'' +
+                "accountId=" + id +
                 ", accountHolder='" + accountHolder + '\'' +
                 ", accountType='" + accountType + '\'' +
                 ", balance=" + balance +
                 ", currentState=" + currentState.getStateName() +
-                ", createdAt=" + createdAt +
-                ", lastModified=" + lastModified +
+                ", createdAt=" + getCreatedAt() +
+                ", lastModified=" + getLastModified() +
                 '}';
     }
 }
@@ -0,0 +1,45 @@
+package bank.accounts;
+
+/**
+ * AccountFeature - Interceptor attached to an account's feature pipeline
+ *
+ * A feature replaces a decorator layer: instead of wrapping the account in
+ * another Account object, it is attached to the account itself and its hooks are
+ * called for the operations it declares in getOperations(). Each hook receives
+ * the context of its slot; calling the context's proceed method continues with
+ * the next feature, and eventually the account's own logic. Not calling it
+ * short-circuits the operation.
+ *
+ * Hooks that are not declared in getOperations() are never called. A feature
+ * reaches its account through the context, so implementations hold only their
+ * configuration and one instance can be shared by any number of accounts.
+ */
+public interface AccountFeature {
+
+    /**
+     * Gets the slot this feature occupies
+     */
+    FeatureSlot getSlot();
+
+    /**
+     * Gets the operations this feature intercepts, as FeatureOperation bits
+     */
+    int getOperations();
+
+    default boolean withdraw(FeatureContext context, double amount) {
+        return context.proceedWithdraw(amount);
+    }
+
+    default boolean transfer(FeatureContext context, Account target, double amount) {
+        return context.proceedTransfer(target, amount);
+    }
+
+    default double calculateInterest(FeatureContext context) {
+        return context.proceedInterest();
+    }
+
+    /**
+     * Gets a short label for account details (e.g. "Insured")
+     */
+    String getLabel();
+}
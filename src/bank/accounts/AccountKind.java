@@ -0,0 +1,48 @@
+package bank.accounts;
+
+/**
+ * AccountKind - The product family of an account
+ * Resolved once from the account type string when the account is created, so
+ * reports can group accounts with an ordinal lookup instead of string work.
+ */
+public enum AccountKind {
+    SAVINGS,
+    CHECKING,
+    LOAN,
+    INVESTMENT,
+    OTHER;
+
+    private static final AccountKind[] VALUES = values();
+
+    /**
+     * Gets the number of kinds, for sizing per-kind arrays
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Gets the kind with the given ordinal
+     */
+    public static AccountKind ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Resolves the kind of an account type string (e.g. "SAVINGS")
+     *
+     * @return The matching kind, or OTHER for unknown or null types
+     */
+    public static AccountKind fromTypeName(String accountType) {
+        if (accountType != null) {
+            switch (accountType) {
+                case "SAVINGS": return SAVINGS;
+                case "CHECKING": return CHECKING;
+                case "LOAN": return LOAN;
+                case "INVESTMENT": return INVESTMENT;
+                default: break;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,91 @@
+package bank.accounts;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AccountLocks - Striped locks serializing work on the same account
+ *
+ * Transactions hold the lock of every account they touch from validation to
+ * execution, and bulk state changes hold it while they move an account to its new
+ * state, so a freeze never lands between a transaction's checks and its effect.
+ * Accounts map to a fixed set of reentrant stripes by id; two accounts on one
+ * stripe simply serialize. Pairs are locked in stripe order, so concurrent
+ * transfers in opposite directions cannot deadlock.
+ */
+public final class AccountLocks {
+
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private static final AccountLocks SHARED = new AccountLocks(DEFAULT_STRIPES);
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes Number of stripes, rounded up to a power of two
+     */
+    public AccountLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is required: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) size <<= 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the process-wide locks used by TransactionService and BulkStateService by default
+     */
+    public static AccountLocks shared() {
+        return SHARED;
+    }
+
+    private int stripeOf(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public void lock(long accountId) {
+        stripes[stripeOf(accountId)].lock();
+    }
+
+    public void unlock(long accountId) {
+        stripes[stripeOf(accountId)].unlock();
+    }
+
+    /**
+     * Locks two accounts in stripe order
+     */
+    public void lockPair(long firstId, long secondId) {
+        int a = stripeOf(firstId);
+        int b = stripeOf(secondId);
+        stripes[Math.min(a, b)].lock();
+        if (a != b) {
+            stripes[Math.max(a, b)].lock();
+        }
+    }
+
+    public void unlockPair(long firstId, long secondId) {
+        int a = stripeOf(firstId);
+        int b = stripeOf(secondId);
+        if (a != b) {
+            stripes[Math.max(a, b)].unlock();
+        }
+        stripes[Math.min(a, b)].unlock();
+    }
+
+    /**
+     * Checks whether the current thread holds the lock of an account
+     */
+    public boolean isHeldByCurrentThread(long accountId) {
+        return stripes[stripeOf(accountId)].isHeldByCurrentThread();
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
@@ -183,7 +183,7 @@ public class AccountManagementDemo {
         
         // Trigger notification via state change
         System.out.println("\n--- State Change Notification ---");
-        account.setState(new FrozenState());
+        account.setState(AccountStates.FROZEN);
     }
 
     /**
@@ -307,7 +307,7 @@ public class AccountManagementDemo {
         
         // Transition to FROZEN state
         System.out.println("\n--- Transitioning to FROZEN State ---");
-        account.setState(new FrozenState());
+        account.setState(AccountStates.FROZEN);
         
         System.out.println("Current State: " + account.getCurrentStateName());
         System.out.println("Description: " + account.getCurrentState().getDescription());
@@ -319,7 +319,7 @@ public class AccountManagementDemo {
         
         // Transition to SUSPENDED state
         System.out.println("\n--- Transitioning to SUSPENDED State ---");
-        account.setState(new SuspendedState());
+        account.setState(AccountStates.SUSPENDED);
         
         System.out.println("Current State: " + account.getCurrentStateName());
         System.out.println("Description: " + account.getCurrentState().getDescription());
@@ -331,12 +331,12 @@ public class AccountManagementDemo {
         
         // Transition back to ACTIVE
         System.out.println("\n--- Transitioning back to ACTIVE State ---");
-        account.setState(new ActiveState());
+        account.setState(AccountStates.ACTIVE);
         account.withdraw(200.0); // Should succeed
         
         // Transition to CLOSED state
         System.out.println("\n--- Transitioning to CLOSED State ---");
-        account.setState(new ClosedState());
+        account.setState(AccountStates.CLOSED);
         account.withdraw(100.0); // Should fail
     }
     
@@ -430,7 +430,7 @@ public class AccountManagementDemo {
         
         // 3. CLOSE: Close the account
         System.out.println("\n--- 3. Closing Account ---");
-        account.setState(new ClosedState());
+        account.setState(AccountStates.CLOSED);
         System.out.println("Account State: " + account.getCurrentStateName());
         System.out.println(account.getAccountDetails());
         
@@ -7,6 +7,11 @@ package bank.accounts;
  */
 public interface AccountState {
     
+    /** Permission bits returned by getPermissions() */
+    int DEPOSIT = 1;
+    int WITHDRAW = 1 << 1;
+    int TRANSFER = 1 << 2;
+    
     /**
      * Checks if the account can perform deposits in this state
      */
@@ -22,11 +27,25 @@ public interface AccountState {
      */
     boolean canTransfer();
     
+    /**
+     * Gets the operations this state allows as DEPOSIT, WITHDRAW and TRANSFER bits
+     * Accounts cache the mask when the state is set, so an operation checks its
+     * permission with one mask test instead of a call through the state.
+     */
+    default int getPermissions() {
+        return (canDeposit() ? DEPOSIT : 0) | (canWithdraw() ? WITHDRAW : 0) | (canTransfer() ? TRANSFER : 0);
+    }
+    
     /**
      * Gets the state name
      */
     String getStateName();
     
+    /**
+     * Gets the status identifier of this state
+     */
+    AccountStatus getStatus();
+    
     /**
      * Gets a description of the current state
      */
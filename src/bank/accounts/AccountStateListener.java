@@ -0,0 +1,15 @@
+package bank.accounts;
+
+/**
+ * AccountStateListener - Callback for account status changes, e.g. to keep an
+ * index of accounts by status
+ *
+ * Called while the account is locked, in transition order, so implementations
+ * must be fast and must not call back into the account. When a listener is added
+ * it is told the current status with from == null; when it is removed, with
+ * to == null.
+ */
+public interface AccountStateListener {
+
+    void stateChanged(Account account, AccountStatus from, AccountStatus to);
+}
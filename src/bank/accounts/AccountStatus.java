@@ -0,0 +1,80 @@
+package bank.accounts;
+
+/**
+ * AccountStatus - Compact identifier of an account state
+ * Lets callers classify an account's state by ordinal instead of comparing state names.
+ * Also holds the transition table: CLOSED is terminal, and a FROZEN account has to
+ * be released (made ACTIVE or SUSPENDED) before it can be closed. Staying in the
+ * same status is always allowed.
+ */
+public enum AccountStatus {
+    ACTIVE,
+    SUSPENDED,
+    FROZEN,
+    CLOSED;
+
+    private static final AccountStatus[] VALUES = values();
+    
+    // TRANSITIONS[from] has bit (1 << to) set when from -> to is allowed
+    private static final int[] TRANSITIONS = new int[VALUES.length];
+    
+    static {
+        allow(ACTIVE, ACTIVE, SUSPENDED, FROZEN, CLOSED);
+        allow(SUSPENDED, ACTIVE, SUSPENDED, FROZEN, CLOSED);
+        allow(FROZEN, ACTIVE, SUSPENDED, FROZEN);
+        allow(CLOSED, CLOSED);
+    }
+    
+    private static void allow(AccountStatus from, AccountStatus... targets) {
+        for (AccountStatus to : targets) {
+            TRANSITIONS[from.ordinal()] |= 1 << to.ordinal();
+        }
+    }
+    
+    /**
+     * Checks whether an account in this status may move to another status, in O(1)
+     */
+    public boolean canTransitionTo(AccountStatus target) {
+        return (TRANSITIONS[ordinal()] & (1 << target.ordinal())) != 0;
+    }
+    
+    /**
+     * Checks whether no other status can be reached from this one
+     */
+    public boolean isTerminal() {
+        return TRANSITIONS[ordinal()] == 1 << ordinal();
+    }
+    
+    /**
+     * Gets the one-byte code used by snapshots and other persisted forms
+     */
+    public byte code() {
+        return (byte) ordinal();
+    }
+    
+    /**
+     * Gets the status of a persisted code
+     * 
+     * @throws IllegalArgumentException for an unknown code
+     */
+    public static AccountStatus fromCode(byte code) {
+        if (code < 0 || code >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown account status code: " + code);
+        }
+        return VALUES[code];
+    }
+
+    /**
+     * Gets the number of statuses, for sizing per-status arrays
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Gets the status with the given ordinal
+     */
+    public static AccountStatus ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,58 @@
+package bank.accounts;
+
+/**
+ * FeatureContext - A feature's handle on the rest of the pipeline
+ * One context exists per occupied slot of a pipeline, created when the slot is
+ * first used, so passing an operation along allocates nothing.
+ */
+public final class FeatureContext {
+
+    private final FeaturePipeline pipeline;
+    private final int slot;
+
+    FeatureContext(FeaturePipeline pipeline, int slot) {
+        this.pipeline = pipeline;
+        this.slot = slot;
+    }
+
+    public Account getAccount() {
+        return pipeline.getAccount();
+    }
+
+    /**
+     * Passes a withdrawal on to the next feature, or to the account
+     */
+    public boolean proceedWithdraw(double amount) {
+        return pipeline.withdraw(slot + 1, amount);
+    }
+
+    /**
+     * Passes a transfer on to the next feature, or to the account
+     */
+    public boolean proceedTransfer(Account target, double amount) {
+        return pipeline.transfer(slot + 1, target, amount);
+    }
+
+    /**
+     * Passes an interest calculation on to the next feature, or to the account's strategy
+     */
+    public double proceedInterest() {
+        return pipeline.calculateInterest(slot + 1);
+    }
+
+    /**
+     * Withdraws without the sufficient-funds check, taking the balance below zero
+     * Used by overdraft features; state permissions still apply and an overdraft
+     * withdrawal event is published.
+     */
+    public boolean withdrawIntoOverdraft(double amount) {
+        return getAccount().withdrawIntoOverdraft(amount);
+    }
+
+    /**
+     * Takes a fee from the balance without a withdrawal event
+     */
+    public void chargeFee(double fee) {
+        getAccount().chargeFee(fee);
+    }
+}
@@ -0,0 +1,28 @@
+package bank.accounts;
+
+/**
+ * FeatureOperation - Account operations a feature can intercept
+ */
+public enum FeatureOperation {
+    WITHDRAW,
+    TRANSFER,
+    INTEREST;
+
+    /**
+     * Gets the bit of this operation in AccountFeature.getOperations()
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Combines operations into an AccountFeature.getOperations() mask
+     */
+    public static int maskOf(FeatureOperation... operations) {
+        int mask = 0;
+        for (FeatureOperation operation : operations) {
+            mask |= operation.bit();
+        }
+        return mask;
+    }
+}
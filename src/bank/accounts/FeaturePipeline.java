@@ -0,0 +1,153 @@
+package bank.accounts;
+
+/**
+ * FeaturePipeline - The features attached to one account, compiled per operation
+ *
+ * Features live in an array indexed by slot. For every operation the pipeline
+ * keeps a bitmask of the slots whose feature intercepts it, all packed into one
+ * int, so attaching or detaching a feature is O(1) and an operation finds the
+ * next interceptor with one mask and a trailing-zero count. Slots that do not
+ * intercept an operation cost nothing on it.
+ *
+ * Changes are made under the account's lock and published through the volatile
+ * mask, so a concurrent operation sees either the old or the new set of
+ * features; a feature removed mid-flight is skipped.
+ */
+public final class FeaturePipeline {
+
+    // Bits [op * SLOT_BITS + slot]: the feature in slot intercepts operation op
+    private static final int SLOT_BITS = 8;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    private final Account account;
+    private final AccountFeature[] features = new AccountFeature[FeatureSlot.COUNT];
+    private final FeatureContext[] contexts = new FeatureContext[FeatureSlot.COUNT];
+    private volatile int compiled;
+
+    FeaturePipeline(Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Attaches a feature to its slot
+     *
+     * @return The feature it replaced, or null
+     */
+    AccountFeature attach(AccountFeature feature) {
+        int slot = feature.getSlot().ordinal();
+        AccountFeature previous = features[slot];
+        if (contexts[slot] == null) {
+            contexts[slot] = new FeatureContext(this, slot);
+        }
+        features[slot] = feature;
+        int bits = 0;
+        int operations = feature.getOperations();
+        for (FeatureOperation operation : FeatureOperation.values()) {
+            if ((operations & operation.bit()) != 0) {
+                bits |= 1 << (operation.ordinal() * SLOT_BITS + slot);
+            }
+        }
+        compiled = (compiled & ~slotBits(slot)) | bits;
+        return previous;
+    }
+
+    /**
+     * Detaches the feature in a slot
+     *
+     * @return The detached feature, or null if the slot was empty
+     */
+    AccountFeature detach(FeatureSlot featureSlot) {
+        int slot = featureSlot.ordinal();
+        AccountFeature previous = features[slot];
+        compiled &= ~slotBits(slot);
+        features[slot] = null;
+        return previous;
+    }
+
+    private static int slotBits(int slot) {
+        int bits = 0;
+        for (int op = 0; op < FeatureOperation.values().length; op++) {
+            bits |= 1 << (op * SLOT_BITS + slot);
+        }
+        return bits;
+    }
+
+    AccountFeature get(FeatureSlot slot) {
+        return features[slot.ordinal()];
+    }
+
+    /**
+     * Checks whether any attached feature intercepts an operation
+     */
+    boolean intercepts(FeatureOperation operation) {
+        return ((compiled >>> (operation.ordinal() * SLOT_BITS)) & SLOT_MASK) != 0;
+    }
+
+    /**
+     * Gets the first slot at or after from that intercepts an operation, or -1
+     */
+    private int next(FeatureOperation operation, int from) {
+        int mask = (compiled >>> (operation.ordinal() * SLOT_BITS)) & SLOT_MASK & (SLOT_MASK << from);
+        return mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+    }
+
+    boolean withdraw(int from, double amount) {
+        int slot = next(FeatureOperation.WITHDRAW, from);
+        while (slot >= 0) {
+            AccountFeature feature = features[slot];
+            if (feature != null) {
+                return feature.withdraw(contexts[slot], amount);
+            }
+            slot = next(FeatureOperation.WITHDRAW, slot + 1);
+        }
+        return account.withdrawFunds(amount);
+    }
+
+    boolean transfer(int from, Account target, double amount) {
+        int slot = next(FeatureOperation.TRANSFER, from);
+        while (slot >= 0) {
+            AccountFeature feature = features[slot];
+            if (feature != null) {
+                return feature.transfer(contexts[slot], target, amount);
+            }
+            slot = next(FeatureOperation.TRANSFER, slot + 1);
+        }
+        return account.transferFunds(target, amount);
+    }
+
+    double calculateInterest(int from) {
+        int slot = next(FeatureOperation.INTEREST, from);
+        while (slot >= 0) {
+            AccountFeature feature = features[slot];
+            if (feature != null) {
+                return feature.calculateInterest(contexts[slot]);
+            }
+            slot = next(FeatureOperation.INTEREST, slot + 1);
+        }
+        return account.strategyInterest();
+    }
+
+    Account getAccount() {
+        return account;
+    }
+
+    boolean isEmpty() {
+        for (AccountFeature feature : features) {
+            if (feature != null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the labels of the attached features in slot order, e.g. " [Insured] [Overdraft: $500.0]"
+     */
+    String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (AccountFeature feature : features) {
+            if (feature != null) {
+                sb.append(" [").append(feature.getLabel()).append(']');
+            }
+        }
+        return sb.toString();
+    }
+}
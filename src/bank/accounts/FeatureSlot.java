@@ -0,0 +1,17 @@
+package bank.accounts;
+
+/**
+ * FeatureSlot - Position of a feature in an account's feature pipeline
+ * An account holds at most one feature per slot. Operations pass through the
+ * attached features in slot order (first slot outermost), then reach the
+ * account's own logic.
+ */
+public enum FeatureSlot {
+    PREMIUM,
+    SPENDING_LIMIT,
+    MINIMUM_BALANCE,
+    INSURANCE,
+    OVERDRAFT;
+
+    static final int COUNT = values().length;
+}
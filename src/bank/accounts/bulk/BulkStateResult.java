@@ -0,0 +1,96 @@
+package bank.accounts.bulk;
+
+import bank.accounts.AccountStatus;
+
+/**
+ * BulkStateResult - Outcome of one bulk state change
+ */
+public final class BulkStateResult {
+
+    private final AccountStatus target;
+    private final String reason;
+    private final long matched;
+    private final long changed;
+    private final long unchanged;
+    private final long rejected;
+    private final long notFound;
+    private final int holdersNotified;
+    private final long[] changedIds;
+    private final long elapsedMillis;
+
+    BulkStateResult(AccountStatus target, String reason, long matched, long unchanged, long rejected, long notFound,
+                    int holdersNotified, long[] changedIds, long elapsedMillis) {
+        this.target = target;
+        this.reason = reason;
+        this.matched = matched;
+        this.changed = changedIds.length;
+        this.unchanged = unchanged;
+        this.rejected = rejected;
+        this.notFound = notFound;
+        this.holdersNotified = holdersNotified;
+        this.changedIds = changedIds;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public AccountStatus getTarget() {
+        return target;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Gets the number of accounts that met the criteria when they were locked
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the number of matching accounts that were already in the target status
+     */
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Gets the number of matching accounts whose status cannot move to the target
+     * (e.g. closed accounts)
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of requested ids without an account
+     */
+    public long getNotFound() {
+        return notFound;
+    }
+
+    public int getHoldersNotified() {
+        return holdersNotified;
+    }
+
+    /**
+     * Gets the ids of the changed accounts, in input order
+     */
+    public long[] getChangedIds() {
+        return changedIds.clone();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Bulk change to " + target + ": " + changed + " changed, " + unchanged + " unchanged, "
+                + rejected + " rejected, " + notFound + " not found (" + elapsedMillis + " ms)";
+    }
+}
@@ -0,0 +1,331 @@
+package bank.accounts.bulk;
+
+import bank.accounts.Account;
+import bank.accounts.AccountLocks;
+import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
+import bank.accounts.repository.AccountRepository;
+import bank.accounts.states.AccountStates;
+import bank.notifications.Notifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * BulkStateService - Moves every account that meets a criterion to a new status
+ * e.g. freezing all accounts flagged by a compliance rule.
+ *
+ * The account set is split into index ranges on a fork-join pool. Each account is
+ * checked and changed while holding its AccountLocks stripe, the same lock that
+ * TransactionService holds from validation to execution, so a transaction either
+ * completes before the change or sees the new status. The criterion is evaluated
+ * under that lock too, so it sees a balance no transaction is about to change.
+ *
+ * Accounts change through Account.changeStateQuietly (no console output and no
+ * per-account observer message). Instead, each holder receives one message listing
+ * all of their changed accounts, delivered once to every distinct observer of those
+ * accounts. EventBus subscribers still get a STATE_CHANGED event per changed
+ * account. Both are sent after all locks are released.
+ *
+ * Accounts of a repository are acquired while they change, so repositories that
+ * page accounts out keep the new status.
+ */
+public class BulkStateService {
+
+    /** Accounts per leaf task; smaller inputs are changed on the calling thread */
+    public static final int DEFAULT_THRESHOLD = 8192;
+
+    /** Account ids listed in one holder message before the rest are summarized */
+    static final int MAX_LISTED_IDS = 10;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final AccountLocks locks;
+
+    public BulkStateService() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, AccountLocks.shared());
+    }
+
+    /**
+     * @param pool Pool that runs the leaf tasks
+     * @param threshold Maximum number of accounts handled by one leaf task
+     * @param locks Locks shared with the TransactionService working on the same accounts
+     */
+    public BulkStateService(ForkJoinPool pool, int threshold, AccountLocks locks) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+        this.locks = locks;
+    }
+
+    /**
+     * Changes the status of the accounts that meet a criterion
+     *
+     * @param accounts The accounts (null entries are ignored)
+     * @param criteria Selects the accounts to change; evaluated under the account lock
+     * @param target The new status
+     * @param reason Included in the holder notifications, e.g. "compliance review"
+     */
+    public BulkStateResult changeState(Collection<? extends Account> accounts, Predicate<? super Account> criteria,
+                                       AccountStatus target, String reason) {
+        long start = System.nanoTime();
+        Account[] array = accounts.toArray(new Account[0]);
+        return finish(run(new Batch(array, null, null, criteria, target)), target, reason, start);
+    }
+
+    /**
+     * Changes the status of the accounts of a repository that meet a criterion
+     * The criterion is applied once to pick candidates and again under the lock
+     * of each candidate before it changes.
+     */
+    public BulkStateResult changeState(AccountRepository repository, Predicate<? super Account> criteria,
+                                       AccountStatus target, String reason) {
+        long start = System.nanoTime();
+        LongList candidates = new LongList(Math.max(16, repository.size() / 8));
+        repository.forEach(account -> {
+            if (criteria.test(account)) candidates.add(account.getId());
+        });
+        Batch batch = new Batch(null, candidates.toArray(), repository, criteria, target);
+        return finish(run(batch), target, reason, start);
+    }
+
+    /**
+     * Changes the status of a list of accounts, e.g. ids supplied by a compliance system
+     */
+    public BulkStateResult changeState(AccountRepository repository, long[] accountIds, AccountStatus target,
+                                       String reason) {
+        long start = System.nanoTime();
+        Batch batch = new Batch(null, accountIds.clone(), repository, null, target);
+        return finish(run(batch), target, reason, start);
+    }
+
+    private Outcome run(Batch batch) {
+        int size = batch.size();
+        return size <= threshold
+                ? batch.apply(0, size, locks)
+                : pool.invoke(new ChangeTask(batch, 0, size, threshold, locks));
+    }
+
+    private BulkStateResult finish(Outcome outcome, AccountStatus target, String reason, long startNanos) {
+        List<Account> changed = outcome.changed;
+        for (Account account : changed) {
+            account.publishStateChanged();
+        }
+        int holdersNotified = notifyHolders(changed, target, reason);
+        long[] ids = new long[changed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = changed.get(i).getId();
+        }
+        BulkStateResult result = new BulkStateResult(target, reason, outcome.matched, outcome.unchanged,
+                outcome.rejected, outcome.notFound, holdersNotified, ids, (System.nanoTime() - startNanos) / 1_000_000);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Sends one message per holder with observers on any of the changed accounts
+     *
+     * @return The number of holders notified
+     */
+    private static int notifyHolders(List<Account> changed, AccountStatus target, String reason) {
+        Set<String> observed = new HashSet<>();
+        for (Account account : changed) {
+            if (account.hasObservers()) observed.add(account.getAccountHolder());
+        }
+        if (observed.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<Account>> byHolder = new LinkedHashMap<>();
+        for (Account account : changed) {
+            String holder = account.getAccountHolder();
+            if (observed.contains(holder)) {
+                byHolder.computeIfAbsent(holder, h -> new ArrayList<>()).add(account);
+            }
+        }
+        String stateName = AccountStates.of(target).getStateName();
+        for (Map.Entry<String, List<Account>> entry : byHolder.entrySet()) {
+            List<Account> accounts = entry.getValue();
+            Set<Notifier> notifiers = new LinkedHashSet<>();
+            for (Account account : accounts) {
+                account.collectObservers(notifiers);
+            }
+            String message = holderMessage(entry.getKey(), accounts, stateName, reason);
+            for (Notifier notifier : notifiers) {
+                notifier.update(message);
+            }
+        }
+        return byHolder.size();
+    }
+
+    static String holderMessage(String holder, List<Account> accounts, String stateName, String reason) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(accounts.size()).append(accounts.size() == 1 ? " account of " : " accounts of ").append(holder)
+          .append(" changed to ").append(stateName);
+        if (reason != null && !reason.isEmpty()) {
+            sb.append(" (").append(reason).append(')');
+        }
+        sb.append(": ");
+        int listed = Math.min(accounts.size(), MAX_LISTED_IDS);
+        for (int i = 0; i < listed; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(accounts.get(i).getId());
+        }
+        if (accounts.size() > listed) {
+            sb.append(" and ").append(accounts.size() - listed).append(" more");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The input of one bulk change: either account references or ids resolved
+     * through a repository
+     */
+    private static final class Batch {
+        final Account[] accounts;
+        final long[] ids;
+        final AccountRepository repository;
+        final Predicate<? super Account> criteria;
+        final AccountStatus target;
+        final AccountState targetState;
+
+        Batch(Account[] accounts, long[] ids, AccountRepository repository, Predicate<? super Account> criteria,
+              AccountStatus target) {
+            this.accounts = accounts;
+            this.ids = ids;
+            this.repository = repository;
+            this.criteria = criteria;
+            this.target = target;
+            this.targetState = AccountStates.of(target);
+        }
+
+        int size() {
+            return ids != null ? ids.length : accounts.length;
+        }
+
+        Outcome apply(int from, int to, AccountLocks locks) {
+            Outcome out = new Outcome();
+            for (int i = from; i < to; i++) {
+                if (ids == null) {
+                    if (accounts[i] != null) change(accounts[i], locks, out);
+                    continue;
+                }
+                Account account = repository.acquire(ids[i]);
+                if (account == null) {
+                    out.notFound++;
+                    continue;
+                }
+                try {
+                    change(account, locks, out);
+                } finally {
+                    repository.release(account);
+                }
+            }
+            return out;
+        }
+
+        private void change(Account account, AccountLocks locks, Outcome out) {
+            long id = account.getId();
+            locks.lock(id);
+            try {
+                if (criteria != null && !criteria.test(account)) return;
+                out.matched++;
+                if (account.getCurrentState().getStatus() == target) {
+                    out.unchanged++;
+                } else if (account.changeStateQuietly(targetState)) {
+                    out.changed.add(account);
+                } else {
+                    out.rejected++;
+                }
+            } finally {
+                locks.unlock(id);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task over the index range [from, to)
+     */
+    private static final class ChangeTask extends RecursiveTask<Outcome> {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final AccountLocks locks;
+
+        ChangeTask(Batch batch, int from, int to, int threshold, AccountLocks locks) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.locks = locks;
+        }
+
+        @Override
+        protected Outcome compute() {
+            if (to - from <= threshold) {
+                return batch.apply(from, to, locks);
+            }
+            int mid = (from + to) >>> 1;
+            ChangeTask left = new ChangeTask(batch, from, mid, threshold, locks);
+            left.fork();
+            Outcome right = new ChangeTask(batch, mid, to, threshold, locks).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Per-task accumulator; merged left to right so changed accounts keep input order
+     */
+    private static final class Outcome {
+        long matched;
+        long unchanged;
+        long rejected;
+        long notFound;
+        final List<Account> changed = new ArrayList<>();
+
+        Outcome merge(Outcome right) {
+            matched += right.matched;
+            unchanged += right.unchanged;
+            rejected += right.rejected;
+            notFound += right.notFound;
+            changed.addAll(right.changed);
+            return this;
+        }
+    }
+
+    /**
+     * Growable list of candidate ids
+     */
+    private static final class LongList {
+        private long[] values;
+        private int size;
+
+        LongList(int capacity) {
+            values = new long[capacity];
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
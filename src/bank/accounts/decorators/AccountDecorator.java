@@ -1,7 +1,10 @@
 package bank.accounts.decorators;
 
 import bank.accounts.Account;
+import bank.accounts.AccountFeature;
 import bank.accounts.AccountState;
+import bank.accounts.AccountStateListener;
+import bank.accounts.FeatureSlot;
 import bank.interest.InterestStrategy;
 import java.time.LocalDateTime;
 
@@ -15,10 +18,23 @@ public abstract class AccountDecorator extends Account {
     
     public AccountDecorator(Account decoratedAccount) {
         // Pass dummy values to super constructor, as we delegate everything
-        super(decoratedAccount.getAccountHolder(), decoratedAccount.getAccountType(), decoratedAccount.getBalance());
+        // Reuse the wrapped id so no new identifier is generated per layer
+        super(decoratedAccount.getId(), decoratedAccount.getAccountHolder(), decoratedAccount.getAccountType(), decoratedAccount.getBalance());
         this.decoratedAccount = decoratedAccount;
     }
     
+    /**
+     * Gets the account wrapped by this decorator
+     */
+    public Account getDecoratedAccount() {
+        return decoratedAccount;
+    }
+    
+    @Override
+    public long getId() {
+        return decoratedAccount.getId();
+    }
+    
     @Override
     public String getAccountId() {
         return decoratedAccount.getAccountId();
@@ -54,6 +70,16 @@ public abstract class AccountDecorator extends Account {
         return decoratedAccount.getLastModified();
     }
     
+    @Override
+    public long getCreatedAtMillis() {
+        return decoratedAccount.getCreatedAtMillis();
+    }
+    
+    @Override
+    public long getLastModifiedMillis() {
+        return decoratedAccount.getLastModifiedMillis();
+    }
+    
     @Override
     public AccountState getCurrentState() {
         return decoratedAccount.getCurrentState();
@@ -65,8 +91,23 @@ public abstract class AccountDecorator extends Account {
     }
     
     @Override
-    public void setState(AccountState newState) {
-        decoratedAccount.setState(newState);
+    public boolean setState(AccountState newState) {
+        return decoratedAccount.setState(newState);
+    }
+    
+    @Override
+    public boolean changeStateQuietly(AccountState newState) {
+        return decoratedAccount.changeStateQuietly(newState);
+    }
+    
+    @Override
+    public void addStateListener(AccountStateListener listener) {
+        decoratedAccount.addStateListener(listener);
+    }
+    
+    @Override
+    public void removeStateListener(AccountStateListener listener) {
+        decoratedAccount.removeStateListener(listener);
     }
     
     @Override
@@ -104,6 +145,56 @@ public abstract class AccountDecorator extends Account {
         return decoratedAccount.calculateInterest();
     }
     
+    @Override
+    public InterestStrategy getInterestStrategy() {
+        return decoratedAccount.getInterestStrategy();
+    }
+    
+    @Override
+    public boolean postInterest(String runId, double interest) {
+        return decoratedAccount.postInterest(runId, interest);
+    }
+    
+    @Override
+    public boolean accrueInterest(long epochDay, double amount) {
+        return decoratedAccount.accrueInterest(epochDay, amount);
+    }
+    
+    @Override
+    public double capitalizeAccruedInterest(String runId) {
+        return decoratedAccount.capitalizeAccruedInterest(runId);
+    }
+    
+    @Override
+    public double getAccruedInterest() {
+        return decoratedAccount.getAccruedInterest();
+    }
+    
+    @Override
+    public long getLastAccrualEpochDay() {
+        return decoratedAccount.getLastAccrualEpochDay();
+    }
+    
+    @Override
+    public AccountFeature addFeature(AccountFeature feature) {
+        return decoratedAccount.addFeature(feature);
+    }
+    
+    @Override
+    public AccountFeature removeFeature(FeatureSlot slot) {
+        return decoratedAccount.removeFeature(slot);
+    }
+    
+    @Override
+    public AccountFeature getFeature(FeatureSlot slot) {
+        return decoratedAccount.getFeature(slot);
+    }
+    
+    @Override
+    public String getFeatureLabels() {
+        return decoratedAccount.getFeatureLabels();
+    }
+    
     @Override
     public String getAccountDetails() {
         return decoratedAccount.getAccountDetails();
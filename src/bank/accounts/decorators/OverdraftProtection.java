@@ -1,6 +1,8 @@
 package bank.accounts.decorators;
 
 import bank.accounts.Account;
+import bank.notifications.AccountEvent;
+import bank.notifications.AccountEventKind;
 
 public class OverdraftProtection extends AccountDecorator {
     
@@ -43,10 +45,16 @@ public class OverdraftProtection extends AccountDecorator {
         double newBalance = currentBalance - amount;
         setBalance(newBalance);
         System.out.println("Successfully withdrew " + amount + " with overdraft. New Balance: " + newBalance);
-        notifyObservers("Overdraft withdrawal: " + amount + ". New Balance: " + newBalance);
+        if (isDeliveryRequired(AccountEventKind.OVERDRAFT_WITHDRAWAL, amount)) {
+            deliver(AccountEvent.overdraftWithdrawal(getId(), amount, newBalance, getLastModifiedMillis()));
+        }
         return true;
     }
     
+    public double getOverdraftLimit() {
+        return overdraftLimit;
+    }
+    
     @Override
     public String getAccountDetails() {
         return super.getAccountDetails() + " [Overdraft Protection: $" + overdraftLimit + "]";
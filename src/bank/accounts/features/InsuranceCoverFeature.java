@@ -0,0 +1,55 @@
+package bank.accounts.features;
+
+import bank.accounts.AccountFeature;
+import bank.accounts.FeatureContext;
+import bank.accounts.FeatureOperation;
+import bank.accounts.FeatureSlot;
+
+/**
+ * InsuranceCoverFeature - Insured withdrawals for a fee per transaction
+ * Pipeline counterpart of the InsuranceFeature decorator: the fee is charged
+ * after every successful withdrawal.
+ */
+public class InsuranceCoverFeature implements AccountFeature {
+
+    public static final double DEFAULT_FEE = 0.50;
+
+    private final double feePerTransaction;
+
+    public InsuranceCoverFeature() {
+        this(DEFAULT_FEE);
+    }
+
+    public InsuranceCoverFeature(double feePerTransaction) {
+        this.feePerTransaction = feePerTransaction;
+    }
+
+    @Override
+    public FeatureSlot getSlot() {
+        return FeatureSlot.INSURANCE;
+    }
+
+    @Override
+    public int getOperations() {
+        return FeatureOperation.WITHDRAW.bit();
+    }
+
+    @Override
+    public boolean withdraw(FeatureContext context, double amount) {
+        if (!context.proceedWithdraw(amount)) {
+            return false;
+        }
+        context.chargeFee(feePerTransaction);
+        System.out.println("Insurance fee deducted: $" + feePerTransaction);
+        return true;
+    }
+
+    public double getFeePerTransaction() {
+        return feePerTransaction;
+    }
+
+    @Override
+    public String getLabel() {
+        return "Insured";
+    }
+}
@@ -0,0 +1,60 @@
+package bank.accounts.features;
+
+import bank.accounts.Account;
+import bank.accounts.AccountFeature;
+import bank.accounts.FeatureContext;
+import bank.accounts.FeatureOperation;
+import bank.accounts.FeatureSlot;
+
+/**
+ * MinimumBalanceFeature - Rejects withdrawals and transfers that would leave less
+ * than a minimum balance
+ */
+public class MinimumBalanceFeature implements AccountFeature {
+
+    private static final int OPERATIONS = FeatureOperation.maskOf(FeatureOperation.WITHDRAW,
+                                                                  FeatureOperation.TRANSFER);
+
+    private final double minimumBalance;
+
+    public MinimumBalanceFeature(double minimumBalance) {
+        this.minimumBalance = minimumBalance;
+    }
+
+    @Override
+    public FeatureSlot getSlot() {
+        return FeatureSlot.MINIMUM_BALANCE;
+    }
+
+    @Override
+    public int getOperations() {
+        return OPERATIONS;
+    }
+
+    @Override
+    public boolean withdraw(FeatureContext context, double amount) {
+        return keepsMinimum(context, amount) && context.proceedWithdraw(amount);
+    }
+
+    @Override
+    public boolean transfer(FeatureContext context, Account target, double amount) {
+        return keepsMinimum(context, amount) && context.proceedTransfer(target, amount);
+    }
+
+    private boolean keepsMinimum(FeatureContext context, double amount) {
+        if (context.getAccount().getBalance() - amount < minimumBalance) {
+            System.out.println("Error: Withdrawal would violate minimum balance requirement of $" + minimumBalance);
+            return false;
+        }
+        return true;
+    }
+
+    public double getMinimumBalance() {
+        return minimumBalance;
+    }
+
+    @Override
+    public String getLabel() {
+        return "Minimum Balance: $" + minimumBalance;
+    }
+}
@@ -0,0 +1,53 @@
+package bank.accounts.features;
+
+import bank.accounts.AccountFeature;
+import bank.accounts.FeatureContext;
+import bank.accounts.FeatureOperation;
+import bank.accounts.FeatureSlot;
+
+/**
+ * OverdraftFeature - Lets withdrawals take the balance down to -limit
+ * Pipeline counterpart of the OverdraftProtection decorator. Withdrawals the
+ * balance covers pass through unchanged.
+ */
+public class OverdraftFeature implements AccountFeature {
+
+    private final double overdraftLimit;
+
+    public OverdraftFeature(double overdraftLimit) {
+        this.overdraftLimit = overdraftLimit;
+    }
+
+    @Override
+    public FeatureSlot getSlot() {
+        return FeatureSlot.OVERDRAFT;
+    }
+
+    @Override
+    public int getOperations() {
+        return FeatureOperation.WITHDRAW.bit();
+    }
+
+    @Override
+    public boolean withdraw(FeatureContext context, double amount) {
+        double currentBalance = context.getAccount().getBalance();
+        if (amount <= 0 || currentBalance >= amount) {
+            return context.proceedWithdraw(amount);
+        }
+        if (currentBalance - amount < -overdraftLimit) {
+            System.out.println("Error: Overdraft limit exceeded. Limit: " + overdraftLimit
+                    + ", Balance: " + currentBalance);
+            return false;
+        }
+        return context.withdrawIntoOverdraft(amount);
+    }
+
+    public double getOverdraftLimit() {
+        return overdraftLimit;
+    }
+
+    @Override
+    public String getLabel() {
+        return "Overdraft Protection: $" + overdraftLimit;
+    }
+}
@@ -0,0 +1,63 @@
+package bank.accounts.features;
+
+import bank.accounts.Account;
+import bank.accounts.AccountFeature;
+import bank.accounts.FeatureContext;
+import bank.accounts.FeatureOperation;
+import bank.accounts.FeatureSlot;
+
+/**
+ * PremiumFeature - Priority transfers and bonus interest
+ * Pipeline counterpart of the PremiumAccount decorator.
+ */
+public class PremiumFeature implements AccountFeature {
+
+    public static final double DEFAULT_INTEREST_BONUS = 0.10;
+
+    private static final int OPERATIONS = FeatureOperation.maskOf(FeatureOperation.TRANSFER,
+                                                                  FeatureOperation.INTEREST);
+
+    private final double interestBonus;
+
+    public PremiumFeature() {
+        this(DEFAULT_INTEREST_BONUS);
+    }
+
+    /**
+     * @param interestBonus Extra interest as a fraction of the base interest (0.10 for 10%)
+     */
+    public PremiumFeature(double interestBonus) {
+        this.interestBonus = interestBonus;
+    }
+
+    @Override
+    public FeatureSlot getSlot() {
+        return FeatureSlot.PREMIUM;
+    }
+
+    @Override
+    public int getOperations() {
+        return OPERATIONS;
+    }
+
+    @Override
+    public boolean transfer(FeatureContext context, Account target, double amount) {
+        System.out.println(">>> Processing Premium Priority Transfer <<<");
+        return context.proceedTransfer(target, amount);
+    }
+
+    @Override
+    public double calculateInterest(FeatureContext context) {
+        double baseInterest = context.proceedInterest();
+        return baseInterest + baseInterest * interestBonus;
+    }
+
+    public double getInterestBonus() {
+        return interestBonus;
+    }
+
+    @Override
+    public String getLabel() {
+        return "Premium";
+    }
+}
@@ -0,0 +1,59 @@
+package bank.accounts.features;
+
+import bank.accounts.Account;
+import bank.accounts.AccountFeature;
+import bank.accounts.FeatureContext;
+import bank.accounts.FeatureOperation;
+import bank.accounts.FeatureSlot;
+
+/**
+ * SpendingLimitFeature - Caps the amount of a single withdrawal or transfer
+ */
+public class SpendingLimitFeature implements AccountFeature {
+
+    private static final int OPERATIONS = FeatureOperation.maskOf(FeatureOperation.WITHDRAW,
+                                                                  FeatureOperation.TRANSFER);
+
+    private final double limit;
+
+    public SpendingLimitFeature(double limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public FeatureSlot getSlot() {
+        return FeatureSlot.SPENDING_LIMIT;
+    }
+
+    @Override
+    public int getOperations() {
+        return OPERATIONS;
+    }
+
+    @Override
+    public boolean withdraw(FeatureContext context, double amount) {
+        return withinLimit(amount) && context.proceedWithdraw(amount);
+    }
+
+    @Override
+    public boolean transfer(FeatureContext context, Account target, double amount) {
+        return withinLimit(amount) && context.proceedTransfer(target, amount);
+    }
+
+    private boolean withinLimit(double amount) {
+        if (amount > limit) {
+            System.out.println("Error: Amount " + amount + " exceeds the spending limit of $" + limit);
+            return false;
+        }
+        return true;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String getLabel() {
+        return "Spending Limit: $" + limit;
+    }
+}
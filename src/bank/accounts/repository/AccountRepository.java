@@ -0,0 +1,108 @@
+package bank.accounts.repository;
+
+import bank.accounts.Account;
+import bank.accounts.AccountStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * AccountRepository - Central registry of accounts, keyed by their 64-bit id
+ * Decorated accounts share the id of the account they wrap, so saving a decorator
+ * replaces the plain account with its decorated form.
+ */
+public interface AccountRepository {
+
+    /**
+     * Looks up an account by id
+     *
+     * @return The account, or null if no account has that id
+     */
+    Account findById(long id);
+
+    boolean contains(long id);
+
+    /**
+     * Looks up an account and keeps it resident until it is released
+     * Repositories that may drop accounts from memory must not do so while an
+     * account is acquired; callers modifying an account should hold it this way.
+     *
+     * @return The account, or null if no account has that id
+     */
+    default Account acquire(long id) {
+        return findById(id);
+    }
+
+    /**
+     * Releases an account obtained from acquire
+     * Releasing an unpinned account obtained from findById, findAll or findByStatus
+     * tells the repository that the caller no longer holds it, so it may drop it
+     * from memory again.
+     */
+    default void release(Account account) {
+    }
+
+    /**
+     * Adds or replaces an account
+     *
+     * @return The account previously stored under the same id, or null; repositories
+     *         holding serialized rows return null for a row never materialized as an object
+     */
+    Account save(Account account);
+
+    /**
+     * Removes an account
+     *
+     * @return The removed account, or null if no account had that id (or, as for save,
+     *         it was a serialized row never materialized)
+     */
+    Account remove(long id);
+
+    int size();
+
+    /**
+     * Visits every account; accounts saved or removed concurrently may or may not be seen
+     * The account passed to the action is only guaranteed to be current while the
+     * action runs; batch jobs that modify accounts after the visit should collect
+     * ids and acquire the accounts instead of keeping the references.
+     */
+    void forEach(Consumer<? super Account> action);
+
+    /**
+     * Visits the id of every account
+     * The default visits the accounts; repositories holding serialized rows skip decoding them.
+     */
+    default void forEachId(LongConsumer action) {
+        forEach(account -> action.accept(account.getId()));
+    }
+
+    /**
+     * Copies every account into a new random-access list, e.g. for reports
+     */
+    List<Account> findAll();
+
+    /**
+     * Counts the accounts in a status
+     * The default scans every account; indexed repositories answer in O(1).
+     */
+    default long countByStatus(AccountStatus status) {
+        long[] count = new long[1];
+        forEach(account -> {
+            if (account.getCurrentState().getStatus() == status) count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Finds the accounts in a status, e.g. every FROZEN account for review
+     * The default scans every account; indexed repositories visit only that status.
+     */
+    default List<Account> findByStatus(AccountStatus status) {
+        List<Account> result = new ArrayList<>();
+        forEach(account -> {
+            if (account.getCurrentState().getStatus() == status) result.add(account);
+        });
+        return result;
+    }
+}
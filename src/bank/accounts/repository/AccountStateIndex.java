@@ -0,0 +1,142 @@
+package bank.accounts.repository;
+
+import bank.accounts.Account;
+import bank.accounts.AccountStateListener;
+import bank.accounts.AccountStatus;
+import bank.common.LongObjectHashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AccountStateIndex - Ids of the accounts in each status
+ *
+ * Registered as a state listener on every account of a repository, so each
+ * transition moves the id from one status set to another in O(1) and adjusts the
+ * per-status counters. Listing the accounts in a status costs the size of that
+ * status, not the size of the repository, and counts are a single array read.
+ *
+ * Like InMemoryAccountRepository, the sets are split into stripes by id, each a
+ * group of LongObjectHashMaps (ids are never boxed) guarded by the stripe's monitor,
+ * so transitions of accounts on different stripes never contend.
+ */
+public final class AccountStateIndex implements AccountStateListener {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final AtomicLongArray counts = new AtomicLongArray(AccountStatus.count());
+
+    public AccountStateIndex() {
+        this(1024, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param expectedSize Number of accounts to size the sets for
+     * @param stripeCount Number of independently locked stripes (rounded up to a power of two)
+     */
+    public AccountStateIndex(int expectedSize, int stripeCount) {
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        int perStripe = Math.max(16, expectedSize / count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    private Stripe stripeFor(long id) {
+        int h = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+        return stripes[h & mask];
+    }
+
+    @Override
+    public void stateChanged(Account account, AccountStatus from, AccountStatus to) {
+        stripeFor(account.getId()).move(account.getId(), from, to, counts);
+    }
+
+    /**
+     * Gets the number of indexed accounts in a status in O(1)
+     */
+    public long count(AccountStatus status) {
+        return counts.get(status.ordinal());
+    }
+
+    /**
+     * Gets the ids in a status; accounts changing status meanwhile may or may not be included
+     */
+    public long[] idsIn(AccountStatus status) {
+        long[] result = new long[Math.max(16, (int) count(status))];
+        int n = 0;
+        for (Stripe stripe : stripes) {
+            long[] ids = stripe.ids(status);
+            if (n + ids.length > result.length) {
+                result = Arrays.copyOf(result, Math.max(result.length * 2, n + ids.length));
+            }
+            System.arraycopy(ids, 0, result, n, ids.length);
+            n += ids.length;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public boolean contains(AccountStatus status, long accountId) {
+        return stripeFor(accountId).contains(status, accountId);
+    }
+
+    /**
+     * Drops an id from whichever status it is indexed under
+     * For repositories that keep ids indexed while the account is detached (e.g.
+     * serialized), where the account's last reported status is not at hand.
+     */
+    void remove(long accountId) {
+        stripeFor(accountId).removeAll(accountId, counts);
+    }
+
+    /**
+     * One independently locked partition of the id space, with one set per status
+     */
+    private static final class Stripe {
+        private final LongObjectHashMap<Boolean>[] byStatus;
+
+        @SuppressWarnings("unchecked")
+        Stripe(int expectedSize) {
+            byStatus = (LongObjectHashMap<Boolean>[]) new LongObjectHashMap<?>[AccountStatus.count()];
+            byStatus[AccountStatus.ACTIVE.ordinal()] = new LongObjectHashMap<>(expectedSize);
+            for (int s = 0; s < byStatus.length; s++) {
+                if (byStatus[s] == null) byStatus[s] = new LongObjectHashMap<>();
+            }
+        }
+
+        synchronized void move(long id, AccountStatus from, AccountStatus to, AtomicLongArray counts) {
+            if (from != null && byStatus[from.ordinal()].remove(id) != null) {
+                counts.decrementAndGet(from.ordinal());
+            }
+            if (to != null && byStatus[to.ordinal()].put(id, Boolean.TRUE) == null) {
+                counts.incrementAndGet(to.ordinal());
+            }
+        }
+
+        synchronized void removeAll(long id, AtomicLongArray counts) {
+            for (int s = 0; s < byStatus.length; s++) {
+                if (byStatus[s].remove(id) != null) {
+                    counts.decrementAndGet(s);
+                }
+            }
+        }
+
+        synchronized boolean contains(AccountStatus status, long id) {
+            return byStatus[status.ordinal()].containsKey(id);
+        }
+
+        synchronized long[] ids(AccountStatus status) {
+            LongObjectHashMap<Boolean> set = byStatus[status.ordinal()];
+            long[] copy = new long[set.size()];
+            int[] next = new int[1];
+            set.forEach((id, present) -> copy[next[0]++] = id);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package bank.accounts.repository;
+
+import bank.accounts.Account;
+import bank.accounts.AccountStatus;
+import bank.common.LongObjectHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * InMemoryAccountRepository - Heap-resident AccountRepository for millions of accounts
+ *
+ * Accounts are spread over a power-of-two number of stripes by id. Each stripe is
+ * an open-addressing LongObjectHashMap (ids are never boxed) guarded by its own
+ * StampedLock:
+ * - findById first tries an optimistic read, which takes no lock at all, and only
+ *   falls back to a shared read lock when a writer touched the stripe meanwhile
+ * - save and remove lock only the stripe owning the id, so writers to different
+ *   stripes never contend
+ * - iteration copies one stripe at a time under its read lock and visits the copy
+ *   outside the lock
+ *
+ * Stored accounts report their status changes to an AccountStateIndex, so
+ * countByStatus is O(1) and findByStatus visits only the accounts in that status.
+ * The index listener is attached and detached under the stripe's write lock,
+ * together with the map update, so a save racing a remove of the same id cannot
+ * leave an index entry for an account that is no longer stored.
+ */
+public class InMemoryAccountRepository implements AccountRepository {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int shift;
+    private final AccountStateIndex stateIndex;
+
+    public InMemoryAccountRepository() {
+        this(1024, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param expectedSize Number of accounts to size the tables for
+     * @param stripeCount Number of independently locked stripes (rounded up to a power of two)
+     */
+    public InMemoryAccountRepository(int expectedSize, int stripeCount) {
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+        int perStripe = Math.max(16, expectedSize / count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.stateIndex = new AccountStateIndex(expectedSize, count);
+    }
+
+    private Stripe stripeFor(long id) {
+        if (stripes.length == 1) return stripes[0];
+        // Take the top bits of a mixed hash; the low bits are used inside the stripe's table
+        int h = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+        return stripes[h >>> shift];
+    }
+
+    @Override
+    public Account findById(long id) {
+        return stripeFor(id).get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return findById(id) != null;
+    }
+
+    @Override
+    public Account save(Account account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account must not be null");
+        }
+        return stripeFor(account.getId()).put(account.getId(), account, stateIndex);
+    }
+
+    @Override
+    public Account remove(long id) {
+        return stripeFor(id).remove(id, stateIndex);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Account> action) {
+        for (Stripe stripe : stripes) {
+            for (Account account : stripe.values()) {
+                action.accept(account);
+            }
+        }
+    }
+
+    @Override
+    public List<Account> findAll() {
+        List<Account> all = new ArrayList<>(size());
+        for (Stripe stripe : stripes) {
+            for (Account account : stripe.values()) {
+                all.add(account);
+            }
+        }
+        return all;
+    }
+
+    @Override
+    public long countByStatus(AccountStatus status) {
+        return stateIndex.count(status);
+    }
+
+    @Override
+    public List<Account> findByStatus(AccountStatus status) {
+        long[] ids = stateIndex.idsIn(status);
+        List<Account> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Account account = findById(id);
+            if (account != null) result.add(account);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of stored accounts by status
+     */
+    public AccountStateIndex getStateIndex() {
+        return stateIndex;
+    }
+
+    /**
+     * One independently locked partition of the id space
+     */
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private final LongObjectHashMap<Account> map;
+
+        Stripe(int expectedSize) {
+            this.map = new LongObjectHashMap<>(expectedSize);
+        }
+
+        Account get(long id) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    Account account = map.get(id);
+                    if (lock.validate(stamp)) {
+                        return account;
+                    }
+                } catch (RuntimeException e) {
+                    // A concurrent resize was observed half-way; retry under the read lock
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return map.get(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        Account put(long id, Account account, AccountStateIndex index) {
+            long stamp = lock.writeLock();
+            try {
+                Account previous = map.put(id, account);
+                if (previous != null && previous != account) {
+                    previous.removeStateListener(index);
+                }
+                account.addStateListener(index);
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        Account remove(long id, AccountStateIndex index) {
+            long stamp = lock.writeLock();
+            try {
+                Account removed = map.remove(id);
+                if (removed != null) {
+                    removed.removeStateListener(index);
+                }
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        Account[] values() {
+            long stamp = lock.readLock();
+            try {
+                Account[] copy = new Account[map.size()];
+                int[] next = new int[1];
+                map.forEach((id, account) -> copy[next[0]++] = account);
+                return copy;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package bank.accounts.repository;
+
+import bank.accounts.Account;
+import bank.accounts.AccountStateListener;
+import bank.accounts.AccountStatus;
+import bank.accounts.decorators.AccountDecorator;
+import bank.accounts.snapshot.AccountRowCodec;
+import bank.common.LongObjectHashMap;
+import bank.interest.MarketLinkedInterest;
+import bank.interest.rates.RateBook;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * TieredAccountRepository - AccountRepository with a bounded hot tier of live objects
+ * and a compact serialized cold tier
+ *
+ * Recently used accounts are kept as full Account objects in a hot tier bounded
+ * by an LRU policy. When the hot tier is over capacity, the least recently used
+ * accounts are encoded with AccountRowCodec into small byte arrays (the cold
+ * tier) and their objects become garbage. A lookup of a cold account decodes it
+ * back into the hot tier. Heap use therefore follows the number of active
+ * accounts plus roughly ROW_SIZE + name bytes per dormant account. The row keeps
+ * the interest strategy, run markers and accrual state, so nothing is lost.
+ *
+ * An account is never evicted while:
+ * - it is acquired (acquire/release pin counts), e.g. during a transaction
+ * - it was handed out by findById, findAll or findByStatus: the repository cannot tell
+ *   when that reference is dropped, so the object is taken off the LRU list until the
+ *   caller hands it back with release (or it is replaced or removed)
+ * - any layer of it has observers, state listeners or features attached, since
+ *   those cannot be serialized
+ * - its class or strategy is not covered by the row format, or it has a
+ *   market-linked strategy and the repository has no RateBook to restore it with
+ *
+ * Like InMemoryAccountRepository, the repository keeps an AccountStateIndex, so
+ * countByStatus is O(1) and findByStatus pages in only the accounts in that
+ * status. A hot account reports its transitions through a state listener; the
+ * listener is detached when the account is evicted and attached again when it is
+ * paged in, and a cold account cannot change status, so its id simply stays
+ * indexed under the status its row holds. The index listener does not count as
+ * an attachment that keeps an account resident.
+ *
+ * So that accounts stay evictable, code should acquire and release them; forEach
+ * pins each account only while its action runs, so scans and reports (e.g.
+ * ReportingService.getAccountSummary) do not keep the repository hot. A saved
+ * object belongs to the repository: callers that keep modifying it afterwards
+ * must acquire it.
+ *
+ * The id space is split into segments, each with its own lock, LRU list and tables.
+ */
+public class TieredAccountRepository implements AccountRepository {
+
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final AccountStateIndex stateIndex;
+
+    /**
+     * @param hotCapacity Maximum number of accounts kept as objects (excluding pinned and handed-out ones)
+     */
+    public TieredAccountRepository(int hotCapacity) {
+        this(hotCapacity, DEFAULT_SEGMENTS);
+    }
+
+    public TieredAccountRepository(int hotCapacity, int segmentCount) {
+        this(hotCapacity, segmentCount, null);
+    }
+
+    /**
+     * @param rates Book that paged-in market-linked strategies read from; null keeps
+     *              accounts with such strategies resident
+     */
+    public TieredAccountRepository(int hotCapacity, int segmentCount, RateBook rates) {
+        if (hotCapacity < 1 || segmentCount < 1) {
+            throw new IllegalArgumentException("Capacity and segment count must be positive");
+        }
+        int count = 1;
+        while (count < segmentCount) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        this.stateIndex = new AccountStateIndex();
+        StateTracker tracker = new StateTracker(stateIndex);
+        int perSegment = Math.max(1, (hotCapacity + count - 1) / count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment, rates, stateIndex, tracker);
+        }
+    }
+
+    private Segment segmentFor(long id) {
+        int h = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Looks up an account; it stays resident until it is released (see the class comment)
+     */
+    @Override
+    public Account findById(long id) {
+        return segmentFor(id).get(id, false, true);
+    }
+
+    @Override
+    public Account acquire(long id) {
+        return segmentFor(id).get(id, true, false);
+    }
+
+    @Override
+    public void release(Account account) {
+        if (account != null) {
+            segmentFor(account.getId()).release(account.getId());
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return segmentFor(id).contains(id);
+    }
+
+    @Override
+    public Account save(Account account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account must not be null");
+        }
+        return segmentFor(account.getId()).put(account);
+    }
+
+    @Override
+    public Account remove(long id) {
+        return segmentFor(id).remove(id);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Visits every account, pinned while the action runs
+     * Changes made by the action are kept. Hot accounts keep their place in the LRU
+     * order; cold accounts are paged in at its end, so they are the first to be
+     * evicted again and a full scan does not flush the working set.
+     */
+    @Override
+    public void forEach(Consumer<? super Account> action) {
+        for (Segment segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    @Override
+    public void forEachId(LongConsumer action) {
+        for (Segment segment : segments) {
+            for (long id : segment.ids()) {
+                action.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Copies every account into a list; like findById, this keeps them all resident
+     * until each is released. Use forEach to visit the accounts without doing so.
+     */
+    @Override
+    public List<Account> findAll() {
+        List<Account> all = new ArrayList<>(size());
+        forEachId(id -> {
+            Account account = findById(id);
+            if (account != null) all.add(account);
+        });
+        return all;
+    }
+
+    @Override
+    public long countByStatus(AccountStatus status) {
+        return stateIndex.count(status);
+    }
+
+    /**
+     * Lists the accounts in a status; only the matches are paged in and kept
+     * resident (until released)
+     */
+    @Override
+    public List<Account> findByStatus(AccountStatus status) {
+        long[] ids = stateIndex.idsIn(status);
+        List<Account> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Account account = findById(id);
+            if (account != null && account.getCurrentState().getStatus() == status) {
+                result.add(account);
+            } else {
+                release(account);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of stored accounts (hot and cold) by status
+     */
+    public AccountStateIndex getStateIndex() {
+        return stateIndex;
+    }
+
+    public int getHotCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.hotCount();
+        }
+        return count;
+    }
+
+    public int getColdCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.coldCount();
+        }
+        return count;
+    }
+
+    public long getEvictionCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.evictions;
+        }
+        return count;
+    }
+
+    public long getPageInCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.pageIns;
+        }
+        return count;
+    }
+
+    static byte[] encode(Account account) {
+        String holder = account.getAccountHolder();
+        byte[] name = holder == null ? new byte[0] : holder.getBytes(StandardCharsets.UTF_8);
+        byte[] extension = AccountRowCodec.encodeExtension(account);
+        byte[] record = new byte[AccountRowCodec.ROW_SIZE + name.length + extension.length];
+        AccountRowCodec.encode(account, ByteBuffer.wrap(record), 0, AccountRowCodec.ROW_SIZE, name.length,
+                extension.length);
+        System.arraycopy(name, 0, record, AccountRowCodec.ROW_SIZE, name.length);
+        System.arraycopy(extension, 0, record, AccountRowCodec.ROW_SIZE + name.length, extension.length);
+        return record;
+    }
+
+    static Account decode(byte[] record, RateBook rates) {
+        ByteBuffer row = ByteBuffer.wrap(record);
+        int nameLength = AccountRowCodec.holderLengthAt(row, 0);
+        String holder = new String(record, AccountRowCodec.ROW_SIZE, nameLength, StandardCharsets.UTF_8);
+        byte[] extension = Arrays.copyOfRange(record, AccountRowCodec.ROW_SIZE + nameLength, record.length);
+        return AccountRowCodec.decode(row, 0, holder, extension, rates);
+    }
+
+    /**
+     * Checks whether any layer of an account holds state the row format cannot keep
+     */
+    private static boolean hasLiveAttachments(Account account) {
+        Account layer = account;
+        while (true) {
+            if (layer.hasObservers() || layer.hasStateListeners() || layer.hasFeatures()) return true;
+            if (!(layer instanceof AccountDecorator)) return false;
+            layer = ((AccountDecorator) layer).getDecoratedAccount();
+        }
+    }
+
+    /**
+     * Forwards the status transitions of hot accounts to the index
+     * Detaching (to == null) is ignored: an evicted account stays indexed, and the
+     * repository drops ids from the index itself when an account is replaced or removed.
+     */
+    private static final class StateTracker implements AccountStateListener {
+        private final AccountStateIndex index;
+
+        StateTracker(AccountStateIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void stateChanged(Account account, AccountStatus from, AccountStatus to) {
+            if (to != null) index.stateChanged(account, from, to);
+        }
+    }
+
+    /**
+     * Hot-tier entry; linked into its segment's LRU list (head = most recent)
+     */
+    private static final class Node {
+        final long id;
+        Account account;
+        int pins;
+        // Handed out by findById or findAll; off the LRU list until a release finds it unpinned
+        boolean escaped;
+        boolean unencodable;
+        Node prev;
+        Node next;
+
+        Node(long id, Account account) {
+            this.id = id;
+            this.account = account;
+        }
+    }
+
+    private static final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final RateBook rates;
+        private final AccountStateIndex stateIndex;
+        private final StateTracker tracker;
+        private final LongObjectHashMap<Node> hot = new LongObjectHashMap<>();
+        private final LongObjectHashMap<byte[]> cold = new LongObjectHashMap<>();
+        private Node head;
+        private Node tail;
+        private int lruSize;
+        long evictions;
+        long pageIns;
+
+        Segment(int capacity, RateBook rates, AccountStateIndex stateIndex, StateTracker tracker) {
+            this.capacity = capacity;
+            this.rates = rates;
+            this.stateIndex = stateIndex;
+            this.tracker = tracker;
+        }
+
+        Account get(long id, boolean pin, boolean escape) {
+            lock.lock();
+            try {
+                Node node = hot.get(id);
+                boolean pagedIn = node == null;
+                if (pagedIn) {
+                    node = pageIn(id);
+                    if (node == null) {
+                        return null;
+                    }
+                    linkFirst(node);
+                } else if (!node.escaped) {
+                    moveToFront(node);
+                }
+                if (pin) node.pins++;
+                if (escape && !node.escaped) {
+                    node.escaped = true;
+                    unlink(node);
+                }
+                if (pagedIn) evictIfNeeded();
+                return node.account;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Pins an account for a scan without promoting it; cold accounts are paged in at the LRU end
+         */
+        Account pinForScan(long id) {
+            lock.lock();
+            try {
+                Node node = hot.get(id);
+                if (node == null) {
+                    node = pageIn(id);
+                    if (node == null) {
+                        return null;
+                    }
+                    linkLast(node);
+                }
+                node.pins++;
+                return node.account;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Node pageIn(long id) {
+            byte[] record = cold.remove(id);
+            if (record == null) {
+                return null;
+            }
+            Node node = new Node(id, decode(record, rates));
+            node.account.addStateListener(tracker);
+            pageIns++;
+            hot.put(id, node);
+            return node;
+        }
+
+        void release(long id) {
+            lock.lock();
+            try {
+                Node node = hot.get(id);
+                if (node == null) return;
+                if (node.pins > 0) {
+                    node.pins--;
+                    if (node.pins == 0) evictIfNeeded();
+                } else if (node.escaped) {
+                    // Releasing an unpinned handed-out account: it goes back into the LRU order
+                    node.escaped = false;
+                    linkFirst(node);
+                    evictIfNeeded();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean contains(long id) {
+            lock.lock();
+            try {
+                return hot.containsKey(id) || cold.containsKey(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Account put(Account account) {
+            long id = account.getId();
+            lock.lock();
+            try {
+                Node node = hot.get(id);
+                Account previous;
+                if (node != null) {
+                    previous = node.account;
+                    if (previous != account) {
+                        previous.removeStateListener(tracker);
+                        stateIndex.remove(id);
+                    }
+                    node.account = account;
+                    node.unencodable = false;
+                    if (node.escaped) {
+                        node.escaped = false;
+                        linkFirst(node);
+                    } else {
+                        moveToFront(node);
+                    }
+                } else {
+                    byte[] record = cold.remove(id);
+                    previous = record == null ? null : decode(record, rates);
+                    if (previous != null) stateIndex.remove(id);
+                    node = new Node(id, account);
+                    hot.put(id, node);
+                    linkFirst(node);
+                }
+                account.addStateListener(tracker);
+                evictIfNeeded();
+                return previous;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Account remove(long id) {
+            lock.lock();
+            try {
+                Node node = hot.remove(id);
+                if (node != null) {
+                    if (!node.escaped) unlink(node);
+                    node.account.removeStateListener(tracker);
+                    stateIndex.remove(id);
+                    return node.account;
+                }
+                byte[] record = cold.remove(id);
+                if (record == null) return null;
+                stateIndex.remove(id);
+                return decode(record, rates);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return hot.size() + cold.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int hotCount() {
+            lock.lock();
+            try {
+                return hot.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int coldCount() {
+            lock.lock();
+            try {
+                return cold.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long[] ids() {
+            lock.lock();
+            try {
+                long[] ids = new long[hot.size() + cold.size()];
+                int[] next = new int[1];
+                hot.forEach((id, node) -> ids[next[0]++] = id);
+                cold.forEach((id, record) -> ids[next[0]++] = id);
+                return ids;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void forEach(Consumer<? super Account> action) {
+            for (long id : ids()) {
+                Account account = pinForScan(id);
+                if (account == null) continue;
+                try {
+                    action.accept(account);
+                } finally {
+                    release(id);
+                }
+            }
+        }
+
+        /**
+         * Moves least recently used accounts to the cold tier until the hot tier fits,
+         * skipping accounts that must stay resident
+         */
+        private void evictIfNeeded() {
+            int budget = lruSize;
+            while (lruSize > capacity && budget-- > 0) {
+                Node candidate = tail;
+                if (candidate.pins == 0 && !candidate.unencodable) {
+                    // Detached while checked, so the index listener does not count as an attachment
+                    Account account = candidate.account;
+                    account.removeStateListener(tracker);
+                    if (!hasLiveAttachments(account)) {
+                        if (rates == null && account.getInterestStrategy() instanceof MarketLinkedInterest) {
+                            candidate.unencodable = true;
+                        } else {
+                            try {
+                                cold.put(candidate.id, encode(account));
+                                hot.remove(candidate.id);
+                                unlink(candidate);
+                                evictions++;
+                                continue;
+                            } catch (IllegalArgumentException e) {
+                                candidate.unencodable = true;
+                            }
+                        }
+                    }
+                    account.addStateListener(tracker);
+                }
+                // Rotate resident-only accounts out of the way so later scans do not revisit them
+                moveToFront(candidate);
+            }
+        }
+
+        private void linkFirst(Node node) {
+            node.prev = null;
+            node.next = head;
+            if (head != null) head.prev = node;
+            head = node;
+            if (tail == null) tail = node;
+            lruSize++;
+        }
+
+        private void linkLast(Node node) {
+            node.next = null;
+            node.prev = tail;
+            if (tail != null) tail.next = node;
+            tail = node;
+            if (head == null) head = node;
+            lruSize++;
+        }
+
+        private void unlink(Node node) {
+            if (node.prev != null) node.prev.next = node.next; else head = node.next;
+            if (node.next != null) node.next.prev = node.prev; else tail = node.prev;
+            node.prev = null;
+            node.next = null;
+            lruSize--;
+        }
+
+        private void moveToFront(Node node) {
+            if (head != node) {
+                unlink(node);
+                linkFirst(node);
+            }
+        }
+    }
+}
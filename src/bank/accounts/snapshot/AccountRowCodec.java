@@ -0,0 +1,391 @@
+package bank.accounts.snapshot;
+
+import bank.accounts.Account;
+import bank.accounts.AccountKind;
+import bank.accounts.AccountState;
+import bank.accounts.decorators.AccountDecorator;
+import bank.accounts.decorators.InsuranceFeature;
+import bank.accounts.decorators.OverdraftProtection;
+import bank.accounts.decorators.PremiumAccount;
+import bank.accounts.states.AccountStates;
+import bank.accounts.types.CheckingAccount;
+import bank.accounts.types.InvestmentAccount;
+import bank.accounts.types.LoanAccount;
+import bank.accounts.types.SavingAccount;
+import bank.interest.InterestStrategy;
+import bank.interest.InvestmentInterest;
+import bank.interest.LoanInterest;
+import bank.interest.MarketLinkedInterest;
+import bank.interest.SavingInterest;
+import bank.interest.TieredInterest;
+import bank.interest.rates.RateBook;
+import bank.interest.rates.RateTiers;
+import bank.interest.rates.TierMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * AccountRowCodec - Fixed-width binary row for one account
+ *
+ * Row layout (ROW_SIZE bytes, big-endian):
+ * <pre>
+ *   0  long   id
+ *   8  double balance
+ *  16  long   createdAt (epoch millis)
+ *  24  long   lastModified (epoch millis)
+ *  32  long   holder reference (offset of the UTF-8 holder name in the caller's string heap)
+ *  40  int    holder length in bytes
+ *  44  int    loan months remaining
+ *  48  byte   AccountKind ordinal
+ *  49  byte   AccountStatus code
+ *  50  byte   flags (bit 0 = checking overdraft protection enabled)
+ *  51  byte   decorator layers, 2 bits each, innermost first (1 overdraft, 2 insurance, 3 premium)
+ *  52  int    extension length in bytes (stored right after the holder name; 0 = none)
+ *  56  double ext0 : loan principal | investment value | checking overdraft used
+ *  64  double ext1 : loan annual rate (percent) | investment total invested
+ *  72  double ext2 : loan minimum payment | investment returns
+ *  80  double overdraft limit of the OverdraftProtection layer
+ * </pre>
+ * The extension (see encodeExtension) holds the state that does not fit fixed columns:
+ * <pre>
+ *   strategy | string lastInterestRunId | string lastCapitalizationRunId
+ *   | double accruedInterest | long lastAccrualEpochDay
+ *   strategy: byte kind, then its parameters:
+ *     1 none | 2 savings: double annual rate | 3 loan: double annual percent
+ *     | 4 investment: double annual target return | 5 tiered: tiers
+ *     | 6 market-linked: string product, double spread, fallback tiers
+ *   tiers : byte TierMode ordinal | int count | count x (double floor, double annual rate)
+ *   string: short byteLength (-1 = null) followed by UTF-8 bytes
+ * </pre>
+ * The run markers sit in the same row as the balance they guard, so any store that
+ * persists a posted balance persists the markers with it. An empty extension keeps
+ * the type's default strategy and no interest state.
+ * Market-linked strategies refer to a live RateBook, so rows holding one can only be
+ * decoded with a book. Other strategy classes are rejected like unknown decorators.
+ */
+public final class AccountRowCodec {
+
+    public static final int ROW_SIZE = 88;
+
+    private static final int ID = 0;
+    private static final int BALANCE = 8;
+    private static final int CREATED_AT = 16;
+    private static final int LAST_MODIFIED = 24;
+    private static final int HOLDER_REF = 32;
+    private static final int HOLDER_LENGTH = 40;
+    private static final int MONTHS = 44;
+    private static final int KIND = 48;
+    private static final int STATUS = 49;
+    private static final int FLAGS = 50;
+    private static final int LAYERS = 51;
+    private static final int EXTENSION_LENGTH = 52;
+    private static final int EXT0 = 56;
+    private static final int EXT1 = 64;
+    private static final int EXT2 = 72;
+    private static final int OVERDRAFT_LIMIT = 80;
+
+    private static final int FLAG_OVERDRAFT_ENABLED = 1;
+    private static final int LAYER_OVERDRAFT = 1;
+    private static final int LAYER_INSURANCE = 2;
+    private static final int LAYER_PREMIUM = 3;
+    private static final int MAX_LAYERS = 4;
+
+    private static final byte STRATEGY_NONE = 1;
+    private static final byte STRATEGY_SAVING = 2;
+    private static final byte STRATEGY_LOAN = 3;
+    private static final byte STRATEGY_INVESTMENT = 4;
+    private static final byte STRATEGY_TIERED = 5;
+    private static final byte STRATEGY_MARKET_LINKED = 6;
+
+    private AccountRowCodec() {
+    }
+
+    /**
+     * Writes the row of an account at an absolute buffer position
+     *
+     * @param holderRef Where the caller stored the holder name
+     * @param holderLength Length of the encoded holder name in bytes
+     * @param extensionLength Length of the account's encodeExtension bytes, stored right after the holder name
+     * @throws IllegalArgumentException for account classes the format does not cover
+     */
+    public static void encode(Account account, ByteBuffer buffer, int at, long holderRef, int holderLength,
+                              int extensionLength) {
+        int layers = 0;
+        int depth = 0;
+        double overdraftLimit = 0.0;
+        Account base = account;
+        while (base instanceof AccountDecorator) {
+            if (depth == MAX_LAYERS) {
+                throw new IllegalArgumentException("Too many decorator layers on account " + account.getId());
+            }
+            int code;
+            if (base instanceof OverdraftProtection) {
+                code = LAYER_OVERDRAFT;
+                overdraftLimit = ((OverdraftProtection) base).getOverdraftLimit();
+            } else if (base instanceof InsuranceFeature) {
+                code = LAYER_INSURANCE;
+            } else if (base instanceof PremiumAccount) {
+                code = LAYER_PREMIUM;
+            } else {
+                throw new IllegalArgumentException("Unsupported decorator " + base.getClass().getName());
+            }
+            layers = (layers << 2) | code; // outermost ends up in the high bits
+            depth++;
+            base = ((AccountDecorator) base).getDecoratedAccount();
+        }
+
+        int flags = 0;
+        int months = 0;
+        double ext0 = 0.0;
+        double ext1 = 0.0;
+        double ext2 = 0.0;
+        if (base instanceof LoanAccount) {
+            LoanAccount loan = (LoanAccount) base;
+            months = loan.getMonthsRemaining();
+            ext0 = loan.getPrincipalAmount();
+            ext1 = loan.getAnnualInterestRate();
+            ext2 = loan.getMinimumPayment();
+        } else if (base instanceof InvestmentAccount) {
+            InvestmentAccount investment = (InvestmentAccount) base;
+            ext0 = investment.getInvestmentValue();
+            ext1 = investment.getTotalInvested();
+            ext2 = investment.getReturns();
+        } else if (base instanceof CheckingAccount) {
+            CheckingAccount checking = (CheckingAccount) base;
+            if (checking.isOverdraftProtectionEnabled()) flags |= FLAG_OVERDRAFT_ENABLED;
+            ext0 = checking.getOverdraftUsed();
+        } else if (!(base instanceof SavingAccount)) {
+            throw new IllegalArgumentException("Unsupported account class " + base.getClass().getName());
+        }
+
+        buffer.putLong(at + ID, base.getId())
+              .putDouble(at + BALANCE, base.getBalance())
+              .putLong(at + CREATED_AT, base.getCreatedAtMillis())
+              .putLong(at + LAST_MODIFIED, base.getLastModifiedMillis())
+              .putLong(at + HOLDER_REF, holderRef)
+              .putInt(at + HOLDER_LENGTH, holderLength)
+              .putInt(at + MONTHS, months)
+              .put(at + KIND, (byte) base.getKind().ordinal())
+              .put(at + STATUS, base.getCurrentState().getStatus().code())
+              .put(at + FLAGS, (byte) flags)
+              .put(at + LAYERS, (byte) layers)
+              .putInt(at + EXTENSION_LENGTH, extensionLength)
+              .putDouble(at + EXT0, ext0)
+              .putDouble(at + EXT1, ext1)
+              .putDouble(at + EXT2, ext2)
+              .putDouble(at + OVERDRAFT_LIMIT, overdraftLimit);
+    }
+
+    /**
+     * Encodes the extension of an account: its interest strategy (shared by all its
+     * decorator layers), run markers and accrual state
+     *
+     * @throws IllegalArgumentException for strategy classes the format does not cover
+     */
+    public static byte[] encodeExtension(Account account) {
+        byte[] runId = utf8(account, account.getLastInterestRunId());
+        byte[] capitalizationId = utf8(account, account.getLastCapitalizationRunId());
+        InterestStrategy strategy = account.getInterestStrategy();
+        Class<?> type = strategy == null ? null : strategy.getClass();
+        ByteBuffer out;
+        if (strategy == null) {
+            out = allocate(1, runId, capitalizationId).put(STRATEGY_NONE);
+        } else if (type == SavingInterest.class) {
+            out = allocate(9, runId, capitalizationId).put(STRATEGY_SAVING)
+                    .putDouble(((SavingInterest) strategy).getInterestRate());
+        } else if (type == LoanInterest.class) {
+            out = allocate(9, runId, capitalizationId).put(STRATEGY_LOAN)
+                    .putDouble(((LoanInterest) strategy).getAnnualInterestRate());
+        } else if (type == InvestmentInterest.class) {
+            out = allocate(9, runId, capitalizationId).put(STRATEGY_INVESTMENT)
+                    .putDouble(((InvestmentInterest) strategy).getAnnualTargetReturn());
+        } else if (type == TieredInterest.class) {
+            RateTiers tiers = ((TieredInterest) strategy).getTiers();
+            out = allocate(1 + tiersSize(tiers), runId, capitalizationId).put(STRATEGY_TIERED);
+            putTiers(out, tiers);
+        } else if (type == MarketLinkedInterest.class) {
+            MarketLinkedInterest linked = (MarketLinkedInterest) strategy;
+            byte[] product = utf8(account, linked.getProduct());
+            out = allocate(1 + 2 + product.length + 8 + tiersSize(linked.getTiers()), runId, capitalizationId)
+                    .put(STRATEGY_MARKET_LINKED);
+            putString(out, product);
+            out.putDouble(linked.getSpread());
+            putTiers(out, linked.getTiers());
+        } else {
+            throw new IllegalArgumentException("Unsupported interest strategy " + type.getName()
+                    + " on account " + account.getId());
+        }
+        putString(out, runId);
+        putString(out, capitalizationId);
+        out.putDouble(account.getAccruedInterest()).putLong(account.getLastAccrualEpochDay());
+        return out.array();
+    }
+
+    private static ByteBuffer allocate(int strategySize, byte[] runId, byte[] capitalizationId) {
+        return ByteBuffer.allocate(strategySize + 2 + (runId == null ? 0 : runId.length)
+                + 2 + (capitalizationId == null ? 0 : capitalizationId.length) + 8 + 8);
+    }
+
+    private static byte[] utf8(Account account, String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes too long for the row of account "
+                    + account.getId());
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putShort((short) -1);
+        } else {
+            out.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int tiersSize(RateTiers tiers) {
+        return 1 + 4 + tiers.size() * 16;
+    }
+
+    private static void putTiers(ByteBuffer out, RateTiers tiers) {
+        out.put((byte) tiers.getMode().ordinal()).putInt(tiers.size());
+        for (int i = 0; i < tiers.size(); i++) {
+            out.putDouble(tiers.getFloor(i)).putDouble(tiers.getRate(i));
+        }
+    }
+
+    private static RateTiers getTiers(ByteBuffer in) {
+        TierMode mode = TierMode.values()[in.get()];
+        int count = in.getInt();
+        double[] floors = new double[count];
+        double[] rates = new double[count];
+        for (int i = 0; i < count; i++) {
+            floors[i] = in.getDouble();
+            rates[i] = in.getDouble();
+        }
+        return new RateTiers(mode, floors, rates);
+    }
+
+    /**
+     * Reads an interest strategy from the start of an extension
+     *
+     * @param rates Book market-linked strategies read from; may be null if no row uses one
+     */
+    private static InterestStrategy getStrategy(long id, ByteBuffer in, RateBook rates) {
+        byte kind = in.get();
+        switch (kind) {
+            case STRATEGY_NONE:
+                return null;
+            case STRATEGY_SAVING:
+                return new SavingInterest(in.getDouble());
+            case STRATEGY_LOAN:
+                return new LoanInterest(in.getDouble());
+            case STRATEGY_INVESTMENT:
+                return new InvestmentInterest(in.getDouble());
+            case STRATEGY_TIERED:
+                return new TieredInterest(getTiers(in));
+            case STRATEGY_MARKET_LINKED:
+                if (rates == null) {
+                    throw new IllegalStateException("Account " + id
+                            + " has market-linked interest but no RateBook was given to decode it");
+                }
+                String product = getString(in);
+                double spread = in.getDouble();
+                return new MarketLinkedInterest(rates, product, getTiers(in), spread);
+            default:
+                throw new IllegalStateException("Unknown interest strategy kind " + kind + " in row of account " + id);
+        }
+    }
+
+    public static long idAt(ByteBuffer buffer, int at) {
+        return buffer.getLong(at + ID);
+    }
+
+    public static long holderRefAt(ByteBuffer buffer, int at) {
+        return buffer.getLong(at + HOLDER_REF);
+    }
+
+    public static int holderLengthAt(ByteBuffer buffer, int at) {
+        return buffer.getInt(at + HOLDER_LENGTH);
+    }
+
+    public static int extensionLengthAt(ByteBuffer buffer, int at) {
+        return buffer.getInt(at + EXTENSION_LENGTH);
+    }
+
+    /**
+     * Rebuilds the account stored at an absolute buffer position, including its decorators
+     *
+     * @param holder The holder name read from the caller's string heap
+     * @param extension The extension bytes stored after the holder name
+     * @param rates Book for market-linked strategies; may be null if no row uses one
+     */
+    public static Account decode(ByteBuffer buffer, int at, String holder, byte[] extension, RateBook rates) {
+        long id = buffer.getLong(at + ID);
+        double balance = buffer.getDouble(at + BALANCE);
+        long createdAt = buffer.getLong(at + CREATED_AT);
+        long lastModified = buffer.getLong(at + LAST_MODIFIED);
+        AccountState state = AccountStates.fromCode(buffer.get(at + STATUS));
+        double ext0 = buffer.getDouble(at + EXT0);
+        double ext1 = buffer.getDouble(at + EXT1);
+        double ext2 = buffer.getDouble(at + EXT2);
+
+        Account account;
+        switch (AccountKind.ofOrdinal(buffer.get(at + KIND))) {
+            case SAVINGS:
+                account = SavingAccount.restore(id, holder, balance, createdAt, lastModified, state);
+                break;
+            case CHECKING:
+                boolean overdraftEnabled = (buffer.get(at + FLAGS) & FLAG_OVERDRAFT_ENABLED) != 0;
+                account = CheckingAccount.restore(id, holder, balance, overdraftEnabled, ext0,
+                        createdAt, lastModified, state);
+                break;
+            case LOAN:
+                account = LoanAccount.restore(id, holder, balance, ext0, ext1, buffer.getInt(at + MONTHS), ext2,
+                        createdAt, lastModified, state);
+                break;
+            case INVESTMENT:
+                account = InvestmentAccount.restore(id, holder, balance, ext0, ext1, ext2,
+                        createdAt, lastModified, state);
+                break;
+            default:
+                throw new IllegalStateException("Unknown account kind in row of account " + id);
+        }
+
+        if (extension.length > 0) {
+            ByteBuffer in = ByteBuffer.wrap(extension);
+            account.setInterestStrategy(getStrategy(id, in, rates));
+            if (in.hasRemaining()) {
+                account.restoreInterestState(getString(in), getString(in), in.getDouble(), in.getLong());
+            }
+        }
+
+        int layers = buffer.get(at + LAYERS) & 0xFF;
+        double overdraftLimit = buffer.getDouble(at + OVERDRAFT_LIMIT);
+        // Innermost layer sits in the lowest non-zero bits
+        for (int shift = 0; shift < 2 * MAX_LAYERS; shift += 2) {
+            int code = (layers >>> shift) & 3;
+            if (code == LAYER_OVERDRAFT) {
+                account = new OverdraftProtection(account, overdraftLimit);
+            } else if (code == LAYER_INSURANCE) {
+                account = new InsuranceFeature(account);
+            } else if (code == LAYER_PREMIUM) {
+                account = new PremiumAccount(account);
+            }
+        }
+        return account;
+    }
+}
@@ -0,0 +1,193 @@
+package bank.accounts.snapshot;
+
+import bank.accounts.Account;
+import bank.interest.rates.RateBook;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * AccountSnapshot - Read-only, memory-mapped view of a snapshot written by AccountSnapshotWriter
+ *
+ * Opening a snapshot only validates the header and maps the file; no account is
+ * decoded up front, so a process can start serving as soon as the mapping exists.
+ * Rows are sorted by id, so lookups are a binary search over the mapped rows and
+ * the operating system pages in only the parts of the file that are touched.
+ * Account objects are materialized per row on request, with their interest strategy
+ * and run marker; market-linked strategies read the RateBook given to open.
+ *
+ * Rows are mapped in segments so snapshots larger than 2 GB are supported.
+ * All reads use absolute positions, so a snapshot can be shared between threads.
+ */
+public final class AccountSnapshot implements Closeable {
+
+    // 2^24 rows per mapped segment (about 1.4 GB)
+    private static final int SEGMENT_BITS = 24;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    private final FileChannel channel;
+    private final int size;
+    private final long createdAtMillis;
+    private final MappedByteBuffer[] segments;
+    private final MappedByteBuffer heap;
+    private final RateBook rates;
+
+    private AccountSnapshot(FileChannel channel, int size, long createdAtMillis, MappedByteBuffer[] segments,
+                            MappedByteBuffer heap, RateBook rates) {
+        this.channel = channel;
+        this.size = size;
+        this.createdAtMillis = createdAtMillis;
+        this.segments = segments;
+        this.heap = heap;
+        this.rates = rates;
+    }
+
+    /**
+     * Maps a snapshot file whose accounts use no market-linked interest
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static AccountSnapshot open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Maps a snapshot file
+     *
+     * @param rates Book that restored market-linked strategies read from
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static AccountSnapshot open(Path file, RateBook rates) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(AccountSnapshotWriter.HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated snapshot header: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != AccountSnapshotWriter.MAGIC) {
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            short version = header.getShort();
+            if (version != 1 && version != AccountSnapshotWriter.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            header.getShort();
+            long rowCount = header.getLong();
+            long rowsOffset = header.getLong();
+            long heapOffset = header.getLong();
+            long heapLength = header.getLong();
+            long createdAt = header.getLong();
+            if (rowCount > Integer.MAX_VALUE || heapLength > Integer.MAX_VALUE
+                    || heapOffset + heapLength > channel.size()) {
+                throw new IOException("Corrupt snapshot header: " + file);
+            }
+
+            int rows = (int) rowCount;
+            int segmentCount = (rows + SEGMENT_MASK) >>> SEGMENT_BITS;
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long first = (long) s << SEGMENT_BITS;
+                long count = Math.min(1L << SEGMENT_BITS, rows - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        rowsOffset + first * AccountRowCodec.ROW_SIZE, count * AccountRowCodec.ROW_SIZE);
+            }
+            MappedByteBuffer heap = channel.map(FileChannel.MapMode.READ_ONLY, heapOffset, heapLength);
+            return new AccountSnapshot(channel, rows, createdAt, segments, heap, rates);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of accounts in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the time the snapshot was written (epoch millis)
+     */
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Gets the account id stored in a row
+     */
+    public long idAt(int index) {
+        return AccountRowCodec.idAt(segments[index >>> SEGMENT_BITS], rowOffset(index));
+    }
+
+    /**
+     * Finds the row of an account by binary search
+     *
+     * @return The row index, or -1 if the snapshot has no such account
+     */
+    public int indexOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds a new Account object from a row
+     */
+    public Account materialize(int index) {
+        ByteBuffer segment = segments[index >>> SEGMENT_BITS];
+        int at = rowOffset(index);
+        long ref = AccountRowCodec.holderRefAt(segment, at);
+        int length = AccountRowCodec.holderLengthAt(segment, at);
+        byte[] holder = new byte[length];
+        for (int i = 0; i < length; i++) {
+            holder[i] = heap.get((int) ref + i);
+        }
+        byte[] extension = new byte[AccountRowCodec.extensionLengthAt(segment, at)];
+        for (int i = 0; i < extension.length; i++) {
+            extension[i] = heap.get((int) ref + length + i);
+        }
+        return AccountRowCodec.decode(segment, at, new String(holder, StandardCharsets.UTF_8), extension, rates);
+    }
+
+    /**
+     * Looks up and materializes an account by id
+     *
+     * @return A new Account object, or null if the snapshot has no such account
+     */
+    public Account load(long id) {
+        int index = indexOf(id);
+        return index < 0 ? null : materialize(index);
+    }
+
+    private static int rowOffset(int index) {
+        return (index & SEGMENT_MASK) * AccountRowCodec.ROW_SIZE;
+    }
+
+    /**
+     * Closes the file; the mappings stay valid until they are garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,145 @@
+package bank.accounts.snapshot;
+
+import bank.accounts.Account;
+import bank.accounts.repository.AccountRepository;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * AccountSnapshotWriter - Writes an account set in the AccountSnapshot file format
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header : int magic "ACSN" | short version | short reserved | long rowCount
+ *            | long rowsOffset | long heapOffset | long heapLength | long createdAtMillis | 16 reserved bytes
+ *   rows   : rowCount fixed-width rows (see AccountRowCodec), sorted by account id
+ *   heap   : per row, the UTF-8 holder name followed by the row's extension
+ *            (offsets relative to heapOffset)
+ * </pre>
+ * Version 1 files carry no extensions; their accounts get their type's default strategy.
+ * The file is written next to the target and moved into place once complete, so a
+ * crash never leaves a truncated snapshot behind.
+ */
+public final class AccountSnapshotWriter {
+
+    public static final int MAGIC = 0x4143534E; // "ACSN"
+    public static final short VERSION = 2;
+    static final int HEADER_SIZE = 64;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private AccountSnapshotWriter() {
+    }
+
+    /**
+     * Writes every account of a repository
+     *
+     * @return The number of accounts written
+     */
+    public static long write(Path target, AccountRepository repository) throws IOException {
+        List<Account> accounts = new ArrayList<>(repository.size());
+        repository.forEach(accounts::add);
+        return write(target, accounts);
+    }
+
+    /**
+     * Writes a collection of accounts (sorted by id in the file)
+     *
+     * @return The number of accounts written
+     */
+    public static long write(Path target, Collection<? extends Account> accounts) throws IOException {
+        Account[] sorted = accounts.toArray(new Account[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Account::getId));
+        long rowsOffset = HEADER_SIZE;
+        long heapOffset = rowsOffset + (long) sorted.length * AccountRowCodec.ROW_SIZE;
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer rows = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer heap = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long rowsPosition = rowsOffset;
+        long heapPosition = heapOffset;
+        long heapLength = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Account account : sorted) {
+                byte[] holder = account.getAccountHolder() == null
+                        ? new byte[0]
+                        : account.getAccountHolder().getBytes(StandardCharsets.UTF_8);
+                byte[] extension = AccountRowCodec.encodeExtension(account);
+                if (rows.remaining() < AccountRowCodec.ROW_SIZE) {
+                    rowsPosition += drain(rows, channel, rowsPosition);
+                }
+                AccountRowCodec.encode(account, rows, rows.position(), heapLength, holder.length, extension.length);
+                rows.position(rows.position() + AccountRowCodec.ROW_SIZE);
+
+                heapPosition += putHeap(holder, heap, channel, heapPosition);
+                heapPosition += putHeap(extension, heap, channel, heapPosition);
+                heapLength += holder.length + extension.length;
+            }
+            drain(rows, channel, rowsPosition);
+            drain(heap, channel, heapPosition);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                  .putLong(sorted.length)
+                  .putLong(rowsOffset)
+                  .putLong(heapOffset)
+                  .putLong(heapLength)
+                  .putLong(System.currentTimeMillis());
+            header.clear();
+            writeFully(header, channel, 0L);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return sorted.length;
+    }
+
+    /**
+     * Appends bytes to the heap buffer, draining it or writing directly when they do not fit
+     *
+     * @return The number of bytes written to the file
+     */
+    private static int putHeap(byte[] bytes, ByteBuffer heap, FileChannel channel, long position) throws IOException {
+        int written = 0;
+        if (heap.remaining() < bytes.length) {
+            written = drain(heap, channel, position);
+        }
+        if (bytes.length > heap.capacity()) {
+            written += writeFully(ByteBuffer.wrap(bytes), channel, position + written);
+        } else {
+            heap.put(bytes);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the buffered bytes at a file position and clears the buffer
+     *
+     * @return The number of bytes written
+     */
+    private static int drain(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        buffer.flip();
+        int written = writeFully(buffer, channel, position);
+        buffer.clear();
+        return written;
+    }
+
+    private static int writeFully(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,201 @@
+package bank.accounts.snapshot;
+
+import bank.accounts.Account;
+import bank.accounts.repository.AccountRepository;
+import bank.accounts.repository.InMemoryAccountRepository;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * SnapshotAccountRepository - AccountRepository that starts from a mapped snapshot
+ * and materializes accounts lazily
+ *
+ * Accounts live in an InMemoryAccountRepository once they have been touched.
+ * A lookup that misses there falls back to the snapshot: the row is decoded into
+ * an Account object once and cached, so later lookups return the same object.
+ * Saved accounts shadow their snapshot rows and removed snapshot accounts are
+ * remembered as tombstones; the snapshot itself is never modified.
+ *
+ * Materialization, save and remove of one id are serialized on a lock stripe, so
+ * two threads never materialize two different objects for the same account.
+ * Save and remove only flip the row's tombstone and never decode it, so they
+ * return the previous account only when it had been materialized; a replaced or
+ * removed row that never was returns null. Iterating the repository (forEach,
+ * findAll) materializes every account.
+ */
+public class SnapshotAccountRepository implements AccountRepository {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final AccountSnapshot snapshot;
+    private final InMemoryAccountRepository live;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // Snapshot rows whose account was removed; guarded by itself
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+    // Live accounts that have no snapshot row
+    private final AtomicInteger added = new AtomicInteger();
+
+    public SnapshotAccountRepository(AccountSnapshot snapshot) {
+        this(snapshot, new InMemoryAccountRepository(Math.max(1024, snapshot.size() / 8),
+                InMemoryAccountRepository.DEFAULT_STRIPES));
+    }
+
+    /**
+     * @param snapshot The mapped snapshot backing unmaterialized accounts
+     * @param live Repository holding materialized and newly saved accounts; should start empty
+     */
+    public SnapshotAccountRepository(AccountSnapshot snapshot, InMemoryAccountRepository live) {
+        this.snapshot = snapshot;
+        this.live = live;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private Object lockFor(long id) {
+        return locks[(int) ((id * 0x9E3779B97F4A7C15L) >>> 58)];
+    }
+
+    @Override
+    public Account findById(long id) {
+        Account account = live.findById(id);
+        if (account != null) {
+            return account;
+        }
+        int index = snapshot.indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        synchronized (lockFor(id)) {
+            account = live.findById(id);
+            if (account == null && !isRemoved(index)) {
+                account = snapshot.materialize(index);
+                live.save(account);
+            }
+            return account;
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        if (live.contains(id)) {
+            return true;
+        }
+        int index = snapshot.indexOf(id);
+        return index >= 0 && !isRemoved(index);
+    }
+
+    /**
+     * Adds or replaces an account without decoding its snapshot row
+     *
+     * @return The previously materialized account, or null
+     */
+    @Override
+    public Account save(Account account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account must not be null");
+        }
+        long id = account.getId();
+        synchronized (lockFor(id)) {
+            int index = snapshot.indexOf(id);
+            Account previous = live.save(account);
+            if (index >= 0) {
+                synchronized (removed) {
+                    if (removed.get(index)) {
+                        removed.clear(index);
+                        removedCount--;
+                    }
+                }
+            } else if (previous == null) {
+                added.incrementAndGet();
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Removes an account without decoding its snapshot row
+     *
+     * @return The removed account if it had been materialized, otherwise null
+     */
+    @Override
+    public Account remove(long id) {
+        synchronized (lockFor(id)) {
+            int index = snapshot.indexOf(id);
+            Account previous = live.remove(id);
+            if (index >= 0) {
+                synchronized (removed) {
+                    if (!removed.get(index)) {
+                        removed.set(index);
+                        removedCount++;
+                    }
+                }
+            } else if (previous != null) {
+                added.decrementAndGet();
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (removed) {
+            return snapshot.size() - removedCount + added.get();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Account> action) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (isRemoved(i)) continue;
+            Account account = findById(snapshot.idAt(i));
+            if (account != null) action.accept(account);
+        }
+        live.forEach(account -> {
+            if (snapshot.indexOf(account.getId()) < 0) action.accept(account);
+        });
+    }
+
+    /**
+     * Visits every id without materializing accounts
+     */
+    @Override
+    public void forEachId(LongConsumer action) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (!isRemoved(i)) action.accept(snapshot.idAt(i));
+        }
+        live.forEach(account -> {
+            if (snapshot.indexOf(account.getId()) < 0) action.accept(account.getId());
+        });
+    }
+
+    @Override
+    public List<Account> findAll() {
+        List<Account> all = new ArrayList<>(size());
+        forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Gets the number of accounts currently held as objects
+     */
+    public int getMaterializedCount() {
+        return live.size();
+    }
+
+    public AccountSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private boolean isRemoved(int index) {
+        synchronized (removed) {
+            return removed.get(index);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package bank.accounts.states;
+
+import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
+
+/**
+ * AccountStates - Shared instances of the account states (Flyweight)
+ * States carry no per-account data, so every account in a state can share one
+ * instance; changing state allocates nothing.
+ */
+public final class AccountStates {
+
+    public static final AccountState ACTIVE = new ActiveState();
+    public static final AccountState SUSPENDED = new SuspendedState();
+    public static final AccountState FROZEN = new FrozenState();
+    public static final AccountState CLOSED = new ClosedState();
+
+    private static final AccountState[] BY_STATUS = new AccountState[AccountStatus.count()];
+
+    static {
+        BY_STATUS[AccountStatus.ACTIVE.ordinal()] = ACTIVE;
+        BY_STATUS[AccountStatus.SUSPENDED.ordinal()] = SUSPENDED;
+        BY_STATUS[AccountStatus.FROZEN.ordinal()] = FROZEN;
+        BY_STATUS[AccountStatus.CLOSED.ordinal()] = CLOSED;
+    }
+
+    private AccountStates() {
+    }
+
+    /**
+     * Gets the shared state of a status
+     */
+    public static AccountState of(AccountStatus status) {
+        return BY_STATUS[status.ordinal()];
+    }
+
+    /**
+     * Gets the shared state of a persisted status code (see AccountStatus.code())
+     */
+    public static AccountState fromCode(byte code) {
+        return BY_STATUS[AccountStatus.fromCode(code).ordinal()];
+    }
+}
@@ -1,6 +1,7 @@
 package bank.accounts.states;
 
 import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
 
 /**
  * ActiveState - Account is fully functional
@@ -23,11 +24,21 @@ public class ActiveState implements AccountState {
         return true;
     }
     
+    @Override
+    public int getPermissions() {
+        return DEPOSIT | WITHDRAW | TRANSFER;
+    }
+    
     @Override
     public String getStateName() {
         return "ACTIVE";
     }
     
+    @Override
+    public AccountStatus getStatus() {
+        return AccountStatus.ACTIVE;
+    }
+    
     @Override
     public String getDescription() {
         return "Account is active and fully operational. All transactions are allowed.";
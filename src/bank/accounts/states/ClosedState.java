@@ -1,6 +1,7 @@
 package bank.accounts.states;
 
 import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
 
 /**
  * ClosedState - Account is closed
@@ -24,11 +25,21 @@ public class ClosedState implements AccountState {
         return false;
     }
     
+    @Override
+    public int getPermissions() {
+        return 0;
+    }
+    
     @Override
     public String getStateName() {
         return "CLOSED";
     }
     
+    @Override
+    public AccountStatus getStatus() {
+        return AccountStatus.CLOSED;
+    }
+    
     @Override
     public String getDescription() {
         return "Account is closed. No transactions are allowed. Contact customer service for archived information.";
@@ -1,6 +1,7 @@
 package bank.accounts.states;
 
 import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
 
 /**
  * FrozenState - Account is frozen temporarily
@@ -24,11 +25,21 @@ public class FrozenState implements AccountState {
         return false;
     }
     
+    @Override
+    public int getPermissions() {
+        return 0;
+    }
+    
     @Override
     public String getStateName() {
         return "FROZEN";
     }
     
+    @Override
+    public AccountStatus getStatus() {
+        return AccountStatus.FROZEN;
+    }
+    
     @Override
     public String getDescription() {
         return "Account is frozen. No transactions are allowed. Contact customer service for assistance.";
@@ -1,6 +1,7 @@
 package bank.accounts.states;
 
 import bank.accounts.AccountState;
+import bank.accounts.AccountStatus;
 
 /**
  * SuspendedState - Account is suspended
@@ -24,11 +25,21 @@ public class SuspendedState implements AccountState {
         return false;
     }
     
+    @Override
+    public int getPermissions() {
+        return DEPOSIT;
+    }
+    
     @Override
     public String getStateName() {
         return "SUSPENDED";
     }
     
+    @Override
+    public AccountStatus getStatus() {
+        return AccountStatus.SUSPENDED;
+    }
+    
     @Override
     public String getDescription() {
         return "Account is suspended. Deposits are allowed, but withdrawals and transfers are prohibited.";
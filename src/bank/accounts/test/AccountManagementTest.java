@@ -2,6 +2,7 @@ package bank.accounts.test;
 
 import bank.accounts.*;
 import bank.accounts.composite.*;
+import bank.accounts.features.*;
 import bank.accounts.states.*;
 import bank.accounts.types.*;
 
@@ -44,6 +45,7 @@ public class AccountManagementTest {
         testFrozenState();
         testSuspendedState();
         testClosedState();
+        testStateTransitionTable();
         
         // FR3: Composite Pattern Tests
         testCompositeGroupCreation();
@@ -54,6 +56,18 @@ public class AccountManagementTest {
         testAccountCreation();
         testAccountModification();
         testAccountClosure();
+        testAccountIdsAreMonotonic();
+        testParallelAccountSummary();
+        testAccountRepository();
+        testAccountSnapshot();
+        testTieredRepository();
+        
+        // Feature pipeline
+        testFeaturePipeline();
+        
+        // Bulk state changes
+        testBulkStateChange();
+        testStateIndex();
     }
     
     // ============ FR1: Account Type Tests ============
@@ -167,6 +181,36 @@ public class AccountManagementTest {
         });
     }
     
+    private void testStateTransitionTable() {
+        test("Shared States Follow the Transition Table", () -> {
+            SavingAccount account = new SavingAccount("Test User", 1000.0);
+            SavingAccount other = new SavingAccount("Other User", 1000.0);
+            assertTrue(account.getCurrentState() == AccountStates.ACTIVE
+                       && other.getCurrentState() == AccountStates.ACTIVE, "New accounts share the ACTIVE state");
+            assertTrue(AccountStates.SUSPENDED.getPermissions() == AccountState.DEPOSIT
+                       && AccountStates.FROZEN.getPermissions() == 0, "Permission masks should match the states");
+            
+            assertTrue(account.setState(AccountStatus.FROZEN), "ACTIVE -> FROZEN is allowed");
+            assertFalse(account.setState(AccountStates.CLOSED), "A frozen account must be released before closing");
+            assertTrue(account.setState(new SuspendedState()), "State instances other than the shared ones work");
+            assertTrue(account.setState(AccountStates.CLOSED), "SUSPENDED -> CLOSED is allowed");
+            assertFalse(account.setState(AccountStates.ACTIVE), "CLOSED is terminal");
+            assertTrue(account.getCurrentStateName().equals("CLOSED") && AccountStatus.CLOSED.isTerminal()
+                       && !AccountStatus.FROZEN.isTerminal(), "Rejected transitions leave the state unchanged");
+            
+            for (AccountStatus status : AccountStatus.values()) {
+                assertTrue(AccountStates.fromCode(status.code()).getStatus() == status, "Codes should round-trip");
+            }
+            boolean rejected = false;
+            try {
+                AccountStatus.fromCode((byte) 42);
+            } catch (IllegalArgumentException expected) {
+                rejected = true;
+            }
+            assertTrue(rejected, "Unknown codes should be rejected");
+        });
+    }
+    
     // ============ FR3: Composite Pattern Tests ============
     
     private void testCompositeGroupCreation() {
@@ -242,6 +286,425 @@ public class AccountManagementTest {
         });
     }
     
+    private void testAccountIdsAreMonotonic() {
+        test("Account IDs Are Unique and Increasing", () -> {
+            SavingAccount first = new SavingAccount("First", 500.0);
+            SavingAccount second = new SavingAccount("Second", 500.0);
+            assertTrue(first.getId() > 0, "ID should be positive");
+            assertTrue(second.getId() > first.getId(), "Later account should get a larger ID");
+            assertTrue(first.getAccountId().equals(Long.toString(first.getId())), "String form should render the ID");
+            
+            Account decorated = new bank.accounts.decorators.PremiumAccount(first);
+            assertTrue(decorated.getId() == first.getId(), "Decorator should share the wrapped account ID");
+        });
+    }
+    
+    private void testParallelAccountSummary() {
+        test("Parallel Account Summary Matches a Sequential Count", () -> {
+            java.util.List<Account> accounts = new java.util.ArrayList<>();
+            double expectedBalance = 0.0;
+            for (int i = 0; i < 1000; i++) {
+                Account account;
+                switch (i % 4) {
+                    case 0: account = new SavingAccount("S" + i, 200.0); break;
+                    case 1: account = new CheckingAccount("C" + i, 100.0); break;
+                    case 2: account = new LoanAccount("L" + i, 1000.0, 5.0, 12); break;
+                    default: account = new bank.accounts.decorators.PremiumAccount(new InvestmentAccount("I" + i, 500.0)); break;
+                }
+                if (i % 10 == 0) account.setState(new FrozenState());
+                expectedBalance += account.getBalance();
+                accounts.add(account);
+            }
+            
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+            try {
+                bank.admin.AccountSummary summary = new bank.admin.AccountSummaryEngine(pool, 16).summarize(accounts);
+                assertTrue(summary.getTotalAccounts() == 1000, "Every account should be counted");
+                assertTrue(Math.abs(summary.getTotalBalance() - expectedBalance) < 1e-6, "Balances should add up");
+                assertTrue(summary.getCount(AccountKind.SAVINGS) == 250 && summary.getCount(AccountKind.LOAN) == 250,
+                           "Accounts should be counted per kind");
+                assertTrue(summary.getCount(AccountKind.INVESTMENT) == 250, "Decorated accounts count as their wrapped kind");
+                assertTrue(summary.getCount(AccountStatus.FROZEN) == 100 && summary.getCount(AccountStatus.ACTIVE) == 900,
+                           "Accounts should be counted per state");
+                assertTrue(summary.getBalance(AccountKind.LOAN) == -250000.0, "Loan balances should be summed per kind");
+            } finally {
+                pool.shutdown();
+            }
+        });
+    }
+    
+    private void testAccountRepository() {
+        test("Account Repository Resolves Accounts by ID Under Concurrent Writes", () -> {
+            bank.accounts.repository.InMemoryAccountRepository repository =
+                new bank.accounts.repository.InMemoryAccountRepository(1000, 8);
+            Thread[] writers = new Thread[4];
+            long[][] ids = new long[writers.length][2500];
+            for (int t = 0; t < writers.length; t++) {
+                final int writer = t;
+                writers[t] = new Thread(() -> {
+                    for (int i = 0; i < ids[writer].length; i++) {
+                        SavingAccount account = new SavingAccount("Repo" + writer, 100.0 + i);
+                        ids[writer][i] = account.getId();
+                        repository.save(account);
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread w : writers) w.join();
+            assertTrue(repository.size() == 10000, "Every saved account should be stored");
+            assertTrue(repository.findAll().size() == 10000, "Iteration should see every account");
+            assertTrue(repository.findById(ids[2][17]).getBalance() == 117.0, "Lookup should return the saved account");
+            
+            Account plain = repository.findById(ids[0][0]);
+            Account premium = new bank.accounts.decorators.PremiumAccount(plain);
+            assertTrue(repository.save(premium) == plain, "Saving a decorator should replace the plain account");
+            assertTrue(repository.findById(plain.getId()) == premium, "Lookup should return the decorated account");
+            assertTrue(repository.remove(plain.getId()) == premium && !repository.contains(plain.getId()),
+                       "Removed accounts should no longer resolve");
+            assertTrue(repository.findById(-1L) == null, "Unknown ids should resolve to null");
+        });
+    }
+    
+    private void testAccountSnapshot() {
+        test("Account Snapshot Round-Trips Rows and Materializes Lazily", () -> {
+            SavingAccount saving = new SavingAccount("Zoë Saver", 1500.0);
+            saving.setInterestStrategy(new bank.interest.SavingInterest(0.045));
+            CheckingAccount checking = new CheckingAccount("Checker", 100.0);
+            checking.withdraw(300.0); // uses 200 of overdraft
+            LoanAccount loan = new LoanAccount("Borrower", 12000.0, 6.0, 24);
+            loan.deposit(500.0);
+            InvestmentAccount investment = new InvestmentAccount("Investor", 5000.0);
+            investment.invest(1000.0);
+            investment.setState(new FrozenState());
+            investment.setInterestStrategy(new bank.interest.TieredInterest(new bank.interest.rates.RateTiers(
+                bank.interest.rates.TierMode.MARGINAL, new double[] {0.0, 1000.0}, new double[] {0.01, 0.02})));
+            Account decorated = new bank.accounts.decorators.PremiumAccount(
+                new bank.accounts.decorators.OverdraftProtection(new SavingAccount("Layered", 800.0), 250.0));
+            
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("accounts", ".snap");
+            try {
+                long written = bank.accounts.snapshot.AccountSnapshotWriter.write(file,
+                    java.util.Arrays.asList(loan, saving, decorated, checking, investment));
+                assertTrue(written == 5, "Every account should be written");
+                try (bank.accounts.snapshot.AccountSnapshot snapshot = bank.accounts.snapshot.AccountSnapshot.open(file)) {
+                    bank.accounts.snapshot.SnapshotAccountRepository repository =
+                        new bank.accounts.snapshot.SnapshotAccountRepository(snapshot);
+                    assertTrue(repository.size() == 5 && repository.getMaterializedCount() == 0,
+                               "Opening a snapshot should not materialize accounts");
+                    
+                    Account restoredSaving = repository.findById(saving.getId());
+                    assertTrue(restoredSaving.getAccountHolder().equals("Zoë Saver") && restoredSaving.getBalance() == 1500.0
+                               && restoredSaving.getCreatedAtMillis() == saving.getCreatedAtMillis(),
+                               "Savings row should round-trip");
+                    assertTrue(repository.findById(saving.getId()) == restoredSaving, "Materialized accounts should be cached");
+                    
+                    CheckingAccount restoredChecking = (CheckingAccount) repository.findById(checking.getId());
+                    assertTrue(restoredChecking.getOverdraftUsed() == 200.0 && restoredChecking.isOverdraftProtectionEnabled(),
+                               "Checking extension columns should round-trip");
+                    LoanAccount restoredLoan = (LoanAccount) repository.findById(loan.getId());
+                    assertTrue(restoredLoan.getPrincipalAmount() == 12000.0 && restoredLoan.getMonthsRemaining() == 23
+                               && restoredLoan.getMinimumPayment() == loan.getMinimumPayment()
+                               && restoredLoan.getBalance() == -11500.0, "Loan extension columns should round-trip");
+                    InvestmentAccount restoredInvestment = (InvestmentAccount) repository.findById(investment.getId());
+                    assertTrue(restoredInvestment.getInvestmentValue() == investment.getInvestmentValue()
+                               && restoredInvestment.getCurrentStateName().equals("FROZEN"),
+                               "Investment columns and state should round-trip");
+                    assertTrue(restoredSaving.calculateInterest() == saving.calculateInterest()
+                               && restoredInvestment.calculateInterest() == investment.calculateInterest()
+                               && restoredChecking.getInterestStrategy() == null
+                               && restoredLoan.calculateInterest() == loan.calculateInterest(),
+                               "Interest strategies should round-trip");
+                    Account restoredLayered = repository.findById(decorated.getId());
+                    assertTrue(restoredLayered instanceof bank.accounts.decorators.PremiumAccount
+                               && restoredLayered.getAccountDetails().contains("[Overdraft Protection: $250.0]"),
+                               "Decorator layers should be re-applied in order");
+                    
+                    bank.accounts.snapshot.SnapshotAccountRepository untouched =
+                        new bank.accounts.snapshot.SnapshotAccountRepository(snapshot);
+                    assertTrue(untouched.remove(loan.getId()) == null && !untouched.contains(loan.getId())
+                               && untouched.size() == 4 && untouched.getMaterializedCount() == 0,
+                               "Removing an unmaterialized row should not decode it");
+                    
+                    repository.remove(saving.getId());
+                    repository.save(new SavingAccount("Fresh", 300.0));
+                    assertTrue(!repository.contains(saving.getId()) && repository.size() == 5,
+                               "Removals and new accounts should be reflected in the size");
+                    assertTrue(repository.findAll().size() == 5, "Iteration should cover snapshot and new accounts");
+                }
+            } finally {
+                java.nio.file.Files.deleteIfExists(file);
+            }
+        });
+    }
+    
+    private void testTieredRepository() {
+        test("Tiered Repository Keeps a Bounded Hot Set and Never Evicts Pinned Accounts", () -> {
+            bank.accounts.repository.TieredAccountRepository repository =
+                new bank.accounts.repository.TieredAccountRepository(4, 1);
+            java.util.function.LongConsumer touch = id -> repository.release(repository.acquire(id));
+            long[] ids = new long[20];
+            for (int i = 0; i < ids.length; i++) {
+                SavingAccount account = new SavingAccount("Tier" + i, 200.0 + i);
+                if (i == 3) {
+                    account.setInterestStrategy(new bank.interest.SavingInterest(0.06));
+                    account.accrueInterest(100L, 1.25);
+                    account.postInterest("2024-01", 0.0001);
+                }
+                ids[i] = account.getId();
+                repository.save(account);
+            }
+            assertTrue(repository.getHotCount() == 4 && repository.getColdCount() == 16,
+                       "Only the most recent accounts should stay hot");
+            int[] visited = new int[1];
+            repository.forEach(account -> visited[0]++);
+            assertTrue(repository.size() == 20 && visited[0] == 20 && repository.getHotCount() == 4,
+                       "Cold accounts still count and a scan keeps the hot set bounded");
+            
+            Account pinned = repository.acquire(ids[0]);
+            assertTrue(pinned.getBalance() == 200.0, "Cold account should page in");
+            pinned.deposit(50.0);
+            for (int i = 1; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            assertTrue(repository.acquire(ids[0]) == pinned, "An acquired account must not be evicted");
+            repository.release(pinned);
+            repository.release(pinned);
+            
+            Account observed = repository.acquire(ids[1]);
+            observed.attach(message -> { });
+            repository.release(observed);
+            Account featured = repository.acquire(ids[2]);
+            featured.addFeature(new bank.accounts.features.PremiumFeature());
+            repository.release(featured);
+            for (int i = 4; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            assertTrue(repository.acquire(ids[1]) == observed && repository.acquire(ids[2]) == featured,
+                       "Accounts with observers or features should stay hot");
+            repository.release(observed);
+            repository.release(featured);
+            
+            for (int i = 4; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            Account reloaded = repository.acquire(ids[0]);
+            assertTrue(reloaded != pinned && reloaded.getBalance() == 250.0,
+                       "Released accounts are evicted with their latest balance");
+            repository.release(reloaded);
+            Account restored = repository.acquire(ids[3]);
+            double monthly = restored.getInterestStrategy().calculateInterest(restored);
+            assertTrue(Math.abs(monthly - restored.getBalance() * 0.06 / 12) < 1e-9
+                       && restored.getAccruedInterest() == 1.25 && restored.getLastAccrualEpochDay() == 100L
+                       && !restored.postInterest("2024-01", 1.0),
+                       "Paged-in accounts keep their strategy, accrual and run marker");
+            repository.release(restored);
+            assertTrue(repository.getEvictionCount() > 16, "Evictions should be counted");
+            
+            // Writes through forEach and through references from findById are never lost
+            repository.forEach(account -> account.deposit(1.0));
+            Account handedOut = repository.findById(ids[5]);
+            for (int i = 6; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            handedOut.deposit(10.0);
+            for (int i = 6; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            Account cold = repository.acquire(ids[19]);
+            assertTrue(repository.findById(ids[5]) == handedOut && handedOut.getBalance() == 216.0
+                       && cold.getBalance() == 220.0 && repository.getHotCount() <= 4 + 4,
+                       "Scanned and handed-out accounts should keep their changes");
+            repository.release(cold);
+            
+            // Released handed-out accounts become evictable again; reports scan without escaping
+            repository.release(handedOut);
+            for (int i = 6; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            bank.admin.AccountSummary summary = new bank.admin.ReportingService(
+                null, new bank.admin.AccountSummaryEngine(), repository).getAccountSummary();
+            Account reread = repository.acquire(ids[5]);
+            assertTrue(summary.getTotalAccounts() == 20 && repository.getHotCount() <= 4 + 1
+                       && reread != handedOut && reread.getBalance() == 216.0,
+                       "A summary should not keep the repository hot: " + repository.getHotCount());
+            repository.release(reread);
+            
+            // The state index covers cold accounts without keeping them resident
+            Account frozen = repository.acquire(ids[7]);
+            frozen.setState(AccountStatus.FROZEN);
+            repository.release(frozen);
+            for (int i = 8; i < ids.length; i++) {
+                touch.accept(ids[i]);
+            }
+            boolean evicted = repository.getHotCount() <= 4 + 1;
+            Account pagedIn = repository.acquire(ids[7]);
+            boolean frozenCold = evicted && pagedIn != frozen
+                                 && pagedIn.getCurrentState().getStatus() == AccountStatus.FROZEN;
+            repository.release(pagedIn);
+            java.util.List<Account> listed = repository.findByStatus(AccountStatus.FROZEN);
+            assertTrue(frozenCold && repository.countByStatus(AccountStatus.FROZEN) == 1
+                       && repository.countByStatus(AccountStatus.ACTIVE) == 19
+                       && listed.size() == 1 && listed.get(0).getId() == ids[7],
+                       "Status counts should include evicted accounts");
+            repository.remove(ids[7]);
+            repository.remove(ids[8]);
+            assertTrue(repository.countByStatus(AccountStatus.FROZEN) == 0
+                       && repository.countByStatus(AccountStatus.ACTIVE) == 18,
+                       "Removing hot or cold accounts should update the index");
+        });
+    }
+    
+    private void testFeaturePipeline() {
+        test("Features Intercept in Slot Order Without Extra Account Objects", () -> {
+            InvestmentAccount account = new InvestmentAccount("Fay", 1000.0);
+            account.addFeature(new OverdraftFeature(500.0));
+            account.addFeature(new InsuranceCoverFeature(0.5));
+            account.addFeature(new PremiumFeature());
+            assertTrue(account.getFeatureLabels().equals(" [Premium] [Insured] [Overdraft Protection: $500.0]"),
+                       "Labels should follow slot order: " + account.getFeatureLabels());
+            
+            assertTrue(account.withdraw(1200.0), "Overdraft should cover the shortfall");
+            assertTrue(account.getBalance() == -200.5, "Insurance fee is charged after the withdrawal: "
+                       + account.getBalance());
+            assertFalse(account.withdraw(400.0), "Overdraft limit should be enforced");
+            assertTrue(account.getBalance() == -200.5, "A rejected withdrawal charges no fee");
+            
+            assertTrue(account.removeFeature(FeatureSlot.OVERDRAFT) instanceof OverdraftFeature,
+                       "Removing returns the detached feature");
+            account.deposit(300.5);
+            assertFalse(account.withdraw(150.0), "Without overdraft the funds check applies again");
+            assertTrue(account.removeFeature(FeatureSlot.OVERDRAFT) == null, "Slot is already empty");
+            
+            SavingAccount saver = new SavingAccount("Sol", 1200.0);
+            saver.setInterestStrategy(new bank.interest.SavingInterest(0.12));
+            saver.addFeature(new PremiumFeature());
+            saver.addFeature(new SpendingLimitFeature(500.0));
+            double interest = saver.calculateInterest();
+            assertTrue(Math.abs(interest - 13.2) < 1e-9 && Math.abs(saver.getBalance() - 1213.2) < 1e-9,
+                       "Premium bonus should be credited with the interest: " + interest);
+            assertFalse(saver.transfer(account, 600.0), "Spending limit should cap transfers");
+            assertTrue(saver.transfer(account, 400.0), "Transfers within the limit pass");
+            assertTrue(saver.addFeature(new SpendingLimitFeature(50.0)) instanceof SpendingLimitFeature,
+                       "Adding to an occupied slot replaces its feature");
+            assertFalse(saver.transfer(account, 100.0), "Replaced limit should apply");
+        });
+    }
+    
+    private void testBulkStateChange() {
+        test("Bulk State Change Notifies Each Holder Once", () -> {
+            CheckingAccount ann1 = new CheckingAccount("Ann", 50.0);
+            CheckingAccount ann2 = new CheckingAccount("Ann", 20.0);
+            CheckingAccount ann3 = new CheckingAccount("Ann", 5000.0);
+            CheckingAccount bob = new CheckingAccount("Bob", 10.0);
+            CheckingAccount cid1 = new CheckingAccount("Cid", 30.0);
+            CheckingAccount cid2 = new CheckingAccount("Cid", 40.0);
+            bob.setState(AccountStates.CLOSED);
+            cid2.setState(AccountStates.FROZEN);
+            java.util.List<String> messages = new java.util.ArrayList<>();
+            bank.notifications.Notifier inbox = messages::add;
+            ann1.attach(inbox);
+            ann2.attach(inbox);
+            java.util.List<Account> all = java.util.Arrays.asList(ann1, ann2, ann3, bob, cid1, cid2);
+            
+            java.util.List<bank.notifications.AccountEvent> stateEvents =
+                java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+            bank.events.Subscription subscription = bank.events.EventBus.shared().subscribeAccountEvents(
+                new bank.events.EventFilter(bank.events.EventTopic.ACCOUNT)
+                    .ofKind(bank.notifications.AccountEventKind.STATE_CHANGED), stateEvents::add);
+            
+            bank.accounts.bulk.BulkStateService service = new bank.accounts.bulk.BulkStateService(
+                new java.util.concurrent.ForkJoinPool(2), 2, new AccountLocks(16));
+            bank.accounts.bulk.BulkStateResult frozen;
+            try {
+                frozen = service.changeState(all, a -> a.getBalance() < 100.0, AccountStatus.FROZEN, "compliance review");
+            } finally {
+                subscription.cancel();
+            }
+            assertTrue(stateEvents.size() == 3 && stateEvents.get(0).getAccountId() == ann1.getId(),
+                       "Each changed account should publish a state event: " + stateEvents.size());
+            assertTrue(frozen.getMatched() == 5 && frozen.getChanged() == 3 && frozen.getUnchanged() == 1
+                       && frozen.getRejected() == 1, "Unexpected outcome: " + frozen);
+            assertTrue(java.util.Arrays.equals(frozen.getChangedIds(), new long[] {ann1.getId(), ann2.getId(),
+                       cid1.getId()}), "Changed ids should keep input order");
+            assertTrue(ann1.getCurrentState() == AccountStates.FROZEN && ann3.getCurrentState() == AccountStates.ACTIVE
+                       && bob.getCurrentState() == AccountStates.CLOSED, "Only matching, allowed accounts change");
+            assertTrue(frozen.getHoldersNotified() == 1 && messages.size() == 1
+                       && messages.get(0).startsWith("2 accounts of Ann changed to FROZEN (compliance review)"),
+                       "One message per holder and observer: " + messages);
+            assertFalse(ann1.withdraw(10.0), "Frozen accounts reject withdrawals");
+            
+            bank.accounts.repository.InMemoryAccountRepository repository =
+                new bank.accounts.repository.InMemoryAccountRepository();
+            for (Account account : all) {
+                repository.save(account);
+            }
+            bank.accounts.bulk.BulkStateResult released = service.changeState(repository,
+                new long[] {ann1.getId(), -1L, bob.getId()}, AccountStatus.ACTIVE, "cleared");
+            assertTrue(released.getChanged() == 1 && released.getNotFound() == 1 && released.getRejected() == 1,
+                       "Id lists report unknown ids: " + released);
+            bank.accounts.bulk.BulkStateResult cid = service.changeState(repository,
+                a -> a.getAccountHolder().equals("Cid"), AccountStatus.SUSPENDED, null);
+            assertTrue(cid.getChanged() == 2 && cid1.getCurrentState() == AccountStates.SUSPENDED
+                       && cid.getHoldersNotified() == 0, "Repository criteria should select Cid's accounts: " + cid);
+        });
+    }
+    
+    private void testStateIndex() {
+        test("Repository Indexes Accounts by State", () -> {
+            bank.accounts.repository.InMemoryAccountRepository repository =
+                new bank.accounts.repository.InMemoryAccountRepository();
+            SavingAccount a = new SavingAccount("Ida", 1000.0);
+            SavingAccount b = new SavingAccount("Ida", 2000.0);
+            CheckingAccount c = new CheckingAccount("Ivo", 500.0);
+            c.setState(AccountStates.SUSPENDED);
+            repository.save(a);
+            repository.save(b);
+            repository.save(c);
+            assertTrue(repository.countByStatus(AccountStatus.ACTIVE) == 2
+                       && repository.countByStatus(AccountStatus.SUSPENDED) == 1, "Saved accounts are indexed");
+            
+            a.setState(AccountStates.FROZEN);
+            b.setState(AccountStates.FROZEN);
+            assertFalse(b.setState(AccountStates.CLOSED), "Rejected transitions do not move the index");
+            assertTrue(repository.countByStatus(AccountStatus.FROZEN) == 2
+                       && repository.countByStatus(AccountStatus.ACTIVE) == 0, "Transitions move accounts");
+            
+            bank.accounts.decorators.PremiumAccount premium = new bank.accounts.decorators.PremiumAccount(c);
+            repository.save(premium);
+            premium.setState(AccountStates.ACTIVE);
+            assertTrue(repository.countByStatus(AccountStatus.SUSPENDED) == 0
+                       && repository.findByStatus(AccountStatus.ACTIVE).get(0) == premium,
+                       "Decorated accounts stay indexed once");
+            repository.remove(a.getId());
+            a.setState(AccountStates.ACTIVE);
+            assertTrue(repository.countByStatus(AccountStatus.FROZEN) == 1
+                       && repository.countByStatus(AccountStatus.ACTIVE) == 1, "Removed accounts leave the index");
+            
+            // Saves racing removes of the same id leave the index matching the contents
+            bank.accounts.repository.InMemoryAccountRepository raced =
+                new bank.accounts.repository.InMemoryAccountRepository(16, 1);
+            SavingAccount contested = new SavingAccount("Rae", 100.0);
+            Thread remover = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) raced.remove(contested.getId());
+            });
+            remover.start();
+            for (int i = 0; i < 20_000; i++) raced.save(contested);
+            remover.join();
+            assertTrue(raced.countByStatus(AccountStatus.ACTIVE) == raced.size(),
+                       "Index should match the stored accounts after racing save and remove");
+            
+            bank.admin.ReportingService reporting =
+                new bank.admin.ReportingService(null, new bank.admin.AccountSummaryEngine(), repository);
+            long[] counts = reporting.getStatusCounts();
+            bank.admin.AccountSummary summary = reporting.getAccountSummary();
+            for (AccountStatus status : AccountStatus.values()) {
+                assertTrue(counts[status.ordinal()] == summary.getCount(status),
+                           "Index counts should match a full scan for " + status);
+            }
+            assertTrue(reporting.findAccounts(AccountStatus.FROZEN).get(0) == b, "Reports list indexed accounts");
+        });
+    }
+    
     // ============ Test Infrastructure ============
     
     private void test(String testName, TestRunnable test) {
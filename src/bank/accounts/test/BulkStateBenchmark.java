@@ -0,0 +1,109 @@
+package bank.accounts.test;
+
+import bank.accounts.Account;
+import bank.accounts.AccountStatus;
+import bank.accounts.bulk.BulkStateResult;
+import bank.accounts.bulk.BulkStateService;
+import bank.accounts.repository.InMemoryAccountRepository;
+import bank.accounts.states.AccountStates;
+import bank.accounts.types.CheckingAccount;
+import bank.notifications.Notifier;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * BulkStateBenchmark - Freezing every account that meets a criterion
+ * Compares a sequential setState loop (one notification per account) with
+ * BulkStateService over a list, over a repository and over an id list (one
+ * notification per holder). Every holder owns four accounts spread over the set
+ * and every 100th holder observes all of them. Each pass freezes the accounts with
+ * a balance below 1,000 (10% of them, all four accounts of every 10th holder) and
+ * the accounts are reactivated quietly between passes.
+ *
+ * Usage: java -Xmx4g -cp bin bank.accounts.test.BulkStateBenchmark [accounts]
+ * (defaults to 1,000,000 accounts)
+ */
+public class BulkStateBenchmark {
+
+    private static final PrintStream CONSOLE = System.out;
+    private static final int ACCOUNTS_PER_HOLDER = 4;
+    private static final int OBSERVED_HOLDER_EVERY = 100;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int holders = total / ACCOUNTS_PER_HOLDER / 10 * 10;
+        total = holders * ACCOUNTS_PER_HOLDER;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // keep the per-operation trace out of the timings
+
+        AtomicLong messages = new AtomicLong();
+        Notifier counter = message -> messages.incrementAndGet();
+        InMemoryAccountRepository repository = new InMemoryAccountRepository(total, 64);
+        List<Account> accounts = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            int holder = i % holders;
+            CheckingAccount account = new CheckingAccount("Holder" + holder, (holder % 10) * 1_000.0 + 500.0);
+            if (holder % OBSERVED_HOLDER_EVERY == 0) account.attach(counter);
+            accounts.add(account);
+            repository.save(account);
+        }
+        Predicate<Account> lowBalance = account -> account.getBalance() < 1_000.0;
+        long[] ids = new long[total / 10];
+        int n = 0;
+        for (Account account : accounts) {
+            if (lowBalance.test(account)) ids[n++] = account.getId();
+        }
+        BulkStateService service = new BulkStateService();
+        CONSOLE.printf("%,d accounts, %,d to freeze, %d CPUs%n", total, ids.length,
+                Runtime.getRuntime().availableProcessors());
+
+        for (int run = 0; run < RUNS; run++) {
+            messages.set(0);
+            long start = System.nanoTime();
+            for (Account account : accounts) {
+                if (lowBalance.test(account)) account.setState(AccountStatus.FROZEN);
+            }
+            report("setState loop", start, messages.get());
+            reactivate(accounts);
+
+            messages.set(0);
+            start = System.nanoTime();
+            BulkStateResult result = service.changeState(accounts, lowBalance, AccountStatus.FROZEN, "benchmark");
+            report("Bulk over list", start, messages.get(), result);
+            reactivate(accounts);
+
+            messages.set(0);
+            start = System.nanoTime();
+            result = service.changeState(repository, lowBalance, AccountStatus.FROZEN, "benchmark");
+            report("Bulk over repository", start, messages.get(), result);
+            reactivate(accounts);
+
+            messages.set(0);
+            start = System.nanoTime();
+            result = service.changeState(repository, ids, AccountStatus.FROZEN, "benchmark");
+            report("Bulk over id list", start, messages.get(), result);
+            reactivate(accounts);
+            CONSOLE.println();
+        }
+    }
+
+    private static void reactivate(List<Account> accounts) {
+        for (Account account : accounts) {
+            account.changeStateQuietly(AccountStates.ACTIVE);
+        }
+    }
+
+    private static void report(String label, long startNanos, long messages) {
+        CONSOLE.printf("%-22s: %,8d ms, %,9d messages%n", label, (System.nanoTime() - startNanos) / 1_000_000,
+                messages);
+    }
+
+    private static void report(String label, long startNanos, long messages, BulkStateResult result) {
+        if (result.getChanged() == 0) throw new IllegalStateException("Nothing changed: " + result);
+        report(label, startNanos, messages);
+    }
+}
@@ -0,0 +1,131 @@
+package bank.accounts.test;
+
+import bank.accounts.Account;
+import bank.accounts.AccountFeature;
+import bank.accounts.decorators.InsuranceFeature;
+import bank.accounts.decorators.OverdraftProtection;
+import bank.accounts.decorators.PremiumAccount;
+import bank.accounts.features.InsuranceCoverFeature;
+import bank.accounts.features.MinimumBalanceFeature;
+import bank.accounts.features.OverdraftFeature;
+import bank.accounts.features.PremiumFeature;
+import bank.accounts.features.SpendingLimitFeature;
+import bank.accounts.types.InvestmentAccount;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.function.Function;
+
+/**
+ * FeaturePipelineBenchmark - Decorator stacks vs. the feature pipeline at 0 to 5 features
+ * For each feature count, measures attaching the features to new accounts and a
+ * withdraw + transfer + calculateInterest + deposit cycle on one account. The
+ * decorator stack cycles through the three decorator types; feature instances
+ * are shared by all accounts, which decorators cannot do. Decorators print
+ * unconditionally, so stdout is discarded while measuring.
+ *
+ * Usage: java -cp bin bank.accounts.test.FeaturePipelineBenchmark [operations]
+ * (defaults to 2,000,000 operation cycles per feature count)
+ */
+public class FeaturePipelineBenchmark {
+
+    private static final int ACCOUNTS = 20_000;
+    private static final int ATTACH_RUNS = 5;
+    private static final int MAX_FEATURES = 5;
+
+    private static final Function<Account, Account>[] DECORATORS = decorators();
+    private static final AccountFeature[] FEATURES = {
+        new PremiumFeature(),
+        new InsuranceCoverFeature(0.5),
+        new OverdraftFeature(1_000.0),
+        new SpendingLimitFeature(1_000.0),
+        new MinimumBalanceFeature(0.0)
+    };
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        StringBuilder report = new StringBuilder(String.format(
+                "Features | decorators: attach ns  cycle ns | pipeline: attach ns  cycle ns%n"));
+        try {
+            for (int round = 0; round < 2; round++) { // first round is warm-up
+                report.setLength(report.indexOf("\n") + 1);
+                for (int k = 0; k <= MAX_FEATURES; k++) {
+                    double decoratedAttach = attach(k, true);
+                    double pipelineAttach = attach(k, false);
+                    double decoratedCycle = cycle(decorate(newAccount(), k), operations);
+                    double pipelineCycle = cycle(withFeatures(newAccount(), k), operations);
+                    report.append(String.format("%8d | %20.1f %9.1f | %18.1f %9.1f%n",
+                            k, decoratedAttach, decoratedCycle, pipelineAttach, pipelineCycle));
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+        System.out.print(report);
+    }
+
+    private static InvestmentAccount newAccount() {
+        return new InvestmentAccount("Bench", 1_000_000_000.0);
+    }
+
+    private static Account decorate(Account account, int k) {
+        for (int i = 0; i < k; i++) {
+            account = DECORATORS[i % DECORATORS.length].apply(account);
+        }
+        return account;
+    }
+
+    private static Account withFeatures(Account account, int k) {
+        for (int i = 0; i < k; i++) {
+            account.addFeature(FEATURES[i]);
+        }
+        return account;
+    }
+
+    /**
+     * Nanoseconds per account to attach k features (account creation excluded), best of ATTACH_RUNS
+     */
+    private static double attach(int k, boolean decorators) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < ATTACH_RUNS; run++) {
+            Account[] accounts = new Account[ACCOUNTS];
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts[i] = newAccount();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts[i] = decorators ? decorate(accounts[i], k) : withFeatures(accounts[i], k);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double) ACCOUNTS;
+    }
+
+    /**
+     * Nanoseconds per withdraw + transfer + calculateInterest + deposit cycle
+     */
+    private static double cycle(Account account, int operations) {
+        Account target = newAccount();
+        double sink = 0.0;
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            account.withdraw(1.0);
+            account.transfer(target, 1.0);
+            sink += account.calculateInterest();
+            account.deposit(3.0);
+        }
+        long nanos = System.nanoTime() - start;
+        if (sink < 0) System.err.println(sink);
+        return nanos / (double) operations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Account, Account>[] decorators() {
+        return (Function<Account, Account>[]) new Function<?, ?>[] {
+            (Function<Account, Account>) PremiumAccount::new,
+            (Function<Account, Account>) InsuranceFeature::new,
+            (Function<Account, Account>) a -> new OverdraftProtection(a, 1_000.0)
+        };
+    }
+}
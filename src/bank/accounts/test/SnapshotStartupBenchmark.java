@@ -0,0 +1,81 @@
+package bank.accounts.test;
+
+import bank.accounts.Account;
+import bank.accounts.snapshot.AccountSnapshot;
+import bank.accounts.snapshot.AccountSnapshotWriter;
+import bank.accounts.snapshot.SnapshotAccountRepository;
+import bank.accounts.types.CheckingAccount;
+import bank.accounts.types.InvestmentAccount;
+import bank.accounts.types.LoanAccount;
+import bank.accounts.types.SavingAccount;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * SnapshotStartupBenchmark - Time until the first account can be served after a restart
+ * Compares eagerly materializing every account from the snapshot with opening the
+ * mapped snapshot and materializing accounts on first access.
+ *
+ * Usage: java -Xmx4g -cp bin bank.accounts.test.SnapshotStartupBenchmark [accounts]
+ * (defaults to 2,000,000 accounts)
+ */
+public class SnapshotStartupBenchmark {
+
+    private static final int LOOKUPS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<Account> accounts = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            switch (i & 3) {
+                case 0: accounts.add(new SavingAccount("Holder" + i, 500.0 + i)); break;
+                case 1: accounts.add(new CheckingAccount("Holder" + i, 100.0 + i)); break;
+                case 2: accounts.add(new LoanAccount("Holder" + i, 10000.0, 5.0, 36)); break;
+                default: accounts.add(new InvestmentAccount("Holder" + i, 1000.0 + i)); break;
+            }
+        }
+        long[] ids = new long[total];
+        for (int i = 0; i < total; i++) {
+            ids[i] = accounts.get(i).getId();
+        }
+        Path file = Files.createTempFile("accounts-bench", ".snap");
+        try {
+            long start = System.nanoTime();
+            AccountSnapshotWriter.write(file, accounts);
+            System.out.printf("Wrote %,d accounts (%,d MB) in %d ms%n", total, Files.size(file) >> 20,
+                    (System.nanoTime() - start) / 1_000_000);
+            accounts = null;
+
+            // Eager: decode every row before serving
+            start = System.nanoTime();
+            try (AccountSnapshot snapshot = AccountSnapshot.open(file)) {
+                Account[] all = new Account[snapshot.size()];
+                for (int i = 0; i < all.length; i++) {
+                    all[i] = snapshot.materialize(i);
+                }
+                System.out.printf("Eager load of all accounts      : %,8d ms%n", (System.nanoTime() - start) / 1_000_000);
+            }
+
+            // Lazy: map, then serve random lookups
+            start = System.nanoTime();
+            try (AccountSnapshot snapshot = AccountSnapshot.open(file)) {
+                SnapshotAccountRepository repository = new SnapshotAccountRepository(snapshot);
+                long opened = System.nanoTime();
+                SplittableRandom random = new SplittableRandom(42);
+                double sink = 0.0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    sink += repository.findById(ids[random.nextInt(total)]).getBalance();
+                }
+                long done = System.nanoTime();
+                System.out.printf("Lazy open (ready to serve)      : %,8.2f ms%n", (opened - start) / 1e6);
+                System.out.printf("First %,d lookups after open : %,8.2f ms (%d materialized, checksum %.0f)%n",
+                        LOOKUPS, (done - opened) / 1e6, repository.getMaterializedCount(), sink);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
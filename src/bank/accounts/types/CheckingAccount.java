@@ -1,6 +1,7 @@
 package bank.accounts.types;
 
 import bank.accounts.Account;
+import bank.accounts.AccountState;
 
 /**
  * CheckingAccount - Checking account for daily transactions
@@ -29,6 +30,23 @@ public class CheckingAccount extends Account {
         this.overdraftUsed = 0.0;
     }
     
+    /**
+     * Recreates a persisted checking account with its original id
+     */
+    public static CheckingAccount restore(long id, String accountHolder, double balance,
+                                          boolean overdraftProtectionEnabled, double overdraftUsed,
+                                          long createdAtMillis, long lastModifiedMillis, AccountState state) {
+        CheckingAccount account = new CheckingAccount(id, accountHolder, balance);
+        account.overdraftProtectionEnabled = overdraftProtectionEnabled;
+        account.overdraftUsed = overdraftUsed;
+        account.restoreMetadata(createdAtMillis, lastModifiedMillis, state);
+        return account;
+    }
+    
+    private CheckingAccount(long id, String accountHolder, double balance) {
+        super(id, accountHolder, "CHECKING", balance);
+    }
+    
     /**
      * Calculates interest for checking account
      * Most checking accounts don't earn interest, so returns 0
@@ -123,6 +141,14 @@ public class CheckingAccount extends Account {
         }
     }
     
+    public boolean isOverdraftProtectionEnabled() {
+        return overdraftProtectionEnabled;
+    }
+    
+    public double getOverdraftUsed() {
+        return overdraftUsed;
+    }
+    
     /**
      * Repays overdraft
      */
@@ -1,6 +1,7 @@
 package bank.accounts.types;
 
 import bank.accounts.Account;
+import bank.accounts.AccountState;
 import bank.interest.InvestmentInterest;
 
 /**
@@ -36,6 +37,25 @@ public class InvestmentAccount extends Account {
         setInterestStrategy(new InvestmentInterest(ANNUAL_TARGET_RETURN));
     }
     
+    /**
+     * Recreates a persisted investment account with its original id
+     */
+    public static InvestmentAccount restore(long id, String accountHolder, double balance,
+                                            double investmentValue, double totalInvested, double returns,
+                                            long createdAtMillis, long lastModifiedMillis, AccountState state) {
+        InvestmentAccount account = new InvestmentAccount(id, accountHolder, balance);
+        account.investmentValue = investmentValue;
+        account.totalInvested = totalInvested;
+        account.returns = returns;
+        account.restoreMetadata(createdAtMillis, lastModifiedMillis, state);
+        return account;
+    }
+    
+    private InvestmentAccount(long id, String accountHolder, double balance) {
+        super(id, accountHolder, "INVESTMENT", balance);
+        setInterestStrategy(new InvestmentInterest(ANNUAL_TARGET_RETURN));
+    }
+    
     /**
      * Calculates investment returns based on target return rate
      * In a real system, this would be based on actual market prices
@@ -49,6 +69,16 @@ public class InvestmentAccount extends Account {
         return monthlyReturn;
     }
     
+    /**
+     * Returns are added to the investment value, not to the cash balance
+     */
+    @Override
+    protected boolean applyInterest(double interest) {
+        returns += interest;
+        investmentValue += interest;
+        return true;
+    }
+    
     /**
      * Invests cash into securities (simulated)
      * In a real system, this would execute actual market orders
@@ -134,6 +164,14 @@ public class InvestmentAccount extends Account {
         return investmentValue;
     }
     
+    public double getTotalInvested() {
+        return totalInvested;
+    }
+    
+    public double getReturns() {
+        return returns;
+    }
+    
     /**
      * Gets the account details
      */
@@ -1,6 +1,8 @@
 package bank.accounts.types;
 
 import bank.accounts.Account;
+import bank.accounts.AccountState;
+import bank.interest.amortization.AmortizationSchedule;
 
 /**
  * LoanAccount - Loan/Credit account
@@ -14,6 +16,7 @@ import bank.accounts.Account;
 public class LoanAccount extends Account {
     
     private double interestRate; // Monthly interest rate
+    private final double annualInterestRate; // As given, in percent
     private double principalAmount; // Original loan amount
     private int monthsRemaining; // Remaining payment period
     private double minimumPayment;
@@ -30,6 +33,7 @@ public class LoanAccount extends Account {
                        double annualInterestRate, int monthsToRepay) {
         super(accountHolder, "LOAN", -principalAmount); // Negative balance = amount owed
         this.principalAmount = principalAmount;
+        this.annualInterestRate = annualInterestRate;
         this.interestRate = annualInterestRate / 12 / 100; // Convert to monthly rate
         this.monthsRemaining = monthsToRepay;
         this.minimumPayment = calculateMinimumPayment();
@@ -38,20 +42,36 @@ public class LoanAccount extends Account {
         setInterestStrategy(new bank.interest.LoanInterest(annualInterestRate));
     }
     
+    /**
+     * Recreates a persisted loan account with its original id
+     * 
+     * @param annualInterestRate Annual rate in percent, as passed to the public constructor
+     */
+    public static LoanAccount restore(long id, String accountHolder, double balance, double principalAmount,
+                                      double annualInterestRate, int monthsRemaining, double minimumPayment,
+                                      long createdAtMillis, long lastModifiedMillis, AccountState state) {
+        LoanAccount account = new LoanAccount(id, accountHolder, balance, principalAmount, annualInterestRate,
+                                              monthsRemaining, minimumPayment);
+        account.restoreMetadata(createdAtMillis, lastModifiedMillis, state);
+        return account;
+    }
+    
+    private LoanAccount(long id, String accountHolder, double balance, double principalAmount,
+                        double annualInterestRate, int monthsRemaining, double minimumPayment) {
+        super(id, accountHolder, "LOAN", balance);
+        this.principalAmount = principalAmount;
+        this.annualInterestRate = annualInterestRate;
+        this.interestRate = annualInterestRate / 12 / 100;
+        this.monthsRemaining = monthsRemaining;
+        this.minimumPayment = minimumPayment;
+        setInterestStrategy(new bank.interest.LoanInterest(annualInterestRate));
+    }
+    
     /**
      * Calculates the minimum monthly payment using amortization formula
      */
     private double calculateMinimumPayment() {
-        // Using the loan payment formula
-        double rate = interestRate;
-        double balance = Math.abs(getBalance());
-        
-        if (rate == 0) {
-            return balance / monthsRemaining;
-        }
-        
-        return (balance * rate * Math.pow(1 + rate, monthsRemaining)) / 
-               (Math.pow(1 + rate, monthsRemaining) - 1);
+        return AmortizationSchedule.levelPayment(Math.abs(getBalance()), interestRate, monthsRemaining);
     }
     
     /**
@@ -72,6 +92,15 @@ public class LoanAccount extends Account {
         return monthlyInterest;
     }
     
+    /**
+     * Interest increases the amount owed, regardless of the account state
+     */
+    @Override
+    protected boolean applyInterest(double interest) {
+        setBalance(getBalance() - interest);
+        return true;
+    }
+    
     /**
      * Makes a payment on the loan (deposit to the account reduces debt)
      */
@@ -95,6 +124,23 @@ public class LoanAccount extends Account {
         return success;
     }
     
+    /**
+     * Makes an extra payment towards the principal
+     * Unlike a regular payment it does not count as one of the monthly payments,
+     * so the loan is repaid earlier.
+     */
+    public boolean makeExtraPayment(double amount) {
+        if (amount <= 0) {
+            System.out.println("Error: Payment amount must be positive.");
+            return false;
+        }
+        boolean success = super.deposit(amount);
+        if (success) {
+            System.out.println("Extra payment received. Amount owed: $" + Math.abs(getBalance()));
+        }
+        return success;
+    }
+    
     /**
      * Loan accounts don't allow regular withdrawals (you can't borrow more)
      */
@@ -130,6 +176,25 @@ public class LoanAccount extends Account {
         );
     }
     
+    public double getPrincipalAmount() {
+        return principalAmount;
+    }
+    
+    /**
+     * Gets the annual interest rate in percent
+     */
+    public double getAnnualInterestRate() {
+        return annualInterestRate;
+    }
+    
+    public int getMonthsRemaining() {
+        return monthsRemaining;
+    }
+    
+    public double getMinimumPayment() {
+        return minimumPayment;
+    }
+    
     /**
      * Gets the remaining balance (amount still owed)
      */
@@ -1,6 +1,7 @@
 package bank.accounts.types;
 
 import bank.accounts.Account;
+import bank.accounts.AccountState;
 import bank.interest.SavingInterest;
 
 /**
@@ -34,6 +35,24 @@ public class SavingAccount extends Account {
         }
     }
     
+    /**
+     * Recreates a persisted savings account with its original id
+     */
+    public static SavingAccount restore(long id, String accountHolder, double balance,
+                                        long createdAtMillis, long lastModifiedMillis, AccountState state) {
+        SavingAccount account = new SavingAccount(id, accountHolder, balance);
+        account.restoreMetadata(createdAtMillis, lastModifiedMillis, state);
+        return account;
+    }
+    
+    /**
+     * Restore constructor - skips the opening-balance check
+     */
+    private SavingAccount(long id, String accountHolder, double balance) {
+        super(id, accountHolder, "SAVINGS", balance);
+        setInterestStrategy(new SavingInterest(INTEREST_RATE));
+    }
+    
     /**
      * Calculates simple interest for the savings account
      * Formula: Interest = Balance × Interest Rate / 12 (for monthly calculation)
@@ -0,0 +1,50 @@
+package bank.admin;
+
+import bank.accounts.AccountKind;
+import bank.accounts.AccountStatus;
+
+/**
+ * AccountSummary - Totals over a set of accounts
+ * Holds the account count and balance overall, per account kind and per state,
+ * as computed by AccountSummaryEngine in a single traversal.
+ */
+public final class AccountSummary {
+
+    private final long totalAccounts;
+    private final double totalBalance;
+    private final long[] countByKind;
+    private final double[] balanceByKind;
+    private final long[] countByStatus;
+
+    AccountSummary(long totalAccounts, double totalBalance, long[] countByKind, double[] balanceByKind,
+                   long[] countByStatus) {
+        this.totalAccounts = totalAccounts;
+        this.totalBalance = totalBalance;
+        this.countByKind = countByKind;
+        this.balanceByKind = balanceByKind;
+        this.countByStatus = countByStatus;
+    }
+
+    public long getTotalAccounts() {
+        return totalAccounts;
+    }
+
+    /**
+     * Gets the sum of all balances (loan balances are negative)
+     */
+    public double getTotalBalance() {
+        return totalBalance;
+    }
+
+    public long getCount(AccountKind kind) {
+        return countByKind[kind.ordinal()];
+    }
+
+    public double getBalance(AccountKind kind) {
+        return balanceByKind[kind.ordinal()];
+    }
+
+    public long getCount(AccountStatus status) {
+        return countByStatus[status.ordinal()];
+    }
+}
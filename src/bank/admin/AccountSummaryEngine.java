@@ -0,0 +1,149 @@
+package bank.admin;
+
+import bank.accounts.Account;
+import bank.accounts.AccountKind;
+import bank.accounts.AccountStatus;
+import bank.accounts.repository.AccountRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * AccountSummaryEngine - Single-pass parallel aggregation of account totals
+ * Splits the account set into index ranges on a fork-join pool. Each leaf task
+ * fills its own primitive accumulator (count, balance, per-kind and per-state
+ * arrays) in one traversal, and accumulators are merged pairwise on the way back
+ * up, so no shared state, locks or boxed counters are involved.
+ *
+ * Ranges are split by index, so the merge order (and therefore the floating-point
+ * balance totals) is the same on every run.
+ */
+public class AccountSummaryEngine {
+
+    /** Accounts per leaf task; smaller inputs are summarized on the calling thread */
+    public static final int DEFAULT_THRESHOLD = 8192;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public AccountSummaryEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool Pool that runs the leaf tasks
+     * @param threshold Maximum number of accounts handled by one leaf task
+     */
+    public AccountSummaryEngine(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Computes the summary of a list of accounts (null entries are skipped)
+     * Lists without random access are copied to an array first.
+     */
+    public AccountSummary summarize(List<? extends Account> accounts) {
+        List<? extends Account> source = accounts instanceof RandomAccess
+                ? accounts
+                : Arrays.asList(accounts.toArray(new Account[0]));
+        int size = source.size();
+        Totals totals = size <= threshold
+                ? new Totals().addRange(source, 0, size)
+                : pool.invoke(new SummaryTask(source, 0, size, threshold));
+        return totals.toSummary();
+    }
+
+    /**
+     * Computes the summary of every account in a repository
+     * The accounts are visited with forEach on the calling thread, so a repository
+     * that pages accounts out (TieredAccountRepository) only holds the visited one.
+     */
+    public AccountSummary summarize(AccountRepository accounts) {
+        Totals totals = new Totals();
+        accounts.forEach(totals::add);
+        return totals.toSummary();
+    }
+
+    /**
+     * Fork-join task over the index range [from, to)
+     */
+    private static final class SummaryTask extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends Account> accounts;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SummaryTask(List<? extends Account> accounts, int from, int to, int threshold) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= threshold) {
+                return new Totals().addRange(accounts, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(accounts, from, mid, threshold);
+            left.fork();
+            Totals right = new SummaryTask(accounts, mid, to, threshold).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Per-task accumulator
+     */
+    private static final class Totals {
+        long count;
+        double balance;
+        final long[] countByKind = new long[AccountKind.count()];
+        final double[] balanceByKind = new double[AccountKind.count()];
+        final long[] countByStatus = new long[AccountStatus.count()];
+
+        Totals addRange(List<? extends Account> accounts, int from, int to) {
+            for (int i = from; i < to; i++) {
+                Account account = accounts.get(i);
+                if (account != null) add(account);
+            }
+            return this;
+        }
+
+        void add(Account account) {
+            double b = account.getBalance();
+            int kind = account.getKind().ordinal();
+            count++;
+            balance += b;
+            countByKind[kind]++;
+            balanceByKind[kind] += b;
+            countByStatus[account.getCurrentState().getStatus().ordinal()]++;
+        }
+
+        Totals merge(Totals other) {
+            count += other.count;
+            balance += other.balance;
+            for (int k = 0; k < countByKind.length; k++) {
+                countByKind[k] += other.countByKind[k];
+                balanceByKind[k] += other.balanceByKind[k];
+            }
+            for (int s = 0; s < countByStatus.length; s++) {
+                countByStatus[s] += other.countByStatus[s];
+            }
+            return this;
+        }
+
+        AccountSummary toSummary() {
+            return new AccountSummary(count, balance, countByKind, balanceByKind, countByStatus);
+        }
+    }
+}
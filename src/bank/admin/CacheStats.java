@@ -0,0 +1,64 @@
+package bank.admin;
+
+/**
+ * CacheStats - Point-in-time counters of one cached report
+ */
+public final class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long staleHits;
+    private final long loads;
+    private final long invalidations;
+
+    CacheStats(long hits, long misses, long staleHits, long loads, long invalidations) {
+        this.hits = hits;
+        this.misses = misses;
+        this.staleHits = staleHits;
+        this.loads = loads;
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * Requests answered from a fresh cached value
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Requests that found no fresh value (they waited for, or served, a refresh)
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Misses answered with the previous value while another caller refreshed it
+     */
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    /**
+     * Number of times the report was actually computed
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, stale=%d, loads=%d, invalidations=%d, hitRate=%.1f%%",
+                hits, misses, staleHits, loads, invalidations, getHitRate() * 100);
+    }
+}
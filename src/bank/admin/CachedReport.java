@@ -0,0 +1,143 @@
+package bank.admin;
+
+import bank.common.BankClock;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * CachedReport - A single cached report value with TTL and version-based invalidation
+ *
+ * A value is fresh while it is younger than the TTL, no invalidation happened
+ * since its computation started and, when the report has a change counter, the
+ * counter still has the value read when the computation started. Refreshes are single-flight: the first caller
+ * that finds the value missing or stale runs the computation; concurrent callers
+ * get the previous value when there is one (stale-while-refresh) or wait for the
+ * running computation otherwise.
+ */
+final class CachedReport<T> {
+
+    private static final class Entry<T> {
+        final T value;
+        final long computedAt;
+        final long version;
+        final long changes;
+
+        Entry(T value, long computedAt, long version, long changes) {
+            this.value = value;
+            this.computedAt = computedAt;
+            this.version = version;
+            this.changes = changes;
+        }
+    }
+
+    private final BankClock clock;
+    private final long ttlMillis;
+    private final LongSupplier changeCounter;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<FutureTask<T>> inFlight = new AtomicReference<>();
+    private volatile Entry<T> entry;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    CachedReport(BankClock clock, long ttlMillis) {
+        this(clock, ttlMillis, null);
+    }
+
+    /**
+     * @param changeCounter Monotonic count of changes to the report's inputs (e.g.
+     *                      Account::changeCount); null to rely on invalidate() alone
+     */
+    CachedReport(BankClock clock, long ttlMillis, LongSupplier changeCounter) {
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+        this.changeCounter = changeCounter;
+    }
+
+    private long changes() {
+        return changeCounter == null ? 0L : changeCounter.getAsLong();
+    }
+
+    T get(Supplier<T> loader) {
+        Entry<T> current = entry;
+        if (isFresh(current)) {
+            hits.increment();
+            return current.value;
+        }
+        misses.increment();
+        FutureTask<T> task = inFlight.get();
+        if (task == null) {
+            long startVersion = version.get();
+            long startChanges = changes();
+            FutureTask<T> created = new FutureTask<>(() -> load(loader, startVersion, startChanges));
+            if (inFlight.compareAndSet(null, created)) {
+                try {
+                    created.run();
+                } finally {
+                    inFlight.compareAndSet(created, null);
+                }
+                return await(created);
+            }
+            task = inFlight.get();
+        }
+        if (current != null) {
+            staleHits.increment();
+            return current.value;
+        }
+        return task == null ? get(loader) : await(task);
+    }
+
+    void invalidate() {
+        version.incrementAndGet();
+        invalidations.increment();
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), staleHits.sum(), loads.sum(), invalidations.sum());
+    }
+
+    private boolean isFresh(Entry<T> e) {
+        return e != null && e.version == version.get() && e.changes == changes()
+                && clock.millis() - e.computedAt < ttlMillis;
+    }
+
+    private T load(Supplier<T> loader, long startVersion, long startChanges) {
+        long startedAt = clock.millis();
+        T value = loader.get();
+        loads.increment();
+        // Stamped with the versions seen before computing, so a change during the load keeps it stale
+        entry = new Entry<>(value, startedAt, startVersion, startChanges);
+        return value;
+    }
+
+    private static <T> T await(FutureTask<T> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Report computation failed", cause);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Report computation was cancelled", e);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
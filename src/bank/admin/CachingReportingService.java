@@ -0,0 +1,145 @@
+package bank.admin;
+
+import bank.accounts.Account;
+import bank.accounts.repository.AccountRepository;
+import bank.common.BankClock;
+import bank.common.Clocks;
+import bank.transactions.history.DailySummary;
+import bank.transactions.history.RecentResult;
+import bank.transactions.history.TransactionLog;
+import bank.transactions.history.TransactionLogListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * CachingReportingService - ReportingService whose report data is cached between dashboard views
+ *
+ * The account summary, today's transaction totals and the audit log are each
+ * cached for a configurable TTL (see CachedReport for the single-flight and
+ * stale-while-refresh rules). Entries are also invalidated by change events:
+ * - every record added to the transaction log invalidates the daily totals and the audit log
+ * - the account summary is stale once Account.changeCount() moved, i.e. after any
+ *   balance or state change (including quiet bulk changes and interest postings).
+ *   Nothing is attached to the accounts: the counter is compared when the summary
+ *   is read, and a change costs one uncontended increment.
+ *
+ * The summary is cached for one account list (or the repository) at a time;
+ * passing a different list, or a source whose size changed, recomputes it.
+ */
+public class CachingReportingService extends ReportingService {
+
+    private final CachedReport<AccountSummary> accountSummary;
+    private final CachedReport<DailySummary> dailySummary;
+    private final CachedReport<RecentResult> auditRecords;
+
+    private final TransactionLogListener logWatcher;
+
+    private volatile Object summarizedSource;
+    private volatile int summarizedSize;
+
+    public CachingReportingService(TransactionLog log, Duration ttl) {
+        this(log, new AccountSummaryEngine(), ttl);
+    }
+
+    public CachingReportingService(TransactionLog log, AccountSummaryEngine summaryEngine, Duration ttl) {
+        this(log, summaryEngine, null, ttl);
+    }
+
+    /**
+     * @param log The transaction log to report on
+     * @param summaryEngine Engine computing account summaries on a miss
+     * @param accounts Repository summarized by getAccountSummary(); may be null
+     * @param ttl Maximum age of a cached report
+     */
+    public CachingReportingService(TransactionLog log, AccountSummaryEngine summaryEngine,
+                                   AccountRepository accounts, Duration ttl) {
+        super(log, summaryEngine, accounts);
+        BankClock clock = log != null ? log.getClock() : Clocks.get();
+        long ttlMillis = ttl.toMillis();
+        this.accountSummary = new CachedReport<>(clock, ttlMillis, Account::changeCount);
+        this.dailySummary = new CachedReport<>(clock, ttlMillis);
+        this.auditRecords = new CachedReport<>(clock, ttlMillis);
+        this.logWatcher = record -> {
+            dailySummary.invalidate();
+            auditRecords.invalidate();
+        };
+        if (log != null) {
+            log.addListener(logWatcher);
+        }
+    }
+
+    @Override
+    public AccountSummary summarizeAccounts(List<? extends Account> accounts) {
+        return cachedSummary(accounts, accounts.size(), () -> super.summarizeAccounts(accounts));
+    }
+
+    /**
+     * Summarizes the repository; cached like a list, keyed by the repository and its size
+     */
+    @Override
+    public AccountSummary getAccountSummary() {
+        AccountRepository repository = getAccountRepository();
+        if (repository == null) {
+            return super.getAccountSummary();
+        }
+        return cachedSummary(repository, repository.size(), super::getAccountSummary);
+    }
+
+    private AccountSummary cachedSummary(Object source, int size, Supplier<AccountSummary> summary) {
+        if (source != summarizedSource || size != summarizedSize) {
+            summarizedSource = source;
+            summarizedSize = size;
+            accountSummary.invalidate();
+        }
+        return accountSummary.get(summary);
+    }
+
+    @Override
+    public DailySummary getDailySummary() {
+        TransactionLog log = getTransactionLog();
+        if (log == null) return null;
+        DailySummary summary = dailySummary.get(super::getDailySummary);
+        if (!summary.getDate().equals(log.getClock().today())) {
+            // The cached totals belong to a day that has ended
+            dailySummary.invalidate();
+            summary = dailySummary.get(super::getDailySummary);
+        }
+        return summary;
+    }
+
+    @Override
+    public RecentResult getAuditRecords() {
+        return auditRecords.get(super::getAuditRecords);
+    }
+
+    /**
+     * Drops every cached report
+     */
+    public void invalidateAll() {
+        accountSummary.invalidate();
+        dailySummary.invalidate();
+        auditRecords.invalidate();
+    }
+
+    /**
+     * Stops listening to the transaction log
+     */
+    public void close() {
+        if (getTransactionLog() != null) {
+            getTransactionLog().removeListener(logWatcher);
+        }
+    }
+
+    public CacheStats getAccountSummaryStats() {
+        return accountSummary.stats();
+    }
+
+    public CacheStats getDailySummaryStats() {
+        return dailySummary.stats();
+    }
+
+    public CacheStats getAuditLogStats() {
+        return auditRecords.stats();
+    }
+}
@@ -15,6 +15,13 @@ public class Dashboard {
         this.accessControl = accessControl;
     }
     
+    /**
+     * Shows the dashboard with the summary of every account in the reporting repository
+     */
+    public void showDashboard(User user) {
+        showDashboard(user, null);
+    }
+    
     public void showDashboard(User user, List<Account> accounts) {
         System.out.println("\n########################################");
         System.out.println("           BANKING DASHBOARD            ");
@@ -25,7 +32,11 @@ public class Dashboard {
             System.out.println("\n[System Status: ONLINE]");
             System.out.println("[Alerts: None]");
             
-            reportingService.generateAccountSummary(accounts);
+            if (accounts != null) {
+                reportingService.generateAccountSummary(accounts);
+            } else {
+                reportingService.generateAccountSummary();
+            }
             reportingService.generateDailyTransactionReport();
             
             System.out.println("\n[Audit Logs Access: GRANTED]");
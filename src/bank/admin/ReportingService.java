@@ -1,48 +1,189 @@
 package bank.admin;
 
 import bank.accounts.Account;
+import bank.accounts.AccountKind;
+import bank.accounts.AccountStatus;
+import bank.accounts.repository.AccountRepository;
+import bank.transactions.history.DailySummary;
+import bank.transactions.history.RecentResult;
 import bank.transactions.history.TransactionLog;
-import bank.transactions.history.TransactionRecord;
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class ReportingService {
     
+    private static final int AUDIT_LOG_SIZE = 10;
+    
     private TransactionLog transactionLog;
+    private final AccountSummaryEngine summaryEngine;
+    private final AccountRepository accounts;
     
     public ReportingService(TransactionLog log) {
+        this(log, new AccountSummaryEngine());
+    }
+    
+    public ReportingService(TransactionLog log, AccountSummaryEngine summaryEngine) {
+        this(log, summaryEngine, null);
+    }
+    
+    /**
+     * @param accounts Repository backing the id lookups and the repository-wide summary; may be null
+     */
+    public ReportingService(TransactionLog log, AccountSummaryEngine summaryEngine, AccountRepository accounts) {
         this.transactionLog = log;
+        this.summaryEngine = summaryEngine;
+        this.accounts = accounts;
+    }
+    
+    /**
+     * Resolves an account by id through the repository
+     * 
+     * @return The account, or null if it is unknown
+     */
+    public Account findAccount(long accountId) {
+        return requireRepository().findById(accountId);
+    }
+    
+    /**
+     * Summarizes every account in the repository
+     * The repository is scanned with forEach rather than copied with findAll, so
+     * a report does not keep a paging repository's accounts resident.
+     */
+    public AccountSummary getAccountSummary() {
+        return summaryEngine.summarize(requireRepository());
+    }
+    
+    public AccountRepository getAccountRepository() {
+        return accounts;
+    }
+    
+    private AccountRepository requireRepository() {
+        if (accounts == null) {
+            throw new IllegalStateException("No account repository configured");
+        }
+        return accounts;
+    }
+    
+    /**
+     * Computes account totals, per-kind and per-state counts in one parallel pass
+     */
+    public AccountSummary summarizeAccounts(List<? extends Account> accounts) {
+        return summaryEngine.summarize(accounts);
+    }
+    
+    /**
+     * Counts the accounts of the repository in a status
+     * O(1) for repositories with a state index (InMemoryAccountRepository, TieredAccountRepository).
+     */
+    public long countAccounts(AccountStatus status) {
+        return requireRepository().countByStatus(status);
+    }
+    
+    /**
+     * Gets the repository's account counts per status, indexed by AccountStatus ordinal
+     */
+    public long[] getStatusCounts() {
+        AccountRepository repository = requireRepository();
+        long[] counts = new long[AccountStatus.count()];
+        for (int s = 0; s < counts.length; s++) {
+            counts[s] = repository.countByStatus(AccountStatus.ofOrdinal(s));
+        }
+        return counts;
+    }
+    
+    /**
+     * Lists the accounts of the repository in a status, e.g. every FROZEN account
+     */
+    public List<Account> findAccounts(AccountStatus status) {
+        return requireRepository().findByStatus(status);
+    }
+    
+    /**
+     * Prints the account count of every status and the ids of the accounts in the given statuses
+     */
+    public void generateStateReport(AccountStatus... listed) {
+        long[] counts = getStatusCounts();
+        System.out.println("\n=== Account State Report ===");
+        for (int s = 0; s < counts.length; s++) {
+            System.out.println(AccountStatus.ofOrdinal(s) + ": " + counts[s]);
+        }
+        for (AccountStatus status : listed) {
+            System.out.println(status + " accounts:");
+            for (Account account : findAccounts(status)) {
+                System.out.println("  " + account.getId() + " | " + account.getAccountHolder() + " | $"
+                                   + account.getBalance());
+            }
+        }
+        System.out.println("============================");
     }
     
     public void generateAccountSummary(List<Account> accounts) {
+        printAccountSummary(summarizeAccounts(accounts));
+    }
+    
+    /**
+     * Prints the summary of every account in the repository
+     */
+    public void generateAccountSummary() {
+        printAccountSummary(getAccountSummary());
+    }
+    
+    private void printAccountSummary(AccountSummary summary) {
         System.out.println("\n=== Account Summary Report ===");
-        System.out.println("Total Accounts: " + accounts.size());
-        double totalBalance = accounts.stream().mapToDouble(Account::getBalance).sum();
-        System.out.println("Total Liquidity: $" + totalBalance);
+        System.out.println("Total Accounts: " + summary.getTotalAccounts());
+        System.out.println("Total Liquidity: $" + summary.getTotalBalance());
         
-        Map<String, Long> byType = accounts.stream()
-            .collect(Collectors.groupingBy(a -> a.getClass().getSimpleName(), Collectors.counting()));
-            
-        byType.forEach((type, count) -> System.out.println(type + ": " + count));
+        for (int k = 0; k < AccountKind.count(); k++) {
+            AccountKind kind = AccountKind.ofOrdinal(k);
+            long count = summary.getCount(kind);
+            if (count > 0) System.out.println(kind + ": " + count);
+        }
+        for (int s = 0; s < AccountStatus.count(); s++) {
+            AccountStatus status = AccountStatus.ofOrdinal(s);
+            long count = summary.getCount(status);
+            if (count > 0) System.out.println("  " + status + ": " + count);
+        }
         System.out.println("==============================");
     }
     
+    /**
+     * Gets today's transaction totals, or null when no transaction log is configured
+     */
+    public DailySummary getDailySummary() {
+        if (transactionLog == null) return null;
+        return transactionLog.getDailySummary(transactionLog.getClock().today());
+    }
+    
+    /**
+     * Gets the most recent records shown in the audit log, newest first, or null without a log
+     * The result reports records skipped because concurrent writers overwrote them.
+     */
+    public RecentResult getAuditRecords() {
+        if (transactionLog == null) return null;
+        return transactionLog.getRecentRecords(AUDIT_LOG_SIZE);
+    }
+    
+    public TransactionLog getTransactionLog() {
+        return transactionLog;
+    }
+    
     public void generateDailyTransactionReport() {
-        if (transactionLog != null) {
-            transactionLog.printDailyReport(LocalDate.now());
+        DailySummary summary = getDailySummary();
+        if (summary != null) {
+            System.out.println("Daily Transaction Report: " + summary.getDate());
+            System.out.println("Count: " + summary.getCount());
+            System.out.println("Total Amount: $" + summary.getTotalAmount());
+            System.out.println("Failures: " + summary.getFailures());
         }
     }
     
     public void generateAuditLog() {
         System.out.println("\n=== Audit Log (Recent Activity) ===");
         if (transactionLog != null) {
-            List<TransactionRecord> records = transactionLog.getAllRecords();
-            records.stream()
-                   .sorted((r1, r2) -> r2.getTimestamp().compareTo(r1.getTimestamp())) // Newest first
-                   .limit(10)
-                   .forEach(r -> System.out.println(r.getTimestamp() + " | " + r.getType() + " | " + r.getInitiatedBy() + " (" + r.getInitiatedByRole() + ") | " + (r.isSuccess() ? "SUCCESS" : "FAILED: " + r.getFailureReason())));
+            RecentResult recent = getAuditRecords(); // Newest first
+            recent.getRecords().forEach(r -> System.out.println(r.getTimestamp() + " | " + r.getType() + " | " + r.getInitiatedBy() + " (" + r.getInitiatedByRole() + ") | " + (r.isSuccess() ? "SUCCESS" : "FAILED: " + r.getFailureReason())));
+            if (!recent.isComplete()) {
+                System.out.println("(" + recent.getMissed() + " records were overwritten while reading and are not shown)");
+            }
         }
         System.out.println("===================================");
     }
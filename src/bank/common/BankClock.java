@@ -0,0 +1,59 @@
+package bank.common;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * BankClock - Source of time for the banking system
+ * Timestamps are handled internally as primitive epoch milliseconds;
+ * LocalDate/LocalDateTime values are only materialized for reporting and display.
+ *
+ * Implementations:
+ * - SystemBankClock: reads the wall clock on every call
+ * - CachedBankClock: coarse-grained cached value for hot paths
+ * - ManualBankClock: deterministic clock for tests and simulations
+ */
+public interface BankClock {
+    
+    /**
+     * Gets the current time
+     * 
+     * @return Milliseconds since the Unix epoch
+     */
+    long millis();
+    
+    /**
+     * Gets the time zone used to materialize dates
+     */
+    ZoneId getZone();
+    
+    /**
+     * Materializes an epoch-millis timestamp as a LocalDateTime in this clock's zone
+     */
+    default LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), getZone());
+    }
+    
+    /**
+     * Materializes an epoch-millis timestamp as a LocalDate in this clock's zone
+     */
+    default LocalDate toLocalDate(long epochMillis) {
+        return toLocalDateTime(epochMillis).toLocalDate();
+    }
+    
+    /**
+     * Gets the current date in this clock's zone
+     */
+    default LocalDate today() {
+        return toLocalDate(millis());
+    }
+    
+    /**
+     * Gets the millisecond bounds of the given day in this clock's zone
+     */
+    default DayRange dayRange(LocalDate date) {
+        return DayRange.of(date, getZone());
+    }
+}
@@ -0,0 +1,61 @@
+package bank.common;
+
+import java.time.ZoneId;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * CachedBankClock - Coarse-grained clock for hot paths
+ * A single daemon thread refreshes a volatile epoch-millis value every
+ * resolution interval, so readers pay one volatile read instead of a
+ * system call. Values may lag the wall clock by up to one interval.
+ */
+public class CachedBankClock implements BankClock {
+    
+    private final ZoneId zone;
+    private final long resolutionNanos;
+    private volatile long now;
+    private volatile boolean running = true;
+    
+    /**
+     * @param resolutionMillis Refresh interval in milliseconds
+     */
+    public CachedBankClock(long resolutionMillis) {
+        this(resolutionMillis, ZoneId.systemDefault());
+    }
+    
+    public CachedBankClock(long resolutionMillis, ZoneId zone) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolutionMillis);
+        }
+        this.zone = zone;
+        this.resolutionNanos = resolutionMillis * 1_000_000L;
+        this.now = System.currentTimeMillis();
+        Thread ticker = new Thread(this::tick, "bank-clock-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+    
+    private void tick() {
+        while (running) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(resolutionNanos);
+        }
+    }
+    
+    @Override
+    public long millis() {
+        return now;
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    /**
+     * Stops the refresh thread; the clock keeps returning its last value
+     */
+    public void stop() {
+        running = false;
+    }
+}
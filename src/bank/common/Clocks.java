@@ -0,0 +1,34 @@
+package bank.common;
+
+/**
+ * Clocks - Holder for the process-wide default BankClock
+ * Domain objects that are created everywhere (accounts, transactions) take their
+ * time from here; services also accept an explicit clock through their constructors.
+ *
+ * The default is a SystemBankClock, so merely touching Clocks starts no threads.
+ * High-throughput processes can opt into a CachedBankClock with set(), and tests
+ * and simulations can install a ManualBankClock.
+ */
+public final class Clocks {
+    
+    private static volatile BankClock current = new SystemBankClock();
+    
+    private Clocks() {
+    }
+    
+    public static BankClock get() {
+        return current;
+    }
+    
+    /**
+     * Installs a new default clock
+     * A CachedBankClock that is replaced keeps its ticker thread until stop() is called.
+     * 
+     * @param clock The clock to use from now on (ignored if null)
+     */
+    public static void set(BankClock clock) {
+        if (clock != null) {
+            current = clock;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package bank.common;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * DayRange - Half-open interval [start, end) of epoch milliseconds covering one calendar day
+ * Lets hot paths test "is this timestamp on day X" with two long comparisons
+ * instead of materializing a LocalDate per record.
+ */
+public final class DayRange {
+    
+    private final LocalDate date;
+    private final long startMillis;
+    private final long endMillis;
+    
+    private DayRange(LocalDate date, long startMillis, long endMillis) {
+        this.date = date;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+    
+    /**
+     * Computes the bounds of a day in the given zone (handles DST-length days)
+     */
+    public static DayRange of(LocalDate date, ZoneId zone) {
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new DayRange(date, start, end);
+    }
+    
+    public boolean contains(long epochMillis) {
+        return epochMillis >= startMillis && epochMillis < endMillis;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public long getStartMillis() {
+        return startMillis;
+    }
+    
+    public long getEndMillis() {
+        return endMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return date + " [" + startMillis + ", " + endMillis + ")";
+    }
+}
@@ -0,0 +1,87 @@
+package bank.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdGenerator - Compact monotonic 64-bit identifiers (Snowflake layout)
+ * Replaces random UUID strings for accounts and transactions.
+ *
+ * Layout of an id (most significant bit first):
+ * - 1 bit   : always 0, so ids are positive and sort numerically
+ * - 41 bits : milliseconds since EPOCH (about 69 years of range)
+ * - 10 bits : node id, so several processes can generate ids without coordination
+ * - 12 bits : per-millisecond sequence (4096 ids per millisecond per node)
+ *
+ * The generator is lock-free: the last timestamp and sequence are packed into a
+ * single AtomicLong and advanced with compare-and-set. When the sequence of a
+ * millisecond is exhausted, or the wall clock steps backwards, the generator
+ * borrows from the next millisecond instead of blocking, so ids stay unique and
+ * strictly increasing per node.
+ */
+public final class IdGenerator {
+
+    /** Custom epoch: 2024-01-01T00:00:00Z */
+    public static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    /** Node id of the default generator, taken from -Dbank.nodeId (defaults to 0) */
+    private static final IdGenerator DEFAULT = new IdGenerator(Integer.getInteger("bank.nodeId", 0));
+
+    private final long nodeBits;
+
+    // (millis since EPOCH) << SEQUENCE_BITS | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    /**
+     * @param nodeId Node identifier in the range 0..MAX_NODE_ID
+     */
+    public IdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Gets the process-wide generator
+     */
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Issues the next identifier
+     *
+     * @return A positive id, strictly greater than every id previously issued by this generator
+     */
+    public long nextId() {
+        while (true) {
+            long prev = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // A new millisecond restarts the sequence; otherwise increment it, carrying into the timestamp on overflow
+            long next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+            if (lastState.compareAndSet(prev, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Extracts the creation time (epoch millis) encoded in an id
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * Extracts the node id encoded in an id
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
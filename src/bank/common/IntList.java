@@ -0,0 +1,61 @@
+package bank.common;
+
+import java.util.Arrays;
+
+/**
+ * IntList - Growable list of primitive ints (no boxing)
+ * Not thread-safe. Elements are only ever appended, so a (array, size) pair
+ * read through elements()/size() under the owner's lock stays valid after
+ * the lock is released: growing copies into a new array and never touches
+ * the old one.
+ */
+public final class IntList {
+    
+    private int[] elements;
+    private int size;
+    
+    public IntList() {
+        this(8);
+    }
+    
+    public IntList(int initialCapacity) {
+        this.elements = new int[Math.max(1, initialCapacity)];
+    }
+    
+    public void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+    
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " size " + size);
+        }
+        return elements[index];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int last() {
+        return elements[size - 1];
+    }
+    
+    /**
+     * Gets the backing array; only the first size() elements are meaningful
+     */
+    public int[] elements() {
+        return elements;
+    }
+    
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
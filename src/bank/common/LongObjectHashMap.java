@@ -0,0 +1,186 @@
+package bank.common;
+
+import java.util.Arrays;
+
+/**
+ * LongObjectHashMap - Open-addressing hash map from primitive long keys to objects
+ * Keys are never boxed. Uses linear probing over power-of-two tables with
+ * backward-shift deletion, so lookups touch a short contiguous run of slots.
+ * Null values are not allowed (a null value marks an empty slot).
+ * Not thread-safe.
+ *
+ * @param <V> Value type
+ */
+public class LongObjectHashMap<V> {
+    
+    private static final float LOAD_FACTOR = 0.6f;
+    
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+    
+    public LongObjectHashMap() {
+        this(16);
+    }
+    
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    /**
+     * Spreads the key bits so sequential ids do not cluster
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = hash(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+    
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+    
+    /**
+     * Associates a value with a key
+     * 
+     * @return The previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int i = hash(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+    
+    /**
+     * Removes a key
+     * 
+     * @return The removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = hash(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Backward-shift deletion: pull later entries of the probe run into the hole
+     */
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            Object v = values[i];
+            if (v == null) {
+                break;
+            }
+            int home = hash(keys[i]) & mask;
+            // Move the entry if its home slot is not in the (cyclic) range (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = v;
+                hole = i;
+            }
+        }
+        values[hole] = null;
+        keys[hole] = 0L;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object v = oldValues[i];
+            if (v != null) {
+                int j = hash(oldKeys[i]) & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = v;
+            }
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(keys, 0L);
+        size = 0;
+    }
+    
+    /**
+     * Visits every entry (in table order)
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        for (int i = 0; i < values.length; i++) {
+            Object v = values[i];
+            if (v != null) {
+                visitor.visit(keys[i], (V) v);
+            }
+        }
+    }
+    
+    /**
+     * Callback for forEach, taking the key as a primitive
+     */
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(long key, V value);
+    }
+}
@@ -0,0 +1,67 @@
+package bank.common;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * ManualBankClock - Deterministic clock for tests and simulations
+ * Time only moves when told to, which makes it possible to replay
+ * historical days (daily limits, reports, scheduled runs) instantly.
+ */
+public class ManualBankClock implements BankClock {
+    
+    private final ZoneId zone;
+    private volatile long now;
+    
+    public ManualBankClock(long epochMillis) {
+        this(epochMillis, ZoneId.systemDefault());
+    }
+    
+    public ManualBankClock(long epochMillis, ZoneId zone) {
+        this.now = epochMillis;
+        this.zone = zone;
+    }
+    
+    /**
+     * Creates a clock positioned at the given local date and time
+     */
+    public static ManualBankClock at(LocalDateTime dateTime) {
+        ZoneId zone = ZoneId.systemDefault();
+        return new ManualBankClock(dateTime.atZone(zone).toInstant().toEpochMilli(), zone);
+    }
+    
+    @Override
+    public long millis() {
+        return now;
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    public void setMillis(long epochMillis) {
+        this.now = epochMillis;
+    }
+    
+    public synchronized void advance(Duration duration) {
+        this.now += duration.toMillis();
+    }
+    
+    /**
+     * Moves the clock forward by whole days, keeping the time of day
+     */
+    public synchronized void advanceDays(int days) {
+        LocalDateTime current = toLocalDateTime(now);
+        this.now = current.plusDays(days).atZone(zone).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Moves the clock to the start of the given day
+     */
+    public void setDate(LocalDate date) {
+        this.now = date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,29 @@
+package bank.common;
+
+import java.time.ZoneId;
+
+/**
+ * SystemBankClock - Reads the wall clock on every call
+ */
+public class SystemBankClock implements BankClock {
+    
+    private final ZoneId zone;
+    
+    public SystemBankClock() {
+        this(ZoneId.systemDefault());
+    }
+    
+    public SystemBankClock(ZoneId zone) {
+        this.zone = zone;
+    }
+    
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+}
@@ -0,0 +1,240 @@
+package bank.events;
+
+import bank.accounts.AccountKind;
+import bank.notifications.AccountEvent;
+import bank.notifications.AccountEventKind;
+import bank.transactions.TransactionType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * EventBus - Central publish/subscribe hub for account and transaction events
+ *
+ * Subscribers register an EventFilter instead of attaching to individual
+ * accounts. Subscriptions are compiled into a routing table on every
+ * subscribe/unsubscribe:
+ * - one bucket per (topic, account kind or any, event kind or any)
+ * - inside a bucket, subscriptions sorted by their minimum amount
+ *
+ * Publishing looks up at most four buckets (exact/any account kind times
+ * exact/any event kind) and binary-searches the amount in each; every
+ * subscription before that point matches, unless it is restricted to another
+ * publisher. The cost of a publish therefore
+ * depends on the number of matching subscribers, not on the total number of
+ * predicates. The table is immutable and published through a volatile field,
+ * so publishing never locks.
+ *
+ * Subscribers run synchronously on the publishing thread; an exception thrown
+ * by one subscriber is reported and does not stop delivery to the others.
+ */
+public class EventBus {
+
+    private static final EventBus SHARED = new EventBus();
+
+    private static final int ACCOUNT_KINDS = AccountKind.count() + 1;      // + "any"
+    private static final int EVENT_KINDS = Math.max(AccountEventKind.values().length,
+            TransactionType.values().length) + 1;                         // + "any"
+
+    private final List<Subscription> subscriptions = new ArrayList<>();   // guarded by this
+    private volatile Route[][] routes = new Route[EventTopic.values().length][];
+
+    /**
+     * Gets the process-wide bus on which accounts publish their events
+     */
+    public static EventBus shared() {
+        return SHARED;
+    }
+
+    /**
+     * Subscribes to ACCOUNT events
+     */
+    @SuppressWarnings("unchecked")
+    public Subscription subscribeAccountEvents(EventFilter filter, EventSubscriber<? super AccountEvent> subscriber) {
+        requireTopic(filter, EventTopic.ACCOUNT);
+        return add(filter, (EventSubscriber<Object>) (EventSubscriber<?>) subscriber);
+    }
+
+    /**
+     * Subscribes to TRANSACTION events
+     */
+    @SuppressWarnings("unchecked")
+    public Subscription subscribeTransactions(EventFilter filter, EventSubscriber<? super TransactionEvent> subscriber) {
+        requireTopic(filter, EventTopic.TRANSACTION);
+        return add(filter, (EventSubscriber<Object>) (EventSubscriber<?>) subscriber);
+    }
+
+    private static void requireTopic(EventFilter filter, EventTopic topic) {
+        if (filter.getTopic() != topic) {
+            throw new IllegalArgumentException("Filter is for " + filter.getTopic() + " events, not " + topic);
+        }
+    }
+
+    private synchronized Subscription add(EventFilter filter, EventSubscriber<Object> subscriber) {
+        Subscription subscription = new Subscription(this, filter, subscriber);
+        subscriptions.add(subscription);
+        compile();
+        return subscription;
+    }
+
+    synchronized void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            compile();
+        }
+    }
+
+    public synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Checks cheaply whether any subscription could match an event of any amount
+     */
+    public boolean isRouted(EventTopic topic, AccountKind accountKind, int eventKind) {
+        return isRouted(topic, accountKind, eventKind, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Checks cheaply whether any subscription could match an event, so publishers
+     * can skip building events nobody receives
+     * Publisher restrictions are not checked; minimum amounts are.
+     */
+    public boolean isRouted(EventTopic topic, AccountKind accountKind, int eventKind, double amount) {
+        Route[] table = routes[topic.ordinal()];
+        if (table == null) {
+            return false;
+        }
+        int kindSlot = accountKind == null ? 0 : accountKind.ordinal() + 1;
+        int eventSlot = eventKind + 1;
+        return accepts(table[slot(kindSlot, eventSlot)], amount)
+                || accepts(table[slot(kindSlot, 0)], amount)
+                || accepts(table[slot(0, eventSlot)], amount)
+                || accepts(table[slot(0, 0)], amount);
+    }
+
+    private static boolean accepts(Route route, double amount) {
+        return route != null && route.thresholds[0] <= amount;
+    }
+
+    /**
+     * Publishes an account event
+     *
+     * @param accountKind Kind of the account the event is about
+     */
+    public void publish(AccountKind accountKind, AccountEvent event) {
+        dispatch(EventTopic.ACCOUNT, accountKind, event.getKind().ordinal(), event.getAmount(), null, event);
+    }
+
+    /**
+     * Publishes a transaction event, routed by the kind of its source account
+     */
+    public void publish(TransactionEvent event) {
+        AccountKind kind = event.getSourceAccount() == null ? null : event.getSourceAccount().getKind();
+        dispatch(EventTopic.TRANSACTION, kind, event.getType().ordinal(), event.getAmount(), event.getPublisher(),
+                event);
+    }
+
+    private void dispatch(EventTopic topic, AccountKind accountKind, int eventKind, double amount, Object publisher,
+                          Object event) {
+        Route[] table = routes[topic.ordinal()];
+        if (table == null) {
+            return;
+        }
+        int kindSlot = accountKind == null ? 0 : accountKind.ordinal() + 1;
+        int eventSlot = eventKind + 1;
+        deliver(table[slot(kindSlot, eventSlot)], amount, publisher, event);
+        if (eventSlot != 0) deliver(table[slot(kindSlot, 0)], amount, publisher, event);
+        if (kindSlot != 0) deliver(table[slot(0, eventSlot)], amount, publisher, event);
+        if (kindSlot != 0 && eventSlot != 0) deliver(table[slot(0, 0)], amount, publisher, event);
+    }
+
+    private static void deliver(Route route, double amount, Object publisher, Object event) {
+        if (route == null) {
+            return;
+        }
+        int matches = route.countAtMost(amount);
+        for (int i = 0; i < matches; i++) {
+            Subscription subscription = route.subscriptions[i];
+            Object required = subscription.filter.getPublisher();
+            if (required != null && required != publisher) {
+                continue;
+            }
+            try {
+                subscription.subscriber.onEvent(event);
+            } catch (RuntimeException e) {
+                System.out.println("Error: Event subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static int slot(int kindSlot, int eventSlot) {
+        return kindSlot * EVENT_KINDS + eventSlot;
+    }
+
+    /**
+     * Rebuilds the routing table from the subscription list; must hold the lock
+     */
+    private void compile() {
+        EventTopic[] topics = EventTopic.values();
+        Route[][] compiled = new Route[topics.length][];
+        for (EventTopic topic : topics) {
+            List<Subscription>[] buckets = null;
+            for (Subscription s : subscriptions) {
+                EventFilter f = s.filter;
+                if (f.getTopic() != topic) continue;
+                if (buckets == null) buckets = newBuckets();
+                int kindSlot = f.getAccountKind() == null ? 0 : f.getAccountKind().ordinal() + 1;
+                int index = slot(kindSlot, f.getEventKind() + 1);
+                if (buckets[index] == null) buckets[index] = new ArrayList<>();
+                buckets[index].add(s);
+            }
+            if (buckets == null) continue;
+            Route[] table = new Route[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != null) table[i] = new Route(buckets[i]);
+            }
+            compiled[topic.ordinal()] = table;
+        }
+        routes = compiled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Subscription>[] newBuckets() {
+        return (List<Subscription>[]) new List<?>[ACCOUNT_KINDS * EVENT_KINDS];
+    }
+
+    /**
+     * Subscriptions of one bucket, sorted by minimum amount
+     */
+    private static final class Route {
+        final double[] thresholds;
+        final Subscription[] subscriptions;
+
+        Route(List<Subscription> bucket) {
+            subscriptions = bucket.toArray(new Subscription[0]);
+            Arrays.sort(subscriptions, Comparator.comparingDouble(s -> s.filter.getMinAmount()));
+            thresholds = new double[subscriptions.length];
+            for (int i = 0; i < subscriptions.length; i++) {
+                thresholds[i] = subscriptions[i].filter.getMinAmount();
+            }
+        }
+
+        /**
+         * Number of subscriptions whose threshold is at most the amount (upper bound search)
+         */
+        int countAtMost(double amount) {
+            int low = 0;
+            int high = thresholds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (thresholds[mid] <= amount) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bank.events;
+
+import bank.accounts.AccountKind;
+import bank.notifications.AccountEventKind;
+import bank.transactions.TransactionType;
+
+/**
+ * EventFilter - Subscription criteria for the EventBus
+ * Unset criteria match everything. The amount threshold is inclusive.
+ *
+ * Example: all transfers of $20,000 or more
+ * <pre>
+ *   new EventFilter(EventTopic.TRANSACTION).ofType(TransactionType.TRANSFER).minAmount(20000.0)
+ * </pre>
+ */
+public class EventFilter {
+
+    private final EventTopic topic;
+    private AccountKind accountKind;
+    private int eventKind = -1;
+    private double minAmount = Double.NEGATIVE_INFINITY;
+    private Object publisher;
+
+    public EventFilter(EventTopic topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * Restricts to accounts of one kind (for transactions: the source account)
+     */
+    public EventFilter forAccountKind(AccountKind kind) {
+        this.accountKind = kind;
+        return this;
+    }
+
+    /**
+     * Restricts ACCOUNT events to one kind
+     */
+    public EventFilter ofKind(AccountEventKind kind) {
+        requireTopic(EventTopic.ACCOUNT);
+        this.eventKind = kind.ordinal();
+        return this;
+    }
+
+    /**
+     * Restricts TRANSACTION events to one transaction type
+     */
+    public EventFilter ofType(TransactionType type) {
+        requireTopic(EventTopic.TRANSACTION);
+        this.eventKind = type.ordinal();
+        return this;
+    }
+
+    /**
+     * Only events whose amount is at least the given value
+     */
+    public EventFilter minAmount(double amount) {
+        this.minAmount = amount;
+        return this;
+    }
+
+    /**
+     * Restricts TRANSACTION events to those published by one object, e.g. a
+     * TransactionService reacting only to its own transactions on a shared bus
+     */
+    public EventFilter fromPublisher(Object publisher) {
+        requireTopic(EventTopic.TRANSACTION);
+        this.publisher = publisher;
+        return this;
+    }
+
+    private void requireTopic(EventTopic expected) {
+        if (topic != expected) {
+            throw new IllegalArgumentException("Criterion applies to " + expected + " events, not " + topic);
+        }
+    }
+
+    public EventTopic getTopic() {
+        return topic;
+    }
+
+    public AccountKind getAccountKind() {
+        return accountKind;
+    }
+
+    /**
+     * Gets the ordinal of the event kind or transaction type, or -1 for any
+     */
+    public int getEventKind() {
+        return eventKind;
+    }
+
+    public double getMinAmount() {
+        return minAmount;
+    }
+
+    /**
+     * Gets the required publisher, or null for any
+     */
+    public Object getPublisher() {
+        return publisher;
+    }
+}
@@ -0,0 +1,11 @@
+package bank.events;
+
+/**
+ * EventSubscriber - Receives the events matching a subscription's filter
+ *
+ * @param <E> AccountEvent for the ACCOUNT topic, TransactionEvent for the TRANSACTION topic
+ */
+@FunctionalInterface
+public interface EventSubscriber<E> {
+    void onEvent(E event);
+}
@@ -0,0 +1,11 @@
+package bank.events;
+
+/**
+ * EventTopic - Families of events routed by the EventBus
+ */
+public enum EventTopic {
+    /** AccountEvents published by accounts (deposits, withdrawals, transfers, state changes) */
+    ACCOUNT,
+    /** TransactionEvents published by TransactionService after executing a transaction */
+    TRANSACTION
+}
@@ -0,0 +1,28 @@
+package bank.events;
+
+/**
+ * Subscription - Handle of a registered subscriber
+ */
+public final class Subscription {
+
+    private final EventBus bus;
+    final EventFilter filter;
+    final EventSubscriber<Object> subscriber;
+
+    Subscription(EventBus bus, EventFilter filter, EventSubscriber<Object> subscriber) {
+        this.bus = bus;
+        this.filter = filter;
+        this.subscriber = subscriber;
+    }
+
+    public EventFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Stops delivery to the subscriber
+     */
+    public void cancel() {
+        bus.unsubscribe(this);
+    }
+}
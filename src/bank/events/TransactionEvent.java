@@ -0,0 +1,103 @@
+package bank.events;
+
+import bank.accounts.Account;
+import bank.transactions.TransactionType;
+import bank.users.Role;
+
+/**
+ * TransactionEvent - A transaction executed by TransactionService
+ * Published on the TRANSACTION topic once the transaction has passed validation
+ * and privilege checks, whether or not its execution succeeded.
+ */
+public final class TransactionEvent {
+
+    private final long transactionId;
+    private final TransactionType type;
+    private final Account sourceAccount;
+    private final Account targetAccount;
+    private final double amount;
+    private final String initiatedBy;
+    private final Role initiatedByRole;
+    private final boolean success;
+    private final long timestampMillis;
+    private final Object publisher;
+
+    public TransactionEvent(long transactionId, TransactionType type, Account sourceAccount, Account targetAccount,
+                            double amount, String initiatedBy, Role initiatedByRole, boolean success,
+                            long timestampMillis) {
+        this(transactionId, type, sourceAccount, targetAccount, amount, initiatedBy, initiatedByRole, success,
+                timestampMillis, null);
+    }
+
+    /**
+     * @param publisher The object publishing the event (see EventFilter.fromPublisher); may be null
+     */
+    public TransactionEvent(long transactionId, TransactionType type, Account sourceAccount, Account targetAccount,
+                            double amount, String initiatedBy, Role initiatedByRole, boolean success,
+                            long timestampMillis, Object publisher) {
+        this.transactionId = transactionId;
+        this.type = type;
+        this.sourceAccount = sourceAccount;
+        this.targetAccount = targetAccount;
+        this.amount = amount;
+        this.initiatedBy = initiatedBy;
+        this.initiatedByRole = initiatedByRole;
+        this.success = success;
+        this.timestampMillis = timestampMillis;
+        this.publisher = publisher;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public Account getSourceAccount() {
+        return sourceAccount;
+    }
+
+    public Account getTargetAccount() {
+        return targetAccount;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getInitiatedBy() {
+        return initiatedBy;
+    }
+
+    public Role getInitiatedByRole() {
+        return initiatedByRole;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Object getPublisher() {
+        return publisher;
+    }
+
+    /**
+     * Formats the event as a large-transaction alert, e.g. "Large transfer $25000.0 by alice"
+     */
+    public String renderAlert() {
+        String noun;
+        switch (type) {
+            case DEPOSIT: noun = "deposit"; break;
+            case WITHDRAW: noun = "withdrawal"; break;
+            case TRANSFER: noun = "transfer"; break;
+            default: noun = type.name().toLowerCase(); break;
+        }
+        return "Large " + noun + " $" + amount + " by " + initiatedBy;
+    }
+}
@@ -0,0 +1,55 @@
+package bank.interest;
+
+import java.time.LocalDate;
+
+/**
+ * DayCountConvention - How days between two dates count towards a year of interest
+ * - ACT_365: actual calendar days over a 365-day year
+ * - THIRTY_360: every month counts 30 days over a 360-day year (bond basis: a
+ *   31st is treated as the 30th), so a full month always accrues 30/360
+ */
+public enum DayCountConvention {
+    
+    ACT_365(365) {
+        @Override
+        public long days(LocalDate start, LocalDate end) {
+            return end.toEpochDay() - start.toEpochDay();
+        }
+    },
+    
+    THIRTY_360(360) {
+        @Override
+        public long days(LocalDate start, LocalDate end) {
+            int d1 = Math.min(start.getDayOfMonth(), 30);
+            int d2 = end.getDayOfMonth();
+            if (d1 == 30) {
+                d2 = Math.min(d2, 30);
+            }
+            return 360L * (end.getYear() - start.getYear())
+                    + 30L * (end.getMonthValue() - start.getMonthValue())
+                    + (d2 - d1);
+        }
+    };
+    
+    private final int daysInYear;
+    
+    DayCountConvention(int daysInYear) {
+        this.daysInYear = daysInYear;
+    }
+    
+    /**
+     * Counts the accrual days from start (exclusive) to end (inclusive)
+     */
+    public abstract long days(LocalDate start, LocalDate end);
+    
+    /**
+     * Gets the fraction of a year between two dates
+     */
+    public double yearFraction(LocalDate start, LocalDate end) {
+        return (double) days(start, end) / daysInYear;
+    }
+    
+    public int getDaysInYear() {
+        return daysInYear;
+    }
+}
@@ -7,7 +7,7 @@ import bank.accounts.types.InvestmentAccount;
  * InvestmentInterest - Strategy implementation for Investment Accounts
  * Calculates returns based on investment value and target return rate.
  */
-public class InvestmentInterest implements InterestStrategy {
+public class InvestmentInterest implements RateBasedInterest {
     
     private double annualTargetReturn;
 
@@ -20,12 +20,22 @@ public class InvestmentInterest implements InterestStrategy {
         this(0.07);
     }
 
+    public double getAnnualTargetReturn() {
+        return annualTargetReturn;
+    }
+
+    @Override
+    public double getMonthlyRate() {
+        return annualTargetReturn / 12;
+    }
+
+    /**
+     * Returns accrue on the invested value; other account types have none
+     */
     @Override
-    public double calculateInterest(Account account) {
+    public double interestBasis(Account account) {
         if (account instanceof InvestmentAccount) {
-            InvestmentAccount invAccount = (InvestmentAccount) account;
-            // Assuming getInvestmentValue() exists. If not, I'll add it.
-            return invAccount.getInvestmentValue() * (annualTargetReturn / 12);
+            return ((InvestmentAccount) account).getInvestmentValue();
         }
         return 0.0;
     }
@@ -6,25 +6,37 @@ import bank.accounts.Account;
  * LoanInterest - Strategy implementation for Loan Accounts
  * Calculates interest on the outstanding debt.
  */
-public class LoanInterest implements InterestStrategy {
+public class LoanInterest implements RateBasedInterest {
     
+    private double annualInterestRate; // As given, in percent
     private double monthlyInterestRate;
 
     /**
      * @param annualInterestRate Annual interest rate (e.g., 0.05 for 5%)
      */
     public LoanInterest(double annualInterestRate) {
+        this.annualInterestRate = annualInterestRate;
         this.monthlyInterestRate = annualInterestRate / 12 / 100;
     }
 
+    /**
+     * Gets the annual rate as given to the constructor, in percent
+     */
+    public double getAnnualInterestRate() {
+        return annualInterestRate;
+    }
+
+    @Override
+    public double getMonthlyRate() {
+        return monthlyInterestRate;
+    }
+
+    /**
+     * Loan balance is negative, so the amount owed is its absolute value
+     * The application of the interest (increasing debt) is handled by the Account.
+     */
     @Override
-    public double calculateInterest(Account account) {
-        // Loan balance is negative, so amount owed is absolute value
-        double currentBalance = Math.abs(account.getBalance());
-        double monthlyInterest = currentBalance * monthlyInterestRate;
-        
-        // Note: The strategy calculates the amount.
-        // The application of this interest (increasing debt) should be handled by the Account.
-        return monthlyInterest;
+    public double interestBasis(Account account) {
+        return Math.abs(account.getBalance());
     }
 }
@@ -0,0 +1,75 @@
+package bank.interest;
+
+import bank.accounts.Account;
+import bank.interest.rates.RateBook;
+import bank.interest.rates.RateTable;
+import bank.interest.rates.RateTiers;
+
+/**
+ * MarketLinkedInterest - Tiered strategy whose rates follow a published rate table
+ *
+ * Every calculation reads the RateBook's current table once, so rate changes take
+ * effect on the next call without locking and a calculation never mixes tiers from
+ * two tables. A spread is added to the quoted rate on the whole balance; until the
+ * table quotes the product, the fallback tiers apply.
+ */
+public class MarketLinkedInterest extends TieredInterest {
+
+    private final RateBook book;
+    private final String product;
+    private final double spread;
+
+    /**
+     * @param book Source of the current rate table
+     * @param product Product name the table quotes (e.g. "savings.market")
+     * @param fallback Tiers used while the table does not quote the product
+     * @param spread Annual margin over the quoted rate (may be negative)
+     */
+    public MarketLinkedInterest(RateBook book, String product, RateTiers fallback, double spread) {
+        super(fallback);
+        this.book = book;
+        this.product = product;
+        this.spread = spread;
+    }
+
+    public MarketLinkedInterest(RateBook book, String product, RateTiers fallback) {
+        this(book, product, fallback, 0.0);
+    }
+
+    @Override
+    protected RateTiers currentTiers() {
+        RateTiers quoted = book.current().tiersFor(product);
+        return quoted != null ? quoted : super.currentTiers();
+    }
+
+    @Override
+    public double annualInterest(Account account) {
+        double balance = account.getBalance();
+        if (balance <= 0) return 0.0;
+        return Math.max(0.0, currentTiers().annualInterest(balance) + spread * balance);
+    }
+
+    /**
+     * Gets the effective annual rate a balance earns under the current table
+     */
+    public double effectiveRate(double balance) {
+        if (balance <= 0) return 0.0;
+        return Math.max(0.0, currentTiers().annualInterest(balance) / balance + spread);
+    }
+
+    /**
+     * Gets the version of the table the next calculation would use
+     */
+    public long getTableVersion() {
+        RateTable table = book.current();
+        return table.tiersFor(product) != null ? table.getVersion() : 0L;
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+}
@@ -0,0 +1,33 @@
+package bank.interest;
+
+import bank.accounts.Account;
+
+/**
+ * RateBasedInterest - Strategy whose interest is a monthly rate times one balance figure
+ * Separating the rate from the figure it applies to lets batch engines read the
+ * figures into a primitive array and compute a whole chunk of accounts in one loop.
+ */
+public interface RateBasedInterest extends InterestStrategy {
+    
+    /**
+     * Gets the rate applied per monthly period (e.g. 0.0025 for 3% a year)
+     */
+    double getMonthlyRate();
+    
+    /**
+     * Gets the nominal annual rate, used for daily accrual
+     */
+    default double getAnnualRate() {
+        return getMonthlyRate() * 12;
+    }
+    
+    /**
+     * Gets the figure the rate applies to (balance, amount owed, investment value)
+     */
+    double interestBasis(Account account);
+    
+    @Override
+    default double calculateInterest(Account account) {
+        return interestBasis(account) * getMonthlyRate();
+    }
+}
@@ -6,7 +6,7 @@ import bank.accounts.Account;
  * SavingInterest - Strategy implementation for Savings Accounts
  * Calculates simple interest based on balance.
  */
-public class SavingInterest implements InterestStrategy {
+public class SavingInterest implements RateBasedInterest {
     
     private double interestRate;
 
@@ -19,22 +19,20 @@ public class SavingInterest implements InterestStrategy {
         this(0.03);
     }
 
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    @Override
+    public double getMonthlyRate() {
+        return interestRate / 12;
+    }
+
+    /**
+     * Interest is simple interest on the current balance
+     */
     @Override
-    public double calculateInterest(Account account) {
-        double monthlyInterest = account.getBalance() * interestRate / 12;
-        // Logic from SavingAccount: deposit the interest
-        // Note: The strategy should ideally just calculate, but existing logic deposits it.
-        // I will return the amount, and let the Account call handle the deposit if needed, 
-        // OR the strategy performs the action.
-        // The interface returns double. 
-        // In the original code:
-        // public double calculateInterest() {
-        //    double monthlyInterest = getBalance() * INTEREST_RATE / 12;
-        //    deposit(monthlyInterest);
-        //    return monthlyInterest;
-        // }
-        
-        // I will keep it pure calculation here. The Account class will handle the deposit.
-        return monthlyInterest;
+    public double interestBasis(Account account) {
+        return account.getBalance();
     }
 }
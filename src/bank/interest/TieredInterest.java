@@ -0,0 +1,45 @@
+package bank.interest;
+
+import bank.accounts.Account;
+import bank.interest.rates.RateTiers;
+
+/**
+ * TieredInterest - Strategy implementation with balance tiers
+ * The rate depends on which tier the balance falls in (or, for marginal tiers,
+ * each band of the balance earns its own rate); see RateTiers.
+ */
+public class TieredInterest implements InterestStrategy {
+
+    private final RateTiers tiers;
+
+    public TieredInterest(RateTiers tiers) {
+        this.tiers = tiers;
+    }
+
+    /**
+     * Gets the tiers given to the constructor (the fallback of MarketLinkedInterest)
+     */
+    public RateTiers getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Gets the tiers in effect for the next calculation
+     */
+    protected RateTiers currentTiers() {
+        return tiers;
+    }
+
+    /**
+     * Gets the interest the current balance would earn over a full year
+     * Used by daily accrual, which scales it by the day-count year fraction.
+     */
+    public double annualInterest(Account account) {
+        return currentTiers().annualInterest(account.getBalance());
+    }
+
+    @Override
+    public double calculateInterest(Account account) {
+        return annualInterest(account) / 12;
+    }
+}
@@ -0,0 +1,153 @@
+package bank.interest.amortization;
+
+import bank.accounts.types.LoanAccount;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AmortizationEngine - Cache of loan schedules for servicing reports and quotes
+ *
+ * A schedule is built once per loan from its amount owed, rate and remaining
+ * months. On every lookup the engine locates the loan's current period
+ * (term - months remaining) and compares the amount owed with the scheduled
+ * opening balance of that period:
+ * - equal (to the cent): the cached schedule is used as is, and quotes are
+ *   array lookups;
+ * - different (extra payment, missed payment, accrued interest): the schedule is
+ *   rebased from that period only.
+ * A schedule is rebuilt from scratch only when the loan no longer fits it (rate
+ * changed or more months remaining than its term).
+ *
+ * The cache keeps the most recently used schedules up to a fixed capacity.
+ */
+public class AmortizationEngine {
+
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private static final double CENT = 0.005;
+
+    private final Map<Long, AmortizationSchedule> schedules; // guarded by itself
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder rebases = new LongAdder();
+
+    public AmortizationEngine() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of cached schedules
+     */
+    public AmortizationEngine(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.schedules = new LinkedHashMap<Long, AmortizationSchedule>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AmortizationSchedule> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the schedule of a loan, brought in line with its current balance
+     * The returned schedule is shared with the cache; use the quote methods of this
+     * engine when other threads may service the same loan concurrently.
+     */
+    public AmortizationSchedule scheduleFor(LoanAccount loan) {
+        AmortizationSchedule schedule;
+        synchronized (schedules) {
+            schedule = schedules.get(loan.getId());
+            if (schedule == null || !fits(schedule, loan)) {
+                schedule = new AmortizationSchedule(loan.getAmountOwed(), monthlyRate(loan),
+                        Math.max(1, loan.getMonthsRemaining()));
+                schedules.put(loan.getId(), schedule);
+                builds.increment();
+                return schedule;
+            }
+        }
+        synchronized (schedule) {
+            int period = currentPeriod(schedule, loan);
+            if (Math.abs(schedule.getOpeningBalance(period) - loan.getAmountOwed()) > CENT) {
+                schedule.rebase(period, loan.getAmountOwed());
+                rebases.increment();
+            } else {
+                hits.increment();
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Amount that repays the loan now
+     */
+    public double payoffQuote(LoanAccount loan) {
+        AmortizationSchedule schedule = scheduleFor(loan);
+        synchronized (schedule) {
+            return schedule.payoffQuote(currentPeriod(schedule, loan));
+        }
+    }
+
+    /**
+     * Interest still due if the loan is repaid according to plan from now on
+     */
+    public double remainingInterest(LoanAccount loan) {
+        AmortizationSchedule schedule = scheduleFor(loan);
+        synchronized (schedule) {
+            return schedule.remainingInterest(currentPeriod(schedule, loan));
+        }
+    }
+
+    /**
+     * Number of payments left until the loan is repaid according to plan
+     */
+    public int remainingPayments(LoanAccount loan) {
+        AmortizationSchedule schedule = scheduleFor(loan);
+        synchronized (schedule) {
+            return Math.max(0, schedule.getPeriods() - currentPeriod(schedule, loan));
+        }
+    }
+
+    public void evict(long loanId) {
+        synchronized (schedules) {
+            schedules.remove(loanId);
+        }
+    }
+
+    public int size() {
+        synchronized (schedules) {
+            return schedules.size();
+        }
+    }
+
+    /**
+     * Lookups served by a cached schedule without recomputation
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getBuildCount() {
+        return builds.sum();
+    }
+
+    public long getRebaseCount() {
+        return rebases.sum();
+    }
+
+    private static boolean fits(AmortizationSchedule schedule, LoanAccount loan) {
+        return schedule.getMonthlyRate() == monthlyRate(loan) && loan.getMonthsRemaining() <= schedule.getTerm()
+                && loan.getMonthsRemaining() > 0;
+    }
+
+    private static int currentPeriod(AmortizationSchedule schedule, LoanAccount loan) {
+        return Math.min(schedule.getTerm() - 1, Math.max(0, schedule.getTerm() - loan.getMonthsRemaining()));
+    }
+
+    private static double monthlyRate(LoanAccount loan) {
+        return loan.getAnnualInterestRate() / 12 / 100;
+    }
+}
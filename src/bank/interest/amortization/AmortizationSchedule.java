@@ -0,0 +1,156 @@
+package bank.interest.amortization;
+
+/**
+ * AmortizationSchedule - Level-payment repayment plan of one loan
+ *
+ * The schedule is stored in two primitive arrays indexed by period: the opening
+ * balance and the running sum of opening balances before it. Every other figure
+ * is derived in O(1):
+ * - interest(i)  = opening(i) * monthly rate
+ * - payment(i)   = opening(i) * (1 + rate) - opening(i + 1)
+ * - principal(i) = payment(i) - interest(i)
+ * - remaining interest from period k = rate * (sum of opening balances from k on)
+ *
+ * After an extra payment (or any other balance change) the schedule is rebased:
+ * rows before the change are kept and only the periods from the change onwards
+ * are recomputed with the same level payment, so the loan ends earlier (or, when
+ * the balance grew, with a larger final payment).
+ *
+ * Not thread-safe; AmortizationEngine serializes access to cached schedules.
+ */
+public final class AmortizationSchedule {
+
+    private final double monthlyRate;
+    private final double payment;
+    private final double[] opening;      // opening[term] is the balance after the last period
+    private final double[] openingSum;   // openingSum[i] = opening[0] + ... + opening[i - 1]
+    private int periods;                 // periods until the loan is repaid (<= term)
+
+    /**
+     * @param principal Amount owed at the start of the first period
+     * @param monthlyRate Interest rate per period (e.g. 0.05 / 12 for 5% a year)
+     * @param term Number of monthly payments
+     */
+    public AmortizationSchedule(double principal, double monthlyRate, int term) {
+        if (term < 1) {
+            throw new IllegalArgumentException("Term must be at least one period: " + term);
+        }
+        this.monthlyRate = monthlyRate;
+        this.payment = levelPayment(principal, monthlyRate, term);
+        this.opening = new double[term + 1];
+        this.openingSum = new double[term + 1];
+        opening[0] = Math.max(0.0, principal);
+        recomputeFrom(0);
+    }
+
+    /**
+     * Computes the level payment that repays a balance over a number of periods
+     * (standard annuity formula; the growth factor is computed once)
+     */
+    public static double levelPayment(double balance, double monthlyRate, int periods) {
+        if (monthlyRate == 0) {
+            return balance / periods;
+        }
+        double factor = Math.pow(1 + monthlyRate, periods);
+        return (balance * monthlyRate * factor) / (factor - 1);
+    }
+
+    /**
+     * Replaces the opening balance of a period and recomputes the following periods
+     * Earlier periods are left untouched.
+     *
+     * @param period Index of the period whose opening balance changed
+     * @param balance The new opening balance
+     */
+    public void rebase(int period, double balance) {
+        if (period < 0 || period >= getTerm()) {
+            throw new IndexOutOfBoundsException("Period " + period + " outside term of " + getTerm());
+        }
+        opening[period] = Math.max(0.0, balance);
+        recomputeFrom(period);
+    }
+
+    private void recomputeFrom(int period) {
+        int term = getTerm();
+        double growth = 1 + monthlyRate;
+        int i = period;
+        while (i < term && opening[i] > 0.0) {
+            double due = opening[i] * growth;
+            opening[i + 1] = due <= payment || i == term - 1 ? 0.0 : due - payment;
+            openingSum[i + 1] = openingSum[i] + opening[i];
+            i++;
+        }
+        periods = i;
+        for (int j = i + 1; j <= term; j++) {
+            opening[j] = 0.0;
+            openingSum[j] = openingSum[i];
+        }
+    }
+
+    // ============ PER-PERIOD ROWS ============
+
+    public double getOpeningBalance(int period) {
+        return period < opening.length ? opening[period] : 0.0;
+    }
+
+    public double getClosingBalance(int period) {
+        return getOpeningBalance(period + 1);
+    }
+
+    public double getInterest(int period) {
+        return getOpeningBalance(period) * monthlyRate;
+    }
+
+    public double getPayment(int period) {
+        return getOpeningBalance(period) * (1 + monthlyRate) - getOpeningBalance(period + 1);
+    }
+
+    public double getPrincipal(int period) {
+        return getOpeningBalance(period) - getOpeningBalance(period + 1);
+    }
+
+    // ============ QUOTES ============
+
+    /**
+     * Amount that repays the loan at the start of a period
+     */
+    public double payoffQuote(int period) {
+        return getOpeningBalance(period);
+    }
+
+    /**
+     * Interest still to be paid from the start of a period if the plan is followed
+     */
+    public double remainingInterest(int period) {
+        if (period >= periods) return 0.0;
+        return monthlyRate * (openingSum[periods] - openingSum[period]);
+    }
+
+    public double getTotalInterest() {
+        return remainingInterest(0);
+    }
+
+    // ============ PLAN ============
+
+    public double getLevelPayment() {
+        return payment;
+    }
+
+    public double getMonthlyRate() {
+        return monthlyRate;
+    }
+
+    /**
+     * Number of periods the schedule was created for
+     */
+    public int getTerm() {
+        return opening.length - 1;
+    }
+
+    /**
+     * Number of periods until the loan is repaid (shorter than the term after extra payments)
+     */
+    public int getPeriods() {
+        return periods;
+    }
+}
@@ -0,0 +1,258 @@
+package bank.interest.projection;
+
+import bank.accounts.Account;
+import bank.accounts.repository.AccountRepository;
+import bank.accounts.types.InvestmentAccount;
+import bank.interest.InterestStrategy;
+import bank.interest.RateBasedInterest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * MonteCarloProjector - Simulated outcome distributions for investment portfolios
+ *
+ * Every path compounds monthly lognormal returns from the ReturnModel, adding the
+ * monthly contribution after each month. Without contributions the final value of
+ * a path has a closed-form lognormal distribution, so it is drawn in a single
+ * step instead of one per month.
+ *
+ * A projection is cut into tasks of pathsPerTask paths that run on a fork-join
+ * pool. Each task keeps its paths in a primitive array, draws from its own
+ * SplittableRandom (split from the projector's seed in task order, so results are
+ * reproducible however the tasks are scheduled) and streams the final values into
+ * its own QuantileSketch; the sketches are merged at the end.
+ *
+ * The batch mode projects every InvestmentAccount from its investment value, using
+ * the account's own expected return when its strategy is rate based (as adjusted
+ * by its interest features, e.g. a premium bonus). Each account
+ * draws from a generator seeded by the projector seed and the account id, so an
+ * account's projection does not depend on the rest of the batch.
+ */
+public class MonteCarloProjector {
+
+    public static final int DEFAULT_PATHS_PER_TASK = 65_536;
+
+    private final ForkJoinPool pool;
+    private final int pathsPerTask;
+    private final long seed;
+
+    public MonteCarloProjector(long seed) {
+        this(ForkJoinPool.commonPool(), DEFAULT_PATHS_PER_TASK, seed);
+    }
+
+    /**
+     * @param pool Pool that runs the simulation tasks
+     * @param pathsPerTask Number of paths simulated by one task
+     * @param seed Seed of every random stream, for reproducible projections
+     */
+    public MonteCarloProjector(ForkJoinPool pool, int pathsPerTask, long seed) {
+        if (pathsPerTask < 1) {
+            throw new IllegalArgumentException("Paths per task must be positive: " + pathsPerTask);
+        }
+        this.pool = pool;
+        this.pathsPerTask = pathsPerTask;
+        this.seed = seed;
+    }
+
+    /**
+     * Projects the distribution of a portfolio's value
+     *
+     * @param startValue Value today
+     * @param monthlyContribution Amount added at the end of every month
+     * @param years Projection horizon
+     * @param paths Number of simulated paths
+     */
+    public ProjectionResult project(double startValue, double monthlyContribution, int years, long paths,
+                                    ReturnModel model) {
+        validate(years, paths);
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<QuantileSketch>> tasks = new ArrayList<>();
+        for (long from = 0; from < paths; from += pathsPerTask) {
+            int size = (int) Math.min(pathsPerTask, paths - from);
+            SplittableRandom random = root.split();
+            tasks.add(() -> {
+                QuantileSketch sketch = new QuantileSketch();
+                double[] values = new double[size];
+                simulate(values, new double[size], size, random, startValue, monthlyContribution, years * 12,
+                        model);
+                sketch.addAll(values, 0, size);
+                return sketch;
+            });
+        }
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch sketch : invokeAll(tasks)) {
+            merged.merge(sketch);
+        }
+        return new ProjectionResult(0L, startValue, monthlyContribution, years, merged,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Projects every investment account of a repository (the overnight batch)
+     * The investment accounts are acquired for the duration of the projection.
+     */
+    public List<ProjectionResult> projectAll(AccountRepository repository, int years, int pathsPerAccount,
+                                             ReturnModel model, ProjectionListener listener) {
+        List<Long> ids = new ArrayList<>();
+        repository.forEach(account -> {
+            if (account instanceof InvestmentAccount) ids.add(account.getId());
+        });
+        List<Account> accounts = new ArrayList<>(ids.size());
+        try {
+            for (long id : ids) {
+                Account account = repository.acquire(id);
+                if (account != null) accounts.add(account);
+            }
+            return projectAll(accounts, years, pathsPerAccount, model, listener);
+        } finally {
+            for (Account account : accounts) {
+                repository.release(account);
+            }
+        }
+    }
+
+    /**
+     * Projects every InvestmentAccount of a collection; other accounts are skipped
+     *
+     * @param model Volatility, and the expected return for accounts without a rate-based strategy
+     * @param listener Called for every projected account; may be null
+     * @return One result per investment account, ordered by account id
+     */
+    public List<ProjectionResult> projectAll(Collection<? extends Account> accounts, int years,
+                                             int pathsPerAccount, ReturnModel model,
+                                             ProjectionListener listener) {
+        validate(years, pathsPerAccount);
+        int paths = pathsPerAccount;
+        List<InvestmentAccount> investments = new ArrayList<>();
+        for (Account account : accounts) {
+            if (account instanceof InvestmentAccount) {
+                investments.add((InvestmentAccount) account);
+            }
+        }
+        // Group small projections so every task simulates about pathsPerTask paths
+        int accountsPerTask = Math.max(1, pathsPerTask / paths);
+        List<Callable<List<ProjectionResult>>> tasks = new ArrayList<>();
+        for (int from = 0; from < investments.size(); from += accountsPerTask) {
+            List<InvestmentAccount> group =
+                    investments.subList(from, Math.min(investments.size(), from + accountsPerTask));
+            tasks.add(() -> {
+                List<ProjectionResult> results = new ArrayList<>(group.size());
+                double[] values = new double[paths];
+                double[] scratch = new double[paths];
+                for (InvestmentAccount account : group) {
+                    long start = System.nanoTime();
+                    double startValue = account.getInvestmentValue();
+                    SplittableRandom random =
+                            new SplittableRandom(seed ^ (account.getId() * 0x9E3779B97F4A7C15L));
+                    simulate(values, scratch, paths, random, startValue, 0.0, years * 12,
+                            modelFor(account, model));
+                    QuantileSketch sketch = new QuantileSketch();
+                    sketch.addAll(values, 0, paths);
+                    ProjectionResult result = new ProjectionResult(account.getId(), startValue, 0.0, years, sketch,
+                            (System.nanoTime() - start) / 1_000_000);
+                    if (listener != null) {
+                        listener.projected(result);
+                    }
+                    results.add(result);
+                }
+                return results;
+            });
+        }
+        List<ProjectionResult> results = new ArrayList<>(investments.size());
+        for (List<ProjectionResult> group : invokeAll(tasks)) {
+            results.addAll(group);
+        }
+        results.sort(Comparator.comparingLong(ProjectionResult::getAccountId));
+        return results;
+    }
+
+    private static ReturnModel modelFor(Account account, ReturnModel model) {
+        InterestStrategy strategy = account.getInterestStrategy();
+        if (strategy instanceof RateBasedInterest) {
+            RateBasedInterest rates = (RateBasedInterest) strategy;
+            double basis = rates.interestBasis(account);
+            if (account.hasInterestFeatures() && basis > 0) {
+                // The rate the features actually pay, e.g. including a premium bonus
+                return model.withExpectedReturn(account.periodInterest() * 12 / basis);
+            }
+            return model.withExpectedReturn(rates.getAnnualRate());
+        }
+        return model;
+    }
+
+    /**
+     * Simulates n paths into values[0, n)
+     *
+     * @param normals Scratch array of at least n doubles
+     */
+    static void simulate(double[] values, double[] normals, int n, SplittableRandom random, double startValue,
+                         double monthlyContribution, int months, ReturnModel model) {
+        if (monthlyContribution == 0.0) {
+            double drift = model.logDrift(months);
+            double volatility = model.logVolatility(months);
+            fillNormals(normals, n, random);
+            for (int p = 0; p < n; p++) {
+                values[p] = startValue * Math.exp(drift + volatility * normals[p]);
+            }
+            return;
+        }
+        double drift = model.logDrift(1);
+        double volatility = model.logVolatility(1);
+        for (int p = 0; p < n; p++) {
+            values[p] = startValue;
+        }
+        for (int month = 0; month < months; month++) {
+            fillNormals(normals, n, random);
+            for (int p = 0; p < n; p++) {
+                values[p] = values[p] * Math.exp(drift + volatility * normals[p]) + monthlyContribution;
+            }
+        }
+    }
+
+    /**
+     * Fills out[0, n) with standard normal draws
+     * SplittableRandom.nextGaussian (from RandomGenerator since Java 17) uses a
+     * ziggurat sampler, cheaper than Box-Muller or the polar method.
+     */
+    static void fillNormals(double[] out, int n, SplittableRandom random) {
+        for (int i = 0; i < n; i++) {
+            out[i] = random.nextGaussian();
+        }
+    }
+
+    private static void validate(int years, long paths) {
+        if (years < 1) {
+            throw new IllegalArgumentException("Projection horizon must be at least a year: " + years);
+        }
+        if (paths < 1) {
+            throw new IllegalArgumentException("At least one path is required: " + paths);
+        }
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Projection task failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Projection interrupted", e);
+            }
+        }
+        return results;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
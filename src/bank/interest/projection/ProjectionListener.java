@@ -0,0 +1,11 @@
+package bank.interest.projection;
+
+/**
+ * ProjectionListener - Callback for each account projected by a batch
+ * Called from pool threads as soon as an account is done, e.g. to stream the
+ * results to a report instead of waiting for the whole batch.
+ */
+@FunctionalInterface
+public interface ProjectionListener {
+    void projected(ProjectionResult result);
+}
@@ -0,0 +1,96 @@
+package bank.interest.projection;
+
+/**
+ * ProjectionResult - Outcome distribution of one Monte Carlo projection
+ * Keeps the mean and a fixed set of percentiles of the final value rather than
+ * the paths or the sketch, so a batch over every account stays small.
+ */
+public final class ProjectionResult {
+
+    /** Percentiles kept by every result */
+    public static final int[] PERCENTILES = {5, 25, 50, 75, 95};
+
+    private final long accountId;
+    private final double startValue;
+    private final double monthlyContribution;
+    private final int years;
+    private final long paths;
+    private final double mean;
+    private final double[] percentiles;
+    private final long elapsedMillis;
+
+    ProjectionResult(long accountId, double startValue, double monthlyContribution, int years,
+                     QuantileSketch sketch, long elapsedMillis) {
+        this.accountId = accountId;
+        this.startValue = startValue;
+        this.monthlyContribution = monthlyContribution;
+        this.years = years;
+        this.paths = sketch.getCount();
+        this.mean = sketch.getMean();
+        this.percentiles = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles[i] = sketch.quantile(PERCENTILES[i] / 100.0);
+        }
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the projected final value at one of the PERCENTILES
+     */
+    public double getPercentile(int percentile) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (PERCENTILES[i] == percentile) return percentiles[i];
+        }
+        throw new IllegalArgumentException("Percentile " + percentile + " is not kept; use one of 5, 25, 50, 75, 95");
+    }
+
+    public double getP5() {
+        return percentiles[0];
+    }
+
+    public double getMedian() {
+        return percentiles[2];
+    }
+
+    public double getP95() {
+        return percentiles[4];
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the projected account (0 for a projection not tied to an account)
+     */
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public double getStartValue() {
+        return startValue;
+    }
+
+    public double getMonthlyContribution() {
+        return monthlyContribution;
+    }
+
+    public int getYears() {
+        return years;
+    }
+
+    public long getPaths() {
+        return paths;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Projection of $%.2f over %d years (%,d paths): p5 $%.2f, median $%.2f, "
+                        + "p95 $%.2f, mean $%.2f",
+                startValue, years, paths, getP5(), getMedian(), getP95(), mean);
+    }
+}
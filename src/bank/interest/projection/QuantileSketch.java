@@ -0,0 +1,177 @@
+package bank.interest.projection;
+
+/**
+ * QuantileSketch - Streaming, mergeable quantile estimates with relative accuracy
+ *
+ * Positive values are counted in logarithmic buckets: bucket i holds the values in
+ * (gamma^(i-1), gamma^i], with gamma = (1 + a) / (1 - a), so any reported quantile
+ * is within relative error a of a true sample value. Memory depends on the range
+ * of the values (a few hundred buckets for several orders of magnitude), not on
+ * how many are added, and two sketches with the same accuracy merge exactly by
+ * adding bucket counts. Values at or below zero are counted together as zero.
+ *
+ * Not thread-safe: give each task its own sketch and merge them.
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.005;
+
+    private static final int INITIAL_BUCKETS = 128;
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final double representativeFactor;
+
+    private long[] counts = new long[0];
+    private int offset; // bucket index of counts[0]
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * @param relativeAccuracy Maximum relative error of reported quantiles (e.g. 0.005 for 0.5%)
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0.0 && relativeAccuracy < 1.0)) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        double gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log(gamma);
+        // Midpoint of a bucket in relative terms: 2 * gamma^i / (gamma + 1)
+        this.representativeFactor = 2.0 / (gamma + 1);
+    }
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        if (!(value > 0.0)) {
+            zeroCount++;
+            return;
+        }
+        int bucket = (int) Math.ceil(Math.log(value) / logGamma);
+        int slot = bucket - offset;
+        if (slot < 0 || slot >= counts.length) {
+            slot = grow(bucket);
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Adds every value of an array
+     */
+    public void addAll(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(values[i]);
+        }
+    }
+
+    /**
+     * Adds the counts of another sketch built with the same accuracy
+     */
+    public void merge(QuantileSketch other) {
+        if (other.logGamma != logGamma) {
+            throw new IllegalArgumentException("Cannot merge sketches of different accuracy: "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        if (other.count == 0) return;
+        for (int i = 0; i < other.counts.length; i++) {
+            long c = other.counts[i];
+            if (c == 0) continue;
+            int bucket = other.offset + i;
+            int slot = bucket - offset;
+            if (slot < 0 || slot >= counts.length) {
+                slot = grow(bucket);
+            }
+            counts[slot] += c;
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets the value at a quantile
+     *
+     * @param q Quantile in [0, 1] (0.5 for the median)
+     * @return The estimate, within the relative accuracy; NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0.0 || q > 1.0) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0) return Double.NaN;
+        long rank = (long) (q * (count - 1));
+        if (rank < zeroCount) {
+            return Math.min(0.0, max);
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = Math.exp((offset + i) * logGamma) * representativeFactor;
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Widens the bucket array to include a bucket index
+     *
+     * @return The slot of the bucket in the new array
+     */
+    private int grow(int bucket) {
+        if (counts.length == 0) {
+            counts = new long[INITIAL_BUCKETS];
+            offset = bucket - INITIAL_BUCKETS / 2;
+            return bucket - offset;
+        }
+        int low = Math.min(offset, bucket);
+        int high = Math.max(offset + counts.length - 1, bucket);
+        int span = high - low + 1;
+        int capacity = Math.max(span, counts.length * 2);
+        // Leave the spare room on the side that had to grow
+        int newOffset = bucket < offset ? high - capacity + 1 : low;
+        long[] grown = new long[capacity];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+        return bucket - offset;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", buckets=" + counts.length + ", accuracy=" + relativeAccuracy + "}";
+    }
+}
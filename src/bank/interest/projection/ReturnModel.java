@@ -0,0 +1,60 @@
+package bank.interest.projection;
+
+/**
+ * ReturnModel - Lognormal model of portfolio returns (geometric Brownian motion)
+ * The expected annual return is arithmetic: a portfolio is expected to grow by
+ * (1 + expectedAnnualReturn) a year, with annualVolatility as the standard
+ * deviation of the yearly log return.
+ */
+public final class ReturnModel {
+
+    public static final ReturnModel DEFAULT = new ReturnModel(0.07, 0.15);
+
+    private final double expectedAnnualReturn;
+    private final double annualVolatility;
+
+    public ReturnModel(double expectedAnnualReturn, double annualVolatility) {
+        if (!(expectedAnnualReturn > -1.0)) {
+            throw new IllegalArgumentException("Expected return must be above -100%: " + expectedAnnualReturn);
+        }
+        if (!(annualVolatility >= 0.0)) {
+            throw new IllegalArgumentException("Volatility must not be negative: " + annualVolatility);
+        }
+        this.expectedAnnualReturn = expectedAnnualReturn;
+        this.annualVolatility = annualVolatility;
+    }
+
+    public ReturnModel withExpectedReturn(double expectedAnnualReturn) {
+        return expectedAnnualReturn == this.expectedAnnualReturn
+                ? this
+                : new ReturnModel(expectedAnnualReturn, annualVolatility);
+    }
+
+    /**
+     * Gets the mean log return over a number of months
+     */
+    public double logDrift(int months) {
+        return (Math.log1p(expectedAnnualReturn) - annualVolatility * annualVolatility / 2) * months / 12.0;
+    }
+
+    /**
+     * Gets the standard deviation of the log return over a number of months
+     */
+    public double logVolatility(int months) {
+        return annualVolatility * Math.sqrt(months / 12.0);
+    }
+
+    public double getExpectedAnnualReturn() {
+        return expectedAnnualReturn;
+    }
+
+    public double getAnnualVolatility() {
+        return annualVolatility;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReturnModel{return=%.2f%%, volatility=%.2f%%}",
+                expectedAnnualReturn * 100, annualVolatility * 100);
+    }
+}
@@ -0,0 +1,49 @@
+package bank.interest.rates;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RateBook - Holder of the current RateTable
+ *
+ * Rate changes swap in a whole new immutable table with one atomic reference
+ * update. Interest calculations read the reference once per call and never lock,
+ * so any number of them can run while rates change and each sees either the old
+ * table or the new one, never a mix.
+ */
+public class RateBook {
+
+    private final AtomicReference<RateTable> current;
+
+    public RateBook() {
+        this(RateTable.EMPTY);
+    }
+
+    public RateBook(RateTable initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    /**
+     * Gets the table in effect right now
+     */
+    public RateTable current() {
+        return current.get();
+    }
+
+    /**
+     * Makes a table current unless a table of the same or a newer version is
+     * already published, so a late or repeated update can never roll rates back
+     *
+     * @return true if the table was published
+     */
+    public boolean publish(RateTable table) {
+        while (true) {
+            RateTable existing = current.get();
+            if (table.getVersion() <= existing.getVersion()) {
+                return false;
+            }
+            if (current.compareAndSet(existing, table)) {
+                return true;
+            }
+        }
+    }
+}
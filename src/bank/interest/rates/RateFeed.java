@@ -0,0 +1,208 @@
+package bank.interest.rates;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RateFeed - Loads rate tables from a local file and publishes them to a RateBook
+ *
+ * Feed format (blank lines and # comments are ignored):
+ * <pre>
+ *   version 42
+ *   product savings.tiered marginal
+ *   0       0.010
+ *   10000   0.020
+ *   50000   0.030
+ *   product savings.market whole_balance
+ *   0       0.035
+ * </pre>
+ * Each product line is followed by its tiers, one "floor rate" pair per line in
+ * ascending floor order. Without a version line the table gets the version after
+ * the one currently published, so each change to an unversioned file supersedes
+ * the current rates; an explicit version must be newer than the published one.
+ *
+ * A file is parsed completely into a new table before anything is published; a
+ * malformed file, or one whose version is not newer, is rejected, the current
+ * rates stay in effect and the file is read again on the next refresh.
+ */
+public class RateFeed implements AutoCloseable {
+
+    private final Path file;
+    private final RateBook book;
+
+    private long loadedModified = Long.MIN_VALUE;
+    private long loadedSize = -1;
+    private volatile IOException lastError;
+    private Thread poller;
+    private volatile boolean running;
+
+    public RateFeed(Path file, RateBook book) {
+        this.file = file;
+        this.book = book;
+    }
+
+    /**
+     * Reloads the file if it changed since the last refresh and publishes it
+     *
+     * @return true if a new table was published, false if the file is unchanged
+     * @throws IOException if the file cannot be read, is malformed or its version
+     *         is not newer than the published one
+     */
+    public synchronized boolean refresh() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        if (modified == loadedModified && size == loadedSize) {
+            return false;
+        }
+        RateTable table = parse(file, book.current().getVersion() + 1);
+        if (!book.publish(table)) {
+            throw new IOException(file + ": version " + table.getVersion()
+                    + " is not newer than the published version " + book.current().getVersion());
+        }
+        loadedModified = modified;
+        loadedSize = size;
+        return true;
+    }
+
+    /**
+     * Polls the file on a daemon thread; read or parse failures keep the current
+     * rates and are reported through getLastError()
+     */
+    public synchronized void start(Duration interval) {
+        if (poller != null) return;
+        long sleepMillis = Math.max(1, interval.toMillis());
+        running = true;
+        poller = new Thread(() -> {
+            while (running) {
+                try {
+                    refresh();
+                    lastError = null;
+                } catch (IOException e) {
+                    lastError = e;
+                }
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "rate-feed-" + file.getFileName());
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Gets the failure of the latest background refresh, or null if it succeeded
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    public RateBook getBook() {
+        return book;
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = poller;
+            poller = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Parses a feed file into a table
+     *
+     * @param defaultVersion Version used when the file has no version line
+     */
+    public static RateTable parse(Path file, long defaultVersion) throws IOException {
+        long version = defaultVersion;
+        Map<String, RateTiers> products = new HashMap<>();
+        String product = null;
+        TierMode mode = null;
+        double[] floors = new double[8];
+        double[] rates = new double[8];
+        int tiers = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+                if (fields[0].isEmpty()) continue;
+                try {
+                    if (fields[0].equals("version")) {
+                        expectFields(fields, 2);
+                        version = Long.parseLong(fields[1]);
+                    } else if (fields[0].equals("product")) {
+                        expectFields(fields, 3);
+                        addProduct(products, product, mode, floors, rates, tiers);
+                        product = fields[1];
+                        if (products.containsKey(product)) {
+                            throw new IllegalArgumentException("Duplicate product " + product);
+                        }
+                        mode = TierMode.valueOf(fields[2].toUpperCase(Locale.ROOT));
+                        tiers = 0;
+                    } else {
+                        expectFields(fields, 2);
+                        if (product == null) {
+                            throw new IllegalArgumentException("Tier before any product line");
+                        }
+                        if (tiers == floors.length) {
+                            floors = Arrays.copyOf(floors, tiers * 2);
+                            rates = Arrays.copyOf(rates, tiers * 2);
+                        }
+                        floors[tiers] = Double.parseDouble(fields[0]);
+                        rates[tiers] = Double.parseDouble(fields[1]);
+                        tiers++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        try {
+            addProduct(products, product, mode, floors, rates, tiers);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        return new RateTable(version, products);
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " fields, got " + fields.length);
+        }
+    }
+
+    private static void addProduct(Map<String, RateTiers> products, String product, TierMode mode,
+                                   double[] floors, double[] rates, int tiers) {
+        if (product == null) return;
+        if (tiers == 0) {
+            throw new IllegalArgumentException("Product " + product + " has no tiers");
+        }
+        products.put(product, new RateTiers(mode, Arrays.copyOf(floors, tiers),
+                Arrays.copyOf(rates, tiers)));
+    }
+}
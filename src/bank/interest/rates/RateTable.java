@@ -0,0 +1,48 @@
+package bank.interest.rates;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RateTable - Immutable snapshot of the tiers of every rate product
+ * A table is never modified after construction, so readers holding one always
+ * see a consistent set of rates; updates publish a whole new table to a RateBook.
+ */
+public final class RateTable {
+
+    public static final RateTable EMPTY = new RateTable(0L, Collections.emptyMap());
+
+    private final long version;
+    private final Map<String, RateTiers> products;
+
+    /**
+     * @param version Increases with every published revision of the rates
+     * @param products Tiers by product name (e.g. "savings.tiered")
+     */
+    public RateTable(long version, Map<String, RateTiers> products) {
+        this.version = version;
+        this.products = Collections.unmodifiableMap(new HashMap<>(products));
+    }
+
+    /**
+     * Gets the tiers of a product, or null when the table does not quote it
+     */
+    public RateTiers tiersFor(String product) {
+        return products.get(product);
+    }
+
+    public Set<String> getProducts() {
+        return products.keySet();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "RateTable{version=" + version + ", products=" + products + "}";
+    }
+}
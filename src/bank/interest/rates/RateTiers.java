@@ -0,0 +1,129 @@
+package bank.interest.rates;
+
+import java.util.Arrays;
+
+/**
+ * RateTiers - Immutable balance tiers held as sorted breakpoint arrays
+ *
+ * floors[i] is the lowest balance of tier i and rates[i] its annual rate. Looking
+ * up a balance is a binary search over floors; for MARGINAL tiers the interest of
+ * every full band below each floor is precomputed, so either mode costs
+ * O(log tiers) and allocates nothing.
+ */
+public final class RateTiers {
+
+    private final TierMode mode;
+    private final double[] floors;
+    private final double[] rates;
+    // MARGINAL only: annual interest earned by the bands below floors[i]
+    private final double[] bandInterest;
+
+    /**
+     * @param mode How the tier rate is applied
+     * @param floors Lowest balance of each tier, strictly ascending
+     * @param annualRates Annual rate of each tier (e.g. 0.03 for 3%)
+     */
+    public RateTiers(TierMode mode, double[] floors, double[] annualRates) {
+        if (floors.length == 0 || floors.length != annualRates.length) {
+            throw new IllegalArgumentException("Need one rate per tier floor: " + floors.length
+                    + " floors, " + annualRates.length + " rates");
+        }
+        for (int i = 1; i < floors.length; i++) {
+            if (!(floors[i] > floors[i - 1])) {
+                throw new IllegalArgumentException("Tier floors must be strictly ascending: "
+                        + floors[i - 1] + " then " + floors[i]);
+            }
+        }
+        this.mode = mode;
+        this.floors = floors.clone();
+        this.rates = annualRates.clone();
+        this.bandInterest = new double[floors.length];
+        for (int i = 1; i < floors.length; i++) {
+            bandInterest[i] = bandInterest[i - 1] + rates[i - 1] * (floors[i] - floors[i - 1]);
+        }
+    }
+
+    /**
+     * Single tier: one flat rate for every positive balance
+     */
+    public static RateTiers flat(double annualRate) {
+        return new RateTiers(TierMode.WHOLE_BALANCE, new double[] {0.0}, new double[] {annualRate});
+    }
+
+    /**
+     * Gets the index of the tier a balance falls in, or -1 below the first floor
+     */
+    public int tierIndex(double balance) {
+        int lo = 0;
+        int hi = floors.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (floors[mid] <= balance) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * Gets the annual rate of the tier a balance falls in (0 below the first floor)
+     */
+    public double rateFor(double balance) {
+        int tier = tierIndex(balance);
+        return tier < 0 ? 0.0 : rates[tier];
+    }
+
+    /**
+     * Gets the interest a balance earns over a full year; never negative
+     */
+    public double annualInterest(double balance) {
+        if (balance <= 0) return 0.0;
+        int tier = tierIndex(balance);
+        if (tier < 0) return 0.0;
+        double interest = mode == TierMode.MARGINAL
+                ? bandInterest[tier] + rates[tier] * (balance - floors[tier])
+                : rates[tier] * balance;
+        return Math.max(0.0, interest);
+    }
+
+    public TierMode getMode() {
+        return mode;
+    }
+
+    public int size() {
+        return floors.length;
+    }
+
+    public double getFloor(int tier) {
+        return floors[tier];
+    }
+
+    public double getRate(int tier) {
+        return rates[tier];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateTiers)) return false;
+        RateTiers other = (RateTiers) o;
+        return mode == other.mode && Arrays.equals(floors, other.floors) && Arrays.equals(rates, other.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * mode.hashCode() + Arrays.hashCode(floors)) + Arrays.hashCode(rates);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(mode.name()).append('[');
+        for (int i = 0; i < floors.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(floors[i]).append("+: ").append(rates[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,11 @@
+package bank.interest.rates;
+
+/**
+ * TierMode - How a balance tier's rate is applied
+ */
+public enum TierMode {
+    /** The rate of the tier the balance falls in applies to the whole balance */
+    WHOLE_BALANCE,
+    /** Each band of the balance earns its own tier's rate */
+    MARGINAL
+}
@@ -0,0 +1,204 @@
+package bank.interest.run;
+
+import bank.accounts.Account;
+import bank.accounts.repository.AccountRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * ChunkedRun - Shared driver of the batch interest jobs
+ * Cuts an account set into chunks, runs them on a fork-join pool, checkpoints
+ * every completed chunk (by account id range) and skips the chunks recorded by an
+ * earlier attempt of the same run id.
+ *
+ * Accounts of a repository are acquired chunk by chunk and released once the chunk
+ * is processed, so repositories that page accounts out keep every posting.
+ */
+final class ChunkedRun {
+
+    /**
+     * Processes the accounts [from, to) of one chunk
+     */
+    @FunctionalInterface
+    interface ChunkProcessor {
+        InterestChunkSummary process(String runId, int chunkIndex, Account[] accounts, int from, int to);
+    }
+
+    private static final Pattern RUN_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final Path checkpointDirectory;
+
+    ChunkedRun(ForkJoinPool pool, int chunkSize, Path checkpointDirectory) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    InterestRunResult execute(String runId, Collection<? extends Account> accounts, ChunkProcessor processor,
+                              InterestRunListener listener) throws IOException {
+        Account[] sorted = toArray(accounts, checkpointDirectory != null);
+        long[] ids = new long[sorted.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sorted[i].getId();
+        }
+        return execute(runId, ids, sorted, null, processor, listener);
+    }
+
+    InterestRunResult execute(String runId, AccountRepository repository, ChunkProcessor processor,
+                              InterestRunListener listener) throws IOException {
+        LongStream.Builder ids = LongStream.builder();
+        repository.forEachId(ids);
+        return execute(runId, ids.build().sorted().toArray(), null, repository, processor, listener);
+    }
+
+    /**
+     * @param ids Ids of the accounts, sorted when checkpointing
+     * @param accounts The accounts in ids order, or null to acquire them from the repository
+     */
+    private InterestRunResult execute(String runId, long[] ids, Account[] accounts, AccountRepository repository,
+                                      ChunkProcessor processor, InterestRunListener listener) throws IOException {
+        if (runId == null || !RUN_ID.matcher(runId).matches()) {
+            throw new IllegalArgumentException("Invalid interest run id: " + runId);
+        }
+        long start = System.nanoTime();
+
+        InterestCheckpoint checkpoint = null;
+        List<InterestChunkSummary> resumed = Collections.emptyList();
+        if (checkpointDirectory != null) {
+            Files.createDirectories(checkpointDirectory);
+            checkpoint = InterestCheckpoint.open(checkpointDirectory, runId);
+            resumed = checkpoint.getCompleted();
+        }
+        try {
+            int[] pending = withoutCompleted(ids, resumed);
+            int nextIndex = 0;
+            for (InterestChunkSummary chunk : resumed) {
+                nextIndex = Math.max(nextIndex, chunk.getChunkIndex() + 1);
+            }
+
+            List<Callable<InterestChunkSummary>> tasks = new ArrayList<>();
+            for (int from = 0; from < pending.length; from += chunkSize) {
+                int to = Math.min(pending.length, from + chunkSize);
+                int chunkIndex = nextIndex++;
+                int chunkFrom = from;
+                InterestCheckpoint target = checkpoint;
+                tasks.add(() -> {
+                    Account[] chunk = new Account[to - chunkFrom];
+                    int n = 0;
+                    InterestChunkSummary summary;
+                    try {
+                        for (int i = chunkFrom; i < to; i++) {
+                            int index = pending[i];
+                            Account account = accounts != null ? accounts[index] : repository.acquire(ids[index]);
+                            if (account != null) chunk[n++] = account;
+                        }
+                        summary = n > 0
+                                ? processor.process(runId, chunkIndex, chunk, 0, n)
+                                : new InterestChunkSummary(runId, chunkIndex, ids[pending[chunkFrom]],
+                                        ids[pending[to - 1]], 0, 0, 0.0, 0.0);
+                    } finally {
+                        if (repository != null) {
+                            for (int i = 0; i < n; i++) {
+                                repository.release(chunk[i]);
+                            }
+                        }
+                    }
+                    if (target != null) {
+                        try {
+                            target.record(summary);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    if (listener != null) {
+                        listener.chunkCompleted(summary);
+                    }
+                    return summary;
+                });
+            }
+
+            List<InterestChunkSummary> chunks = new ArrayList<>(resumed);
+            Throwable failure = null;
+            for (Future<InterestChunkSummary> future : pool.invokeAll(tasks)) {
+                try {
+                    chunks.add(future.get());
+                } catch (ExecutionException e) {
+                    if (failure == null) failure = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interest run " + runId + " interrupted", e);
+                }
+            }
+            if (failure instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) failure).getCause();
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Interest run " + runId + " failed; rerun it to resume", failure);
+            }
+            chunks.sort(Comparator.comparingLong(InterestChunkSummary::getFirstAccountId));
+            return new InterestRunResult(runId, chunks, resumed.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+    }
+
+    private static Account[] toArray(Collection<? extends Account> accounts, boolean sortById) {
+        Account[] array = accounts.toArray(new Account[0]);
+        int size = 0;
+        boolean ordered = true;
+        for (Account account : array) {
+            if (account == null) continue;
+            if (sortById && size > 0 && array[size - 1].getId() > account.getId()) ordered = false;
+            array[size++] = account;
+        }
+        if (size < array.length) {
+            array = Arrays.copyOf(array, size);
+        }
+        if (!ordered) {
+            Arrays.sort(array, Comparator.comparingLong(Account::getId));
+        }
+        return array;
+    }
+
+    /**
+     * Gets the positions of the ids outside the id ranges of completed chunks (ranges sorted by first id)
+     */
+    private static int[] withoutCompleted(long[] ids, List<InterestChunkSummary> completed) {
+        long[] firstIds = new long[completed.size()];
+        for (int i = 0; i < firstIds.length; i++) {
+            firstIds[i] = completed.get(i).getFirstAccountId();
+        }
+        int[] remaining = new int[ids.length];
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long id = ids[i];
+            int pos = Arrays.binarySearch(firstIds, id);
+            int range = pos >= 0 ? pos : -pos - 2; // last range starting at or before id
+            if (range < 0 || id > completed.get(range).getLastAccountId()) {
+                remaining[n++] = i;
+            }
+        }
+        return n == ids.length ? remaining : Arrays.copyOf(remaining, n);
+    }
+}
@@ -0,0 +1,220 @@
+package bank.interest.run;
+
+import bank.accounts.Account;
+import bank.accounts.AccountKind;
+import bank.accounts.AccountLocks;
+import bank.accounts.repository.AccountRepository;
+import bank.interest.DayCountConvention;
+import bank.interest.InterestStrategy;
+import bank.interest.RateBasedInterest;
+import bank.interest.TieredInterest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * DailyAccrualEngine - End-of-day interest accrual with monthly capitalization
+ *
+ * The nightly job streams every account through the same chunked, checkpointed
+ * driver as InterestRunEngine. For each account with a RateBasedInterest strategy
+ * the day's interest is
+ * <pre>
+ *   basis * annual rate * yearFraction(last accrued day, business day)
+ * </pre>
+ * (for TieredInterest, the balance's annual tiered interest times the fraction;
+ * with interest features, twelve times Account.periodInterest times the fraction)
+ * and is added to the account's accrued-interest counter in place; the balance is
+ * untouched. Accounts that missed nights catch up over the whole gap, and an
+ * account never accrues the same day twice, so rerunning a night is harmless.
+ *
+ * On the last day of a month the accrued interest is capitalized: posted to the
+ * balance with Account.capitalizeAccruedInterest (credits for savings and
+ * investments, added debt for loans) and the counter is reset. Both the accrual
+ * and the capitalization of an account hold its AccountLocks stripe, as
+ * InterestRunEngine's postings do.
+ *
+ * Chunk summaries report accruals as postings; credited and charged are the
+ * amounts accrued (or capitalized) for non-loan and loan accounts.
+ */
+public class DailyAccrualEngine {
+
+    private final ChunkedRun chunks;
+    private final DayCountConvention convention;
+    private final AccountLocks locks;
+
+    public DailyAccrualEngine(DayCountConvention convention) {
+        this(ForkJoinPool.commonPool(), InterestRunEngine.DEFAULT_CHUNK_SIZE, null, convention);
+    }
+
+    /**
+     * @param pool Pool that runs the chunks
+     * @param chunkSize Number of accounts per chunk
+     * @param checkpointDirectory Directory for run checkpoints; null disables checkpointing
+     * @param convention Day count used to turn days into a fraction of the annual rate
+     */
+    public DailyAccrualEngine(ForkJoinPool pool, int chunkSize, Path checkpointDirectory,
+                              DayCountConvention convention) {
+        this(pool, chunkSize, checkpointDirectory, convention, AccountLocks.shared());
+    }
+
+    /**
+     * @param locks Locks held while accruing or capitalizing an account; must be the
+     *              ones the TransactionService working on the same accounts uses
+     */
+    public DailyAccrualEngine(ForkJoinPool pool, int chunkSize, Path checkpointDirectory,
+                              DayCountConvention convention, AccountLocks locks) {
+        this.chunks = new ChunkedRun(pool, chunkSize, checkpointDirectory);
+        this.convention = convention;
+        this.locks = locks;
+    }
+
+    /**
+     * Runs the end-of-day job: accrual, plus capitalization on the last day of a month
+     *
+     * @return The accrual result, followed by the capitalization result on month end
+     */
+    public List<InterestRunResult> runEndOfDay(LocalDate businessDate, AccountRepository repository,
+                                               InterestRunListener listener) throws IOException {
+        List<InterestRunResult> results = new ArrayList<>(2);
+        results.add(chunks.execute("accrual-" + businessDate, repository, accrual(businessDate), listener));
+        if (isCapitalizationDate(businessDate)) {
+            results.add(chunks.execute("capitalize-" + YearMonth.from(businessDate), repository,
+                    this::capitalizeChunk, listener));
+        }
+        return results;
+    }
+
+    public List<InterestRunResult> runEndOfDay(LocalDate businessDate, Collection<? extends Account> accounts,
+                                               InterestRunListener listener) throws IOException {
+        List<InterestRunResult> results = new ArrayList<>(2);
+        results.add(accrue(businessDate, accounts, listener));
+        if (isCapitalizationDate(businessDate)) {
+            results.add(capitalize(YearMonth.from(businessDate), accounts, listener));
+        }
+        return results;
+    }
+
+    public static boolean isCapitalizationDate(LocalDate date) {
+        return date.getDayOfMonth() == date.lengthOfMonth();
+    }
+
+    /**
+     * Accrues interest up to and including a business day (run id "accrual-YYYY-MM-DD")
+     */
+    public InterestRunResult accrue(LocalDate businessDate, Collection<? extends Account> accounts,
+                                    InterestRunListener listener) throws IOException {
+        return chunks.execute("accrual-" + businessDate, accounts, accrual(businessDate), listener);
+    }
+
+    private ChunkedRun.ChunkProcessor accrual(LocalDate businessDate) {
+        long epochDay = businessDate.toEpochDay();
+        // Almost every account was accrued yesterday; only catch-ups compute their own fraction
+        double oneDay = convention.yearFraction(businessDate.minusDays(1), businessDate);
+        return (runId, chunkIndex, chunk, from, to) ->
+                accrueChunk(runId, chunkIndex, chunk, from, to, epochDay, oneDay);
+    }
+
+    /**
+     * Posts the accrued interest of a month (run id "capitalize-YYYY-MM")
+     */
+    public InterestRunResult capitalize(YearMonth month, Collection<? extends Account> accounts,
+                                        InterestRunListener listener) throws IOException {
+        return chunks.execute("capitalize-" + month, accounts, this::capitalizeChunk, listener);
+    }
+
+    private InterestChunkSummary accrueChunk(String runId, int chunkIndex, Account[] accounts, int from, int to,
+                                             long epochDay, double oneDay) {
+        int n = to - from;
+        double[] amounts = new double[n];
+        double[] factors = new double[n];
+        boolean[] due = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Account account = accounts[from + i];
+            InterestStrategy strategy = account.getInterestStrategy();
+            long last = account.getLastAccrualEpochDay();
+            boolean rateBased = strategy instanceof RateBasedInterest;
+            if (!(rateBased || strategy instanceof TieredInterest) || last >= epochDay) continue;
+            due[i] = true;
+            double fraction = last == Long.MIN_VALUE || last == epochDay - 1
+                    ? oneDay
+                    : convention.yearFraction(LocalDate.ofEpochDay(last), LocalDate.ofEpochDay(epochDay));
+            if (account.hasInterestFeatures()) {
+                // Annualized monthly interest after the features, e.g. a premium bonus
+                amounts[i] = account.periodInterest() * 12;
+                factors[i] = fraction;
+            } else if (rateBased) {
+                RateBasedInterest rates = (RateBasedInterest) strategy;
+                amounts[i] = rates.interestBasis(account);
+                factors[i] = rates.getAnnualRate() * fraction;
+            } else {
+                amounts[i] = ((TieredInterest) strategy).annualInterest(account);
+                factors[i] = fraction;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            amounts[i] *= factors[i];
+        }
+
+        int accrued = 0;
+        double credited = 0.0;
+        double charged = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (!due[i]) continue;
+            Account account = accounts[from + i];
+            double amount = Math.max(0.0, amounts[i]);
+            boolean added;
+            locks.lock(account.getId());
+            try {
+                added = account.accrueInterest(epochDay, amount);
+            } finally {
+                locks.unlock(account.getId());
+            }
+            if (added) {
+                accrued++;
+                if (account.getKind() == AccountKind.LOAN) {
+                    charged += amount;
+                } else {
+                    credited += amount;
+                }
+            }
+        }
+        return new InterestChunkSummary(runId, chunkIndex, accounts[from].getId(), accounts[to - 1].getId(),
+                n, accrued, credited, charged);
+    }
+
+    private InterestChunkSummary capitalizeChunk(String runId, int chunkIndex, Account[] accounts,
+                                                 int from, int to) {
+        int postings = 0;
+        double credited = 0.0;
+        double charged = 0.0;
+        for (int i = from; i < to; i++) {
+            Account account = accounts[i];
+            double amount;
+            locks.lock(account.getId());
+            try {
+                amount = account.capitalizeAccruedInterest(runId);
+            } finally {
+                locks.unlock(account.getId());
+            }
+            if (amount > 0) {
+                postings++;
+                if (account.getKind() == AccountKind.LOAN) {
+                    charged += amount;
+                } else {
+                    credited += amount;
+                }
+            }
+        }
+        return new InterestChunkSummary(runId, chunkIndex, accounts[from].getId(), accounts[to - 1].getId(),
+                to - from, postings, credited, charged);
+    }
+
+    public DayCountConvention getConvention() {
+        return convention;
+    }
+}
@@ -0,0 +1,125 @@
+package bank.interest.run;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * InterestCheckpoint - Durable record of the chunks an interest run has posted
+ *
+ * File layout (big-endian), one file per run id:
+ * <pre>
+ *   header : int magic "INRC" | short version | short reserved | string runId
+ *   chunk  : int chunkIndex | long firstAccountId | long lastAccountId | int accounts
+ *            | int postings | double credited | double charged
+ *   string : short byteLength followed by UTF-8 bytes
+ * </pre>
+ * Each chunk record is forced to disk before the chunk is reported. A record cut
+ * short by a crash is ignored, so that chunk is processed again on resume; the
+ * per-account run marker (Account.postInterest) then prevents a second posting.
+ * The marker is persisted in the account's row together with the balance, so this
+ * also holds for accounts restored in a fresh process or paged back in: a row
+ * written after the posting carries the marker, and a row written before it
+ * carries neither the posting nor the marker.
+ */
+final class InterestCheckpoint implements Closeable {
+
+    static final int MAGIC = 0x494E5243; // "INRC"
+    static final short VERSION = 1;
+
+    private static final int CHUNK_RECORD_SIZE = 4 + 8 + 8 + 4 + 4 + 8 + 8;
+
+    private final FileChannel channel;
+    private final List<InterestChunkSummary> completed;
+
+    private InterestCheckpoint(FileChannel channel, List<InterestChunkSummary> completed) {
+        this.channel = channel;
+        this.completed = completed;
+    }
+
+    static Path fileFor(Path directory, String runId) {
+        return directory.resolve("interest-" + runId + ".ckpt");
+    }
+
+    /**
+     * Opens the checkpoint of a run, creating it when the run starts for the first time
+     */
+    static InterestCheckpoint open(Path directory, String runId) throws IOException {
+        Path path = fileFor(directory, runId);
+        List<InterestChunkSummary> completed = new ArrayList<>();
+        byte[] id = runId.getBytes(StandardCharsets.UTF_8);
+        int headerSize = 8 + 2 + id.length;
+        boolean exists = Files.exists(path) && Files.size(path) >= headerSize;
+        if (exists) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+                throw new IOException("Not an interest run checkpoint: " + path);
+            }
+            in.getShort();
+            byte[] stored = new byte[in.getShort()];
+            in.get(stored);
+            if (!runId.equals(new String(stored, StandardCharsets.UTF_8))) {
+                throw new IOException("Checkpoint " + path + " belongs to another run");
+            }
+            while (in.remaining() >= CHUNK_RECORD_SIZE) {
+                completed.add(new InterestChunkSummary(runId, in.getInt(), in.getLong(), in.getLong(),
+                        in.getInt(), in.getInt(), in.getDouble(), in.getDouble()));
+            }
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (exists) {
+            // Drop a torn tail so new records start on a record boundary
+            channel.truncate(headerSize + (long) completed.size() * CHUNK_RECORD_SIZE);
+            channel.position(channel.size());
+        } else {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(headerSize)
+                    .putInt(MAGIC).putShort(VERSION).putShort((short) 0).putShort((short) id.length).put(id);
+            header.flip();
+            writeFully(channel, header);
+            channel.force(true);
+        }
+        completed.sort(Comparator.comparingLong(InterestChunkSummary::getFirstAccountId));
+        return new InterestCheckpoint(channel, completed);
+    }
+
+    /**
+     * Gets the chunks completed before this checkpoint was opened, by account id
+     */
+    List<InterestChunkSummary> getCompleted() {
+        return completed;
+    }
+
+    synchronized void record(InterestChunkSummary chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_RECORD_SIZE)
+                .putInt(chunk.getChunkIndex())
+                .putLong(chunk.getFirstAccountId())
+                .putLong(chunk.getLastAccountId())
+                .putInt(chunk.getAccounts())
+                .putInt(chunk.getPostings())
+                .putDouble(chunk.getCredited())
+                .putDouble(chunk.getCharged());
+        buffer.flip();
+        writeFully(channel, buffer);
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
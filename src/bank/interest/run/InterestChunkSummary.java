@@ -0,0 +1,79 @@
+package bank.interest.run;
+
+/**
+ * InterestChunkSummary - Outcome of one chunk of an interest run
+ * Chunks cover contiguous account id ranges.
+ */
+public final class InterestChunkSummary {
+
+    private final String runId;
+    private final int chunkIndex;
+    private final long firstAccountId;
+    private final long lastAccountId;
+    private final int accounts;
+    private final int postings;
+    private final double credited;
+    private final double charged;
+
+    public InterestChunkSummary(String runId, int chunkIndex, long firstAccountId, long lastAccountId,
+                                int accounts, int postings, double credited, double charged) {
+        this.runId = runId;
+        this.chunkIndex = chunkIndex;
+        this.firstAccountId = firstAccountId;
+        this.lastAccountId = lastAccountId;
+        this.accounts = accounts;
+        this.postings = postings;
+        this.credited = credited;
+        this.charged = charged;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public long getFirstAccountId() {
+        return firstAccountId;
+    }
+
+    public long getLastAccountId() {
+        return lastAccountId;
+    }
+
+    /**
+     * Number of accounts in the chunk
+     */
+    public int getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * Number of accounts that received a posting
+     */
+    public int getPostings() {
+        return postings;
+    }
+
+    /**
+     * Interest paid out to savings and investment accounts
+     */
+    public double getCredited() {
+        return credited;
+    }
+
+    /**
+     * Interest charged to loan accounts
+     */
+    public double getCharged() {
+        return charged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Interest run %s chunk %d [%d..%d]: %d accounts, %d postings, credited $%.2f, charged $%.2f",
+                runId, chunkIndex, firstAccountId, lastAccountId, accounts, postings, credited, charged);
+    }
+}
@@ -0,0 +1,149 @@
+package bank.interest.run;
+
+import bank.accounts.Account;
+import bank.accounts.AccountKind;
+import bank.accounts.AccountLocks;
+import bank.accounts.repository.AccountRepository;
+import bank.interest.InterestStrategy;
+import bank.interest.RateBasedInterest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * InterestRunEngine - Month-end interest posting over a whole account set
+ *
+ * Accounts are cut into chunks (in id order when checkpointing) that run in
+ * parallel on a fork-join pool. Within a chunk the engine
+ * - reads each account's interest basis and monthly rate into primitive arrays,
+ * - computes all interest amounts in one loop, and
+ * - posts them with Account.postInterest, which skips the state messages,
+ *   console output and observer notifications of deposit. Each posting holds the
+ *   account's AccountLocks stripe, the lock transactions hold, so it never lands
+ *   between a transaction's checks and its effect.
+ * Each chunk then produces one InterestChunkSummary for the listener instead of
+ * one notification per account.
+ *
+ * With a checkpoint directory, every completed chunk is recorded (by account id
+ * range) before it is reported. Running the same run id again resumes: chunks
+ * already recorded are skipped, so an interrupted month-end run can simply be
+ * restarted without posting interest twice.
+ *
+ * Strategies that are not RateBasedInterest are evaluated per account through
+ * calculateInterest(Account); accounts with interest features (e.g. PremiumFeature)
+ * through Account.periodInterest, so the features apply as in calculateInterest.
+ */
+public class InterestRunEngine {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ChunkedRun chunks;
+    private final AccountLocks locks;
+
+    public InterestRunEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, null);
+    }
+
+    public InterestRunEngine(Path checkpointDirectory) {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, checkpointDirectory);
+    }
+
+    /**
+     * @param pool Pool that runs the chunks
+     * @param chunkSize Number of accounts per chunk
+     * @param checkpointDirectory Directory for run checkpoints; null disables checkpointing
+     */
+    public InterestRunEngine(ForkJoinPool pool, int chunkSize, Path checkpointDirectory) {
+        this(pool, chunkSize, checkpointDirectory, AccountLocks.shared());
+    }
+
+    /**
+     * @param locks Locks held while posting to an account; must be the ones the
+     *              TransactionService working on the same accounts uses
+     */
+    public InterestRunEngine(ForkJoinPool pool, int chunkSize, Path checkpointDirectory, AccountLocks locks) {
+        this.chunks = new ChunkedRun(pool, chunkSize, checkpointDirectory);
+        this.locks = locks;
+    }
+
+    /**
+     * Posts one period of interest to every account of a repository, acquiring each
+     * chunk's accounts while it is processed
+     */
+    public InterestRunResult run(String runId, AccountRepository repository, InterestRunListener listener)
+            throws IOException {
+        return chunks.execute(runId, repository, this::processChunk, listener);
+    }
+
+    public InterestRunResult run(String runId, Collection<? extends Account> accounts) throws IOException {
+        return run(runId, accounts, null);
+    }
+
+    /**
+     * Posts one period of interest to every account
+     *
+     * @param runId Identifier of the period, e.g. "2024-01"; letters, digits, '.', '_' and '-'
+     * @param accounts The accounts (null entries are ignored)
+     * @param listener Receives a summary per processed chunk; may be null
+     * @return The totals, including chunks resumed from the checkpoint
+     * @throws IOException if the checkpoint cannot be read or written
+     * @throws IllegalStateException if a chunk failed; completed chunks stay checkpointed
+     */
+    public InterestRunResult run(String runId, Collection<? extends Account> accounts,
+                                 InterestRunListener listener) throws IOException {
+        return chunks.execute(runId, accounts, this::processChunk, listener);
+    }
+
+    private InterestChunkSummary processChunk(String runId, int chunkIndex, Account[] accounts,
+                                              int from, int to) {
+        int n = to - from;
+        double[] interest = new double[n];
+        double[] rates = new double[n];
+        for (int i = 0; i < n; i++) {
+            Account account = accounts[from + i];
+            InterestStrategy strategy = account.getInterestStrategy();
+            if (strategy != null && account.hasInterestFeatures()) {
+                interest[i] = account.periodInterest();
+                rates[i] = 1.0;
+            } else if (strategy instanceof RateBasedInterest) {
+                RateBasedInterest rateBased = (RateBasedInterest) strategy;
+                interest[i] = rateBased.interestBasis(account);
+                rates[i] = rateBased.getMonthlyRate();
+            } else if (strategy != null) {
+                interest[i] = strategy.calculateInterest(account);
+                rates[i] = 1.0;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            interest[i] *= rates[i];
+        }
+
+        int postings = 0;
+        double credited = 0.0;
+        double charged = 0.0;
+        for (int i = 0; i < n; i++) {
+            double amount = interest[i];
+            if (amount <= 0) continue;
+            Account account = accounts[from + i];
+            boolean posted;
+            locks.lock(account.getId());
+            try {
+                posted = account.postInterest(runId, amount);
+            } finally {
+                locks.unlock(account.getId());
+            }
+            if (posted) {
+                postings++;
+                if (account.getKind() == AccountKind.LOAN) {
+                    charged += amount;
+                } else {
+                    credited += amount;
+                }
+            }
+        }
+
+        return new InterestChunkSummary(runId, chunkIndex, accounts[from].getId(), accounts[to - 1].getId(),
+                n, postings, credited, charged);
+    }
+}
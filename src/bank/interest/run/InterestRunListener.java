@@ -0,0 +1,10 @@
+package bank.interest.run;
+
+/**
+ * InterestRunListener - Receives one summary per completed chunk of an interest run
+ * Called from the engine's worker threads, after the chunk has been checkpointed.
+ */
+@FunctionalInterface
+public interface InterestRunListener {
+    void chunkCompleted(InterestChunkSummary summary);
+}
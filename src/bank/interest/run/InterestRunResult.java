@@ -0,0 +1,77 @@
+package bank.interest.run;
+
+import java.util.List;
+
+/**
+ * InterestRunResult - Totals of an interest run
+ * Chunks completed by an earlier, interrupted attempt of the same run are
+ * reported as resumed and are included in the totals.
+ */
+public final class InterestRunResult {
+
+    private final String runId;
+    private final List<InterestChunkSummary> chunks;
+    private final int resumedChunks;
+    private final long elapsedMillis;
+
+    InterestRunResult(String runId, List<InterestChunkSummary> chunks, int resumedChunks, long elapsedMillis) {
+        this.runId = runId;
+        this.chunks = chunks;
+        this.resumedChunks = resumedChunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Gets every chunk of the run, ordered by account id range
+     */
+    public List<InterestChunkSummary> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Number of chunks taken from the checkpoint instead of being processed
+     */
+    public int getResumedChunks() {
+        return resumedChunks;
+    }
+
+    public int getAccounts() {
+        int total = 0;
+        for (InterestChunkSummary chunk : chunks) total += chunk.getAccounts();
+        return total;
+    }
+
+    public int getPostings() {
+        int total = 0;
+        for (InterestChunkSummary chunk : chunks) total += chunk.getPostings();
+        return total;
+    }
+
+    public double getCredited() {
+        double total = 0.0;
+        for (InterestChunkSummary chunk : chunks) total += chunk.getCredited();
+        return total;
+    }
+
+    public double getCharged() {
+        double total = 0.0;
+        for (InterestChunkSummary chunk : chunks) total += chunk.getCharged();
+        return total;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Interest run %s: %d chunks (%d resumed), %d accounts, %d postings, "
+                        + "credited $%.2f, charged $%.2f in %d ms",
+                runId, chunks.size(), resumedChunks, getAccounts(), getPostings(), getCredited(), getCharged(),
+                elapsedMillis);
+    }
+}
@@ -0,0 +1,86 @@
+package bank.interest.test;
+
+import bank.accounts.Account;
+import bank.accounts.types.SavingAccount;
+import bank.interest.run.InterestRunEngine;
+import bank.interest.run.InterestRunResult;
+import bank.notifications.AccountEvent;
+import bank.notifications.Notifier;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InterestRunBenchmark - Month-end interest over a large savings book
+ * Compares calling calculateInterest() account by account (deposit path) with
+ * the chunked InterestRunEngine (no checkpointing), first on unobserved accounts
+ * and then with a notifier attached to every account.
+ *
+ * Usage: java -Xmx4g -cp bin bank.interest.test.InterestRunBenchmark [accounts]
+ * (defaults to 1,000,000 accounts)
+ */
+public class InterestRunBenchmark {
+
+    private static final PrintStream CONSOLE = System.out;
+    private static int runCounter;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // keep the per-operation trace out of the timings
+
+        List<Account> accounts = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            accounts.add(new SavingAccount("Bench" + i, 1000.0 + (i % 5000)));
+        }
+        InterestRunEngine engine = new InterestRunEngine();
+        CONSOLE.printf("Accounts: %,d%n", total);
+
+        compare("unobserved", accounts, engine);
+
+        LongAdder notifications = new LongAdder();
+        Notifier counter = new Notifier() {
+            @Override
+            public void update(String message) {
+                notifications.increment();
+            }
+
+            @Override
+            public void onEvent(AccountEvent event) {
+                notifications.increment();
+            }
+        };
+        for (Account account : accounts) {
+            account.attach(counter);
+        }
+        compare("observed", accounts, engine);
+        CONSOLE.printf("(%,d notifications delivered)%n", notifications.sum());
+    }
+
+    private static void compare(String label, List<Account> accounts, InterestRunEngine engine) throws Exception {
+        for (int warmup = 0; warmup < 5; warmup++) {
+            for (Account account : accounts) account.calculateInterest();
+            engine.run("warmup-" + runCounter++, accounts);
+        }
+
+        int runs = 5;
+        long perAccountNanos = 0;
+        long engineNanos = 0;
+        InterestRunResult last = null;
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            for (Account account : accounts) account.calculateInterest();
+            perAccountNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            last = engine.run("bench-" + runCounter++, accounts);
+            engineNanos += System.nanoTime() - start;
+        }
+
+        CONSOLE.printf("[%s] calculateInterest() per account : %,10.1f ms per run%n", label,
+                perAccountNanos / 1e6 / runs);
+        CONSOLE.printf("[%s] InterestRunEngine               : %,10.1f ms per run (%d chunks)%n", label,
+                engineNanos / 1e6 / runs, last.getChunks().size());
+    }
+}
@@ -5,7 +5,33 @@ import bank.accounts.types.InvestmentAccount;
 import bank.accounts.types.LoanAccount;
 import bank.accounts.types.SavingAccount;
 import bank.interest.InterestStrategy;
+import bank.interest.DayCountConvention;
+import bank.interest.MarketLinkedInterest;
 import bank.interest.SavingInterest;
+import bank.interest.TieredInterest;
+import bank.interest.amortization.AmortizationEngine;
+import bank.interest.amortization.AmortizationSchedule;
+import bank.interest.projection.MonteCarloProjector;
+import bank.interest.projection.ProjectionResult;
+import bank.interest.projection.QuantileSketch;
+import bank.interest.projection.ReturnModel;
+import bank.interest.run.DailyAccrualEngine;
+import bank.interest.run.InterestRunEngine;
+import bank.interest.rates.RateBook;
+import bank.interest.rates.RateFeed;
+import bank.interest.rates.RateTable;
+import bank.interest.rates.RateTiers;
+import bank.interest.rates.TierMode;
+import bank.interest.run.InterestRunResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
 
 public class InterestStrategyTest {
 
@@ -22,6 +48,11 @@ public class InterestStrategyTest {
         testInvestmentInterest();
         testRuntimeStrategySwitch();
         testMockStrategy();
+        testInterestRunResume();
+        testAmortizationSchedule();
+        testDailyAccrual();
+        testTieredAndMarketLinkedInterest();
+        testMonteCarloProjection();
 
         System.out.println("\n==========================================");
         System.out.println("TEST RESULTS");
@@ -157,4 +188,445 @@ public class InterestStrategyTest {
             testsFailed++;
         }
     }
+
+    private static void testInterestRunResume() {
+        System.out.println("\nTest 6: Batch Interest Run with Checkpoint Resume");
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("interest-run-test");
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                accounts.add(new SavingAccount("Saver" + i, 1200.0));
+            }
+            LoanAccount loan = new LoanAccount("Borrower", 1200.0, 5.0, 12);
+            accounts.add(loan);
+            
+            // One account fails mid-run, as a crash would
+            boolean[] failing = {true};
+            SavingAccount flaky = new SavingAccount("Flaky", 1200.0);
+            flaky.setInterestStrategy(account -> {
+                if (failing[0]) throw new IllegalStateException("rate service down");
+                return 10.0;
+            });
+            accounts.add(flaky);
+            
+            InterestRunEngine engine = new InterestRunEngine(new ForkJoinPool(2), 2, dir);
+            boolean failed = false;
+            try {
+                engine.run("2024-01", accounts);
+            } catch (IllegalStateException e) {
+                failed = true;
+            }
+            failing[0] = false;
+            InterestRunResult resumed = engine.run("2024-01", accounts);
+            InterestRunResult repeated = engine.run("2024-01", accounts);
+            
+            // 1200 * 0.03 / 12 = 3.0 per saver, 1200 * 5% / 12 = 5.0 owed on the loan
+            boolean balancesOk = accounts.get(0).getBalance() == 1203.0
+                    && Math.abs(loan.getBalance() + 1205.0) < 1e-9 && flaky.getBalance() == 1210.0;
+            
+            // Crash after posting but before the chunk record: rows persisted after the
+            // posting carry the run marker, so new Account objects are not posted again
+            Path rows = dir.resolve("accounts.snap");
+            bank.accounts.snapshot.AccountSnapshotWriter.write(rows, accounts.subList(0, 6));
+            Files.delete(dir.resolve("interest-2024-01.ckpt"));
+            List<Account> restarted = new ArrayList<>();
+            try (bank.accounts.snapshot.AccountSnapshot snapshot = bank.accounts.snapshot.AccountSnapshot.open(rows)) {
+                for (Account account : accounts.subList(0, 6)) {
+                    restarted.add(snapshot.load(account.getId()));
+                }
+            }
+            InterestRunResult afterCrash = engine.run("2024-01", restarted);
+            boolean crashSafe = afterCrash.getResumedChunks() == 0 && afterCrash.getPostings() == 0
+                    && restarted.get(0) != accounts.get(0) && restarted.get(0).getBalance() == 1203.0
+                    && "2024-01".equals(restarted.get(5).getLastInterestRunId());
+            
+            // A repository that pages accounts out keeps every posting of a run over it
+            bank.accounts.repository.TieredAccountRepository tiered =
+                    new bank.accounts.repository.TieredAccountRepository(1, 1);
+            for (Account account : accounts.subList(0, 5)) {
+                tiered.save(new SavingAccount(account.getAccountHolder(), 1200.0));
+            }
+            InterestRunResult paged = new InterestRunEngine(new ForkJoinPool(2), 2, null).run("2024-02", tiered, null);
+            double[] pagedTotal = new double[1];
+            tiered.forEach(account -> pagedTotal[0] += account.getBalance());
+            crashSafe &= paged.getPostings() == 5 && pagedTotal[0] == 5 * 1203.0 && tiered.getEvictionCount() > 0;
+            
+            // Interest features apply to batch runs as to calculateInterest: 3.0 plus a 10% premium bonus
+            SavingAccount premium = new SavingAccount("Premium", 1200.0);
+            premium.addFeature(new bank.accounts.features.PremiumFeature());
+            new InterestRunEngine(new ForkJoinPool(2), 2, null).run("2024-03", Collections.singletonList(premium));
+            boolean featuresApplied = Math.abs(premium.getBalance() - 1203.3) < 1e-9;
+            
+            // Postings wait for the account lock a transaction holds
+            bank.accounts.AccountLocks locks = new bank.accounts.AccountLocks(4);
+            SavingAccount busy = new SavingAccount("Busy", 1200.0);
+            InterestRunEngine locking = new InterestRunEngine(new ForkJoinPool(1), 2, null, locks);
+            locks.lock(busy.getId());
+            Thread run = new Thread(() -> {
+                try {
+                    locking.run("2024-04", Collections.singletonList(busy));
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            run.start();
+            run.join(200);
+            boolean waited = run.isAlive() && busy.getBalance() == 1200.0;
+            locks.unlock(busy.getId());
+            run.join(2000);
+            boolean locked = waited && !run.isAlive() && busy.getBalance() == 1203.0;
+            
+            if (failed && balancesOk && crashSafe && featuresApplied && locked
+                    && resumed.getChunks().size() == 4 && resumed.getResumedChunks() == 3
+                    && resumed.getPostings() == 7 && Math.abs(resumed.getCharged() - 5.0) < 1e-9
+                    && repeated.getResumedChunks() == 4) {
+                System.out.println("✅ Passed: Interest posted once across failure and resume: " + resumed);
+                testsPassed++;
+            } else {
+                System.out.println("❌ Failed: Unexpected run outcome " + resumed + " / " + repeated
+                        + ", balances ok: " + balancesOk + ", first run failed: " + failed
+                        + ", crash safe: " + crashSafe + ", features applied: " + featuresApplied
+                        + ", locked: " + locked);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Exception: " + e);
+            testsFailed++;
+        } finally {
+            if (dir != null) {
+                try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+                    files.forEach(f -> f.toFile().delete());
+                } catch (java.io.IOException ignored) {
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
+
+    private static void testAmortizationSchedule() {
+        System.out.println("\nTest 7: Cached Amortization Schedule");
+        try {
+            LoanAccount loan = new LoanAccount("Dana", 12000.0, 6.0, 12);
+            AmortizationEngine engine = new AmortizationEngine();
+            AmortizationSchedule schedule = engine.scheduleFor(loan);
+            
+            // One regular month: interest accrues, then the minimum payment is made
+            loan.calculateInterest();
+            loan.deposit(loan.getMinimumPayment());
+            double payoffOnPlan = engine.payoffQuote(loan);
+            double plannedBalance = schedule.getOpeningBalance(1);
+            
+            // An extra payment shortens the plan; only later periods are recomputed
+            double firstRowInterest = schedule.getInterest(0);
+            loan.makeExtraPayment(3000.0);
+            int remaining = engine.remainingPayments(loan);
+            double remainingInterest = engine.remainingInterest(loan);
+            double expectedInterest = 0.0;
+            for (int i = 1; i < schedule.getPeriods(); i++) {
+                expectedInterest += schedule.getInterest(i);
+            }
+            
+            boolean ok = Math.abs(schedule.getLevelPayment() - loan.getMinimumPayment()) < 1e-9
+                    && Math.abs(payoffOnPlan - plannedBalance) < 1e-9
+                    && Math.abs(plannedBalance - (12000.0 * 1.005 - schedule.getLevelPayment())) < 1e-6
+                    && engine.getBuildCount() == 1 && engine.getRebaseCount() == 1
+                    && schedule.getInterest(0) == firstRowInterest
+                    && remaining < 11 && remaining > 0
+                    && Math.abs(engine.payoffQuote(loan) - loan.getAmountOwed()) < 1e-9
+                    && Math.abs(remainingInterest - expectedInterest) < 1e-6
+                    && Math.abs(schedule.getClosingBalance(schedule.getPeriods() - 1)) < 1e-9;
+            if (ok) {
+                System.out.printf("✅ Passed: Extra payment cut the plan to %d payments, remaining interest $%.2f%n",
+                        remaining, remainingInterest);
+                testsPassed++;
+            } else {
+                System.out.println("❌ Failed: Schedule out of line with the loan (builds=" + engine.getBuildCount()
+                        + ", rebases=" + engine.getRebaseCount() + ", remaining=" + remaining + ")");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Exception: " + e);
+            testsFailed++;
+        }
+    }
+
+    private static void testDailyAccrual() {
+        System.out.println("\nTest 8: Daily Accrual with Month-End Capitalization");
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("accrual-test");
+            SavingAccount saver = new SavingAccount("Sam", 1000.0);
+            saver.setInterestStrategy(new SavingInterest(0.036));
+            LoanAccount loan = new LoanAccount("Lee", 12000.0, 6.0, 12);
+            List<Account> accounts = new ArrayList<>();
+            accounts.add(saver);
+            accounts.add(loan);
+            
+            DailyAccrualEngine engine = new DailyAccrualEngine(new ForkJoinPool(2), 1, dir,
+                                                               DayCountConvention.THIRTY_360);
+            double midMonthAccrued = 0.0;
+            int resumedOnRerun = -1;
+            for (LocalDate day = LocalDate.of(2024, 1, 1); day.getMonthValue() == 1; day = day.plusDays(1)) {
+                if (day.getDayOfMonth() == 20 || day.getDayOfMonth() == 21) continue; // missed nights
+                engine.runEndOfDay(day, accounts, null);
+                if (day.getDayOfMonth() == 15) {
+                    midMonthAccrued = saver.getAccruedInterest();
+                    resumedOnRerun = engine.runEndOfDay(day, accounts, null).get(0).getResumedChunks();
+                }
+            }
+            
+            // 30/360: a full month is 30 days, 1000 * 3.6% * 30 / 360 = 3.00
+            boolean conventions = DayCountConvention.THIRTY_360.days(LocalDate.of(2023, 2, 28),
+                                                                     LocalDate.of(2023, 3, 1)) == 3
+                    && DayCountConvention.ACT_365.days(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)) == 31;
+            double balanceAtMonthEnd = saver.getBalance();
+            double accruedAtMonthEnd = saver.getAccruedInterest();
+            long lastDayAccrued = saver.getLastAccrualEpochDay();
+            
+            // A monthly posting between capitalizations does not clear the capitalization marker,
+            // and both markers and the accrual survive a round trip through the account row
+            boolean monthlyPosted = saver.postInterest("2024-01", 1.0);
+            saver.accrueInterest(LocalDate.of(2024, 2, 1).toEpochDay(), 0.5);
+            boolean recapitalized = saver.capitalizeAccruedInterest("capitalize-2024-01") > 0;
+            Path rows = dir.resolve("accounts.snap");
+            bank.accounts.snapshot.AccountSnapshotWriter.write(rows, Collections.singletonList(saver));
+            Account restored;
+            try (bank.accounts.snapshot.AccountSnapshot snapshot = bank.accounts.snapshot.AccountSnapshot.open(rows)) {
+                restored = snapshot.load(saver.getId());
+            }
+            boolean markersKept = monthlyPosted && !recapitalized
+                    && restored.getAccruedInterest() == 0.5
+                    && restored.getLastAccrualEpochDay() == LocalDate.of(2024, 2, 1).toEpochDay()
+                    && "2024-01".equals(restored.getLastInterestRunId())
+                    && restored.capitalizeAccruedInterest("capitalize-2024-01") == 0.0
+                    && !restored.postInterest("2024-01", 1.0);
+            
+            
+            // A premium bonus raises the daily accrual too: 1000 * 3.6% * 1.1 / 360 a day
+            SavingAccount premium = new SavingAccount("Pia", 1000.0);
+            premium.setInterestStrategy(new SavingInterest(0.036));
+            premium.addFeature(new bank.accounts.features.PremiumFeature());
+            engine.runEndOfDay(LocalDate.of(2024, 3, 5), Collections.singletonList(premium), null);
+            boolean featuresApplied = Math.abs(premium.getAccruedInterest() - 0.11) < 1e-9;
+            
+            // Accrual and capitalization wait for the account lock a transaction holds
+            bank.accounts.AccountLocks locks = new bank.accounts.AccountLocks(4);
+            SavingAccount busy = new SavingAccount("Bo", 1000.0);
+            busy.setInterestStrategy(new SavingInterest(0.036));
+            DailyAccrualEngine locking = new DailyAccrualEngine(new ForkJoinPool(1), 1, null,
+                                                                DayCountConvention.THIRTY_360, locks);
+            locks.lock(busy.getId());
+            Thread run = new Thread(() -> {
+                try {
+                    locking.runEndOfDay(LocalDate.of(2024, 4, 30), Collections.singletonList(busy), null);
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+            run.start();
+            run.join(200);
+            boolean waited = run.isAlive() && busy.getAccruedInterest() == 0.0 && busy.getBalance() == 1000.0;
+            locks.unlock(busy.getId());
+            run.join(2000);
+            boolean locked = waited && !run.isAlive() && busy.getAccruedInterest() == 0.0
+                    && Math.abs(busy.getBalance() - 1000.1) < 1e-9;
+            
+            boolean ok = conventions && markersKept && featuresApplied && locked
+                    && Math.abs(midMonthAccrued - 1.5) < 1e-9
+                    && resumedOnRerun == 2 && accruedAtMonthEnd == 0.0
+                    && Math.abs(balanceAtMonthEnd - 1003.0) < 1e-9
+                    && Math.abs(loan.getAmountOwed() - 12060.0) < 1e-9
+                    && lastDayAccrued == LocalDate.of(2024, 1, 31).toEpochDay()
+                    && "capitalize-2024-01".equals(saver.getLastCapitalizationRunId());
+            if (ok) {
+                System.out.println("✅ Passed: Accrued daily and capitalized at month end: " + balanceAtMonthEnd);
+                testsPassed++;
+            } else {
+                System.out.println("❌ Failed: balance " + balanceAtMonthEnd + ", owed " + loan.getAmountOwed()
+                        + ", mid-month accrued " + midMonthAccrued + ", resumed " + resumedOnRerun
+                        + ", markers kept " + markersKept + ", features applied " + featuresApplied
+                        + ", locked " + locked);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Exception: " + e);
+            testsFailed++;
+        } finally {
+            if (dir != null) {
+                try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+                    files.forEach(f -> f.toFile().delete());
+                } catch (java.io.IOException ignored) {
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
+
+    private static void testTieredAndMarketLinkedInterest() {
+        System.out.println("\nTest 9: Tiered and Market-Linked Interest");
+        Path feedFile = null;
+        try {
+            double[] floors = {0.0, 10000.0, 50000.0};
+            double[] rates = {0.01, 0.02, 0.03};
+            SavingAccount rich = new SavingAccount("Rita", 60000.0);
+            // Marginal: 10000 * 1% + 40000 * 2% + 10000 * 3% = 1200 a year; whole balance: 60000 * 3% = 1800
+            TieredInterest marginal = new TieredInterest(new RateTiers(TierMode.MARGINAL, floors, rates));
+            TieredInterest whole = new TieredInterest(new RateTiers(TierMode.WHOLE_BALANCE, floors, rates));
+            boolean tiered = Math.abs(marginal.calculateInterest(rich) - 100.0) < 1e-9
+                    && Math.abs(whole.calculateInterest(rich) - 150.0) < 1e-9
+                    && new RateTiers(TierMode.MARGINAL, floors, rates).tierIndex(9999.99) == 0
+                    && new RateTiers(TierMode.MARGINAL, floors, rates).tierIndex(10000.0) == 1;
+            
+            feedFile = Files.createTempFile("rates", ".feed");
+            Files.write(feedFile, java.util.Arrays.asList("version 1", "product savings.market whole_balance",
+                    "0 0.024  # base rate"));
+            RateBook book = new RateBook();
+            RateFeed feed = new RateFeed(feedFile, book);
+            SavingAccount saver = new SavingAccount("Sid", 1000.0);
+            MarketLinkedInterest linked = new MarketLinkedInterest(book, "savings.market", RateTiers.flat(0.012));
+            double beforeFeed = linked.calculateInterest(saver);
+            feed.refresh();
+            double firstTable = linked.calculateInterest(saver);
+            
+            Files.write(feedFile, java.util.Arrays.asList("version 2", "product savings.market whole_balance",
+                    "0 0.036"));
+            Files.setLastModifiedTime(feedFile, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            feed.refresh();
+            double secondTable = linked.calculateInterest(saver);
+            
+            Files.write(feedFile, java.util.Arrays.asList("version 3", "product savings.market marginal",
+                    "5000 0.05", "0 0.01"));
+            Files.setLastModifiedTime(feedFile, FileTime.fromMillis(System.currentTimeMillis() + 4000));
+            boolean rejected = false;
+            try {
+                feed.refresh();
+            } catch (java.io.IOException expected) {
+                rejected = true;
+            }
+            boolean staleIgnored = !book.publish(new RateTable(1, Collections.singletonMap("savings.market",
+                    RateTiers.flat(0.5))));
+            double afterBadFeed = linked.calculateInterest(saver);
+            
+            // An edit without a version bump is reported, not silently dropped
+            Files.write(feedFile, java.util.Arrays.asList("version 2", "product savings.market whole_balance",
+                    "0 0.048"));
+            Files.setLastModifiedTime(feedFile, FileTime.fromMillis(System.currentTimeMillis() + 6000));
+            boolean sameVersionReported = false;
+            try {
+                feed.refresh();
+            } catch (java.io.IOException expected) {
+                sameVersionReported = true;
+            }
+            // An unversioned file takes the next version and is picked up on the next refresh
+            Files.write(feedFile, java.util.Arrays.asList("product savings.market whole_balance", "0 0.048"));
+            boolean unversioned = feed.refresh() && book.current().getVersion() == 3
+                    && Math.abs(linked.calculateInterest(saver) - 4.0) < 1e-9;
+            
+            // Readers racing a publisher only ever see one complete table or the other
+            AtomicInteger torn = new AtomicInteger();
+            RateTable low = new RateTable(10, Collections.singletonMap("savings.market",
+                    new RateTiers(TierMode.WHOLE_BALANCE, floors, new double[] {0.012, 0.012, 0.012})));
+            RateTable high = new RateTable(11, Collections.singletonMap("savings.market",
+                    new RateTiers(TierMode.WHOLE_BALANCE, floors, new double[] {0.024, 0.024, 0.024})));
+            book.publish(low);
+            Thread[] readers = new Thread[4];
+            for (int t = 0; t < readers.length; t++) {
+                readers[t] = new Thread(() -> {
+                    for (int i = 0; i < 200_000; i++) {
+                        double interest = linked.calculateInterest(saver);
+                        if (Math.abs(interest - 1.0) > 1e-9 && Math.abs(interest - 2.0) > 1e-9) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                });
+                readers[t].start();
+            }
+            book.publish(high);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            
+            boolean ok = tiered
+                    && Math.abs(beforeFeed - 1.0) < 1e-9
+                    && Math.abs(firstTable - 2.0) < 1e-9
+                    && Math.abs(secondTable - 3.0) < 1e-9
+                    && rejected && staleIgnored && Math.abs(afterBadFeed - 3.0) < 1e-9
+                    && sameVersionReported && unversioned
+                    && torn.get() == 0 && linked.getTableVersion() == 11;
+            if (ok) {
+                System.out.println("✅ Passed: Tiers and rate table updates applied: " + secondTable);
+                testsPassed++;
+            } else {
+                System.out.println("❌ Failed: tiered " + tiered + ", linked " + beforeFeed + "/" + firstTable + "/"
+                        + secondTable + "/" + afterBadFeed + ", rejected " + rejected + "/" + sameVersionReported
+                        + ", unversioned " + unversioned + ", torn " + torn.get());
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Exception: " + e);
+            testsFailed++;
+        } finally {
+            if (feedFile != null) {
+                feedFile.toFile().delete();
+            }
+        }
+    }
+
+    private static void testMonteCarloProjection() {
+        System.out.println("\nTest 10: Monte Carlo Projection");
+        try {
+            MonteCarloProjector projector = new MonteCarloProjector(new ForkJoinPool(2), 10_000, 2024L);
+            ReturnModel model = new ReturnModel(0.07, 0.15);
+            ProjectionResult lump = projector.project(1000.0, 0.0, 10, 200_000, model);
+            ProjectionResult again = projector.project(1000.0, 0.0, 10, 200_000, model);
+            ProjectionResult saving = projector.project(1000.0, 10.0, 10, 20_000, model);
+            
+            // Lognormal: median = 1000 * exp((ln 1.07 - 0.15^2 / 2) * 10)
+            // p5 and p95 = median * exp(-/+1.645 * 0.15 * sqrt(10))
+            double median = 1000.0 * Math.exp((Math.log(1.07) - 0.01125) * 10);
+            double spread = Math.exp(1.6449 * 0.15 * Math.sqrt(10));
+            boolean distribution = within(lump.getMedian(), median, 0.02)
+                    && within(lump.getP5(), median / spread, 0.02)
+                    && within(lump.getP95(), median * spread, 0.02)
+                    && within(lump.getMean(), 1000.0 * Math.pow(1.07, 10), 0.02);
+            boolean reproducible = again.getMedian() == lump.getMedian() && lump.getPaths() == 200_000;
+            boolean contributions = saving.getMedian() > lump.getMedian() + 1000.0;
+            
+            QuantileSketch left = new QuantileSketch();
+            QuantileSketch right = new QuantileSketch();
+            for (int i = 1; i <= 1000; i++) {
+                left.add(i);
+                right.add(1000 + i);
+            }
+            left.merge(right);
+            boolean sketch = left.getCount() == 2000 && within(left.quantile(0.5), 1000.0, 0.01)
+                    && within(left.quantile(0.95), 1900.0, 0.01);
+            
+            InvestmentAccount investor = new InvestmentAccount("Ivy", 5000.0);
+            investor.invest(2000.0);
+            List<Account> book = new ArrayList<>();
+            book.add(new SavingAccount("Sue", 1000.0));
+            book.add(investor);
+            List<ProjectionResult> batch = projector.projectAll(book, 10, 50_000, model, null);
+            boolean batchOk = batch.size() == 1 && batch.get(0).getAccountId() == investor.getId()
+                    && within(batch.get(0).getMedian(), investor.getInvestmentValue() / 1000.0 * median, 0.03);
+            
+            if (distribution && reproducible && contributions && sketch && batchOk) {
+                System.out.println("✅ Passed: " + lump);
+                testsPassed++;
+            } else {
+                System.out.println("❌ Failed: " + lump + ", reproducible " + reproducible + ", contributions "
+                        + contributions + ", sketch " + sketch + ", batch " + batch);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Exception: " + e);
+            testsFailed++;
+        }
+    }
+    
+    private static boolean within(double actual, double expected, double relativeTolerance) {
+        return Math.abs(actual - expected) <= Math.abs(expected) * relativeTolerance;
+    }
 }
@@ -0,0 +1,89 @@
+package bank.interest.test;
+
+import bank.accounts.Account;
+import bank.accounts.types.InvestmentAccount;
+import bank.interest.projection.MonteCarloProjector;
+import bank.interest.projection.ProjectionResult;
+import bank.interest.projection.QuantileSketch;
+import bank.interest.projection.ReturnModel;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ProjectionBenchmark - Monte Carlo projection throughput
+ * Projects one portfolio over 10 years without contributions (one lognormal draw
+ * per path) and with monthly contributions (120 steps per path), compares the
+ * streaming sketch with sorting the final values for percentiles, and runs the
+ * overnight batch over a book of investment accounts.
+ *
+ * Usage: java -Xmx4g -cp bin bank.interest.test.ProjectionBenchmark [paths] [accounts]
+ * (defaults to 1,000,000 paths and 10,000 accounts of 10,000 paths each)
+ */
+public class ProjectionBenchmark {
+
+    private static final PrintStream CONSOLE = System.out;
+    private static final int YEARS = 10;
+
+    public static void main(String[] args) {
+        long paths = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // keep the per-operation trace out of the timings
+        MonteCarloProjector projector = new MonteCarloProjector(42L);
+        CONSOLE.printf("Paths: %,d over %d years, %d cores%n", paths, YEARS,
+                Runtime.getRuntime().availableProcessors());
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            projector.project(100_000.0, 0.0, YEARS, Math.min(paths, 200_000), ReturnModel.DEFAULT);
+            projector.project(100_000.0, 500.0, YEARS, Math.min(paths, 20_000), ReturnModel.DEFAULT);
+        }
+        time("Lump sum (closed form)", () -> projector.project(100_000.0, 0.0, YEARS, paths, ReturnModel.DEFAULT),
+                paths);
+        time("Monthly contributions ", () -> projector.project(100_000.0, 500.0, YEARS, paths, ReturnModel.DEFAULT),
+                paths);
+
+        // Percentiles: streaming sketch vs. sorting every final value
+        int n = (int) Math.min(paths, Integer.MAX_VALUE - 8);
+        double[] values = new double[n];
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < n; i++) {
+            values[i] = 100_000.0 * Math.exp(0.5 + 0.47 * (random.nextDouble() * 2 - 1));
+        }
+        long start = System.nanoTime();
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(values, 0, n);
+        double sketchMedian = sketch.quantile(0.5);
+        long sketchNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double exactMedian = sorted[(int) (0.5 * (n - 1))];
+        long sortNanos = System.nanoTime() - start;
+        CONSOLE.printf("Sketch percentiles    : %,8d ms (median %.2f)%n", sketchNanos / 1_000_000, sketchMedian);
+        CONSOLE.printf("Sort percentiles      : %,8d ms (median %.2f, %,d bytes copied)%n",
+                sortNanos / 1_000_000, exactMedian, 8L * n);
+
+        List<Account> book = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            double invested = 10_000.0 + (i % 1000);
+            book.add(InvestmentAccount.restore(i + 1L, "Bench" + i, 10_000.0, invested, invested, 0.0,
+                    0L, 0L, null));
+        }
+        start = System.nanoTime();
+        List<ProjectionResult> results = projector.projectAll(book, YEARS, 10_000, ReturnModel.DEFAULT, null);
+        long batchMillis = (System.nanoTime() - start) / 1_000_000;
+        CONSOLE.printf("Overnight batch       : %,8d ms for %,d accounts x 10,000 paths (first: %s)%n",
+                batchMillis, results.size(), results.get(0));
+    }
+
+    private static void time(String label, java.util.function.Supplier<ProjectionResult> projection, long paths) {
+        long start = System.nanoTime();
+        ProjectionResult result = projection.get();
+        long nanos = System.nanoTime() - start;
+        CONSOLE.printf("%s: %,8d ms, %,.0f paths/s  %s%n", label, nanos / 1_000_000,
+                paths * 1e9 / nanos, result);
+    }
+}
@@ -0,0 +1,147 @@
+package bank.notifications;
+
+/**
+ * AccountEvent - Structured notification about a change to an account
+ * Carries the raw fields of the change; the human-readable message is only
+ * built when a notifier asks for it through render(), and then at most once
+ * per event. Accounts create events only when someone is listening.
+ */
+public final class AccountEvent {
+
+    private final AccountEventKind kind;
+    private final long accountId;
+    private final double amount;
+    private final double newBalance;
+    private final long timestampMillis;
+    private final long counterpartyId;
+    private final String stateName;
+
+    private String rendered;
+
+    private AccountEvent(AccountEventKind kind, long accountId, double amount, double newBalance,
+                         long timestampMillis, long counterpartyId, String stateName) {
+        this.kind = kind;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.newBalance = newBalance;
+        this.timestampMillis = timestampMillis;
+        this.counterpartyId = counterpartyId;
+        this.stateName = stateName;
+    }
+
+    public static AccountEvent deposit(long accountId, double amount, double newBalance, long timestampMillis) {
+        return new AccountEvent(AccountEventKind.DEPOSIT, accountId, amount, newBalance, timestampMillis, 0L, null);
+    }
+
+    public static AccountEvent withdrawal(long accountId, double amount, double newBalance, long timestampMillis) {
+        return new AccountEvent(AccountEventKind.WITHDRAWAL, accountId, amount, newBalance, timestampMillis, 0L, null);
+    }
+
+    public static AccountEvent overdraftWithdrawal(long accountId, double amount, double newBalance,
+                                                   long timestampMillis) {
+        return new AccountEvent(AccountEventKind.OVERDRAFT_WITHDRAWAL, accountId, amount, newBalance,
+                timestampMillis, 0L, null);
+    }
+
+    /**
+     * @param accountId The sending account
+     * @param targetAccountId The receiving account
+     * @param newBalance Balance of the sending account after the transfer
+     */
+    public static AccountEvent transferSent(long accountId, long targetAccountId, double amount, double newBalance,
+                                            long timestampMillis) {
+        return new AccountEvent(AccountEventKind.TRANSFER_SENT, accountId, amount, newBalance, timestampMillis,
+                targetAccountId, null);
+    }
+
+    /**
+     * @param accountId The receiving account
+     * @param sourceAccountId The sending account
+     * @param newBalance Balance of the receiving account after the transfer
+     */
+    public static AccountEvent transferReceived(long accountId, long sourceAccountId, double amount,
+                                                double newBalance, long timestampMillis) {
+        return new AccountEvent(AccountEventKind.TRANSFER_RECEIVED, accountId, amount, newBalance, timestampMillis,
+                sourceAccountId, null);
+    }
+
+    public static AccountEvent stateChanged(long accountId, String stateName, double balance, long timestampMillis) {
+        return new AccountEvent(AccountEventKind.STATE_CHANGED, accountId, 0.0, balance, timestampMillis, 0L,
+                stateName);
+    }
+
+    public AccountEventKind getKind() {
+        return kind;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the amount moved (0 for state changes)
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getNewBalance() {
+        return newBalance;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Gets the other account of a transfer (0 for other kinds)
+     */
+    public long getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    /**
+     * Gets the new state name of a state change (null for other kinds)
+     */
+    public String getStateName() {
+        return stateName;
+    }
+
+    /**
+     * Formats the event as the classic notification message
+     */
+    public String render() {
+        String text = rendered;
+        if (text == null) {
+            text = format();
+            rendered = text; // racy but benign: every thread computes the same immutable string
+        }
+        return text;
+    }
+
+    private String format() {
+        switch (kind) {
+            case DEPOSIT:
+                return "Successfully deposited " + amount + " to account " + accountId + ". New Balance: " + newBalance;
+            case WITHDRAWAL:
+                return "Successfully withdrew " + amount + " from account " + accountId + ". New Balance: " + newBalance;
+            case OVERDRAFT_WITHDRAWAL:
+                return "Overdraft withdrawal: " + amount + ". New Balance: " + newBalance;
+            case TRANSFER_SENT:
+                return "Successfully transferred " + amount + " from account " + accountId
+                        + " to account " + counterpartyId + ". New Balance: " + newBalance;
+            case TRANSFER_RECEIVED:
+                return "Received transfer of " + amount + " from account " + counterpartyId
+                        + ". New Balance: " + newBalance;
+            case STATE_CHANGED:
+                return "Account " + accountId + " state changed to: " + stateName;
+            default:
+                return kind + " on account " + accountId;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
@@ -0,0 +1,13 @@
+package bank.notifications;
+
+/**
+ * AccountEventKind - What happened to an account
+ */
+public enum AccountEventKind {
+    DEPOSIT,
+    WITHDRAWAL,
+    OVERDRAFT_WITHDRAWAL,
+    TRANSFER_SENT,
+    TRANSFER_RECEIVED,
+    STATE_CHANGED
+}
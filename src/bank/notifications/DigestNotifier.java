@@ -0,0 +1,161 @@
+package bank.notifications;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DigestNotifier - Coalescing Observer Decorator
+ * Wraps the notifier of one recipient (e.g. an EmailNotifier or SMSNotifier) and
+ * buffers incoming messages. The buffer is sent as a single digest when
+ * - the flush window has elapsed since the first buffered message, or
+ * - maxBatch messages are buffered.
+ * A message therefore waits at most one window before it is sent, and a busy
+ * recipient gets at most one delivery per window or per maxBatch messages.
+ * 
+ * Flushes are timed by one shared scheduler thread for all digest notifiers;
+ * a notifier only has a timer task scheduled while its buffer is non-empty.
+ * A digest of a single message is sent unchanged.
+ *
+ * Messages keep their arrival order, inside a digest and across digests: a flush
+ * takes the whole buffer and sends it before the next flush can take the
+ * messages that arrived since. close() sends what is still buffered; messages
+ * received after that are passed on without waiting for a window.
+ */
+public class DigestNotifier implements Notifier, AutoCloseable {
+    
+    private static final ScheduledExecutorService SHARED_SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "notification-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    
+    private final Notifier delegate;
+    private final long windowMillis;
+    private final int maxBatch;
+    private final ScheduledExecutorService scheduler;
+    
+    private List<String> buffer = new ArrayList<>(); // guarded by this
+    private ScheduledFuture<?> pendingFlush;         // guarded by this
+    private boolean closed;                          // guarded by this
+    // Held from taking a buffer until its digest is sent, so digests leave in order
+    private final Object sendLock = new Object();
+    
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+    
+    public DigestNotifier(Notifier delegate, Duration window, int maxBatch) {
+        this(delegate, window, maxBatch, SHARED_SCHEDULER);
+    }
+    
+    /**
+     * @param delegate The recipient's notifier that receives the digests
+     * @param window Maximum time a message is held before its digest is sent
+     * @param maxBatch Number of buffered messages that triggers an immediate flush
+     * @param scheduler Scheduler driving the window flushes
+     */
+    public DigestNotifier(Notifier delegate, Duration window, int maxBatch, ScheduledExecutorService scheduler) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+        }
+        this.delegate = delegate;
+        this.windowMillis = Math.max(1, window.toMillis());
+        this.maxBatch = maxBatch;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public void update(String message) {
+        received.incrementAndGet();
+        boolean full;
+        synchronized (this) {
+            buffer.add(message);
+            full = closed || buffer.size() >= maxBatch;
+            if (!full && pendingFlush == null) {
+                pendingFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+    
+    /**
+     * Sends whatever is buffered now
+     */
+    public void flush() {
+        synchronized (sendLock) {
+            List<String> ready;
+            synchronized (this) {
+                if (buffer.isEmpty()) {
+                    pendingFlush = null;
+                    return;
+                }
+                ready = takeBuffer();
+            }
+            send(ready);
+        }
+    }
+    
+    /**
+     * Cancels the window timer and sends the buffered messages
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+    
+    /**
+     * Must be called while holding the lock
+     */
+    private List<String> takeBuffer() {
+        List<String> ready = buffer;
+        buffer = new ArrayList<>();
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        return ready;
+    }
+    
+    private void send(List<String> messages) {
+        digestsSent.incrementAndGet();
+        if (messages.size() == 1) {
+            delegate.update(messages.get(0));
+            return;
+        }
+        StringBuilder digest = new StringBuilder(64 * messages.size());
+        digest.append("Digest of ").append(messages.size()).append(" notifications:");
+        for (String message : messages) {
+            digest.append("\n - ").append(message);
+        }
+        delegate.update(digest.toString());
+    }
+    
+    public Notifier getDelegate() {
+        return delegate;
+    }
+    
+    /**
+     * Gets the number of messages received
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+    
+    /**
+     * Gets the number of deliveries made to the wrapped notifier
+     */
+    public long getDigestsSent() {
+        return digestsSent.get();
+    }
+}
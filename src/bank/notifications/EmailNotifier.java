@@ -6,8 +6,29 @@ package bank.notifications;
  */
 public class EmailNotifier implements Notifier {
     
+    private final String recipient;
+    
+    public EmailNotifier() {
+        this(null);
+    }
+    
+    /**
+     * @param recipient Destination of the notifications (email address); may be null
+     */
+    public EmailNotifier(String recipient) {
+        this.recipient = recipient;
+    }
+    
+    public String getRecipient() {
+        return recipient;
+    }
+    
     @Override
     public void update(String message) {
-        System.out.println("[EMAIL] Notification sent: " + message);
+        if (recipient == null) {
+            System.out.println("[EMAIL] Notification sent: " + message);
+        } else {
+            System.out.println("[EMAIL] Notification sent to " + recipient + ": " + message);
+        }
     }
 }
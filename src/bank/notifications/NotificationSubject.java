@@ -1,16 +1,41 @@
 package bank.notifications;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * NotificationSubject - Observer Pattern
  * Represents the Subject that is observed by Notifiers.
  * Maintains a list of observers and notifies them of changes.
+ * 
+ * The observer list is a copy-on-write array: notifying reads one volatile
+ * snapshot without locking, while attach and detach publish a new array.
+ * Duplicate checks scan the array for small lists and use a hash set once
+ * INDEX_THRESHOLD observers are attached.
+ * 
+ * By default observers are notified synchronously on the calling thread. With a
+ * delivery executor set, each observer gets its own serial lane on that executor,
+ * shared with every other subject using the same executor: different observers
+ * are notified in parallel, while one observer, even one attached to many
+ * accounts, is never called concurrently and sees messages in notification order.
  */
 public class NotificationSubject {
     
-    private final List<Notifier> observers = new ArrayList<>();
+    /** Observer count from which duplicate checks use a hash set */
+    static final int INDEX_THRESHOLD = 8;
+    
+    private static final Registration[] NO_OBSERVERS = new Registration[0];
+    
+    private final Object observerLock = new Object();
+    private volatile Registration[] observers = NO_OBSERVERS;
+    private Set<Notifier> observerIndex; // guarded by observerLock, null below INDEX_THRESHOLD
+    private volatile Executor deliveryExecutor;
     
     /**
      * Attaches an observer to the subject
@@ -18,8 +43,26 @@ public class NotificationSubject {
      * @param observer The observer to attach
      */
     public void attach(Notifier observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
+        if (observer == null) {
+            return;
+        }
+        synchronized (observerLock) {
+            Registration[] current = observers;
+            if (indexOf(current, observer) >= 0) {
+                return;
+            }
+            Registration[] copy = new Registration[current.length + 1];
+            System.arraycopy(current, 0, copy, 0, current.length);
+            copy[current.length] = new Registration(observer);
+            if (observerIndex != null) {
+                observerIndex.add(observer);
+            } else if (copy.length >= INDEX_THRESHOLD) {
+                observerIndex = new HashSet<>();
+                for (Registration r : copy) {
+                    observerIndex.add(r.notifier);
+                }
+            }
+            observers = copy;
         }
     }
     
@@ -29,7 +72,73 @@ public class NotificationSubject {
      * @param observer The observer to detach
      */
     public void detach(Notifier observer) {
-        observers.remove(observer);
+        synchronized (observerLock) {
+            Registration[] current = observers;
+            int i = indexOf(current, observer);
+            if (i < 0) {
+                return;
+            }
+            Registration[] copy = new Registration[current.length - 1];
+            System.arraycopy(current, 0, copy, 0, i);
+            System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+            if (observerIndex != null) {
+                observerIndex.remove(observer);
+                if (copy.length < INDEX_THRESHOLD / 2) {
+                    observerIndex = null;
+                }
+            }
+            observers = copy.length == 0 ? NO_OBSERVERS : copy;
+        }
+    }
+    
+    /**
+     * Must be called with observerLock held
+     */
+    private int indexOf(Registration[] current, Notifier observer) {
+        if (observerIndex != null && !observerIndex.contains(observer)) {
+            return -1;
+        }
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].notifier.equals(observer)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Checks whether any observer is attached
+     */
+    public boolean hasObservers() {
+        return observers.length > 0;
+    }
+    
+    /**
+     * Gets the number of attached observers
+     */
+    public int getObserverCount() {
+        return observers.length;
+    }
+    
+    /**
+     * Adds the attached observers to a collection
+     * Lets callers that report on many subjects at once notify each distinct
+     * observer a single time.
+     */
+    public void collectObservers(Collection<? super Notifier> into) {
+        for (Registration r : observers) {
+            into.add(r.notifier);
+        }
+    }
+    
+    /**
+     * Switches between synchronous and parallel delivery
+     * 
+     * @param executor Executor running the per-observer delivery lanes (e.g.
+     *                 sharedDeliveryExecutor()), or null to notify on the calling thread
+     */
+    public void setDeliveryExecutor(Executor executor) {
+        this.deliveryExecutor = executor;
     }
     
     /**
@@ -38,8 +147,86 @@ public class NotificationSubject {
      * @param message The message to send to observers
      */
     public void notifyObservers(String message) {
-        for (Notifier observer : observers) {
-            observer.update(message);
+        Registration[] current = observers;
+        Executor executor = deliveryExecutor;
+        if (executor == null) {
+            for (Registration r : current) {
+                r.notifier.update(message);
+            }
+        } else {
+            for (Registration r : current) {
+                r.laneFor(executor).submit(r.notifier, message);
+            }
+        }
+    }
+    
+    /**
+     * Notifies all observers with a structured event
+     * Callers should check hasObservers() before creating the event, so that
+     * accounts nobody listens to allocate nothing.
+     * 
+     * @param event The event to deliver
+     */
+    public void notifyObservers(AccountEvent event) {
+        Registration[] current = observers;
+        Executor executor = deliveryExecutor;
+        if (executor == null) {
+            for (Registration r : current) {
+                r.notifier.onEvent(event);
+            }
+        } else {
+            for (Registration r : current) {
+                r.laneFor(executor).submit(r.notifier, event);
+            }
+        }
+    }
+    
+    /**
+     * Gets a process-wide daemon pool for parallel delivery, sized to the CPU count
+     */
+    public static Executor sharedDeliveryExecutor() {
+        return SharedDelivery.EXECUTOR;
+    }
+    
+    /**
+     * An attached observer and, in parallel mode, its delivery lane
+     */
+    private static final class Registration {
+        final Notifier notifier;
+        private volatile SerialLane lane;
+        
+        Registration(Notifier notifier) {
+            this.notifier = notifier;
+        }
+        
+        SerialLane laneFor(Executor executor) {
+            SerialLane current = lane;
+            if (current == null || current.getExecutor() != executor) {
+                synchronized (this) {
+                    current = lane;
+                    if (current == null || current.getExecutor() != executor) {
+                        current = SerialLane.of(notifier, executor);
+                        lane = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+    
+    private static final class SharedDelivery {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), new DaemonThreads());
+    }
+    
+    private static final class DaemonThreads implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "notification-delivery-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
@@ -11,4 +11,16 @@ public interface Notifier {
      * @param message The notification message
      */
     void update(String message);
+    
+    /**
+     * Receives a structured account event
+     * The default renders the event and passes the text to update, so message-based
+     * notifiers keep working; notifiers that only need the fields override this to
+     * skip formatting.
+     * 
+     * @param event The account event
+     */
+    default void onEvent(AccountEvent event) {
+        update(event.render());
+    }
 }
@@ -6,8 +6,29 @@ package bank.notifications;
  */
 public class SMSNotifier implements Notifier {
     
+    private final String recipient;
+    
+    public SMSNotifier() {
+        this(null);
+    }
+    
+    /**
+     * @param recipient Destination of the notifications (phone number); may be null
+     */
+    public SMSNotifier(String recipient) {
+        this.recipient = recipient;
+    }
+    
+    public String getRecipient() {
+        return recipient;
+    }
+    
     @Override
     public void update(String message) {
-        System.out.println("[SMS] Notification sent: " + message);
+        if (recipient == null) {
+            System.out.println("[SMS] Notification sent: " + message);
+        } else {
+            System.out.println("[SMS] Notification sent to " + recipient + ": " + message);
+        }
     }
 }
@@ -0,0 +1,87 @@
+package bank.notifications;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SerialLane - Delivers messages to one Notifier in order on a shared executor
+ * There is one lane per (notifier, executor), shared by every subject the notifier
+ * is attached to. At most one drain task per lane is queued or running at any
+ * time, so the notifier is never called concurrently and sees messages in
+ * submission order, while different notifiers run in parallel.
+ *
+ * The registry holds notifiers weakly and a lane refers to its notifier only while
+ * a drain is scheduled, so lanes of notifiers nobody uses any more are dropped.
+ */
+final class SerialLane implements Runnable {
+
+    // Messages drained per task before yielding the worker to other lanes
+    private static final int BATCH = 64;
+
+    // Guarded by itself
+    private static final Map<Executor, Map<Notifier, SerialLane>> LANES = new WeakHashMap<>();
+
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Set by whoever schedules a drain, cleared before the drain ends
+    private Notifier active;
+
+    private SerialLane(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the lane of a notifier on an executor, creating it on first use
+     */
+    static SerialLane of(Notifier notifier, Executor executor) {
+        synchronized (LANES) {
+            return LANES.computeIfAbsent(executor, e -> new WeakHashMap<>())
+                        .computeIfAbsent(notifier, n -> new SerialLane(executor));
+        }
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param notifier The notifier of this lane
+     * @param message A String message or an AccountEvent
+     */
+    void submit(Notifier notifier, Object message) {
+        pending.add(message);
+        if (scheduled.compareAndSet(false, true)) {
+            active = notifier;
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        Notifier notifier = active;
+        for (int i = 0; i < BATCH; i++) {
+            Object message = pending.poll();
+            if (message == null) break;
+            try {
+                if (message instanceof AccountEvent) {
+                    notifier.onEvent((AccountEvent) message);
+                } else {
+                    notifier.update((String) message);
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Error: Notifier " + notifier.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+        active = null;
+        scheduled.set(false);
+        // Reschedule if messages arrived after the last poll (or the batch was cut short)
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            active = notifier;
+            executor.execute(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package bank.notifications.outbox;
+
+import java.time.Duration;
+
+/**
+ * BackoffPolicy - Retry schedule for failed deliveries
+ * The delay doubles after every failed attempt, starting at initialDelay and
+ * capped at maxDelay. A message is dead-lettered after maxAttempts failures.
+ */
+public final class BackoffPolicy {
+
+    public static final BackoffPolicy DEFAULT =
+            new BackoffPolicy(Duration.ofSeconds(1), Duration.ofMinutes(5), 8);
+
+    private final long initialNanos;
+    private final long maxNanos;
+    private final int maxAttempts;
+
+    public BackoffPolicy(Duration initialDelay, Duration maxDelay, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is required: " + maxAttempts);
+        }
+        this.initialNanos = Math.max(0, initialDelay.toNanos());
+        this.maxNanos = Math.max(initialNanos, maxDelay.toNanos());
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Gets the delay before the next attempt
+     *
+     * @param failedAttempts Number of attempts that have failed so far (at least 1)
+     * @return The delay in nanoseconds
+     */
+    public long delayNanos(int failedAttempts) {
+        int shift = Math.min(failedAttempts - 1, 62);
+        if (initialNanos == 0 || initialNanos > (maxNanos >> shift)) {
+            return initialNanos == 0 ? 0 : maxNanos;
+        }
+        return initialNanos << shift;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,40 @@
+package bank.notifications.outbox;
+
+/**
+ * DeadLetter - A message the outbox gave up on, with the reason of its last failure
+ */
+public final class DeadLetter {
+
+    private final OutboxMessage message;
+    private final int attempts;
+    private final String lastError;
+    private final long deadAtMillis;
+
+    public DeadLetter(OutboxMessage message, int attempts, String lastError, long deadAtMillis) {
+        this.message = message;
+        this.attempts = attempts;
+        this.lastError = lastError;
+        this.deadAtMillis = deadAtMillis;
+    }
+
+    public OutboxMessage getMessage() {
+        return message;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getDeadAtMillis() {
+        return deadAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return message + " (after " + attempts + " attempts: " + lastError + ")";
+    }
+}
@@ -0,0 +1,155 @@
+package bank.notifications.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DeadLetterStore - Durable list of messages whose delivery was abandoned
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header : int magic "NTDL" | short version | short reserved
+ *   record : long sequence | long createdAtMillis | string channel | string recipient | string body
+ *            | int attempts | long deadAtMillis | string lastError
+ * </pre>
+ * Strings are encoded as in the outbox journal.
+ */
+public class DeadLetterStore implements Closeable {
+
+    static final int MAGIC = 0x4E54444C; // "NTDL"
+
+    private final Path path;
+    private FileChannel channel;
+    private final List<DeadLetter> letters; // guarded by this
+
+    public DeadLetterStore(Path path) throws IOException {
+        this.path = path;
+        this.letters = Files.exists(path) ? load(path) : new ArrayList<>();
+        boolean created = !Files.exists(path) || Files.size(path) == 0;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (created) {
+            OutboxJournal.writeFully(channel, OutboxJournal.header(MAGIC));
+        }
+    }
+
+    private static List<DeadLetter> load(Path path) throws IOException {
+        List<DeadLetter> loaded = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (!in.hasRemaining()) {
+            return loaded;
+        }
+        OutboxJournal.readHeader(in, MAGIC, path);
+        while (in.hasRemaining()) {
+            try {
+                long sequence = in.getLong();
+                long createdAt = in.getLong();
+                String channelName = OutboxJournal.getString(in);
+                String recipient = OutboxJournal.getString(in);
+                String body = OutboxJournal.getString(in);
+                OutboxMessage message = new OutboxMessage(sequence, channelName, recipient, body, createdAt);
+                int attempts = in.getInt();
+                long deadAt = in.getLong();
+                loaded.add(new DeadLetter(message, attempts, OutboxJournal.getString(in), deadAt));
+            } catch (BufferUnderflowException e) {
+                break; // torn tail from an interrupted append
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Records abandoned messages and forces them to disk
+     */
+    public synchronized void addAll(List<DeadLetter> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        for (DeadLetter letter : batch) {
+            OutboxJournal.writeFully(channel, encode(letter));
+        }
+        channel.force(false);
+        letters.addAll(batch);
+    }
+
+    private static ByteBuffer encode(DeadLetter letter) {
+        OutboxMessage m = letter.getMessage();
+        byte[] channelName = OutboxJournal.utf8(m.getChannel());
+        byte[] recipient = OutboxJournal.utf8(m.getRecipient());
+        byte[] body = OutboxJournal.utf8(m.getBody());
+        byte[] error = OutboxJournal.utf8(letter.getLastError());
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 + 16 + 4 + 8 + OutboxJournal.length(channelName)
+                + OutboxJournal.length(recipient) + OutboxJournal.length(body) + OutboxJournal.length(error));
+        buffer.putLong(m.getSequence()).putLong(m.getCreatedAtMillis());
+        OutboxJournal.putString(buffer, channelName);
+        OutboxJournal.putString(buffer, recipient);
+        OutboxJournal.putString(buffer, body);
+        buffer.putInt(letter.getAttempts()).putLong(letter.getDeadAtMillis());
+        OutboxJournal.putString(buffer, error);
+        buffer.flip();
+        return buffer;
+    }
+
+    public synchronized List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(letters);
+    }
+
+    public synchronized int size() {
+        return letters.size();
+    }
+
+    /**
+     * Removes and returns every dead letter, e.g. to enqueue them again
+     */
+    public synchronized List<DeadLetter> drain() throws IOException {
+        List<DeadLetter> drained = new ArrayList<>(letters);
+        channel.truncate(OutboxJournal.HEADER_SIZE);
+        letters.clear();
+        return drained;
+    }
+
+    /**
+     * Removes the given dead letters, e.g. once they have been enqueued again
+     * The file is replaced atomically, so a crash keeps either all or none of them.
+     */
+    public synchronized void remove(Collection<DeadLetter> removed) throws IOException {
+        if (removed.isEmpty()) return;
+        Set<DeadLetter> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        gone.addAll(removed);
+        List<DeadLetter> kept = new ArrayList<>(letters.size());
+        for (DeadLetter letter : letters) {
+            if (!gone.contains(letter)) kept.add(letter);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutboxJournal.writeFully(out, OutboxJournal.header(MAGIC));
+            for (DeadLetter letter : kept) {
+                OutboxJournal.writeFully(out, encode(letter));
+            }
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileChannel old = channel;
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        old.close();
+        letters.clear();
+        letters.addAll(kept);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,83 @@
+package bank.notifications.outbox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LocalSinkTransport - In-process stand-in for an SMTP or SMS gateway
+ * Accepts messages into memory so the outbox can be exercised without a real
+ * provider. Failures can be injected: a number of upcoming attempts can be made
+ * to fail temporarily, and recipients can be rejected permanently.
+ */
+public class LocalSinkTransport implements Transport {
+
+    private final String name;
+    private final List<OutboxMessage> delivered = new ArrayList<>(); // guarded by this
+    private final Set<String> rejected = new HashSet<>();            // guarded by this
+    private int failuresToInject;                                    // guarded by this
+    private long attempts;                                           // guarded by this
+    private long batches;                                            // guarded by this
+
+    public LocalSinkTransport(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public synchronized void send(OutboxMessage message) throws IOException {
+        attempts++;
+        if (rejected.contains(message.getRecipient())) {
+            throw new IOException("Recipient rejected by " + name + ": " + message.getRecipient());
+        }
+        if (failuresToInject > 0) {
+            failuresToInject--;
+            throw new IOException(name + " temporarily unavailable");
+        }
+        delivered.add(message);
+        System.out.println("[" + name + "] to " + message.getRecipient() + ": " + message.getBody());
+    }
+
+    /**
+     * Accepts a batch in one call, as a gateway with a bulk API would
+     */
+    @Override
+    public synchronized Exception[] send(List<OutboxMessage> messages) throws IOException {
+        batches++;
+        return Transport.super.send(messages);
+    }
+
+    /**
+     * Makes the next n delivery attempts fail
+     */
+    public synchronized void failNext(int n) {
+        failuresToInject = n;
+    }
+
+    /**
+     * Makes every delivery to a recipient fail
+     */
+    public synchronized void reject(String recipient) {
+        rejected.add(recipient);
+    }
+
+    public synchronized List<OutboxMessage> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+
+    public synchronized long getAttemptCount() {
+        return attempts;
+    }
+
+    /**
+     * Gets the number of batch sends the outbox made
+     */
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,323 @@
+package bank.notifications.outbox;
+
+import bank.common.Clocks;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NotificationOutbox - Durable, batched delivery of notifications
+ *
+ * Messages are appended to a journal file in the order they are enqueued and are
+ * forced to disk before enqueue returns, so a notification produced by a
+ * transaction survives a crash or a transport outage. Delivery workers take the
+ * due messages in batches of up to batchSize and hand the messages of each channel
+ * to its registered Transport with one batch send; the outcomes of a batch are
+ * journaled with one write.
+ *
+ * A failed attempt is retried after an exponential backoff (see BackoffPolicy);
+ * after the last allowed attempt the message is moved to the dead-letter store
+ * next to the journal ("<journal>.dead"). Messages still pending when the outbox
+ * is closed are delivered after it is reopened.
+ *
+ * With a single worker messages are attempted in enqueue order; retries and
+ * several workers can reorder them.
+ */
+public class NotificationOutbox implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final long POLL_MILLIS = 100;
+
+    private final OutboxJournal journal;
+    private final DeadLetterStore deadLetters;
+    private final BackoffPolicy backoff;
+    private final int batchSize;
+    private final Thread[] workers;
+    private final Map<String, Transport> transports = new ConcurrentHashMap<>();
+    private final DelayQueue<Entry> due = new DelayQueue<>();
+
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean running;
+    private volatile long startedNanos; // 0 until started
+
+    public NotificationOutbox(Path journalFile) throws IOException {
+        this(journalFile, BackoffPolicy.DEFAULT, DEFAULT_BATCH_SIZE, 1);
+    }
+
+    /**
+     * @param journalFile Journal to open or create; pending messages in it are recovered
+     * @param backoff Retry schedule for failed deliveries
+     * @param batchSize Maximum number of messages a worker takes at once
+     * @param workerCount Number of delivery threads
+     */
+    public NotificationOutbox(Path journalFile, BackoffPolicy backoff, int batchSize, int workerCount)
+            throws IOException {
+        if (batchSize < 1 || workerCount < 1) {
+            throw new IllegalArgumentException("Batch size and worker count must be positive");
+        }
+        this.backoff = backoff;
+        this.batchSize = batchSize;
+        this.journal = OutboxJournal.open(journalFile);
+        this.deadLetters = new DeadLetterStore(journalFile.resolveSibling(journalFile.getFileName() + ".dead"));
+        for (OutboxMessage message : journal.getRecovered()) {
+            accept(message);
+        }
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::runWorker, "notification-outbox-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * Registers the transport for a channel, replacing any previous one
+     */
+    public void registerTransport(String channel, Transport transport) {
+        transports.put(channel, transport);
+    }
+
+    /**
+     * Starts the delivery workers
+     * Messages can be enqueued before; they wait in the journal until then.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        startedNanos = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Appends a message to the journal and schedules it for delivery
+     *
+     * @return The message as recorded, with its sequence number
+     * @throws IOException if the message could not be made durable
+     */
+    public OutboxMessage enqueue(String channel, String recipient, String body) throws IOException {
+        OutboxMessage message;
+        synchronized (journal) {
+            message = new OutboxMessage(journal.nextSequence(), channel, recipient, body, Clocks.get().millis());
+            journal.appendEnqueued(message);
+        }
+        accept(message);
+        return message;
+    }
+
+    private void accept(OutboxMessage message) {
+        enqueued.increment();
+        backlog.incrementAndGet();
+        due.add(new Entry(message, System.nanoTime()));
+    }
+
+    /**
+     * Enqueues every dead letter again with a fresh attempt budget
+     * A letter leaves the dead-letter store only after it is durable in the journal;
+     * if enqueueing fails, the letters not yet enqueued stay dead-lettered.
+     *
+     * @return The number of messages enqueued
+     */
+    public int retryDeadLetters() throws IOException {
+        List<DeadLetter> letters = deadLetters.getDeadLetters();
+        List<DeadLetter> requeued = new ArrayList<>(letters.size());
+        try {
+            for (DeadLetter letter : letters) {
+                OutboxMessage m = letter.getMessage();
+                enqueue(m.getChannel(), m.getRecipient(), m.getBody());
+                requeued.add(letter);
+            }
+        } finally {
+            deadLetters.remove(requeued);
+        }
+        return requeued.size();
+    }
+
+    public DeadLetterStore getDeadLetters() {
+        return deadLetters;
+    }
+
+    /**
+     * Waits until every accepted message has been delivered or dead-lettered
+     *
+     * @return true if the backlog drained within the timeout
+     */
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (backlog) {
+            while (backlog.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(backlog, remaining);
+            }
+        }
+        return true;
+    }
+
+    public OutboxMetrics getMetrics() {
+        long done = delivered.sum();
+        long started = startedNanos;
+        double seconds = started == 0L ? 0.0 : (System.nanoTime() - started) / 1e9;
+        return new OutboxMetrics(enqueued.sum(), done, retries.sum(), deadLettered.sum(), batches.sum(),
+                backlog.get(), seconds > 0 ? done / seconds : 0.0);
+    }
+
+    /**
+     * Stops the workers after their current batch and closes the files
+     * Undelivered messages stay in the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            running = false;
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        synchronized (journal) {
+            journal.close();
+        }
+        deadLetters.close();
+    }
+
+    // ============ DELIVERY ============
+
+    private void runWorker() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Entry first = due.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                due.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Entry> batch) {
+        List<OutboxMessage> sent = new ArrayList<>(batch.size());
+        List<OutboxMessage> abandoned = new ArrayList<>();
+        List<DeadLetter> letters = new ArrayList<>();
+        List<Entry> retry = new ArrayList<>();
+        Map<String, List<Entry>> byChannel = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            byChannel.computeIfAbsent(entry.message.getChannel(), c -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<String, List<Entry>> group : byChannel.entrySet()) {
+            List<Entry> entries = group.getValue();
+            List<OutboxMessage> messages = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                messages.add(entry.message);
+            }
+            Transport transport = transports.get(group.getKey());
+            Exception[] failures;
+            try {
+                if (transport == null) {
+                    throw new IOException("No transport for channel " + group.getKey());
+                }
+                failures = transport.send(messages);
+                if (failures.length != messages.size()) {
+                    throw new IllegalStateException("Transport returned " + failures.length + " results for "
+                            + messages.size() + " messages");
+                }
+            } catch (IOException | RuntimeException e) {
+                failures = new Exception[entries.size()];
+                Arrays.fill(failures, e);
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                Exception failure = failures[i];
+                if (failure == null) {
+                    sent.add(entry.message);
+                    continue;
+                }
+                entry.attempts++;
+                if (entry.attempts >= backoff.getMaxAttempts()) {
+                    abandoned.add(entry.message);
+                    letters.add(new DeadLetter(entry.message, entry.attempts, String.valueOf(failure.getMessage()),
+                            Clocks.get().millis()));
+                } else {
+                    entry.dueNanos = System.nanoTime() + backoff.delayNanos(entry.attempts);
+                    retry.add(entry);
+                }
+            }
+        }
+        try {
+            // Dead letters are made durable before the journal forgets the messages
+            deadLetters.addAll(letters);
+            synchronized (journal) {
+                journal.appendOutcomes(sent, abandoned);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Notification outbox journal write failed: " + e.getMessage());
+        }
+        due.addAll(retry);
+        batches.increment();
+        delivered.add(sent.size());
+        deadLettered.add(abandoned.size());
+        retries.add(retry.size());
+        int completed = sent.size() + abandoned.size();
+        if (completed > 0 && backlog.addAndGet(-completed) == 0) {
+            synchronized (backlog) {
+                backlog.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A pending message with its retry state
+     */
+    private static final class Entry implements Delayed {
+        final OutboxMessage message;
+        long dueNanos;
+        int attempts;
+
+        Entry(OutboxMessage message, long dueNanos) {
+            this.message = message;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            Entry o = (Entry) other;
+            int byDue = Long.compare(dueNanos, o.dueNanos);
+            return byDue != 0 ? byDue : Long.compare(message.getSequence(), o.message.getSequence());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package bank.notifications.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OutboxJournal - Append-only file behind the NotificationOutbox
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header   : int magic "NTOB" | short version | short reserved
+ *   enqueued : byte 1 | long sequence | long createdAtMillis | string channel | string recipient | string body
+ *   outcome  : byte 2 (delivered) or 3 (dead-lettered) | long sequence
+ *   string   : int byteLength (-1 for null) followed by UTF-8 bytes
+ * </pre>
+ * Enqueued records are forced to disk before enqueue returns; outcome records are
+ * not, so after a crash a message may be delivered again (at-least-once).
+ *
+ * Opening replays the file and rewrites it with only the pending messages. A record
+ * cut short by a crash, i.e. one that runs past the end of the file, is dropped;
+ * anything else that does not parse fails the open, so a damaged record in the
+ * middle never silently discards the records after it. While open, the file is rewritten the same way
+ * once the settled messages reach COMPACT_THRESHOLD and outnumber the pending ones,
+ * so its size follows the backlog rather than the total traffic.
+ */
+final class OutboxJournal implements Closeable {
+
+    static final int MAGIC = 0x4E544F42; // "NTOB"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    private static final byte ENQUEUED = 1;
+    private static final byte DELIVERED = 2;
+    private static final byte DEAD = 3;
+
+    /** Settled messages in the file from which it is compacted at runtime */
+    static final int COMPACT_THRESHOLD = 1024;
+
+    private final Path path;
+    private final List<OutboxMessage> recovered;
+    private final Map<Long, OutboxMessage> pending;
+    private FileChannel channel;
+    private long nextSequence;
+    private int settled; // outcome records since the last rewrite
+
+    private OutboxJournal(Path path, FileChannel channel, Map<Long, OutboxMessage> pending, long nextSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.pending = pending;
+        this.recovered = new ArrayList<>(pending.values());
+        this.nextSequence = nextSequence;
+    }
+
+    /**
+     * Opens (or creates) a journal, compacting it to its pending messages
+     */
+    static OutboxJournal open(Path path) throws IOException {
+        Map<Long, OutboxMessage> pending = new LinkedHashMap<>();
+        long lastSequence = 0;
+        if (Files.exists(path)) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+            readHeader(in, MAGIC, path);
+            while (in.hasRemaining()) {
+                int start = in.position();
+                try {
+                    byte kind = in.get();
+                    long sequence = in.getLong();
+                    if (kind == ENQUEUED) {
+                        long createdAt = in.getLong();
+                        String channel = getString(in);
+                        String recipient = getString(in);
+                        String body = getString(in);
+                        pending.put(sequence, new OutboxMessage(sequence, channel, recipient, body, createdAt));
+                    } else if (kind == DELIVERED || kind == DEAD) {
+                        pending.remove(sequence);
+                    } else {
+                        throw new IOException("Corrupt outbox journal " + path + " at offset " + start);
+                    }
+                    lastSequence = Math.max(lastSequence, sequence);
+                } catch (BufferUnderflowException e) {
+                    // Every read is bounds-checked against the whole file, so this is the end of it
+                    break; // torn tail from an interrupted append
+                }
+            }
+        }
+
+        rewrite(path, pending.values());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new OutboxJournal(path, channel, pending, lastSequence + 1);
+    }
+
+    /**
+     * Replaces the file with a header and the given messages through a temporary file
+     */
+    private static void rewrite(Path path, Collection<OutboxMessage> messages) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header(MAGIC));
+            for (OutboxMessage message : messages) {
+                writeFully(out, encode(message));
+            }
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the messages that were pending when the journal was opened, in sequence order
+     */
+    List<OutboxMessage> getRecovered() {
+        return recovered;
+    }
+
+    long nextSequence() {
+        return nextSequence++;
+    }
+
+    /**
+     * Appends a new message and forces it to disk
+     */
+    void appendEnqueued(OutboxMessage message) throws IOException {
+        writeFully(channel, encode(message));
+        channel.force(false);
+        pending.put(message.getSequence(), message);
+    }
+
+    /**
+     * Appends the outcomes of one delivery batch in a single write
+     */
+    void appendOutcomes(Collection<OutboxMessage> delivered, Collection<OutboxMessage> dead) throws IOException {
+        int count = delivered.size() + dead.size();
+        if (count == 0) return;
+        ByteBuffer buffer = ByteBuffer.allocate(count * 9);
+        for (OutboxMessage message : delivered) {
+            buffer.put(DELIVERED).putLong(message.getSequence());
+        }
+        for (OutboxMessage message : dead) {
+            buffer.put(DEAD).putLong(message.getSequence());
+        }
+        buffer.flip();
+        writeFully(channel, buffer);
+        for (OutboxMessage message : delivered) {
+            pending.remove(message.getSequence());
+        }
+        for (OutboxMessage message : dead) {
+            pending.remove(message.getSequence());
+        }
+        settled += count;
+        if (settled >= COMPACT_THRESHOLD && settled >= pending.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the file with the pending messages only
+     * The old file stays open for appends until the new one has replaced it.
+     */
+    private void compact() throws IOException {
+        rewrite(path, pending.values());
+        FileChannel old = channel;
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        old.close();
+        settled = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer encode(OutboxMessage message) {
+        byte[] channelName = utf8(message.getChannel());
+        byte[] recipient = utf8(message.getRecipient());
+        byte[] body = utf8(message.getBody());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 12 + length(channelName) + length(recipient) + length(body));
+        buffer.put(ENQUEUED).putLong(message.getSequence()).putLong(message.getCreatedAtMillis());
+        putString(buffer, channelName);
+        putString(buffer, recipient);
+        putString(buffer, body);
+        buffer.flip();
+        return buffer;
+    }
+
+    // ============ SHARED ENCODING HELPERS ============
+
+    static ByteBuffer header(int magic) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(magic).putShort(VERSION).putShort((short) 0);
+        header.flip();
+        return header;
+    }
+
+    static void readHeader(ByteBuffer in, int magic, Path path) throws IOException {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != magic) {
+            throw new IOException("Not a notification outbox file: " + path);
+        }
+        short version = in.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported outbox file version " + version + ": " + path);
+        }
+        in.getShort();
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return The UTF-8 bytes of a string, or null for a null string
+     */
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Reads a string
+     *
+     * @throws BufferUnderflowException if the string runs past the end of the buffer
+     * @throws IOException if the length is not a valid string length
+     */
+    static String getString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt string length " + length + " at offset " + (in.position() - 4));
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
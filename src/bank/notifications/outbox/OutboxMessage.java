@@ -0,0 +1,50 @@
+package bank.notifications.outbox;
+
+/**
+ * OutboxMessage - A notification accepted by the NotificationOutbox
+ * Sequence numbers are assigned in enqueue order and are unique within a journal.
+ */
+public final class OutboxMessage {
+
+    private final long sequence;
+    private final String channel;
+    private final String recipient;
+    private final String body;
+    private final long createdAtMillis;
+
+    public OutboxMessage(long sequence, String channel, String recipient, String body, long createdAtMillis) {
+        this.sequence = sequence;
+        this.channel = channel;
+        this.recipient = recipient;
+        this.body = body;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the transport channel, e.g. "EMAIL" or "SMS"
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + channel + " -> " + recipient + ": " + body;
+    }
+}
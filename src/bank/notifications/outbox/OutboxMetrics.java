@@ -0,0 +1,79 @@
+package bank.notifications.outbox;
+
+/**
+ * OutboxMetrics - Point-in-time counters of a NotificationOutbox
+ */
+public final class OutboxMetrics {
+
+    private final long enqueued;
+    private final long delivered;
+    private final long retries;
+    private final long deadLettered;
+    private final long batches;
+    private final int backlog;
+    private final double deliveriesPerSecond;
+
+    OutboxMetrics(long enqueued, long delivered, long retries, long deadLettered, long batches, int backlog,
+                  double deliveriesPerSecond) {
+        this.enqueued = enqueued;
+        this.delivered = delivered;
+        this.retries = retries;
+        this.deadLettered = deadLettered;
+        this.batches = batches;
+        this.backlog = backlog;
+        this.deliveriesPerSecond = deliveriesPerSecond;
+    }
+
+    /**
+     * Messages accepted since the outbox was opened (including recovered ones)
+     */
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Failed attempts that were scheduled for another try
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getDeadLettered() {
+        return deadLettered;
+    }
+
+    /**
+     * Number of batches the workers have processed
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Messages neither delivered nor dead-lettered yet (waiting, in flight or backing off)
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Average delivery throughput since the workers were started
+     */
+    public double getDeliveriesPerSecond() {
+        return deliveriesPerSecond;
+    }
+
+    public double getAverageBatchSize() {
+        return batches == 0 ? 0.0 : (double) (delivered + retries + deadLettered) / batches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("enqueued=%d, delivered=%d, retries=%d, dead=%d, backlog=%d, batches=%d, rate=%.1f/s",
+                enqueued, delivered, retries, deadLettered, backlog, batches, deliveriesPerSecond);
+    }
+}
@@ -0,0 +1,44 @@
+package bank.notifications.outbox;
+
+import bank.notifications.Notifier;
+import java.io.IOException;
+
+/**
+ * OutboxNotifier - Observer that hands notifications to a NotificationOutbox
+ * Attach it to an account instead of an EmailNotifier or SMSNotifier to get
+ * durable delivery with retries.
+ */
+public class OutboxNotifier implements Notifier {
+
+    private final NotificationOutbox outbox;
+    private final String channel;
+    private final String recipient;
+
+    /**
+     * @param outbox The outbox to enqueue into
+     * @param channel Channel of the registered transport, e.g. "EMAIL"
+     * @param recipient Address or phone number of the recipient
+     */
+    public OutboxNotifier(NotificationOutbox outbox, String channel, String recipient) {
+        this.outbox = outbox;
+        this.channel = channel;
+        this.recipient = recipient;
+    }
+
+    @Override
+    public void update(String message) {
+        try {
+            outbox.enqueue(channel, recipient, message);
+        } catch (IOException e) {
+            System.out.println("Error: Could not queue notification for " + recipient + ": " + e.getMessage());
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+}
@@ -0,0 +1,39 @@
+package bank.notifications.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Transport - Delivers outbox messages over one channel (SMTP gateway, SMS provider, ...)
+ * Implementations are called from the outbox delivery workers. Throwing marks the
+ * attempt as failed; the outbox then retries with backoff or dead-letters the message.
+ */
+public interface Transport {
+
+    /**
+     * Delivers one message
+     *
+     * @throws IOException if the message was not accepted
+     */
+    void send(OutboxMessage message) throws IOException;
+
+    /**
+     * Delivers a batch of messages of this transport's channel, in order
+     * The outbox hands each delivery batch over with one call; gateways with a bulk
+     * API override this to submit it in one request. The default sends one by one.
+     *
+     * @return For each message, null if it was accepted or the exception that rejected it
+     * @throws IOException if the whole batch was not accepted
+     */
+    default Exception[] send(List<OutboxMessage> messages) throws IOException {
+        Exception[] failures = new Exception[messages.size()];
+        for (int i = 0; i < failures.length; i++) {
+            try {
+                send(messages.get(i));
+            } catch (IOException | RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+        return failures;
+    }
+}
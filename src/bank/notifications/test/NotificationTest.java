@@ -49,6 +49,13 @@ public class NotificationTest {
         allTestsPassed &= testDetachObserver();
         allTestsPassed &= testStateChangeNotification();
         allTestsPassed &= testTransferNotification();
+        allTestsPassed &= testConcurrentRegistry();
+        allTestsPassed &= testParallelFanOutKeepsOrder();
+        allTestsPassed &= testDigestCoalescing();
+        allTestsPassed &= testTypedEvents();
+        allTestsPassed &= testEventBusRouting();
+        allTestsPassed &= testDurableOutbox();
+        allTestsPassed &= testSharedObserverIsSerialized();
         
         if (allTestsPassed) {
             System.out.println("\n✅ ALL NOTIFICATION TESTS PASSED");
@@ -220,4 +227,454 @@ public class NotificationTest {
             return false;
         }
     }
+
+    private static boolean testConcurrentRegistry() {
+        System.out.println("\nTest 6: Concurrent Attach/Detach While Notifying");
+        try {
+            Account account = new SavingAccount("Registry", 1000.0);
+            List<MockNotifier> observers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                MockNotifier observer = new MockNotifier("R" + i) {
+                    @Override
+                    public void update(String message) {
+                        // Quiet: only counts matter here
+                    }
+                };
+                observers.add(observer);
+                account.attach(observer);
+                account.attach(observer);
+            }
+            if (account.getObserverCount() != 20) {
+                System.out.println("❌ Failed: Duplicates should be ignored, count = " + account.getObserverCount());
+                return false;
+            }
+            
+            Thread churn = new Thread(() -> {
+                for (int round = 0; round < 2000; round++) {
+                    MockNotifier extra = observers.get(round % observers.size());
+                    account.detach(extra);
+                    account.attach(extra);
+                }
+            });
+            churn.start();
+            for (int i = 0; i < 2000; i++) {
+                account.notifyObservers("tick " + i);
+            }
+            churn.join();
+            if (account.getObserverCount() != 20) {
+                System.out.println("❌ Failed: Observer count changed to " + account.getObserverCount());
+                return false;
+            }
+            System.out.println("✅ Test 6 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 6 Exception: " + e);
+            return false;
+        }
+    }
+
+    private static boolean testParallelFanOutKeepsOrder() {
+        System.out.println("\nTest 7: Parallel Fan-Out Keeps Per-Observer Order");
+        try {
+            Account account = new SavingAccount("FanOut", 1000.0);
+            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+            List<List<String>> received = new ArrayList<>();
+            java.util.concurrent.CountDownLatch done = new java.util.concurrent.CountDownLatch(5 * 200);
+            for (int i = 0; i < 5; i++) {
+                List<String> messages = java.util.Collections.synchronizedList(new ArrayList<>());
+                received.add(messages);
+                account.attach(message -> {
+                    messages.add(message);
+                    done.countDown();
+                });
+            }
+            account.setDeliveryExecutor(pool);
+            for (int i = 0; i < 200; i++) {
+                account.notifyObservers("m" + i);
+            }
+            boolean completed = done.await(10, java.util.concurrent.TimeUnit.SECONDS);
+            pool.shutdown();
+            if (!completed) {
+                System.out.println("❌ Failed: Not every message was delivered");
+                return false;
+            }
+            for (List<String> messages : received) {
+                for (int i = 0; i < 200; i++) {
+                    if (!messages.get(i).equals("m" + i)) {
+                        System.out.println("❌ Failed: Out-of-order delivery at " + i + ": " + messages.get(i));
+                        return false;
+                    }
+                }
+            }
+            System.out.println("✅ Test 7 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 7 Exception: " + e);
+            return false;
+        }
+    }
+
+    private static boolean testSharedObserverIsSerialized() {
+        System.out.println("\nTest 12: Observer Shared Across Accounts Is Never Called Concurrently");
+        try {
+            Account first = new SavingAccount("SharedA", 1000.0);
+            Account second = new SavingAccount("SharedB", 1000.0);
+            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+            java.util.concurrent.atomic.AtomicInteger inFlight = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicBoolean overlapped = new java.util.concurrent.atomic.AtomicBoolean();
+            List<String> received = java.util.Collections.synchronizedList(new ArrayList<>());
+            java.util.concurrent.CountDownLatch done = new java.util.concurrent.CountDownLatch(2 * 300);
+            Notifier shared = message -> {
+                if (inFlight.incrementAndGet() > 1) overlapped.set(true);
+                received.add(message);
+                Thread.yield();
+                inFlight.decrementAndGet();
+                done.countDown();
+            };
+            first.attach(shared);
+            second.attach(shared);
+            first.setDeliveryExecutor(pool);
+            second.setDeliveryExecutor(pool);
+            Thread other = new Thread(() -> {
+                for (int i = 0; i < 300; i++) {
+                    second.notifyObservers("b" + i);
+                }
+            });
+            other.start();
+            for (int i = 0; i < 300; i++) {
+                first.notifyObservers("a" + i);
+            }
+            other.join();
+            boolean completed = done.await(10, java.util.concurrent.TimeUnit.SECONDS);
+            pool.shutdown();
+            if (!completed || overlapped.get()) {
+                System.out.println("❌ Failed: Shared observer was called concurrently or missed messages");
+                return false;
+            }
+            int nextA = 0;
+            int nextB = 0;
+            for (String message : new ArrayList<>(received)) {
+                String expected = message.startsWith("a") ? "a" + nextA++ : "b" + nextB++;
+                if (!message.equals(expected)) {
+                    System.out.println("❌ Failed: Out-of-order delivery, expected " + expected + " got " + message);
+                    return false;
+                }
+            }
+            System.out.println("✅ Test 12 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 12 Exception: " + e);
+            return false;
+        }
+    }
+
+    private static boolean testDigestCoalescing() {
+        System.out.println("\nTest 8: Digest Notifier Coalesces by Size and Window");
+        try {
+            MockNotifier email = new MockNotifier("Digest");
+            bank.notifications.DigestNotifier digest =
+                new bank.notifications.DigestNotifier(email, java.time.Duration.ofMillis(100), 25);
+            Account account = new SavingAccount("Busy", 1000.0);
+            account.attach(digest);
+            for (int i = 0; i < 60; i++) {
+                account.deposit(1.0);
+            }
+            if (email.getMessages().size() != 2 || !email.getMessages().get(0).startsWith("Digest of 25 notifications")) {
+                System.out.println("❌ Failed: Expected two full digests, got " + email.getMessages().size());
+                return false;
+            }
+            Thread.sleep(400);
+            if (email.getMessages().size() != 3 || !email.getMessages().get(2).startsWith("Digest of 10 notifications")) {
+                System.out.println("❌ Failed: The remainder should be flushed after the window");
+                return false;
+            }
+            if (digest.getReceivedCount() != 60 || digest.getDigestsSent() != 3) {
+                System.out.println("❌ Failed: Counters do not match");
+                return false;
+            }
+            
+            // Timer and size flushes race, yet messages arrive in order across digests
+            List<String> arrived = java.util.Collections.synchronizedList(new ArrayList<>());
+            bank.notifications.DigestNotifier ordered = new bank.notifications.DigestNotifier(message -> {
+                if (message.startsWith("Digest of ")) {
+                    String[] lines = message.split("\n");
+                    for (int i = 1; i < lines.length; i++) arrived.add(lines[i].substring(3));
+                } else {
+                    arrived.add(message);
+                }
+            }, java.time.Duration.ofMillis(1), 7);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                expected.add("m" + i);
+                ordered.update("m" + i);
+            }
+            // close() sends the remainder without waiting for the window
+            bank.notifications.DigestNotifier slow =
+                new bank.notifications.DigestNotifier(email, java.time.Duration.ofHours(1), 25);
+            slow.update("last-1");
+            slow.update("last-2");
+            ordered.close();
+            slow.close();
+            List<String> sent = email.getMessages();
+            if (!arrived.equals(expected)
+                    || !sent.get(sent.size() - 1).equals("Digest of 2 notifications:\n - last-1\n - last-2")) {
+                System.out.println("❌ Failed: Digests out of order or not flushed on close");
+                return false;
+            }
+            System.out.println("✅ Test 8 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 8 Exception: " + e);
+            return false;
+        }
+    }
+
+    private static boolean testTypedEvents() {
+        System.out.println("\nTest 9: Typed Account Events");
+        try {
+            Account sender = new SavingAccount("Typed Sender", 1000.0);
+            Account receiver = new SavingAccount("Typed Receiver", 100.0);
+            List<bank.notifications.AccountEvent> sent = new ArrayList<>();
+            List<bank.notifications.AccountEvent> received = new ArrayList<>();
+            sender.attach(new Notifier() {
+                @Override
+                public void update(String message) {
+                    throw new AssertionError("Typed notifiers should not need rendered text");
+                }
+                
+                @Override
+                public void onEvent(bank.notifications.AccountEvent event) {
+                    sent.add(event);
+                }
+            });
+            receiver.attach(new Notifier() {
+                @Override
+                public void update(String message) {
+                }
+                
+                @Override
+                public void onEvent(bank.notifications.AccountEvent event) {
+                    received.add(event);
+                }
+            });
+            
+            sender.transfer(receiver, 250.0);
+            sender.setState(new SuspendedState());
+            
+            bank.notifications.AccountEvent transfer = sent.get(0);
+            if (sent.size() != 2 || transfer.getKind() != bank.notifications.AccountEventKind.TRANSFER_SENT
+                    || transfer.getAmount() != 250.0 || transfer.getNewBalance() != 750.0
+                    || transfer.getCounterpartyId() != receiver.getId()) {
+                System.out.println("❌ Failed: Sender events carry the wrong fields");
+                return false;
+            }
+            if (sent.get(1).getKind() != bank.notifications.AccountEventKind.STATE_CHANGED
+                    || !"SUSPENDED".equals(sent.get(1).getStateName())) {
+                System.out.println("❌ Failed: State change event missing");
+                return false;
+            }
+            bank.notifications.AccountEvent incoming = received.get(0);
+            if (incoming.getKind() != bank.notifications.AccountEventKind.TRANSFER_RECEIVED
+                    || incoming.getNewBalance() != 350.0 || incoming.getCounterpartyId() != sender.getId()
+                    || !incoming.render().startsWith("Received transfer of 250.0")) {
+                System.out.println("❌ Failed: Receiver event carries the wrong fields");
+                return false;
+            }
+            System.out.println("✅ Test 9 Passed");
+            return true;
+        } catch (Exception | AssertionError e) {
+            System.out.println("❌ Test 9 Exception: " + e);
+            return false;
+        }
+    }
+
+    private static boolean testEventBusRouting() {
+        System.out.println("\nTest 10: EventBus Routing");
+        List<bank.events.Subscription> subscriptions = new ArrayList<>();
+        try {
+            bank.events.EventBus bus = bank.events.EventBus.shared();
+            List<bank.notifications.AccountEvent> loanEvents = new ArrayList<>();
+            List<bank.notifications.AccountEvent> largeDeposits = new ArrayList<>();
+            subscriptions.add(bus.subscribeAccountEvents(
+                    new bank.events.EventFilter(bank.events.EventTopic.ACCOUNT)
+                            .forAccountKind(bank.accounts.AccountKind.LOAN),
+                    loanEvents::add));
+            subscriptions.add(bus.subscribeAccountEvents(
+                    new bank.events.EventFilter(bank.events.EventTopic.ACCOUNT)
+                            .ofKind(bank.notifications.AccountEventKind.DEPOSIT).minAmount(500.0),
+                    largeDeposits::add));
+            
+            Account saving = new SavingAccount("Bus Saver", 1000.0);
+            Account loan = new bank.accounts.types.LoanAccount("Bus Borrower", 5000.0, 5.0, 12);
+            saving.deposit(100.0);
+            saving.deposit(900.0);
+            saving.withdraw(50.0);
+            loan.deposit(200.0);
+            
+            if (loanEvents.size() != 1 || loanEvents.get(0).getAccountId() != loan.getId()) {
+                System.out.println("❌ Failed: Account kind filter matched " + loanEvents.size() + " events");
+                return false;
+            }
+            if (largeDeposits.size() != 1 || largeDeposits.get(0).getAmount() != 900.0) {
+                System.out.println("❌ Failed: Amount threshold matched " + largeDeposits.size() + " events");
+                return false;
+            }
+            
+            for (bank.events.Subscription subscription : subscriptions) {
+                subscription.cancel();
+            }
+            subscriptions.clear();
+            saving.deposit(1000.0);
+            if (largeDeposits.size() != 1
+                    || bus.isRouted(bank.events.EventTopic.ACCOUNT, bank.accounts.AccountKind.SAVINGS,
+                                    bank.notifications.AccountEventKind.DEPOSIT.ordinal())) {
+                System.out.println("❌ Failed: Cancelled subscription still receives events");
+                return false;
+            }
+            System.out.println("✅ Test 10 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 10 Exception: " + e);
+            return false;
+        } finally {
+            for (bank.events.Subscription subscription : subscriptions) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private static boolean testDurableOutbox() {
+        System.out.println("\nTest 11: Durable Notification Outbox");
+        java.nio.file.Path dir = null;
+        try {
+            dir = java.nio.file.Files.createTempDirectory("outbox-test");
+            java.nio.file.Path journal = dir.resolve("notifications.journal");
+            bank.notifications.outbox.BackoffPolicy backoff = new bank.notifications.outbox.BackoffPolicy(
+                    java.time.Duration.ofMillis(1), java.time.Duration.ofMillis(20), 3);
+            
+            // Messages queued while no worker runs survive a restart
+            bank.notifications.outbox.NotificationOutbox outbox =
+                    new bank.notifications.outbox.NotificationOutbox(journal, backoff, 16, 1);
+            Account account = new SavingAccount("Outbox Holder", 1000.0);
+            account.attach(new bank.notifications.outbox.OutboxNotifier(outbox, "EMAIL", "holder@bank.test"));
+            account.deposit(100.0);
+            account.withdraw(50.0);
+            outbox.enqueue("SMS", "+100", "Unreachable");
+            outbox.close();
+            
+            outbox = new bank.notifications.outbox.NotificationOutbox(journal, backoff, 16, 1);
+            if (outbox.getMetrics().getBacklog() != 3) {
+                System.out.println("❌ Failed: Expected 3 recovered messages, got " + outbox.getMetrics().getBacklog());
+                return false;
+            }
+            bank.notifications.outbox.LocalSinkTransport smtp = new bank.notifications.outbox.LocalSinkTransport("SMTP");
+            bank.notifications.outbox.LocalSinkTransport sms = new bank.notifications.outbox.LocalSinkTransport("SMS");
+            smtp.failNext(2);
+            sms.reject("+100");
+            outbox.registerTransport("EMAIL", smtp);
+            outbox.registerTransport("SMS", sms);
+            outbox.start();
+            boolean drained = outbox.awaitDrained(java.time.Duration.ofSeconds(10));
+            bank.notifications.outbox.OutboxMetrics metrics = outbox.getMetrics();
+            
+            List<bank.notifications.outbox.OutboxMessage> delivered = smtp.getDelivered();
+            if (!drained || delivered.size() != 2 || !delivered.get(0).getBody().startsWith("Successfully deposited 100.0")
+                    || metrics.getDelivered() != 2 || metrics.getRetries() < 2) {
+                System.out.println("❌ Failed: Email not delivered after retries (" + metrics + ")");
+                return false;
+            }
+            if (outbox.getDeadLetters().size() != 1 || sms.getAttemptCount() != 3
+                    || !"+100".equals(outbox.getDeadLetters().getDeadLetters().get(0).getMessage().getRecipient())) {
+                System.out.println("❌ Failed: Rejected SMS should be dead-lettered after 3 attempts");
+                return false;
+            }
+            outbox.close();
+            
+            // Nothing is redelivered after a clean restart; dead letters persist
+            outbox = new bank.notifications.outbox.NotificationOutbox(journal, backoff, 16, 1);
+            int backlog = outbox.getMetrics().getBacklog();
+            int dead = outbox.getDeadLetters().size();
+            outbox.close();
+            if (backlog != 0 || dead != 1) {
+                System.out.println("❌ Failed: Restart found backlog " + backlog + ", dead letters " + dead);
+                return false;
+            }
+            
+            // A retry that cannot enqueue keeps its dead letters
+            try {
+                outbox.retryDeadLetters();
+            } catch (java.io.IOException expected) {
+            }
+            outbox = new bank.notifications.outbox.NotificationOutbox(journal, backoff, 16, 1);
+            if (outbox.getDeadLetters().size() != 1 || outbox.retryDeadLetters() != 1
+                    || outbox.getDeadLetters().size() != 0 || outbox.getMetrics().getBacklog() != 1) {
+                System.out.println("❌ Failed: Dead letters lost or not requeued by a retry");
+                return false;
+            }
+            
+            // Null recipients survive the journal, which is compacted while running
+            outbox.enqueue("APP", null, "To nobody");
+            outbox.close();
+            outbox = new bank.notifications.outbox.NotificationOutbox(journal, backoff, 16, 1);
+            bank.notifications.outbox.LocalSinkTransport app = new bank.notifications.outbox.LocalSinkTransport("APP");
+            outbox.registerTransport("APP", app);
+            outbox.registerTransport("SMS", new bank.notifications.outbox.LocalSinkTransport("SMS"));
+            for (int i = 0; i < 20; i++) {
+                outbox.enqueue("APP", "early" + i, "e" + i);
+            }
+            outbox.start();
+            for (int i = 0; i < 1100; i++) {
+                outbox.enqueue("APP", "user" + i, "n" + i);
+            }
+            drained = outbox.awaitDrained(java.time.Duration.ofSeconds(30));
+            outbox.close();
+            long journalSize = java.nio.file.Files.size(journal);
+            if (!drained || app.getDelivered().get(0).getRecipient() != null || journalSize > 1024 * 9) {
+                System.out.println("❌ Failed: Null recipient or runtime compaction (journal " + journalSize + " bytes)");
+                return false;
+            }
+            if (app.getBatchCount() >= app.getDelivered().size()) {
+                System.out.println("❌ Failed: Messages of a batch should reach the transport in one send ("
+                        + app.getBatchCount() + " sends)");
+                return false;
+            }
+            
+            // A record running past the end of the file is a torn append; a bad length before it is not
+            java.nio.file.Path torn = dir.resolve("torn.journal");
+            java.nio.ByteBuffer record = java.nio.ByteBuffer.allocate(8 + 1 + 8 + 8 + 4 + 2)
+                    .putInt(0x4E544F42).putShort((short) 1).putShort((short) 0)
+                    .put((byte) 1).putLong(1L).putLong(0L).putInt(100).put((byte) 'a').put((byte) 'b');
+            java.nio.file.Files.write(torn, record.array());
+            outbox = new bank.notifications.outbox.NotificationOutbox(torn, backoff, 16, 1);
+            backlog = outbox.getMetrics().getBacklog();
+            outbox.close();
+            record.putInt(8 + 1 + 8 + 8, -5);
+            java.nio.file.Files.write(torn, record.array());
+            java.nio.file.Files.write(torn, new byte[64], java.nio.file.StandardOpenOption.APPEND);
+            boolean corruptRejected = false;
+            try {
+                new bank.notifications.outbox.NotificationOutbox(torn, backoff, 16, 1).close();
+            } catch (java.io.IOException expected) {
+                corruptRejected = true;
+            }
+            if (backlog != 0 || !corruptRejected) {
+                System.out.println("❌ Failed: Torn tail backlog " + backlog + ", corrupt record rejected: "
+                        + corruptRejected);
+                return false;
+            }
+            System.out.println("✅ Test 11 Passed");
+            return true;
+        } catch (Exception e) {
+            System.out.println("❌ Test 11 Exception: " + e);
+            return false;
+        } finally {
+            if (dir != null) {
+                try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                    files.forEach(f -> f.toFile().delete());
+                } catch (java.io.IOException ignored) {
+                }
+                dir.toFile().delete();
+            }
+        }
+    }
 }
@@ -1,17 +1,18 @@
 package bank.transactions;
 
 import bank.accounts.Account;
+import bank.common.Clocks;
+import bank.common.IdGenerator;
 import bank.users.Role;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class Transaction {
-    private final String id;
+    private final long id;
     private final TransactionType type;
     private final Account sourceAccount;
     private final Account targetAccount;
     private final double amount;
-    private final LocalDateTime timestamp;
+    private final long timestamp; // epoch millis
     private final String initiatedBy;
     private final Role initiatedByRole;
 
@@ -21,17 +22,27 @@ public class Transaction {
                        double amount,
                        String initiatedBy,
                        Role initiatedByRole) {
-        this.id = UUID.randomUUID().toString();
+        this(type, sourceAccount, targetAccount, amount, initiatedBy, initiatedByRole, Clocks.get().millis());
+    }
+
+    public Transaction(TransactionType type,
+                       Account sourceAccount,
+                       Account targetAccount,
+                       double amount,
+                       String initiatedBy,
+                       Role initiatedByRole,
+                       long timestampMillis) {
+        this.id = IdGenerator.getDefault().nextId();
         this.type = type;
         this.sourceAccount = sourceAccount;
         this.targetAccount = targetAccount;
         this.amount = amount;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestampMillis;
         this.initiatedBy = initiatedBy;
         this.initiatedByRole = initiatedByRole;
     }
 
-    public String getId() {
+    public long getId() {
         return id;
     }
 
@@ -52,6 +63,10 @@ public class Transaction {
     }
 
     public LocalDateTime getTimestamp() {
+        return Clocks.get().toLocalDateTime(timestamp);
+    }
+
+    public long getTimestampMillis() {
         return timestamp;
     }
 
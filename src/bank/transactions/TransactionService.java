@@ -1,6 +1,15 @@
 package bank.transactions;
 
 import bank.accounts.Account;
+import bank.accounts.AccountLocks;
+import bank.accounts.repository.AccountRepository;
+import bank.common.BankClock;
+import bank.common.Clocks;
+import bank.events.EventBus;
+import bank.events.EventFilter;
+import bank.events.EventTopic;
+import bank.events.Subscription;
+import bank.events.TransactionEvent;
 import bank.users.Role;
 import bank.transactions.handlers.*;
 import bank.transactions.history.TransactionLog;
@@ -9,17 +18,101 @@ import bank.transactions.notification.NotificationService;
 import bank.transactions.validator.TransactionValidator;
 import bank.transactions.validator.ValidationResult;
 
-public class TransactionService {
+public class TransactionService implements AutoCloseable {
+    /** Amount from which a transaction raises a large-transaction alert */
+    public static final double LARGE_TRANSACTION_THRESHOLD = 20000.0;
+
     private final TransactionValidator validator;
     private final TransactionLog log;
     private final NotificationService notification;
+    private final BankClock clock;
+    private final AccountRepository accounts;
+    private final AccountLocks locks;
+    private final EventBus events;
+    private final Subscription largeTransactionAlert;
     private ApprovalHandler approvalChain;
 
     public TransactionService(TransactionValidator validator, TransactionLog log, NotificationService notification) {
+        this(validator, log, notification, Clocks.get());
+    }
+
+    public TransactionService(TransactionValidator validator, TransactionLog log, NotificationService notification,
+                              BankClock clock) {
+        this(validator, log, notification, clock, null);
+    }
+
+    /**
+     * @param accounts Repository used by the id-based operations; may be null when only
+     *                 Account references are passed in
+     */
+    public TransactionService(TransactionValidator validator, TransactionLog log, NotificationService notification,
+                              BankClock clock, AccountRepository accounts) {
+        this(validator, log, notification, clock, accounts, AccountLocks.shared());
+    }
+
+    /**
+     * @param locks Per-account locks held from validation to execution; bulk state
+     *              changes must use the same instance to be atomic with transactions
+     */
+    public TransactionService(TransactionValidator validator, TransactionLog log, NotificationService notification,
+                              BankClock clock, AccountRepository accounts, AccountLocks locks) {
+        this(validator, log, notification, clock, accounts, locks, EventBus.shared());
+    }
+
+    /**
+     * @param events Bus on which executed transactions are published; the other
+     *               constructors use EventBus.shared(), where accounts publish too
+     */
+    public TransactionService(TransactionValidator validator, TransactionLog log, NotificationService notification,
+                              BankClock clock, AccountRepository accounts, AccountLocks locks, EventBus events) {
         this.validator = validator;
         this.log = log;
         this.notification = notification;
+        this.clock = clock;
+        this.accounts = accounts;
+        this.locks = locks;
+        this.events = events;
         this.approvalChain = buildChain();
+        // Only this service's transactions, so services sharing a bus never alert for each other
+        this.largeTransactionAlert = events.subscribeTransactions(new EventFilter(EventTopic.TRANSACTION)
+                .minAmount(LARGE_TRANSACTION_THRESHOLD).fromPublisher(this), this::alertLargeTransaction);
+    }
+
+    private void alertLargeTransaction(TransactionEvent event) {
+        String msg = event.renderAlert();
+        notification.notify(msg);
+        if (event.getType() == TransactionType.TRANSFER) {
+            event.getSourceAccount().notifyObservers(msg);
+        }
+    }
+
+    /**
+     * Gets the bus on which executed transactions are published
+     * Subscribe here to react to transactions without changing this class; the
+     * large-transaction alert is itself a subscription on this bus, limited to the
+     * transactions of this service.
+     */
+    public EventBus getEventBus() {
+        return events;
+    }
+
+    /**
+     * Cancels the large-transaction alert subscription, e.g. before discarding a
+     * service that publishes on the shared bus
+     */
+    @Override
+    public void close() {
+        largeTransactionAlert.cancel();
+    }
+
+    private void publish(Transaction tx, boolean ok) {
+        Account source = tx.getSourceAccount();
+        if (!events.isRouted(EventTopic.TRANSACTION, source == null ? null : source.getKind(),
+                tx.getType().ordinal(), tx.getAmount())) {
+            return;
+        }
+        events.publish(new TransactionEvent(tx.getId(), tx.getType(), source, tx.getTargetAccount(), tx.getAmount(),
+                tx.getInitiatedBy(), tx.getInitiatedByRole(), ok, tx.getTimestampMillis(), this));
     }
 
     private ApprovalHandler buildChain() {
@@ -37,73 +130,195 @@ public class TransactionService {
     }
 
     public boolean deposit(Account account, double amount, String user, Role role) {
-        Transaction tx = new Transaction(TransactionType.DEPOSIT, account, account, amount, user, role);
+        Transaction tx = new Transaction(TransactionType.DEPOSIT, account, account, amount, user, role, clock.millis());
+        Outcome outcome;
+        Account.deferDeliveries();
+        try {
+            locks.lock(account.getId());
+            try {
+                outcome = executeDeposit(tx, account, amount, role);
+            } finally {
+                locks.unlock(account.getId());
+            }
+        } finally {
+            Account.flushDeliveries();
+        }
+        return complete(tx, outcome);
+    }
+
+    private Outcome executeDeposit(Transaction tx, Account account, double amount, Role role) {
         ValidationResult vr = validator.validate(account, account, TransactionType.DEPOSIT, amount, log);
         if (!vr.isOk()) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, vr.getMessage(), null));
-            return false;
+            logRejected(tx, vr.getMessage());
+            return Outcome.REJECTED;
         }
         if (!hasPrivilege(role, amount)) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, "Insufficient privileges", null));
-            return false;
+            logRejected(tx, "Insufficient privileges");
+            return Outcome.REJECTED;
         }
         ApprovalResult ar = approvalChain.handle(tx);
-        boolean ok = account.deposit(amount);
-        log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), ok, ok ? null : "Execution failed",
-                ar.isApproved() ? ar.getLevel().name() : null));
-        if (amount >= 20000.0) notification.notify("Large deposit $" + amount + " by " + user);
-        return ok;
+        return logExecuted(tx, account.deposit(amount), ar);
     }
 
     public boolean withdraw(Account account, double amount, String user, Role role) {
-        Transaction tx = new Transaction(TransactionType.WITHDRAW, account, null, amount, user, role);
+        Transaction tx = new Transaction(TransactionType.WITHDRAW, account, null, amount, user, role, clock.millis());
+        Outcome outcome;
+        Account.deferDeliveries();
+        try {
+            locks.lock(account.getId());
+            try {
+                outcome = executeWithdraw(tx, account, amount, role);
+            } finally {
+                locks.unlock(account.getId());
+            }
+        } finally {
+            Account.flushDeliveries();
+        }
+        return complete(tx, outcome);
+    }
+
+    private Outcome executeWithdraw(Transaction tx, Account account, double amount, Role role) {
         ValidationResult vr = validator.validate(account, null, TransactionType.WITHDRAW, amount, log);
         if (!vr.isOk()) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, vr.getMessage(), null));
-            return false;
+            logRejected(tx, vr.getMessage());
+            return Outcome.REJECTED;
         }
         if (!hasPrivilege(role, amount)) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, "Insufficient privileges", null));
-            return false;
+            logRejected(tx, "Insufficient privileges");
+            return Outcome.REJECTED;
         }
         ApprovalResult ar = approvalChain.handle(tx);
-        boolean ok = account.withdraw(amount);
-        log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), ok, ok ? null : "Execution failed",
-                ar.isApproved() ? ar.getLevel().name() : null));
-        if (amount >= 20000.0) notification.notify("Large withdrawal $" + amount + " by " + user);
-        return ok;
+        return logExecuted(tx, account.withdraw(amount), ar);
     }
 
     public boolean transfer(Account from, Account to, double amount, String user, Role role) {
-        Transaction tx = new Transaction(TransactionType.TRANSFER, from, to, amount, user, role);
+        long toId = to == null ? from.getId() : to.getId(); // a missing target is rejected by the validator
+        Transaction tx = new Transaction(TransactionType.TRANSFER, from, to, amount, user, role, clock.millis());
+        Outcome outcome;
+        Account.deferDeliveries();
+        try {
+            locks.lockPair(from.getId(), toId);
+            try {
+                outcome = executeTransfer(tx, from, to, amount, role);
+            } finally {
+                locks.unlockPair(from.getId(), toId);
+            }
+        } finally {
+            Account.flushDeliveries();
+        }
+        return complete(tx, outcome);
+    }
+
+    private Outcome executeTransfer(Transaction tx, Account from, Account to, double amount, Role role) {
         ValidationResult vr = validator.validate(from, to, TransactionType.TRANSFER, amount, log);
         if (!vr.isOk()) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, vr.getMessage(), null));
-            return false;
+            logRejected(tx, vr.getMessage());
+            return Outcome.REJECTED;
         }
         if (!hasPrivilege(role, amount)) {
-            log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                    tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, "Insufficient privileges", null));
-            return false;
+            logRejected(tx, "Insufficient privileges");
+            return Outcome.REJECTED;
         }
         ApprovalResult ar = approvalChain.handle(tx);
-        boolean ok = from.transfer(to, amount);
+        return logExecuted(tx, from.transfer(to, amount), ar);
+    }
+
+    /**
+     * Adds the record of a rejected transaction
+     * Records are added under the account locks because the validator's daily limits
+     * read the totals they update; appending does not force the journal to disk.
+     */
+    private void logRejected(Transaction tx, String reason) {
         log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
-                tx.getTimestamp(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), ok, ok ? null : "Execution failed",
-                ar.isApproved() ? ar.getLevel().name() : null));
-        if (amount >= 20000.0) {
-            String msg = "Large transfer $" + amount + " by " + user;
-            notification.notify(msg);
-            from.notifyObservers(msg);
-        }
-        return ok;
+                tx.getTimestampMillis(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), false, reason, null));
+    }
+
+    /**
+     * Adds the record of an executed transaction, under the account locks like logRejected
+     */
+    private Outcome logExecuted(Transaction tx, boolean ok, ApprovalResult ar) {
+        log.addRecord(new TransactionRecord(tx.getId(), tx.getType(), tx.getSourceAccount(), tx.getTargetAccount(),
+                tx.getTimestampMillis(), tx.getAmount(), tx.getInitiatedBy(), tx.getInitiatedByRole(), ok, ok ? null : "Execution failed",
+                ar.isApproved() ? ar.getLevel() : null));
+        return ok ? Outcome.SUCCEEDED : Outcome.FAILED;
+    }
+
+    /**
+     * Publishes an executed transaction once its locks are released, after the
+     * account events it raised have been delivered
+     *
+     * @return true if the transaction succeeded
+     */
+    private boolean complete(Transaction tx, Outcome outcome) {
+        if (outcome != Outcome.REJECTED) {
+            publish(tx, outcome == Outcome.SUCCEEDED);
+        }
+        return outcome == Outcome.SUCCEEDED;
+    }
+
+    /**
+     * How far a transaction got: rejected before execution, or executed with success or failure
+     */
+    private enum Outcome {
+        REJECTED, SUCCEEDED, FAILED
+    }
+
+    public boolean deposit(long accountId, double amount, String user, Role role) {
+        Account account = acquire(accountId);
+        if (account == null) return false;
+        try {
+            return deposit(account, amount, user, role);
+        } finally {
+            accounts.release(account);
+        }
+    }
+
+    public boolean withdraw(long accountId, double amount, String user, Role role) {
+        Account account = acquire(accountId);
+        if (account == null) return false;
+        try {
+            return withdraw(account, amount, user, role);
+        } finally {
+            accounts.release(account);
+        }
+    }
+
+    public boolean transfer(long fromAccountId, long toAccountId, double amount, String user, Role role) {
+        Account from = acquire(fromAccountId);
+        if (from == null) return false;
+        try {
+            Account to = acquire(toAccountId);
+            if (to == null) return false;
+            try {
+                return transfer(from, to, amount, user, role);
+            } finally {
+                accounts.release(to);
+            }
+        } finally {
+            accounts.release(from);
+        }
+    }
+
+    public AccountRepository getAccountRepository() {
+        return accounts;
+    }
+
+    public AccountLocks getAccountLocks() {
+        return locks;
+    }
+
+    /**
+     * Resolves and pins an account for the duration of an operation
+     */
+    private Account acquire(long accountId) {
+        if (accounts == null) {
+            throw new IllegalStateException("No account repository configured");
+        }
+        Account account = accounts.acquire(accountId);
+        if (account == null) {
+            System.out.println("Error: Unknown account " + accountId);
+        }
+        return account;
     }
 
     private boolean hasPrivilege(Role role, double amount) {
@@ -0,0 +1,92 @@
+package bank.transactions.history;
+
+import java.util.Arrays;
+
+/**
+ * AppendOnlyRecords - Segmented, append-only storage for transaction records
+ * A single writer (the TransactionLog, under its lock) appends; any number of
+ * readers can read positions below a previously observed size without locking.
+ * Segments are never moved or cleared, so a prefix observed once stays valid.
+ *
+ * Records are appended in the order they are logged, which only roughly follows
+ * their timestamps. Each segment therefore keeps the smallest timestamp in it and
+ * the largest timestamp up to its end, so newest-first scans with a time bound
+ * know where they can stop.
+ */
+final class AppendOnlyRecords {
+
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private volatile TransactionRecord[][] segments = new TransactionRecord[16][];
+    // Per segment: smallest timestamp in it, largest timestamp of it and every earlier segment
+    private volatile long[] minTimestamps = new long[16];
+    private volatile long[] maxTimestamps = new long[16];
+    private volatile int size;
+
+    /**
+     * Appends a record; callers must serialize appends
+     *
+     * @return The position of the record
+     */
+    int append(TransactionRecord record) {
+        int position = size;
+        int segment = position >>> SEGMENT_BITS;
+        TransactionRecord[][] segs = segments;
+        long[] mins = minTimestamps;
+        long[] maxes = maxTimestamps;
+        if (segment == segs.length) {
+            segs = Arrays.copyOf(segs, segs.length * 2);
+            mins = Arrays.copyOf(mins, segs.length);
+            maxes = Arrays.copyOf(maxes, segs.length);
+            segments = segs;
+            minTimestamps = mins;
+            maxTimestamps = maxes;
+        }
+        long timestamp = record.getTimestampMillis();
+        if (segs[segment] == null) {
+            segs[segment] = new TransactionRecord[SEGMENT_SIZE];
+            mins[segment] = timestamp;
+            maxes[segment] = segment == 0 ? timestamp : Math.max(maxes[segment - 1], timestamp);
+        } else {
+            mins[segment] = Math.min(mins[segment], timestamp);
+            maxes[segment] = Math.max(maxes[segment], timestamp);
+        }
+        segs[segment][position & SEGMENT_MASK] = record;
+        size = position + 1; // volatile write publishes the record and its bounds
+        return position;
+    }
+
+    /**
+     * Reads a record; position must be below a size previously returned by size()
+     */
+    TransactionRecord get(int position) {
+        return segments[position >>> SEGMENT_BITS][position & SEGMENT_MASK];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets an upper bound of the timestamps of the records at or below a position
+     */
+    long maxTimestampThrough(int position) {
+        return maxTimestamps[position >>> SEGMENT_BITS];
+    }
+
+    /**
+     * Gets a lower bound of the timestamps of the records in a position's segment
+     */
+    long minTimestampAround(int position) {
+        return minTimestamps[position >>> SEGMENT_BITS];
+    }
+
+    /**
+     * Gets the first position of a position's segment
+     */
+    static int segmentStart(int position) {
+        return position & ~SEGMENT_MASK;
+    }
+}
@@ -0,0 +1,192 @@
+package bank.transactions.history;
+
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import bank.users.Role;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BinaryJournalReader - Streams rows back from a TransactionExporter binary file
+ * Rows are decoded one at a time into a reused JournalRow, so replaying a journal
+ * (for example to rebuild daily aggregates on restart) never holds it in memory.
+ *
+ * Appendable journals (TransactionJournal) have no row count and run to the end
+ * of the file; a torn last row, left by a crash in the middle of an append, ends
+ * the replay instead of failing it.
+ */
+public class BinaryJournalReader {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final Role[] ROLES = Role.values();
+    private static final ApprovalLevel[] LEVELS = ApprovalLevel.values();
+
+    private final boolean decodeStrings;
+    private long validLength;
+    private boolean appendable;
+
+    /**
+     * @param decodeStrings Whether to decode initiatedBy/failureReason (skipped otherwise)
+     */
+    public BinaryJournalReader(boolean decodeStrings) {
+        this.decodeStrings = decodeStrings;
+    }
+
+    /**
+     * Reads every row of the journal
+     *
+     * @return The number of rows read
+     */
+    public long read(Path journal, RowVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.limit(0); // start empty so the first fill reads from the channel
+        JournalRow row = new JournalRow();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            fill(buffer, channel, TransactionExporter.BINARY_HEADER_SIZE);
+            if (buffer.getInt() != TransactionExporter.BINARY_MAGIC) {
+                throw new IOException("Not a transaction journal: " + journal);
+            }
+            short version = buffer.getShort();
+            if (version != TransactionExporter.BINARY_VERSION) {
+                throw new IOException("Unsupported journal version " + version);
+            }
+            buffer.getShort();
+            long count = buffer.getLong();
+            appendable = count == TransactionJournal.APPENDABLE_COUNT;
+            validLength = TransactionExporter.BINARY_HEADER_SIZE;
+            while (appendable || rows < count) {
+                try {
+                    if (appendable && !hasMore(buffer, channel)) break;
+                    readRow(buffer, channel, row);
+                } catch (TruncatedException e) {
+                    if (appendable) break; // torn last append
+                    throw e;
+                }
+                visitor.visit(row);
+                rows++;
+                validLength = channel.position() - buffer.remaining();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the length of the header plus the complete rows seen by the last read
+     * Appending resumes at this offset after a torn write.
+     */
+    public long getValidLength() {
+        return validLength;
+    }
+
+    /**
+     * Checks whether the last read file was an appendable journal rather than an export
+     */
+    public boolean isAppendable() {
+        return appendable;
+    }
+
+    private void readRow(ByteBuffer buffer, FileChannel channel, JournalRow row) throws IOException {
+        fill(buffer, channel, 46);
+        row.transactionId = buffer.getLong();
+        row.timestampMillis = buffer.getLong();
+        row.sourceAccountId = buffer.getLong();
+        row.targetAccountId = buffer.getLong();
+        row.amount = buffer.getDouble();
+        row.type = TYPES[buffer.get()];
+        byte role = buffer.get();
+        row.role = role < 0 ? null : ROLES[role];
+        row.success = (buffer.get() & 1) != 0;
+        byte level = buffer.get();
+        row.approvalLevel = level < 0 ? null : LEVELS[level];
+        row.initiatedBy = readString(buffer, channel);
+        row.failureReason = readString(buffer, channel);
+    }
+
+    private static boolean hasMore(ByteBuffer buffer, FileChannel channel) throws IOException {
+        if (buffer.hasRemaining()) return true;
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private String readString(ByteBuffer buffer, FileChannel channel) throws IOException {
+        fill(buffer, channel, 2);
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == TransactionExporter.NULL_STRING) return null;
+        fill(buffer, channel, length);
+        if (!decodeStrings) {
+            buffer.position(buffer.position() + length);
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ensures at least n unread bytes are buffered
+     */
+    private static void fill(ByteBuffer buffer, FileChannel channel, int n) throws IOException {
+        if (buffer.remaining() >= n) return;
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                throw new TruncatedException();
+            }
+        }
+        buffer.flip();
+    }
+
+    private static final class TruncatedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TruncatedException() {
+            super("Truncated journal");
+        }
+    }
+
+    /**
+     * Callback receiving each row; the row object is reused between calls
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(JournalRow row);
+    }
+
+    /**
+     * One decoded journal row (account ids are 0 when absent)
+     */
+    public static final class JournalRow {
+        long transactionId;
+        long timestampMillis;
+        long sourceAccountId;
+        long targetAccountId;
+        double amount;
+        TransactionType type;
+        Role role;
+        boolean success;
+        ApprovalLevel approvalLevel;
+        String initiatedBy;
+        String failureReason;
+
+        public long getTransactionId() { return transactionId; }
+        public long getTimestampMillis() { return timestampMillis; }
+        public long getSourceAccountId() { return sourceAccountId; }
+        public long getTargetAccountId() { return targetAccountId; }
+        public double getAmount() { return amount; }
+        public TransactionType getType() { return type; }
+        public Role getRole() { return role; }
+        public boolean isSuccess() { return success; }
+        public ApprovalLevel getApprovalLevel() { return approvalLevel; }
+        public String getInitiatedBy() { return initiatedBy; }
+        public String getFailureReason() { return failureReason; }
+    }
+}
@@ -0,0 +1,84 @@
+package bank.transactions.history;
+
+import bank.common.BankClock;
+import bank.common.DayRange;
+import bank.common.LongObjectHashMap;
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import java.time.LocalDate;
+
+/**
+ * DailyAggregates - Running per-day totals, updated on every appended record
+ * Keyed by epoch day in the clock's zone. Mutated and read under the owning
+ * TransactionLog's lock, so a summary always reflects whole records.
+ */
+final class DailyAggregates {
+
+    private static final int TYPES = TransactionType.values().length;
+    private static final int APPROVAL_SLOTS = ApprovalLevel.values().length + 1;
+
+    private final BankClock clock;
+    private final LongObjectHashMap<DayTotals> days = new LongObjectHashMap<>();
+    // Most records land on the same day as the previous one; avoid a date computation per record
+    private DayRange lastDay;
+
+    DailyAggregates(BankClock clock) {
+        this.clock = clock;
+    }
+
+    static int approvalSlot(ApprovalLevel level) {
+        return level == null ? APPROVAL_SLOTS - 1 : level.ordinal();
+    }
+
+    void add(TransactionRecord record) {
+        add(record.getTimestampMillis(), record.getType(), record.getAmount(), record.isSuccess(),
+                record.getApprovalLevel());
+    }
+
+    void add(long timestampMillis, TransactionType type, double amount, boolean success, ApprovalLevel level) {
+        DayRange day = lastDay;
+        if (day == null || !day.contains(timestampMillis)) {
+            day = clock.dayRange(clock.toLocalDate(timestampMillis));
+            lastDay = day;
+        }
+        long epochDay = day.getDate().toEpochDay();
+        DayTotals totals = days.get(epochDay);
+        if (totals == null) {
+            totals = new DayTotals();
+            days.put(epochDay, totals);
+        }
+        totals.count++;
+        totals.totalAmount += amount;
+        if (!success) totals.failures++;
+        totals.typeCounts[type.ordinal()]++;
+        totals.typeAmounts[type.ordinal()] += amount;
+        int slot = approvalSlot(level);
+        totals.approvalCounts[slot]++;
+        totals.approvalAmounts[slot] += amount;
+    }
+
+    DailySummary summaryFor(LocalDate date) {
+        DayTotals totals = days.get(date.toEpochDay());
+        if (totals == null) {
+            return DailySummary.empty(date);
+        }
+        return new DailySummary(date, totals.count, totals.totalAmount, totals.failures,
+                totals.typeCounts.clone(), totals.typeAmounts.clone(),
+                totals.approvalCounts.clone(), totals.approvalAmounts.clone());
+    }
+
+    void clear() {
+        days.clear();
+        lastDay = null;
+    }
+
+    private static final class DayTotals {
+        long count;
+        double totalAmount;
+        long failures;
+        final long[] typeCounts = new long[TYPES];
+        final double[] typeAmounts = new double[TYPES];
+        final long[] approvalCounts = new long[APPROVAL_SLOTS];
+        final double[] approvalAmounts = new double[APPROVAL_SLOTS];
+    }
+}
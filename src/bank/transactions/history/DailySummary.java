@@ -0,0 +1,78 @@
+package bank.transactions.history;
+
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import java.time.LocalDate;
+
+/**
+ * DailySummary - Immutable totals for one day of transactions
+ * Produced from the running aggregates maintained by TransactionLog,
+ * so reading it does not rescan the history.
+ */
+public final class DailySummary {
+
+    private final LocalDate date;
+    private final long count;
+    private final double totalAmount;
+    private final long failures;
+    private final long[] typeCounts;
+    private final double[] typeAmounts;
+    private final long[] approvalCounts;   // indexed by ApprovalLevel ordinal, last = not approved
+    private final double[] approvalAmounts;
+
+    DailySummary(LocalDate date, long count, double totalAmount, long failures, long[] typeCounts,
+                 double[] typeAmounts, long[] approvalCounts, double[] approvalAmounts) {
+        this.date = date;
+        this.count = count;
+        this.totalAmount = totalAmount;
+        this.failures = failures;
+        this.typeCounts = typeCounts;
+        this.typeAmounts = typeAmounts;
+        this.approvalCounts = approvalCounts;
+        this.approvalAmounts = approvalAmounts;
+    }
+
+    static DailySummary empty(LocalDate date) {
+        int levels = ApprovalLevel.values().length + 1;
+        int types = TransactionType.values().length;
+        return new DailySummary(date, 0, 0.0, 0, new long[types], new double[types], new long[levels], new double[levels]);
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getCount(TransactionType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    public double getAmount(TransactionType type) {
+        return typeAmounts[type.ordinal()];
+    }
+
+    /**
+     * @param level Approval level, or null for transactions not approved by the chain
+     */
+    public long getCount(ApprovalLevel level) {
+        return approvalCounts[DailyAggregates.approvalSlot(level)];
+    }
+
+    /**
+     * @param level Approval level, or null for transactions not approved by the chain
+     */
+    public double getAmount(ApprovalLevel level) {
+        return approvalAmounts[DailyAggregates.approvalSlot(level)];
+    }
+}
@@ -0,0 +1,58 @@
+package bank.transactions.history;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * LogSnapshot - Read-only view of the transaction log up to a fixed point
+ * Taking a snapshot is O(1) and copies nothing; records appended afterwards
+ * are not visible through it, so long-running readers (exports, rebuilds)
+ * see a consistent history while addRecord keeps running.
+ */
+public final class LogSnapshot implements Iterable<TransactionRecord> {
+
+    private final AppendOnlyRecords records;
+    private final int size;
+
+    LogSnapshot(AppendOnlyRecords records, int size) {
+        this.records = records;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of records visible in this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the record at a position (0 = oldest)
+     */
+    public TransactionRecord get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " outside snapshot of " + size);
+        }
+        return records.get(position);
+    }
+
+    @Override
+    public Iterator<TransactionRecord> iterator() {
+        return new Iterator<TransactionRecord>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public TransactionRecord next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return records.get(next++);
+            }
+        };
+    }
+}
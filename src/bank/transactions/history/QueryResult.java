@@ -0,0 +1,33 @@
+package bank.transactions.history;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QueryResult - One page of TransactionLog.query results, newest first
+ */
+public class QueryResult {
+
+    private final List<TransactionRecord> records;
+    private final int nextCursor;
+
+    QueryResult(List<TransactionRecord> records, int nextCursor) {
+        this.records = Collections.unmodifiableList(records);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Gets the cursor for the next page (pass to TransactionQuery.after), or -1 when exhausted
+     */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+}
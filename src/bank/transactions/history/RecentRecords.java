@@ -0,0 +1,76 @@
+package bank.transactions.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RecentRecords - Lock-free bounded ring of the most recent transaction records
+ * Writers claim a sequence number with one atomic increment and publish the record
+ * into its slot; each slot carries a stamp (sequence + 1, or 0 while being written)
+ * so readers can detect slots that are mid-write or already overwritten and skip
+ * them, seqlock style; skipped records are counted in the result. Reading the latest N records is O(N) regardless of how
+ * much history exists.
+ */
+public final class RecentRecords {
+
+    private final AtomicReferenceArray<TransactionRecord> slots;
+    private final AtomicLongArray stamps;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * @param capacity Maximum number of records retained
+     */
+    public RecentRecords(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int slotCount = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.stamps = new AtomicLongArray(slotCount);
+        this.mask = slotCount - 1;
+        this.capacity = capacity;
+    }
+
+    public void add(TransactionRecord record) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        stamps.set(slot, 0L);
+        slots.set(slot, record);
+        stamps.set(slot, sequence + 1);
+    }
+
+    /**
+     * Gets up to n of the most recent records, newest first
+     */
+    public RecentResult latest(int n) {
+        long end = nextSequence.get();
+        int count = (int) Math.min(Math.min(n, capacity), end);
+        List<TransactionRecord> result = new ArrayList<>(count);
+        for (long sequence = end - 1; sequence >= end - count; sequence--) {
+            int slot = (int) (sequence & mask);
+            long before = stamps.get(slot);
+            TransactionRecord record = slots.get(slot);
+            long after = stamps.get(slot);
+            if (before == sequence + 1 && after == before) {
+                result.add(record);
+            }
+        }
+        return new RecentResult(result, count - result.size());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the total number of records ever added
+     */
+    public long getTotalAdded() {
+        return nextSequence.get();
+    }
+}
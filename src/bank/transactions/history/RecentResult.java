@@ -0,0 +1,38 @@
+package bank.transactions.history;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RecentResult - The most recent records read from a recent-activity ring, newest first
+ * Readers never lock, so a slot can be overwritten (or still be mid-write) while it
+ * is read; such records are left out and counted in getMissed().
+ */
+public class RecentResult {
+
+    private final List<TransactionRecord> records;
+    private final int missed;
+
+    RecentResult(List<TransactionRecord> records, int missed) {
+        this.records = Collections.unmodifiableList(records);
+        this.missed = missed;
+    }
+
+    public List<TransactionRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Gets the number of records that were skipped because writers overtook the reader
+     */
+    public int getMissed() {
+        return missed;
+    }
+
+    /**
+     * Checks whether the snapshot has no gaps
+     */
+    public boolean isComplete() {
+        return missed == 0;
+    }
+}
@@ -0,0 +1,73 @@
+package bank.transactions.history;
+
+import bank.transactions.TransactionType;
+
+/**
+ * RecordFilter - Selects transaction records by time range, account and type
+ * Unset criteria match everything. Configured with chained calls:
+ * <pre>
+ *   new RecordFilter().between(from, to).forAccount(accountId).ofType(TransactionType.TRANSFER)
+ * </pre>
+ */
+public class RecordFilter {
+
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private boolean accountSet;
+    private long accountId;
+    private TransactionType type;
+
+    /**
+     * Restricts to records with fromMillis <= timestamp < toMillis (epoch millis)
+     */
+    public RecordFilter between(long fromMillis, long toMillis) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        return this;
+    }
+
+    /**
+     * Restricts to records where the account is the source or the target
+     */
+    public RecordFilter forAccount(long accountId) {
+        this.accountSet = true;
+        this.accountId = accountId;
+        return this;
+    }
+
+    public RecordFilter ofType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    public boolean matches(TransactionRecord record) {
+        long ts = record.getTimestampMillis();
+        if (ts < fromMillis || ts >= toMillis) return false;
+        if (type != null && record.getType() != type) return false;
+        if (accountSet) {
+            return (record.getSourceAccount() != null && record.getSourceAccount().getId() == accountId)
+                    || (record.getTargetAccount() != null && record.getTargetAccount().getId() == accountId);
+        }
+        return true;
+    }
+
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    public boolean hasAccount() {
+        return accountSet;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,244 @@
+package bank.transactions.history;
+
+import bank.accounts.Account;
+import bank.common.BankClock;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * TransactionExporter - Streams transaction history to CSV or a compact binary file
+ * Records are read from a LogSnapshot taken when the export starts, so the export
+ * never copies the history and runs concurrently with addRecord calls; records
+ * added after the snapshot point are simply not part of the extract.
+ *
+ * Output goes through a FileChannel using one reusable direct buffer.
+ *
+ * Binary format (big-endian):
+ * <pre>
+ *   header : int magic "TXLG" | short version | short reserved | long recordCount
+ *            (-1 for an appendable TransactionJournal: rows run to the end of the file)
+ *   row    : long transactionId | long timestampMillis | long sourceAccountId | long targetAccountId
+ *            | double amount | byte type | byte role (-1 = none) | byte flags (bit 0 = success)
+ *            | byte approvalLevel (-1 = none) | string initiatedBy | string failureReason
+ *   string : unsigned short byteLength (0xFFFF = null) followed by UTF-8 bytes
+ * </pre>
+ * Account ids are 0 when the account is absent. Strings longer than
+ * MAX_STRING_BYTES cannot be represented and make exportBinary fail.
+ */
+public class TransactionExporter {
+
+    public static final int BINARY_MAGIC = 0x54584C47; // "TXLG"
+    public static final short BINARY_VERSION = 1;
+    static final int BINARY_HEADER_SIZE = 16;
+    /** Length marker of a null string */
+    static final int NULL_STRING = 0xFFFF;
+    /** Longest string, in UTF-8 bytes, that a binary row can hold */
+    public static final int MAX_STRING_BYTES = NULL_STRING - 1;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String CSV_HEADER = "transactionId,timestamp,type,sourceAccountId,targetAccountId,amount,"
+            + "initiatedBy,role,success,failureReason,approvedByLevel\n";
+
+    private final TransactionLog log;
+    private final BankClock clock;
+
+    public TransactionExporter(TransactionLog log) {
+        this.log = log;
+        this.clock = log.getClock();
+    }
+
+    /**
+     * Writes matching records as CSV (timestamps rendered in the log clock's zone)
+     *
+     * @param target The file to create or overwrite
+     * @param filter Selection criteria; null exports everything
+     * @return The number of records written
+     */
+    public long exportCsv(Path target, RecordFilter filter) throws IOException {
+        LogSnapshot snapshot = log.snapshot();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        StringBuilder row = new StringBuilder(256);
+        long written = 0;
+        try (FileChannel channel = open(target)) {
+            encode(CSV_HEADER, encoder, buffer, channel);
+            for (TransactionRecord r : snapshot) {
+                if (filter != null && !filter.matches(r)) continue;
+                row.setLength(0);
+                row.append(r.getTransactionId()).append(',')
+                   .append(clock.toLocalDateTime(r.getTimestampMillis())).append(',')
+                   .append(r.getType()).append(',')
+                   .append(idOf(r.getSourceAccount())).append(',')
+                   .append(idOf(r.getTargetAccount())).append(',')
+                   .append(r.getAmount()).append(',');
+                appendCsvField(row, r.getInitiatedBy());
+                row.append(',').append(r.getInitiatedByRole() == null ? "" : r.getInitiatedByRole().name())
+                   .append(',').append(r.isSuccess()).append(',');
+                appendCsvField(row, r.getFailureReason());
+                row.append(',');
+                appendCsvField(row, r.getApprovedByLevel());
+                row.append('\n');
+                encode(row, encoder, buffer, channel);
+                written++;
+            }
+            drain(buffer, channel);
+        }
+        return written;
+    }
+
+    /**
+     * Writes matching records in the compact binary format
+     *
+     * @param target The file to create or overwrite
+     * @param filter Selection criteria; null exports everything
+     * @return The number of records written
+     * @throws IOException if writing fails or a record has a string longer than
+     *         MAX_STRING_BYTES; the file is then incomplete
+     */
+    public long exportBinary(Path target, RecordFilter filter) throws IOException {
+        LogSnapshot snapshot = log.snapshot();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long written = 0;
+        try (FileChannel channel = open(target)) {
+            putHeader(buffer, 0L);
+            for (TransactionRecord r : snapshot) {
+                if (filter != null && !filter.matches(r)) continue;
+                byte[] initiatedBy = checkedUtf8(r, "initiatedBy", r.getInitiatedBy());
+                byte[] failureReason = checkedUtf8(r, "failureReason", r.getFailureReason());
+                if (buffer.remaining() < rowSize(initiatedBy, failureReason)) {
+                    drain(buffer, channel);
+                }
+                putRow(buffer, r, initiatedBy, failureReason);
+                written++;
+            }
+            drain(buffer, channel);
+            // Patch the record count into the header now that it is known
+            ByteBuffer count = ByteBuffer.allocate(8).putLong(0, written);
+            channel.write(count, 8);
+        }
+        return written;
+    }
+
+    static void putHeader(ByteBuffer buffer, long recordCount) {
+        buffer.putInt(BINARY_MAGIC).putShort(BINARY_VERSION).putShort((short) 0).putLong(recordCount);
+    }
+
+    /**
+     * Gets the encoded size of a row with the given string fields
+     */
+    static int rowSize(byte[] initiatedBy, byte[] failureReason) {
+        return 44 + 2 + length(initiatedBy) + 2 + length(failureReason);
+    }
+
+    /**
+     * Encodes one row; the strings come from checkedUtf8 and the buffer must have rowSize bytes left
+     */
+    static void putRow(ByteBuffer buffer, TransactionRecord r, byte[] initiatedBy, byte[] failureReason) {
+        buffer.putLong(r.getTransactionId())
+              .putLong(r.getTimestampMillis())
+              .putLong(idOf(r.getSourceAccount()))
+              .putLong(idOf(r.getTargetAccount()))
+              .putDouble(r.getAmount())
+              .put((byte) r.getType().ordinal())
+              .put(r.getInitiatedByRole() == null ? (byte) -1 : (byte) r.getInitiatedByRole().ordinal())
+              .put(r.isSuccess() ? (byte) 1 : (byte) 0)
+              .put(r.getApprovalLevel() == null ? (byte) -1 : (byte) r.getApprovalLevel().ordinal());
+        putString(buffer, initiatedBy);
+        putString(buffer, failureReason);
+    }
+
+    private static FileChannel open(Path target) throws IOException {
+        return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void encode(CharSequence text, CharsetEncoder encoder, ByteBuffer buffer,
+                               FileChannel channel) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain(buffer, channel);
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void appendCsvField(StringBuilder row, String value) {
+        if (value == null) return;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0;
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') row.append('"');
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    private static long idOf(Account account) {
+        return account == null ? 0L : account.getId();
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] checkedUtf8(TransactionRecord r, String field, String value) throws IOException {
+        byte[] bytes = utf8(value);
+        if (bytes != null && bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("Cannot export " + field + " of transaction " + r.getTransactionId() + ": "
+                    + bytes.length + " bytes exceeds the limit of " + MAX_STRING_BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * Cuts an encoded string at a character boundary to MAX_STRING_BYTES
+     */
+    static byte[] truncated(byte[] bytes) {
+        if (bytes == null || bytes.length <= MAX_STRING_BYTES) {
+            return bytes;
+        }
+        int end = MAX_STRING_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--; // do not split a multi-byte character
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+        } else {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+}
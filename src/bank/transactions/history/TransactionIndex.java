@@ -0,0 +1,115 @@
+package bank.transactions.history;
+
+import bank.accounts.Account;
+import bank.common.IntList;
+import bank.common.LongObjectHashMap;
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TransactionIndex - Secondary indexes over log positions
+ * Each index maps a key to the ascending list of positions of matching records.
+ * Mutated only by the TransactionLog under its lock; readers take Postings
+ * views under the same lock and use them after releasing it.
+ */
+final class TransactionIndex {
+
+    private final LongObjectHashMap<IntList> byAccount = new LongObjectHashMap<>();
+    private final Map<String, IntList> byUser = new HashMap<>();
+    private final IntList[] byType = newLists(TransactionType.values().length);
+    private final IntList[] bySuccess = newLists(2);
+    // One list per ApprovalLevel, plus a trailing list for "not approved"
+    private final IntList[] byApproval = newLists(ApprovalLevel.values().length + 1);
+
+    private static IntList[] newLists(int n) {
+        IntList[] lists = new IntList[n];
+        for (int i = 0; i < n; i++) {
+            lists[i] = new IntList(64);
+        }
+        return lists;
+    }
+
+    void add(int position, TransactionRecord record) {
+        Account source = record.getSourceAccount();
+        Account target = record.getTargetAccount();
+        if (source != null) {
+            accountList(source.getId()).add(position);
+        }
+        if (target != null && (source == null || target.getId() != source.getId())) {
+            accountList(target.getId()).add(position);
+        }
+        if (record.getInitiatedBy() != null) {
+            byUser.computeIfAbsent(record.getInitiatedBy(), u -> new IntList()).add(position);
+        }
+        byType[record.getType().ordinal()].add(position);
+        bySuccess[record.isSuccess() ? 1 : 0].add(position);
+        byApproval[approvalSlot(record.getApprovalLevel())].add(position);
+    }
+
+    private IntList accountList(long accountId) {
+        IntList list = byAccount.get(accountId);
+        if (list == null) {
+            list = new IntList(4);
+            byAccount.put(accountId, list);
+        }
+        return list;
+    }
+
+    private static int approvalSlot(ApprovalLevel level) {
+        return level == null ? ApprovalLevel.values().length : level.ordinal();
+    }
+
+    Postings forAccount(long accountId) {
+        return Postings.of(byAccount.get(accountId));
+    }
+
+    Postings forUser(String user) {
+        return Postings.of(byUser.get(user));
+    }
+
+    Postings forType(TransactionType type) {
+        return Postings.of(byType[type.ordinal()]);
+    }
+
+    Postings forSuccess(boolean success) {
+        return Postings.of(bySuccess[success ? 1 : 0]);
+    }
+
+    Postings forApproval(ApprovalLevel level) {
+        return Postings.of(byApproval[approvalSlot(level)]);
+    }
+
+    /**
+     * Immutable view of an index list: positions[0..size) in ascending order
+     */
+    static final class Postings {
+        static final Postings EMPTY = new Postings(new int[0], 0);
+
+        final int[] positions;
+        final int size;
+
+        private Postings(int[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        static Postings of(IntList list) {
+            return list == null ? EMPTY : new Postings(list.elements(), list.size());
+        }
+
+        boolean contains(int position) {
+            return Arrays.binarySearch(positions, 0, size, position) >= 0;
+        }
+
+        /**
+         * Number of positions strictly below the bound
+         */
+        int countBelow(int bound) {
+            int i = Arrays.binarySearch(positions, 0, size, bound);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package bank.transactions.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TransactionJournal - Append-only binary journal of every record added to a TransactionLog
+ *
+ * Uses the row format of TransactionExporter with an APPENDABLE_COUNT header, so
+ * BinaryJournalReader replays it up to the last complete row. Each record is
+ * written to the file as it is added, so the journal survives a process crash;
+ * sync() forces it to the device for durability across an OS crash as well.
+ *
+ * Opening an existing journal cuts off a torn last row before appending. A string
+ * longer than TransactionExporter.MAX_STRING_BYTES is journaled cut to that length,
+ * so such a record still counts in the replayed aggregates.
+ * Opened through TransactionLog.openJournal, which serializes all calls.
+ */
+final class TransactionJournal implements Closeable {
+
+    /** Header record count of an appendable journal */
+    static final long APPENDABLE_COUNT = -1L;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * @param validLength Length of the header plus complete rows, from BinaryJournalReader;
+     *                    0 for a new or empty file
+     */
+    TransactionJournal(Path file, long validLength) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (validLength == 0) {
+                channel.truncate(0);
+                buffer.clear();
+                TransactionExporter.putHeader(buffer, APPENDABLE_COUNT);
+                write();
+            } else {
+                channel.truncate(validLength);
+                channel.position(validLength);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends one record
+     *
+     * @return false if a string of the record had to be truncated
+     * @throws IOException if the record cannot be written
+     */
+    boolean append(TransactionRecord record) throws IOException {
+        byte[] fullInitiatedBy = TransactionExporter.utf8(record.getInitiatedBy());
+        byte[] fullFailureReason = TransactionExporter.utf8(record.getFailureReason());
+        byte[] initiatedBy = TransactionExporter.truncated(fullInitiatedBy);
+        byte[] failureReason = TransactionExporter.truncated(fullFailureReason);
+        int size = TransactionExporter.rowSize(initiatedBy, failureReason);
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        TransactionExporter.putRow(buffer, record, initiatedBy, failureReason);
+        write();
+        return initiatedBy == fullInitiatedBy && failureReason == fullFailureReason;
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces appended records to the storage device
+     */
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,48 +1,446 @@
 package bank.transactions.history;
 
 import bank.accounts.Account;
+import bank.common.BankClock;
+import bank.common.Clocks;
+import bank.common.DayRange;
+import bank.common.LongObjectHashMap;
 import bank.transactions.TransactionType;
+import bank.users.Role;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
 
 public class TransactionLog {
-    private final List<TransactionRecord> records = new ArrayList<>();
+    public static final int DEFAULT_RECENT_CAPACITY = 256;
+
+    private final AppendOnlyRecords records = new AppendOnlyRecords();
+    private final TransactionIndex index = new TransactionIndex();
+    private final DailyAggregates dailyAggregates;
+    private final BankClock clock;
+    // Bounds of "today", recomputed only when the clock crosses midnight
+    private volatile DayRange today;
+
+    // Recent-activity rings; the per-role and per-account tables are copy-on-write
+    private final RecentRecords recent;
+    private volatile RecentRecords[] recentByRole = new RecentRecords[Role.values().length];
+    private volatile LongObjectHashMap<RecentRecords> recentByAccount = new LongObjectHashMap<>();
+
+    // Copy-on-write so addRecord iterates without allocation
+    private volatile TransactionLogListener[] listeners = new TransactionLogListener[0];
+
+    // Append-only journal of added records; null when not journaling
+    private TransactionJournal journal;
+    private volatile IOException journalError;
+    private volatile long journalTruncations;
+
+    public TransactionLog() {
+        this(Clocks.get());
+    }
+
+    public TransactionLog(BankClock clock) {
+        this(clock, DEFAULT_RECENT_CAPACITY);
+    }
+
+    /**
+     * @param clock Time source for daily totals and reports
+     * @param recentCapacity Number of most recent records kept for the audit view
+     */
+    public TransactionLog(BankClock clock, int recentCapacity) {
+        this.clock = clock;
+        this.today = clock.dayRange(clock.today());
+        this.dailyAggregates = new DailyAggregates(clock);
+        this.recent = new RecentRecords(recentCapacity);
+    }
 
     public synchronized void addRecord(TransactionRecord record) {
-        records.add(record);
+        if (journal != null) {
+            appendToJournal(record);
+        }
+        int position = records.append(record);
+        index.add(position, record);
+        dailyAggregates.add(record);
+        addToRecent(record);
+        for (TransactionLogListener listener : listeners) {
+            listener.recordAdded(record);
+        }
         System.out.println("Transaction logged: " + record.getTransactionId() + " " + record.getType() + " $" + record.getAmount());
     }
 
+    private void appendToJournal(TransactionRecord record) {
+        try {
+            if (!journal.append(record)) {
+                journalTruncations++;
+            }
+        } catch (IOException e) {
+            // A write failed, possibly halfway through a row that would corrupt every later append
+            journalError = e;
+            System.out.println("Error: Transaction journal disabled: " + e.getMessage());
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // already failing
+            }
+            journal = null;
+        }
+    }
+
+    private void addToRecent(TransactionRecord record) {
+        recent.add(record);
+        if (record.getInitiatedByRole() != null) {
+            RecentRecords byRole = recentByRole[record.getInitiatedByRole().ordinal()];
+            if (byRole != null) byRole.add(record);
+        }
+        LongObjectHashMap<RecentRecords> byAccount = recentByAccount;
+        if (!byAccount.isEmpty()) {
+            Account source = record.getSourceAccount();
+            Account target = record.getTargetAccount();
+            if (source != null) addToRing(byAccount.get(source.getId()), record);
+            if (target != null && (source == null || target.getId() != source.getId())) {
+                addToRing(byAccount.get(target.getId()), record);
+            }
+        }
+    }
+
+    private static void addToRing(RecentRecords ring, TransactionRecord record) {
+        if (ring != null) ring.add(record);
+    }
+
+    /**
+     * Registers a callback for every record added from now on
+     */
+    public synchronized void addListener(TransactionLogListener listener) {
+        TransactionLogListener[] current = listeners;
+        TransactionLogListener[] copy = Arrays.copyOf(current, current.length + 1);
+        copy[current.length] = listener;
+        listeners = copy;
+    }
+
+    public synchronized void removeListener(TransactionLogListener listener) {
+        TransactionLogListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                TransactionLogListener[] copy = new TransactionLogListener[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps a dedicated recent-activity ring for transactions initiated by a role
+     */
+    public synchronized void trackRecentByRole(Role role, int capacity) {
+        RecentRecords[] copy = recentByRole.clone();
+        copy[role.ordinal()] = new RecentRecords(capacity);
+        recentByRole = copy;
+    }
+
+    /**
+     * Keeps a dedicated recent-activity ring for an account (as source or target)
+     */
+    public synchronized void trackRecentForAccount(long accountId, int capacity) {
+        LongObjectHashMap<RecentRecords> copy = new LongObjectHashMap<>(recentByAccount.size() + 1);
+        recentByAccount.forEach(copy::put);
+        copy.put(accountId, new RecentRecords(capacity));
+        recentByAccount = copy;
+    }
+
+    /**
+     * Gets up to n of the most recent records, newest first, in O(n)
+     */
+    public RecentResult getRecentRecords(int n) {
+        if (n <= recent.getCapacity()) {
+            return recent.latest(n);
+        }
+        return new RecentResult(query(new TransactionQuery().limit(n)).getRecords(), 0);
+    }
+
+    /**
+     * Gets up to n of the most recent records initiated by a role, newest first
+     * Served from the role's ring when tracked, otherwise by scanning back through the log.
+     */
+    public RecentResult getRecentRecords(Role role, int n) {
+        RecentRecords ring = recentByRole[role.ordinal()];
+        if (ring != null && n <= ring.getCapacity()) {
+            return ring.latest(n);
+        }
+        List<TransactionRecord> result = new ArrayList<>();
+        for (int pos = records.size() - 1; pos >= 0 && result.size() < n; pos--) {
+            TransactionRecord r = records.get(pos);
+            if (r.getInitiatedByRole() == role) result.add(r);
+        }
+        return new RecentResult(result, 0);
+    }
+
+    /**
+     * Gets up to n of the most recent records of an account, newest first
+     * Served from the account's ring when tracked, otherwise from the account index.
+     */
+    public RecentResult getRecentRecordsForAccount(long accountId, int n) {
+        RecentRecords ring = recentByAccount.get(accountId);
+        if (ring != null && n <= ring.getCapacity()) {
+            return ring.latest(n);
+        }
+        return new RecentResult(query(new TransactionQuery().forAccount(accountId).limit(n)).getRecords(), 0);
+    }
+
     public List<TransactionRecord> getAllRecords() {
-        return new ArrayList<>(records);
+        LogSnapshot snapshot = snapshot();
+        List<TransactionRecord> copy = new ArrayList<>(snapshot.size());
+        for (TransactionRecord r : snapshot) {
+            copy.add(r);
+        }
+        return copy;
+    }
+
+    /**
+     * Captures the current end of the log without copying any records
+     * Readers can iterate the snapshot while new records are being added.
+     */
+    public LogSnapshot snapshot() {
+        return new LogSnapshot(records, records.size());
+    }
+
+    public BankClock getClock() {
+        return clock;
     }
 
     public double getTodaysTotalFor(Account account, TransactionType type) {
-        LocalDate today = LocalDate.now();
-        return records.stream()
-                .filter(r -> r.isSuccess())
-                .filter(r -> r.getType() == type)
-                .filter(r -> r.getTimestamp().toLocalDate().equals(today))
-                .filter(r -> {
-                    if (type == TransactionType.DEPOSIT) return r.getTargetAccount() == account || r.getSourceAccount() == account;
-                    return r.getSourceAccount() == account;
-                })
-                .mapToDouble(TransactionRecord::getAmount)
-                .sum();
+        DayRange day = currentDay();
+        TransactionIndex.Postings postings;
+        synchronized (this) {
+            postings = index.forAccount(account.getId());
+        }
+        double total = 0.0;
+        for (int i = postings.size - 1; i >= 0; i--) {
+            int position = postings.positions[i];
+            // Newest first: stop once nothing at or below this position can be from today
+            if (records.maxTimestampThrough(position) < day.getStartMillis()) break;
+            TransactionRecord r = records.get(position);
+            if (!r.isSuccess() || r.getType() != type || !day.contains(r.getTimestampMillis())) continue;
+            boolean involved = type == TransactionType.DEPOSIT
+                    ? r.getTargetAccount() == account || r.getSourceAccount() == account
+                    : r.getSourceAccount() == account;
+            if (involved) total += r.getAmount();
+        }
+        return total;
     }
 
     public void printDailyReport(LocalDate date) {
-        List<TransactionRecord> dayRecords = records.stream()
-                .filter(r -> r.getTimestamp().toLocalDate().equals(date))
-                .collect(Collectors.toList());
+        DailySummary summary = getDailySummary(date);
         System.out.println("Daily Transaction Report: " + date);
-        System.out.println("Count: " + dayRecords.size());
-        double total = dayRecords.stream().mapToDouble(TransactionRecord::getAmount).sum();
-        System.out.println("Total Amount: $" + total);
-        long failures = dayRecords.stream().filter(r -> !r.isSuccess()).count();
-        System.out.println("Failures: " + failures);
+        System.out.println("Count: " + summary.getCount());
+        System.out.println("Total Amount: $" + summary.getTotalAmount());
+        System.out.println("Failures: " + summary.getFailures());
+    }
+
+    /**
+     * Gets the running totals for a day in O(1)
+     */
+    public synchronized DailySummary getDailySummary(LocalDate date) {
+        return dailyAggregates.summaryFor(date);
+    }
+
+    /**
+     * Recomputes the daily aggregates from the records currently in the log
+     */
+    public synchronized void rebuildDailyAggregates() {
+        dailyAggregates.clear();
+        int size = records.size();
+        for (int pos = 0; pos < size; pos++) {
+            dailyAggregates.add(records.get(pos));
+        }
+    }
+
+    /**
+     * Replaces the daily aggregates with the totals of a binary journal (an export
+     * or a journal written by openJournal)
+     * Records of this log that are not in the journal are no longer counted.
+     *
+     * @return The number of journal rows replayed
+     */
+    public synchronized long loadDailyAggregates(Path journal) throws IOException {
+        dailyAggregates.clear();
+        return new BinaryJournalReader(false).read(journal, this::addJournalRow);
+    }
+
+    private void addJournalRow(BinaryJournalReader.JournalRow row) {
+        dailyAggregates.add(row.getTimestampMillis(), row.getType(), row.getAmount(), row.isSuccess(),
+                row.getApprovalLevel());
+    }
+
+    /**
+     * Starts journaling every added record to a file and restores the daily
+     * aggregates from the rows already in it
+     * Call it at startup, before any record is added: after a restart the same
+     * file brings back the reporting totals of every record added before, up to
+     * the last complete row.
+     *
+     * @return The number of rows replayed from the existing file
+     * @throws IOException if the file is not an appendable journal or cannot be opened
+     * @throws IllegalStateException if records were already added or a journal is open
+     */
+    public synchronized long openJournal(Path file) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("A journal is already open");
+        }
+        if (records.size() > 0) {
+            throw new IllegalStateException("Open the journal before adding records");
+        }
+        long rows = 0;
+        long validLength = 0;
+        dailyAggregates.clear();
+        // A file shorter than a header was cut off while being created; start it over
+        if (Files.exists(file) && Files.size(file) >= TransactionExporter.BINARY_HEADER_SIZE) {
+            BinaryJournalReader reader = new BinaryJournalReader(false);
+            rows = reader.read(file, this::addJournalRow);
+            if (!reader.isAppendable()) {
+                dailyAggregates.clear();
+                throw new IOException("Not an appendable journal: " + file);
+            }
+            validLength = reader.getValidLength();
+        }
+        journal = new TransactionJournal(file, validLength);
+        journalError = null;
+        journalTruncations = 0;
+        return rows;
+    }
+
+    /**
+     * Forces journaled records to the storage device (no-op without a journal)
+     *
+     * @throws IOException if the sync fails, or if a failed write stopped journaling
+     *         since the journal was opened
+     */
+    public synchronized void syncJournal() throws IOException {
+        if (journal != null) {
+            journal.sync();
+        } else if (journalError != null) {
+            throw new IOException("Transaction journal disabled", journalError);
+        }
     }
-}
 
+    /**
+     * Stops journaling and closes the file
+     */
+    public synchronized void closeJournal() throws IOException {
+        if (journal != null) {
+            TransactionJournal open = journal;
+            journal = null;
+            open.close();
+        }
+    }
+
+    /**
+     * Gets the error that stopped journaling, or null
+     */
+    public IOException getJournalError() {
+        return journalError;
+    }
+
+    /**
+     * Gets the number of records journaled with a string cut to
+     * TransactionExporter.MAX_STRING_BYTES since the journal was opened
+     */
+    public long getJournalTruncationCount() {
+        return journalTruncations;
+    }
+
+    /**
+     * Runs an indexed query
+     * Index-backed criteria are intersected starting from the smallest posting list;
+     * results are returned newest first, one page of at most query.limit records at
+     * a time. The order is by timestamp, then by log position, across pages too:
+     * the cursor is the last record of a page and the next page starts strictly
+     * after it in that order. Positions are walked from the newest and the walk
+     * stops once no older position can hold a record for the page (see
+     * AppendOnlyRecords), so a time bound or a full page ends the scan early.
+     */
+    public QueryResult query(TransactionQuery query) {
+        List<TransactionIndex.Postings> lists = new ArrayList<>(5);
+        int bound;
+        synchronized (this) {
+            bound = records.size();
+            if (query.hasAccount()) lists.add(index.forAccount(query.getAccountId()));
+            if (query.getInitiatedBy() != null) lists.add(index.forUser(query.getInitiatedBy()));
+            if (query.getType() != null) lists.add(index.forType(query.getType()));
+            if (query.getSuccess() != null) lists.add(index.forSuccess(query.getSuccess()));
+            if (query.hasApproval()) lists.add(index.forApproval(query.getApprovedBy()));
+        }
+        int limit = query.getLimit();
+        int cursor = query.getCursor();
+        if (cursor < 0) {
+            return new QueryResult(new ArrayList<>(), -1);
+        }
+        boolean continued = cursor < bound;
+        long cursorTime = continued ? records.get(cursor).getTimestampMillis() : Long.MAX_VALUE;
+        // Min-heap by (timestamp, position): its head is the oldest record of the page so far
+        PriorityQueue<Integer> page = new PriorityQueue<>(Math.min(limit, 64) + 1, this::compareByTime);
+
+        TransactionIndex.Postings driver = null;
+        if (!lists.isEmpty()) {
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            driver = lists.get(0);
+        }
+        int i = driver == null ? bound : driver.countBelow(bound);
+        while (--i >= 0) {
+            int pos = driver == null ? i : driver.positions[i];
+            long ceiling = records.maxTimestampThrough(pos);
+            if (ceiling < query.getFromMillis()) break;
+            if (page.size() == limit && ceiling <= records.get(page.peek()).getTimestampMillis()) break;
+            int start = AppendOnlyRecords.segmentStart(pos);
+            if (continued && start > cursor && records.minTimestampAround(pos) >= cursorTime) {
+                // Every record of this segment was on an earlier page; skip it
+                i = driver == null ? start : driver.countBelow(start);
+                continue;
+            }
+            if (driver != null && !containedInAll(lists, pos)) continue;
+            long time = records.get(pos).getTimestampMillis();
+            if (!query.inTimeRange(time)) continue;
+            if (continued && (time > cursorTime || (time == cursorTime && pos >= cursor))) continue;
+            page.add(pos);
+            if (page.size() > limit) page.poll();
+        }
+
+        int full = page.size();
+        TransactionRecord[] newestFirst = new TransactionRecord[full];
+        int lastPosition = -1;
+        for (int k = full - 1; k >= 0; k--) {
+            int pos = page.poll();
+            if (k == full - 1) lastPosition = pos;
+            newestFirst[k] = records.get(pos);
+        }
+        return new QueryResult(Arrays.asList(newestFirst), full == limit ? lastPosition : -1);
+    }
+
+    private int compareByTime(int a, int b) {
+        int byTime = Long.compare(records.get(a).getTimestampMillis(), records.get(b).getTimestampMillis());
+        return byTime != 0 ? byTime : Integer.compare(a, b);
+    }
+
+    private static boolean containedInAll(List<TransactionIndex.Postings> lists, int position) {
+        for (int j = 1; j < lists.size(); j++) {
+            if (!lists.get(j).contains(position)) return false;
+        }
+        return true;
+    }
+
+    private DayRange currentDay() {
+        long now = clock.millis();
+        DayRange day = today;
+        if (!day.contains(now)) {
+            day = clock.dayRange(clock.toLocalDate(now));
+            today = day;
+        }
+        return day;
+    }
+}
@@ -0,0 +1,15 @@
+package bank.transactions.history;
+
+/**
+ * TransactionLogListener - Callback for records appended to a TransactionLog
+ * Invoked on the appending thread while the log's write lock is held, so
+ * implementations must be short and must not call back into the log.
+ */
+@FunctionalInterface
+public interface TransactionLogListener {
+
+    /**
+     * Called after a record has been added
+     */
+    void recordAdded(TransactionRecord record);
+}
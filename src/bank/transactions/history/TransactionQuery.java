@@ -0,0 +1,105 @@
+package bank.transactions.history;
+
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+
+/**
+ * TransactionQuery - Criteria for TransactionLog.query
+ * Every criterion that is set must match (AND). Criteria backed by a secondary
+ * index (account, user, type, success, approval level) are resolved by
+ * intersecting index postings; the time range is checked on the candidates.
+ *
+ * Example: "all failed transactions for account Y this week"
+ * <pre>
+ *   new TransactionQuery().forAccount(y).successful(false).between(weekStart, now).limit(50)
+ * </pre>
+ */
+public class TransactionQuery {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    private boolean accountSet;
+    private long accountId;
+    private String initiatedBy;
+    private TransactionType type;
+    private Boolean success;
+    private boolean approvalSet;
+    private ApprovalLevel approvedBy;
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private int limit = DEFAULT_LIMIT;
+    private int cursor = Integer.MAX_VALUE;
+
+    /**
+     * Account as source or target
+     */
+    public TransactionQuery forAccount(long accountId) {
+        this.accountSet = true;
+        this.accountId = accountId;
+        return this;
+    }
+
+    public TransactionQuery initiatedBy(String user) {
+        this.initiatedBy = user;
+        return this;
+    }
+
+    public TransactionQuery ofType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    public TransactionQuery successful(boolean success) {
+        this.success = success;
+        return this;
+    }
+
+    /**
+     * Approval level; null selects transactions that were not approved by the chain
+     */
+    public TransactionQuery approvedBy(ApprovalLevel level) {
+        this.approvalSet = true;
+        this.approvedBy = level;
+        return this;
+    }
+
+    /**
+     * Time range fromMillis <= timestamp < toMillis (epoch millis)
+     */
+    public TransactionQuery between(long fromMillis, long toMillis) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        return this;
+    }
+
+    public TransactionQuery limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Continues a previous query from QueryResult.getNextCursor()
+     */
+    public TransactionQuery after(int cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
+    boolean hasAccount() { return accountSet; }
+    long getAccountId() { return accountId; }
+    String getInitiatedBy() { return initiatedBy; }
+    TransactionType getType() { return type; }
+    Boolean getSuccess() { return success; }
+    boolean hasApproval() { return approvalSet; }
+    ApprovalLevel getApprovedBy() { return approvedBy; }
+    int getLimit() { return limit; }
+    int getCursor() { return cursor; }
+    long getFromMillis() { return fromMillis; }
+
+    boolean inTimeRange(long timestampMillis) {
+        return timestampMillis >= fromMillis && timestampMillis < toMillis;
+    }
+}
@@ -1,39 +1,41 @@
 package bank.transactions.history;
 
 import bank.accounts.Account;
+import bank.common.Clocks;
 import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
 import bank.users.Role;
 import java.time.LocalDateTime;
 
 public class TransactionRecord {
-    private final String transactionId;
+    private final long transactionId;
     private final TransactionType type;
     private final Account sourceAccount;
     private final Account targetAccount;
-    private final LocalDateTime timestamp;
+    private final long timestamp; // epoch millis
     private final double amount;
     private final String initiatedBy;
     private final Role initiatedByRole;
     private final boolean success;
     private final String failureReason;
-    private final String approvedByLevel;
+    private final ApprovalLevel approvedByLevel;
 
-    public TransactionRecord(String transactionId,
+    public TransactionRecord(long transactionId,
                              TransactionType type,
                              Account sourceAccount,
                              Account targetAccount,
-                             LocalDateTime timestamp,
+                             long timestampMillis,
                              double amount,
                              String initiatedBy,
                              Role initiatedByRole,
                              boolean success,
                              String failureReason,
-                             String approvedByLevel) {
+                             ApprovalLevel approvedByLevel) {
         this.transactionId = transactionId;
         this.type = type;
         this.sourceAccount = sourceAccount;
         this.targetAccount = targetAccount;
-        this.timestamp = timestamp;
+        this.timestamp = timestampMillis;
         this.amount = amount;
         this.initiatedBy = initiatedBy;
         this.initiatedByRole = initiatedByRole;
@@ -42,7 +44,7 @@ public class TransactionRecord {
         this.approvedByLevel = approvedByLevel;
     }
 
-    public String getTransactionId() {
+    public long getTransactionId() {
         return transactionId;
     }
 
@@ -59,6 +61,10 @@ public class TransactionRecord {
     }
 
     public LocalDateTime getTimestamp() {
+        return Clocks.get().toLocalDateTime(timestamp);
+    }
+
+    public long getTimestampMillis() {
         return timestamp;
     }
 
@@ -83,6 +89,10 @@ public class TransactionRecord {
     }
 
     public String getApprovedByLevel() {
+        return approvedByLevel == null ? null : approvedByLevel.name();
+    }
+
+    public ApprovalLevel getApprovalLevel() {
         return approvedByLevel;
     }
 }
@@ -10,6 +10,8 @@ public class ScheduledTransaction {
     private final TransactionType type;
     private final Account source;
     private final Account target;
+    private final long sourceId;
+    private final long targetId;
     private final double amount;
     private final String user;
     private final Role role;
@@ -21,6 +23,26 @@ public class ScheduledTransaction {
         this.type = type;
         this.source = source;
         this.target = target;
+        this.sourceId = source == null ? 0L : source.getId();
+        this.targetId = target == null ? 0L : target.getId();
+        this.amount = amount;
+        this.user = user;
+        this.role = role;
+        this.nextRun = firstRun;
+        this.intervalDays = intervalDays;
+    }
+
+    /**
+     * Schedules a transaction by account id; the accounts are resolved through the
+     * service's AccountRepository each time the transaction runs
+     */
+    public ScheduledTransaction(TransactionType type, long sourceId, long targetId, double amount,
+                                String user, Role role, LocalDate firstRun, int intervalDays) {
+        this.type = type;
+        this.source = null;
+        this.target = null;
+        this.sourceId = sourceId;
+        this.targetId = targetId;
         this.amount = amount;
         this.user = user;
         this.role = role;
@@ -30,11 +52,20 @@ public class ScheduledTransaction {
 
     public void runIfDue(LocalDate today, TransactionService service) {
         if (!today.isBefore(nextRun)) {
-            switch (type) {
-                case DEPOSIT: service.deposit(source, amount, user, role); break;
-                case WITHDRAW: service.withdraw(source, amount, user, role); break;
-                case TRANSFER: service.transfer(source, target, amount, user, role); break;
-                default: break;
+            if (source != null) {
+                switch (type) {
+                    case DEPOSIT: service.deposit(source, amount, user, role); break;
+                    case WITHDRAW: service.withdraw(source, amount, user, role); break;
+                    case TRANSFER: service.transfer(source, target, amount, user, role); break;
+                    default: break;
+                }
+            } else {
+                switch (type) {
+                    case DEPOSIT: service.deposit(sourceId, amount, user, role); break;
+                    case WITHDRAW: service.withdraw(sourceId, amount, user, role); break;
+                    case TRANSFER: service.transfer(sourceId, targetId, amount, user, role); break;
+                    default: break;
+                }
             }
             nextRun = nextRun.plusDays(intervalDays);
         }
@@ -0,0 +1,82 @@
+package bank.transactions.test;
+
+import bank.accounts.types.SavingAccount;
+import bank.common.ManualBankClock;
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import bank.transactions.history.TransactionLog;
+import bank.transactions.history.TransactionRecord;
+import bank.users.Role;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * AuditViewBenchmark - Dashboard audit-log refresh latency vs. history size
+ * Compares the previous approach (copy the whole history, sort, keep 10)
+ * with reading the recent-activity ring.
+ *
+ * Usage: java -Xmx4g -cp bin bank.transactions.test.AuditViewBenchmark [records]
+ * (defaults to 10,000,000 records)
+ */
+public class AuditViewBenchmark {
+
+    private static final PrintStream CONSOLE = System.out;
+    private static final int AUDIT_SIZE = 10;
+
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // keep the per-operation trace out of the timings
+
+        ManualBankClock clock = ManualBankClock.at(LocalDateTime.of(2024, 1, 1, 0, 0));
+        TransactionLog log = new TransactionLog(clock);
+        SavingAccount[] accounts = new SavingAccount[64];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new SavingAccount("Bench" + i, 1000.0);
+        }
+        TransactionType[] types = TransactionType.values();
+        Role[] roles = Role.values();
+
+        long loadStart = System.nanoTime();
+        long ts = clock.millis();
+        for (int i = 0; i < total; i++) {
+            SavingAccount source = accounts[i & 63];
+            SavingAccount target = accounts[(i * 7) & 63];
+            log.addRecord(new TransactionRecord(i + 1L, types[i % types.length], source, target, ts + i,
+                    100.0 + (i % 1000), "user" + (i & 15), roles[i & 3], (i & 31) != 0, null, ApprovalLevel.AUTO));
+        }
+        CONSOLE.printf("Loaded %,d records in %d ms%n", total, (System.nanoTime() - loadStart) / 1_000_000);
+
+        // Previous implementation: full copy + sort + limit
+        int fullRuns = total >= 1_000_000 ? 3 : 10;
+        long fullNanos = 0;
+        for (int run = 0; run < fullRuns; run++) {
+            long start = System.nanoTime();
+            List<TransactionRecord> top = log.getAllRecords().stream()
+                    .sorted(Comparator.comparingLong(TransactionRecord::getTimestampMillis).reversed())
+                    .limit(AUDIT_SIZE)
+                    .collect(Collectors.toList());
+            fullNanos += System.nanoTime() - start;
+            if (top.size() != AUDIT_SIZE) throw new IllegalStateException("Unexpected audit size");
+        }
+
+        // Ring buffer
+        int ringRuns = 100_000;
+        long sink = 0;
+        for (int run = 0; run < ringRuns; run++) { // warm-up
+            sink += log.getRecentRecords(AUDIT_SIZE).getRecords().size();
+        }
+        long start = System.nanoTime();
+        for (int run = 0; run < ringRuns; run++) {
+            sink += log.getRecentRecords(AUDIT_SIZE).getRecords().size();
+        }
+        long ringNanos = System.nanoTime() - start;
+
+        CONSOLE.printf("Copy + sort + limit : %,12.1f us per refresh%n", fullNanos / 1000.0 / fullRuns);
+        CONSOLE.printf("Recent ring         : %,12.3f us per refresh%n", ringNanos / 1000.0 / ringRuns);
+        CONSOLE.println("(checksum " + sink + ")");
+    }
+}
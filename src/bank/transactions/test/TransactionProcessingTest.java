@@ -3,12 +3,24 @@ package bank.transactions.test;
 import bank.accounts.states.ActiveState;
 import bank.accounts.types.CheckingAccount;
 import bank.accounts.types.SavingAccount;
+import bank.common.ManualBankClock;
 import bank.transactions.TransactionService;
 import bank.users.Role;
+import bank.transactions.TransactionType;
+import bank.transactions.handlers.ApprovalLevel;
+import bank.transactions.history.DailySummary;
+import bank.transactions.history.QueryResult;
+import bank.transactions.history.RecordFilter;
+import bank.transactions.history.TransactionExporter;
 import bank.transactions.history.TransactionLog;
+import bank.transactions.history.TransactionQuery;
+import bank.transactions.history.TransactionRecord;
 import bank.transactions.notification.ConsoleNotificationService;
 import bank.transactions.validator.TransactionValidator;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class TransactionProcessingTest {
     private int testsPassed = 0;
@@ -73,6 +85,351 @@ public class TransactionProcessingTest {
             st.runIfDue(LocalDate.now(), service);
             assertTrue(log.getAllRecords().size() >= 1, "Scheduled transaction should be logged");
         });
+
+        test("Daily limit resets on the next simulated day", () -> {
+            ManualBankClock clock = ManualBankClock.at(LocalDateTime.of(2024, 3, 1, 9, 30));
+            TransactionLog dayLog = new TransactionLog(clock);
+            TransactionService dayService = new TransactionService(validator, dayLog, new ConsoleNotificationService(), clock);
+            SavingAccount a4 = new SavingAccount("User6", 50000.0);
+            assertTrue(dayService.withdraw(a4, 15000.0, "User6", Role.TELLER), "First withdraw should succeed");
+            assertFalse(dayService.withdraw(a4, 6000.0, "User6", Role.TELLER), "Second withdraw should hit the daily limit");
+            clock.advanceDays(1);
+            assertTrue(dayService.withdraw(a4, 6000.0, "User6", Role.TELLER), "Limit should reset on the next day");
+            assertTrue(dayLog.getAllRecords().get(0).getTimestamp().toLocalDate().equals(LocalDate.of(2024, 3, 1)),
+                    "Record should carry the simulated date");
+        });
+
+        test("Export streams filtered history to CSV and binary", () -> {
+            TransactionExporter exporter = new TransactionExporter(log);
+            long transfers = log.getAllRecords().stream().filter(r -> r.getType() == TransactionType.TRANSFER).count();
+            Path csv = Files.createTempFile("tx-export", ".csv");
+            Path bin = Files.createTempFile("tx-export", ".bin");
+            try {
+                long csvRows = exporter.exportCsv(csv, new RecordFilter().ofType(TransactionType.TRANSFER));
+                assertTrue(csvRows == transfers, "CSV should contain every transfer");
+                assertTrue(Files.readAllLines(csv).size() == transfers + 1, "CSV should have a header plus one line per row");
+                long a2Rows = exporter.exportBinary(bin, new RecordFilter().forAccount(a2.getId()));
+                assertTrue(a2Rows > 0, "Binary export should contain the account's records");
+                assertTrue(java.nio.ByteBuffer.wrap(Files.readAllBytes(bin)).getLong(8) == a2Rows,
+                        "Binary header should carry the record count");
+
+                TransactionLog longLog = new TransactionLog();
+                String reason = "x".repeat(40_000);
+                longLog.addRecord(new TransactionRecord(1L, TransactionType.DEPOSIT, a2, a2, 0L, 1.0, "Long", Role.TELLER,
+                        false, reason, null));
+                new TransactionExporter(longLog).exportBinary(bin, null);
+                String[] read = new String[1];
+                new bank.transactions.history.BinaryJournalReader(true).read(bin, row -> read[0] = row.getFailureReason());
+                assertTrue(reason.equals(read[0]), "Strings over 32767 bytes should round-trip");
+                longLog.addRecord(new TransactionRecord(2L, TransactionType.DEPOSIT, a2, a2, 0L, 1.0, "Long", Role.TELLER,
+                        false, "y".repeat(TransactionExporter.MAX_STRING_BYTES + 1), null));
+                boolean rejected = false;
+                try {
+                    new TransactionExporter(longLog).exportBinary(bin, null);
+                } catch (java.io.IOException expected) {
+                    rejected = true;
+                }
+                assertTrue(rejected, "Strings beyond the format limit should be rejected, not wrapped");
+            } finally {
+                Files.deleteIfExists(csv);
+                Files.deleteIfExists(bin);
+            }
+        });
+
+        test("Indexed queries intersect criteria and page newest first", () -> {
+            TransactionLog qLog = new TransactionLog();
+            TransactionService qService = new TransactionService(new TransactionValidator(100000.0, 100000.0), qLog,
+                    new ConsoleNotificationService());
+            SavingAccount q1 = new SavingAccount("Query1", 90000.0);
+            SavingAccount q2 = new SavingAccount("Query2", 1000.0);
+            for (int i = 0; i < 5; i++) {
+                qService.transfer(q1, q2, 100.0 + i, "Xavier", Role.TELLER);
+            }
+            qService.withdraw(q2, 950.0 + 500.0, "Yvonne", Role.CUSTOMER); // fails minimum balance
+            qService.transfer(q1, q2, 60000.0, "Zed", Role.ADMIN);         // admin-approved
+
+            QueryResult byUser = qLog.query(new TransactionQuery().initiatedBy("Xavier").ofType(TransactionType.TRANSFER).limit(3));
+            assertTrue(byUser.getRecords().size() == 3, "First page should be full");
+            assertTrue(byUser.getRecords().get(0).getAmount() == 104.0, "Newest transfer should come first");
+            QueryResult next = qLog.query(new TransactionQuery().initiatedBy("Xavier").limit(3).after(byUser.getNextCursor()));
+            assertTrue(next.getRecords().size() == 2 && !next.hasMore(), "Second page should hold the remaining transfers");
+
+            QueryResult failed = qLog.query(new TransactionQuery().forAccount(q2.getId()).successful(false));
+            assertTrue(failed.getRecords().size() == 1, "One failed transaction for the account");
+            QueryResult admin = qLog.query(new TransactionQuery().approvedBy(ApprovalLevel.ADMIN));
+            assertTrue(admin.getRecords().size() == 1 && admin.getRecords().get(0).getInitiatedBy().equals("Zed"),
+                    "Admin-approved query should find the large transfer");
+
+            // Records logged out of timestamp order still page strictly newest first
+            TransactionLog skewed = new TransactionLog();
+            long[] times = {10, 30, 20, 40, 35, 50};
+            for (int i = 0; i < times.length; i++) {
+                skewed.addRecord(new bank.transactions.history.TransactionRecord(i, TransactionType.DEPOSIT, q1, q1,
+                        times[i], 1.0, "Skew", Role.TELLER, true, null, null));
+            }
+            java.util.List<Long> paged = new java.util.ArrayList<>();
+            QueryResult page = skewed.query(new TransactionQuery().forAccount(q1.getId()).limit(2));
+            while (true) {
+                page.getRecords().forEach(r -> paged.add(r.getTimestampMillis()));
+                if (!page.hasMore()) break;
+                page = skewed.query(new TransactionQuery().forAccount(q1.getId()).limit(2).after(page.getNextCursor()));
+            }
+            assertTrue(paged.equals(java.util.Arrays.asList(50L, 40L, 35L, 30L, 20L, 10L)),
+                    "Pages should follow timestamp order: " + paged);
+            java.util.List<Long> bounded = new java.util.ArrayList<>();
+            skewed.query(new TransactionQuery().between(25, 45)).getRecords()
+                    .forEach(r -> bounded.add(r.getTimestampMillis()));
+            assertTrue(bounded.equals(java.util.Arrays.asList(40L, 35L, 30L)), "Time bounds should apply: " + bounded);
+        });
+
+        test("Recent-activity rings serve the audit view newest first", () -> {
+            TransactionLog rLog = new TransactionLog(new ManualBankClock(0L), 4);
+            rLog.trackRecentByRole(Role.MANAGER, 2);
+            SavingAccount r1 = new SavingAccount("Ring1", 5000.0);
+            rLog.trackRecentForAccount(r1.getId(), 3);
+            TransactionService rService = new TransactionService(validator, rLog, new ConsoleNotificationService());
+            for (int i = 1; i <= 6; i++) {
+                rService.deposit(r1, i, "User" + i, i % 2 == 0 ? Role.MANAGER : Role.CUSTOMER);
+            }
+            bank.transactions.history.RecentResult latest = rLog.getRecentRecords(4);
+            assertTrue(latest.getRecords().size() == 4 && latest.getRecords().get(0).getAmount() == 6.0,
+                    "Global ring keeps the newest 4");
+            assertTrue(latest.isComplete(), "A quiet ring should read without gaps");
+            assertTrue(rLog.getRecentRecords(10).getRecords().size() == 6, "Requests beyond the ring fall back to the log");
+            assertTrue(rLog.getRecentRecords(Role.MANAGER, 2).getRecords().get(1).getAmount() == 4.0,
+                    "Role ring keeps manager records");
+            assertTrue(rLog.getRecentRecordsForAccount(r1.getId(), 3).getRecords().size() == 3, "Account ring keeps 3 records");
+
+            // A reader racing a writer either sees a record or counts it as missed
+            bank.transactions.history.RecentRecords ring = new bank.transactions.history.RecentRecords(4);
+            TransactionRecord seed = latest.getRecords().get(0);
+            for (int i = 0; i < 4; i++) ring.add(seed);
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 2_000_000; i++) ring.add(seed);
+            });
+            writer.start();
+            boolean accounted = true;
+            while (writer.isAlive()) {
+                bank.transactions.history.RecentResult read = ring.latest(4);
+                accounted &= read.getRecords().size() + read.getMissed() == 4;
+            }
+            writer.join();
+            assertTrue(accounted, "Every slot read should be returned or counted as missed");
+            assertTrue(ring.latest(4).isComplete(), "The ring should read whole once writers stop");
+        });
+
+        test("Daily aggregates stay consistent under concurrent appends and rebuild from a journal", () -> {
+            ManualBankClock clock = ManualBankClock.at(LocalDateTime.of(2024, 5, 2, 12, 0));
+            TransactionLog aggLog = new TransactionLog(clock);
+            SavingAccount acc = new SavingAccount("Aggregate", 1000.0);
+            Thread[] writers = new Thread[4];
+            for (int t = 0; t < writers.length; t++) {
+                final int writer = t;
+                writers[t] = new Thread(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        aggLog.addRecord(new bank.transactions.history.TransactionRecord(writer * 1000L + i,
+                                TransactionType.DEPOSIT, acc, acc, clock.millis(), 2.0, "W" + writer, Role.TELLER,
+                                i % 10 != 0, null, i % 2 == 0 ? ApprovalLevel.AUTO : null));
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread w : writers) w.join();
+            DailySummary summary = aggLog.getDailySummary(LocalDate.of(2024, 5, 2));
+            assertTrue(summary.getCount() == 1000 && summary.getTotalAmount() == 2000.0, "Totals should cover every append");
+            assertTrue(summary.getFailures() == 100, "Failures should be counted");
+            assertTrue(summary.getCount(ApprovalLevel.AUTO) == 500 && summary.getCount((ApprovalLevel) null) == 500,
+                    "Approval breakdown should split evenly");
+
+            aggLog.rebuildDailyAggregates();
+            assertTrue(aggLog.getDailySummary(LocalDate.of(2024, 5, 2)).getCount() == 1000, "Rebuild should match");
+
+            Path journal = Files.createTempFile("tx-journal", ".bin");
+            try {
+                new TransactionExporter(aggLog).exportBinary(journal, null);
+                TransactionLog restarted = new TransactionLog(clock);
+                restarted.loadDailyAggregates(journal);
+                DailySummary replayed = restarted.getDailySummary(LocalDate.of(2024, 5, 2));
+                assertTrue(replayed.getCount(TransactionType.DEPOSIT) == 1000 && replayed.getFailures() == 100,
+                        "Journal replay should restore the aggregates");
+                restarted.loadDailyAggregates(journal);
+                assertTrue(restarted.getDailySummary(LocalDate.of(2024, 5, 2)).getCount() == 1000,
+                        "Loading twice should not double-count");
+            } finally {
+                Files.deleteIfExists(journal);
+            }
+
+            Path live = Files.createTempFile("tx-journal", ".log");
+            try {
+                TransactionLog first = new TransactionLog(clock);
+                assertTrue(first.openJournal(live) == 0, "A new journal has no rows");
+                for (int i = 0; i < 5; i++) {
+                    first.addRecord(new bank.transactions.history.TransactionRecord(i, TransactionType.DEPOSIT, acc, acc,
+                            clock.millis(), 10.0, "J", Role.TELLER, true, null, null));
+                }
+                first.closeJournal();
+                // Simulate a crash in the middle of an append
+                Files.write(live, new byte[] {0, 0, 0, 7}, java.nio.file.StandardOpenOption.APPEND);
+
+                TransactionLog second = new TransactionLog(clock);
+                assertTrue(second.openJournal(live) == 5, "Complete rows should be replayed");
+                assertTrue(second.getDailySummary(LocalDate.of(2024, 5, 2)).getTotalAmount() == 50.0,
+                        "Aggregates should be recovered without an export");
+                second.addRecord(new bank.transactions.history.TransactionRecord(9, TransactionType.DEPOSIT, acc, acc,
+                        clock.millis(), 10.0, "J", Role.TELLER, true, null, null));
+                // An oversized string is cut for that record only; the journal stays open
+                second.addRecord(new bank.transactions.history.TransactionRecord(10, TransactionType.DEPOSIT, acc, acc,
+                        clock.millis(), 10.0, "J", Role.TELLER, false,
+                        "é".repeat(TransactionExporter.MAX_STRING_BYTES), null));
+                second.addRecord(new bank.transactions.history.TransactionRecord(11, TransactionType.DEPOSIT, acc, acc,
+                        clock.millis(), 10.0, "J", Role.TELLER, true, null, null));
+                second.syncJournal();
+                assertTrue(second.getJournalError() == null && second.getJournalTruncationCount() == 1,
+                        "Validation of one record should not disable the journal");
+                second.closeJournal();
+                String[] cut = new String[1];
+                new bank.transactions.history.BinaryJournalReader(true).read(live, row -> {
+                    if (row.getTransactionId() == 10) cut[0] = row.getFailureReason();
+                });
+                assertTrue(cut[0] != null && cut[0].length() == TransactionExporter.MAX_STRING_BYTES / 2
+                        && cut[0].chars().allMatch(c -> c == 'é'), "Truncation should keep whole characters");
+                TransactionLog third = new TransactionLog(clock);
+                assertTrue(third.openJournal(live) == 8 && third.getJournalError() == null,
+                        "Appends should resume after the torn row");
+                third.closeJournal();
+            } finally {
+                Files.deleteIfExists(live);
+            }
+        });
+
+        test("Cached reports are single-flight and invalidated by account and log changes", () -> {
+            ManualBankClock clock = ManualBankClock.at(LocalDateTime.of(2024, 6, 3, 9, 0));
+            TransactionLog cLog = new TransactionLog(clock);
+            TransactionService cService = new TransactionService(validator, cLog, new ConsoleNotificationService(), clock);
+            java.util.concurrent.atomic.AtomicInteger summaries = new java.util.concurrent.atomic.AtomicInteger();
+            bank.admin.AccountSummaryEngine slowEngine = new bank.admin.AccountSummaryEngine() {
+                @Override
+                public bank.admin.AccountSummary summarize(java.util.List<? extends bank.accounts.Account> accounts) {
+                    summaries.incrementAndGet();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.summarize(accounts);
+                }
+            };
+            bank.admin.CachingReportingService reports =
+                    new bank.admin.CachingReportingService(cLog, slowEngine, java.time.Duration.ofMinutes(1));
+            SavingAccount cached = new SavingAccount("Cached", 1000.0);
+            java.util.List<bank.accounts.Account> accounts = java.util.List.of(cached);
+
+            Thread[] viewers = new Thread[8];
+            for (int v = 0; v < viewers.length; v++) {
+                viewers[v] = new Thread(() -> reports.summarizeAccounts(accounts));
+                viewers[v].start();
+            }
+            for (Thread v : viewers) v.join();
+            assertTrue(summaries.get() == 1, "Concurrent viewers should share one computation");
+            assertTrue(reports.summarizeAccounts(accounts).getTotalBalance() == 1000.0, "Summary should be cached");
+            assertTrue(reports.getAccountSummaryStats().getLoads() == 1, "Cached summary should not reload");
+
+            cService.deposit(cached, 250.0, "Cached", Role.CUSTOMER);
+            assertTrue(reports.summarizeAccounts(accounts).getTotalBalance() == 1250.0, "Deposit should invalidate the summary");
+            assertFalse(cached.hasObservers(), "The cache should not attach to accounts");
+            cached.changeStateQuietly(bank.accounts.states.AccountStates.FROZEN);
+            assertTrue(reports.summarizeAccounts(accounts).getCount(bank.accounts.AccountStatus.FROZEN) == 1,
+                    "Quiet state changes should invalidate the summary");
+            cached.changeStateQuietly(bank.accounts.states.AccountStates.ACTIVE);
+            assertTrue(reports.getDailySummary().getCount() == 1, "Daily totals should include the deposit");
+            assertTrue(reports.getAuditRecords().getRecords().size() == 1 && reports.getAuditRecords().getRecords().size() == 1,
+                    "Audit log should be cached");
+            assertTrue(reports.getAuditLogStats().getHits() == 1 && reports.getAuditLogStats().getLoads() == 1,
+                    "Second audit read should be a hit");
+
+            cService.deposit(cached, 10.0, "Cached", Role.CUSTOMER);
+            assertTrue(reports.getDailySummary().getCount() == 2, "New records should invalidate the daily totals");
+            reports.getDailySummary();
+            clock.advance(java.time.Duration.ofMinutes(2));
+            reports.getDailySummary();
+            assertTrue(reports.getDailySummaryStats().getLoads() == 3, "Expired totals should be recomputed");
+            clock.advanceDays(1);
+            assertTrue(reports.getDailySummary().getCount() == 0, "A new day should not serve yesterday's totals");
+            reports.close();
+        });
+
+        test("Operations and schedules resolve accounts by id through the repository", () -> {
+            ManualBankClock clock = ManualBankClock.at(LocalDateTime.of(2024, 7, 1, 9, 0));
+            bank.accounts.repository.InMemoryAccountRepository repository = new bank.accounts.repository.InMemoryAccountRepository();
+            SavingAccount byId = new SavingAccount("ById", 1000.0);
+            SavingAccount other = new SavingAccount("Other", 1000.0);
+            repository.save(byId);
+            repository.save(other);
+            TransactionService idService = new TransactionService(validator, new TransactionLog(clock),
+                    new ConsoleNotificationService(), clock, repository);
+            assertTrue(idService.deposit(byId.getId(), 100.0, "ById", Role.CUSTOMER), "Deposit by id should succeed");
+            assertTrue(idService.transfer(byId.getId(), other.getId(), 50.0, "ById", Role.CUSTOMER), "Transfer by id should succeed");
+            assertFalse(idService.withdraw(-1L, 10.0, "ById", Role.CUSTOMER), "Unknown ids should fail");
+            new bank.transactions.scheduler.ScheduledTransaction(TransactionType.DEPOSIT, other.getId(), 0L, 25.0,
+                    "Other", Role.CUSTOMER, clock.today(), 30).runIfDue(clock.today(), idService);
+            assertTrue(byId.getBalance() == 1050.0 && other.getBalance() == 1075.0, "Balances should reflect id-based operations");
+        });
+        test("Observers run after the account locks are released", () -> {
+            TransactionService lockedService = new TransactionService(validator, new TransactionLog(),
+                    new ConsoleNotificationService());
+            SavingAccount watched = new SavingAccount("Watched", 1000.0);
+            SavingAccount other = new SavingAccount("Other", 1000.0);
+            boolean[] nestedDone = new boolean[2];
+            watched.attach(message -> {
+                if (!message.startsWith("Successfully deposited")) return;
+                // Another thread transacting on the same account would block if its lock were still held
+                Thread nested = new Thread(() -> nestedDone[0] = lockedService.transfer(other, watched, 10.0,
+                        "Other", Role.CUSTOMER));
+                nested.start();
+                try {
+                    nested.join(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                nestedDone[1] = !nested.isAlive();
+            });
+            assertTrue(lockedService.deposit(watched, 100.0, "Watched", Role.CUSTOMER), "Deposit should succeed");
+            assertTrue(nestedDone[1] && nestedDone[0] && watched.getBalance() == 1110.0,
+                    "An observer should be able to transact on the account it watches");
+        });
+        test("Large-transaction alert and custom subscriptions run on the shared event bus", () -> {
+            java.util.List<String> alerts = new java.util.ArrayList<>();
+            java.util.List<String> otherAlerts = new java.util.ArrayList<>();
+            TransactionService local = new TransactionService(validator, new TransactionLog(), alerts::add);
+            TransactionService otherService = new TransactionService(validator, new TransactionLog(), otherAlerts::add);
+            assertTrue(local.getEventBus() == bank.events.EventBus.shared(), "Services should publish on the shared bus by default");
+            assertTrue(local.getEventBus().isRouted(bank.events.EventTopic.TRANSACTION, null,
+                    TransactionType.DEPOSIT.ordinal(), TransactionService.LARGE_TRANSACTION_THRESHOLD)
+                    && !local.getEventBus().isRouted(bank.events.EventTopic.TRANSACTION, null,
+                    TransactionType.DEPOSIT.ordinal(), 500.0), "Only amounts some subscription accepts are routed");
+            java.util.List<bank.events.TransactionEvent> transfers = new java.util.ArrayList<>();
+            bank.events.Subscription subscription = local.getEventBus().subscribeTransactions(
+                    new bank.events.EventFilter(bank.events.EventTopic.TRANSACTION).ofType(TransactionType.TRANSFER),
+                    transfers::add);
+            SavingAccount rich = new SavingAccount("Rich", 100000.0);
+            SavingAccount other = new SavingAccount("Other", 100.0);
+            local.deposit(rich, 500.0, "Rich", Role.ADMIN);
+            local.deposit(rich, 25000.0, "Rich", Role.ADMIN);
+            local.transfer(rich, other, 1000.0, "Rich", Role.ADMIN);
+            assertTrue(alerts.size() == 1 && alerts.get(0).equals("Large deposit $25000.0 by Rich"),
+                    "Only the deposit over the threshold should alert: " + alerts);
+            assertTrue(otherAlerts.isEmpty(), "Another service should not alert for these transactions: " + otherAlerts);
+            assertTrue(transfers.size() == 1 && transfers.get(0).isSuccess()
+                    && transfers.get(0).getTargetAccount() == other, "Transfer subscriber should see the transfer");
+            subscription.cancel();
+            local.transfer(rich, other, 1000.0, "Rich", Role.ADMIN);
+            assertTrue(transfers.size() == 1, "Cancelled subscriber should not be called");
+            local.close();
+            otherService.close();
+            local.deposit(rich, 25000.0, "Rich", Role.ADMIN);
+            assertTrue(alerts.size() == 1, "A closed service should no longer alert");
+        });
+
     }
 
     private void test(String name, TestRunnable r) {